@@ -0,0 +1,27 @@
+package com.creator.mybatis.benchmarks;
+
+import com.creator.mybatis.session.SqlSessionFactoryBuilder;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 基准测试共用的设置
+ */
+final class Benchmarks {
+
+    /**
+     * 持有引用，避免 Logger 被回收后级别设置失效
+     */
+    private static final Logger BUILDER_LOG = Logger.getLogger(SqlSessionFactoryBuilder.class.getName());
+
+    private Benchmarks() {
+    }
+
+    /**
+     * 每次构建工厂都会输出启动报告，基准测试中只保留警告
+     */
+    static void quietStartupLog() {
+        BUILDER_LOG.setLevel(Level.WARNING);
+    }
+}
@@ -0,0 +1,101 @@
+package com.creator.mybatis.benchmarks;
+
+import com.creator.mybatis.benchmarks.jdbc.StubDriver;
+import com.creator.mybatis.benchmarks.jdbc.StubTable;
+import com.creator.mybatis.datasource.unpooled.UnpooledDataSource;
+import com.creator.mybatis.session.SqlSessionFactory;
+import com.creator.mybatis.session.SqlSessionFactoryBuilder;
+import org.dom4j.DocumentException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * SqlSessionFactoryBuilder 解析 mapper.xml
+ * 启动时在临时目录生成 mappers 个文件，每个文件 statements 条语句，静态与动态语句各占一半。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MapperParsingBenchmark {
+
+    @Param({"10", "50"})
+    public int mappers;
+
+    @Param({"20"})
+    public int statements;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private Path directory;
+    private String searchPath;
+    private UnpooledDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Benchmarks.quietStartupLog();
+        StubDriver.register();
+        directory = Files.createTempDirectory("esbatis-mappers");
+        for (int m = 0; m < mappers; m++) {
+            Files.write(directory.resolve("Mapper" + m + ".xml"), mapper(m).getBytes(StandardCharsets.UTF_8));
+        }
+        searchPath = directory.toUri() + "*.xml";
+        dataSource = new UnpooledDataSource(Collections.singletonMap("url", StubTable.url(0, "article")));
+    }
+
+    private String mapper(int index) {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n")
+                .append("<mapper namespace=\"com.creator.mybatis.benchmarks.Mapper").append(index).append("\">\n");
+        for (int s = 0; s < statements; s++) {
+            xml.append("    <select id=\"select").append(s).append("\" resultType=\"com.creator.mybatis.benchmarks.model.Article\">\n");
+            if ((s & 1) == 0) {
+                xml.append("        SELECT * FROM article WHERE category_id = #{categoryId} AND create_by = #{createBy}\n");
+            } else {
+                xml.append("        SELECT * FROM article\n")
+                        .append("        <where>\n")
+                        .append("            <if test=\"title != null\">AND title = #{title}</if>\n")
+                        .append("            <if test=\"ids != null\">AND id IN <foreach collection=\"ids\" item=\"id\" open=\"(\" close=\")\" separator=\",\">#{id}</foreach></if>\n")
+                        .append("        </where>\n");
+            }
+            xml.append("    </select>\n");
+        }
+        return xml.append("</mapper>\n").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SqlSessionFactory build() throws IOException, DocumentException {
+        return new SqlSessionFactoryBuilder().setLazyMapperLoading(lazy).build(dataSource, searchPath);
+    }
+}
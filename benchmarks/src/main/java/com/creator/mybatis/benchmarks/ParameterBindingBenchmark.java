@@ -0,0 +1,93 @@
+package com.creator.mybatis.benchmarks;
+
+import com.creator.mybatis.benchmarks.jdbc.StubConnection;
+import com.creator.mybatis.benchmarks.jdbc.StubPreparedStatement;
+import com.creator.mybatis.benchmarks.jdbc.StubTable;
+import com.creator.mybatis.benchmarks.model.ArticleQuery;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参数绑定：单值、Map 与对象参数
+ * 与执行器一致，每次绑定都经过 Configuration 查找已编译的绑定计划。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ParameterBindingBenchmark {
+
+    private Configuration configuration;
+    private StubPreparedStatement statement;
+    private XNode single;
+    private XNode multiple;
+    private Long id;
+    private Map<String, Object> map;
+    private ArticleQuery query;
+
+    @Setup
+    public void setup() throws SQLException {
+        configuration = new Configuration();
+        statement = (StubPreparedStatement) new StubConnection(StubTable.forUrl(StubTable.url(0, "article"))).prepareStatement("");
+        single = statement("selectById", "SELECT * FROM article WHERE id = ?", "id");
+        multiple = statement("selectByQuery", "SELECT * FROM article WHERE title = ? AND category_id = ? AND create_by = ?",
+                "title", "categoryId", "createBy");
+        id = 42L;
+        map = new HashMap<>();
+        map.put("title", "title");
+        map.put("categoryId", 7L);
+        map.put("createBy", 1L);
+        query = new ArticleQuery();
+        query.setTitle("title");
+        query.setCategoryId(7L);
+        query.setCreateBy(1L);
+    }
+
+    private static XNode statement(String id, String sql, String... parameterNames) {
+        XNode xNode = new XNode();
+        xNode.setNamespace("com.creator.mybatis.benchmarks.ArticleMapper");
+        xNode.setId(id);
+        xNode.setSql(sql);
+        Map<Integer, String> parameter = new HashMap<>();
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameter.put(i + 1, parameterNames[i]);
+        }
+        xNode.setParameter(parameter);
+        return xNode;
+    }
+
+    @Benchmark
+    public Object singleValue() throws SQLException {
+        configuration.getParameterBinder(single, id).bind(statement, id);
+        return statement.getParameter(1);
+    }
+
+    @Benchmark
+    public Object mapParameter() throws SQLException {
+        configuration.getParameterBinder(multiple, map).bind(statement, map);
+        return statement.getParameter(3);
+    }
+
+    @Benchmark
+    public Object beanParameter() throws SQLException {
+        configuration.getParameterBinder(multiple, query).bind(statement, query);
+        return statement.getParameter(3);
+    }
+}
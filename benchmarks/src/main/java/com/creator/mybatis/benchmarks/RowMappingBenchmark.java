@@ -0,0 +1,90 @@
+package com.creator.mybatis.benchmarks;
+
+import com.creator.mybatis.benchmarks.jdbc.StubConnection;
+import com.creator.mybatis.benchmarks.jdbc.StubPreparedStatement;
+import com.creator.mybatis.benchmarks.jdbc.StubResultSet;
+import com.creator.mybatis.benchmarks.jdbc.StubTable;
+import com.creator.mybatis.benchmarks.model.Article;
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果集到对象的逐行映射
+ * prebuiltPlan 只测量 mapRow；cachedPlan 与执行器一致，每个结果集都按元数据查找一次映射计划。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RowMappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private Configuration configuration;
+    private StubPreparedStatement statement;
+    private RowMappingPlan plan;
+
+    @Setup
+    public void setup() throws SQLException {
+        configuration = new Configuration();
+        StubConnection connection = new StubConnection(StubTable.forUrl(StubTable.url(rows, "article")));
+        statement = (StubPreparedStatement) connection.prepareStatement("SELECT * FROM article");
+        try (ResultSet resultSet = statement.executeQuery()) {
+            plan = RowMappingPlan.build(configuration.getReflectorFactory().findForClass(Article.class), resultSet.getMetaData(),
+                    configuration.getTypeHandlerRegistry(), configuration.isMapUnderscoreToCamelCase());
+        }
+    }
+
+    @Benchmark
+    public void prebuiltPlan(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(plan.<Article>mapRow(resultSet));
+            }
+        }
+    }
+
+    @Benchmark
+    public void cachedPlan(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            RowMappingPlan plan = configuration.getRowMappingPlan(Article.class, resultSet.getMetaData());
+            while (resultSet.next()) {
+                blackhole.consume(plan.<Article>mapRow(resultSet));
+            }
+        }
+    }
+
+    /**
+     * 只读取列值不映射，作为桩驱动本身开销的基线
+     */
+    @Benchmark
+    public void readOnly(Blackhole blackhole) throws SQLException {
+        try (StubResultSet resultSet = (StubResultSet) statement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    blackhole.consume(resultSet.getObject(i));
+                }
+            }
+        }
+    }
+}
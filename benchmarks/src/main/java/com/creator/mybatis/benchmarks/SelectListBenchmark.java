@@ -0,0 +1,78 @@
+package com.creator.mybatis.benchmarks;
+
+import com.creator.mybatis.benchmarks.jdbc.StubDriver;
+import com.creator.mybatis.benchmarks.jdbc.StubTable;
+import com.creator.mybatis.benchmarks.model.Article;
+import com.creator.mybatis.benchmarks.model.ArticleQuery;
+import com.creator.mybatis.datasource.pooled.PooledDataSource;
+import com.creator.mybatis.session.SqlSession;
+import com.creator.mybatis.session.SqlSessionFactory;
+import com.creator.mybatis.session.SqlSessionFactoryBuilder;
+import org.dom4j.DocumentException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端的 selectList：打开会话、借出池化连接、执行语句、映射全部行、关闭会话
+ * static 为带一个参数的静态语句，dynamic 为带 where/if/foreach 的动态语句。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SelectListBenchmark {
+
+    private static final String NAMESPACE = "com.creator.mybatis.benchmarks.ArticleMapper.";
+
+    @Param({"10", "1000"})
+    public int rows;
+
+    @Param({"static", "dynamic"})
+    public String statement;
+
+    private SqlSessionFactory sqlSessionFactory;
+    private String statementId;
+    private Object parameter;
+
+    @Setup
+    public void setup() throws IOException, DocumentException {
+        Benchmarks.quietStartupLog();
+        StubDriver.register();
+        PooledDataSource dataSource = new PooledDataSource(Collections.singletonMap("url", StubTable.url(rows, "article")));
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(dataSource, "classpath*:mapper/*.xml");
+        if ("static".equals(statement)) {
+            statementId = NAMESPACE + "selectByCategory";
+            parameter = 7L;
+        } else {
+            ArticleQuery query = new ArticleQuery();
+            query.setTitle("title");
+            query.setIds(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+            statementId = NAMESPACE + "selectByQuery";
+            parameter = query;
+        }
+    }
+
+    @Benchmark
+    public List<Article> selectList() throws IOException {
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            return session.selectList(statementId, parameter);
+        }
+    }
+}
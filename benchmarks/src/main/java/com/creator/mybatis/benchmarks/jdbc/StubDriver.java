@@ -0,0 +1,70 @@
+package com.creator.mybatis.benchmarks.jdbc;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * 内存桩驱动，处理 jdbc:esbatis-stub: 开头的地址
+ * 任何 SQL 都返回地址所描述的 StubTable，不做解析，基准测试可以离线运行。
+ */
+public class StubDriver implements Driver {
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 确保驱动已注册，配置中通过 driver 属性指定类名时也会触发
+     */
+    public static void register() {
+        //类加载时已在静态块中注册
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        return new StubConnection(StubTable.forUrl(url));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return null != url && url.startsWith(StubTable.URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,193 @@
+package com.creator.mybatis.benchmarks.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * 桩语句，记录绑定的参数，executeQuery 返回整张 StubTable（受 maxRows 限制）
+ */
+public class StubPreparedStatement extends UnsupportedPreparedStatement {
+
+    private final StubConnection connection;
+    private final StubTable table;
+    private Object[] parameters = new Object[8];
+    private int fetchSize;
+    private int maxRows;
+    private int queryTimeout;
+    private boolean closed;
+
+    public StubPreparedStatement(StubConnection connection, StubTable table) {
+        this.connection = connection;
+        this.table = table;
+    }
+
+    /**
+     * 已绑定的参数值，下标从 1 开始
+     * @param parameterIndex
+     * @return
+     */
+    public Object getParameter(int parameterIndex) {
+        return parameterIndex < parameters.length ? parameters[parameterIndex] : null;
+    }
+
+    private void set(int parameterIndex, Object value) throws SQLException {
+        if (parameterIndex < 1) {
+            throw new SQLException("Invalid parameter index " + parameterIndex);
+        }
+        if (parameterIndex >= parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(parameters.length * 2, parameterIndex + 1));
+        }
+        parameters[parameterIndex] = value;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        checkOpen();
+        return new StubResultSet(this, table, maxRows);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return executeQuery();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        set(parameterIndex, null);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        set(parameterIndex, x);
+    }
+
+    @Override
+    public void clearParameters() {
+        Arrays.fill(parameters, null);
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize(int rows) {
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    @Override
+    public void setMaxRows(int max) {
+        this.maxRows = max;
+    }
+
+    @Override
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) {
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() {
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.creator.mybatis.benchmarks.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * 遍历 StubTable 的只进结果集
+ * 类型化的 getter 按常见驱动的规则在数字与字符串之间转换，SQL NULL 通过 wasNull 报告。
+ */
+public class StubResultSet extends UnsupportedResultSet {
+
+    private final Statement statement;
+    private final StubTable table;
+    private final int rowCount;
+    private int row = -1;
+    private Object[] current;
+    private boolean wasNull;
+    private int fetchSize;
+    private boolean closed;
+
+    /**
+     * @param statement
+     * @param table
+     * @param maxRows 为 0 时不限制
+     */
+    public StubResultSet(Statement statement, StubTable table, int maxRows) {
+        this.statement = statement;
+        this.table = table;
+        this.rowCount = maxRows > 0 ? Math.min(maxRows, table.getRowCount()) : table.getRowCount();
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("ResultSet is closed");
+        }
+        if (row + 1 >= rowCount) {
+            row = rowCount;
+            current = null;
+            return false;
+        }
+        current = table.row(++row);
+        return true;
+    }
+
+    private Object value(int columnIndex) throws SQLException {
+        if (null == current) {
+            throw new SQLException("No current row");
+        }
+        if (columnIndex < 1 || columnIndex > current.length) {
+            throw new SQLException("Invalid column index " + columnIndex);
+        }
+        Object value = current[columnIndex - 1];
+        wasNull = null == value;
+        return value;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return wasNull;
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return value(columnIndex);
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        return null == value ? null : value.toString();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return null != value && Boolean.parseBoolean(value.toString());
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return null == value ? 0 : parse(value).intValue();
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return null == value ? 0 : parse(value).longValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return null == value ? 0 : parse(value).doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (null == value || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return parse(value);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (null == value || value instanceof Timestamp) {
+            return (Timestamp) value;
+        }
+        if (value instanceof Number) {
+            return new Timestamp(((Number) value).longValue());
+        }
+        throw new SQLException("Cannot convert " + value.getClass().getName() + " to Timestamp");
+    }
+
+    private static BigDecimal parse(Object value) throws SQLException {
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException("Cannot convert '" + value + "' to a number", e);
+        }
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        int index = table.indexOf(columnLabel);
+        if (index < 0) {
+            throw new SQLException("Column not found: " + columnLabel);
+        }
+        return index + 1;
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() {
+        return new StubResultSetMetaData(table);
+    }
+
+    @Override
+    public Statement getStatement() {
+        return statement;
+    }
+
+    @Override
+    public int getType() {
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize(int rows) {
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() {
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.creator.mybatis.benchmarks.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * StubTable 的列信息
+ */
+public class StubResultSetMetaData implements ResultSetMetaData {
+
+    private final StubTable table;
+
+    public StubResultSetMetaData(StubTable table) {
+        this.table = table;
+    }
+
+    private int index(int column) throws SQLException {
+        if (column < 1 || column > table.getColumnCount()) {
+            throw new SQLException("Invalid column index " + column);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return table.getColumnCount();
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return table.getColumnName(index(column));
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        return getColumnName(column);
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return table.getColumnType(index(column)).getJdbcType();
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        return table.getColumnType(index(column)).name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        return table.getColumnType(index(column)).getJavaType().getName();
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        index(column);
+        return 32;
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        index(column);
+        return 0;
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        index(column);
+        return 0;
+    }
+
+    @Override
+    public String getCatalogName(int column) {
+        return "";
+    }
+
+    @Override
+    public String getSchemaName(int column) {
+        return "";
+    }
+
+    @Override
+    public String getTableName(int column) {
+        return "stub";
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isCurrency(int column) {
+        return false;
+    }
+
+    @Override
+    public int isNullable(int column) {
+        return columnNullable;
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        switch (table.getColumnType(index(column))) {
+            case LONG:
+            case INT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isSearchable(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isReadOnly(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
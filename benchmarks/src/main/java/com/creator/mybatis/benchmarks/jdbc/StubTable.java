@@ -0,0 +1,207 @@
+package com.creator.mybatis.benchmarks.jdbc;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 桩驱动返回的内存表
+ * 列值在创建时按 (行, 列) 确定性地生成一次，之后每次查询都返回同样的数据，基准只测量框架本身的开销。
+ * <p>
+ * 通过连接地址描述表结构：
+ * <pre>
+ * jdbc:esbatis-stub:rows=1000;columns=id:long,title:string,create_time:timestamp
+ * jdbc:esbatis-stub:rows=1000;columns=article
+ * </pre>
+ * 列类型支持 long、int、double、boolean、string、timestamp，columns=article 为与 Article 对应的 9 列。
+ */
+public final class StubTable {
+
+    public enum ColumnType {
+        LONG(Types.BIGINT, Long.class),
+        INT(Types.INTEGER, Integer.class),
+        DOUBLE(Types.DOUBLE, Double.class),
+        BOOLEAN(Types.BOOLEAN, Boolean.class),
+        STRING(Types.VARCHAR, String.class),
+        TIMESTAMP(Types.TIMESTAMP, Timestamp.class);
+
+        private final int jdbcType;
+        private final Class<?> javaType;
+
+        ColumnType(int jdbcType, Class<?> javaType) {
+            this.jdbcType = jdbcType;
+            this.javaType = javaType;
+        }
+
+        public int getJdbcType() {
+            return jdbcType;
+        }
+
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        Object value(int row, int column) {
+            switch (this) {
+                case LONG:
+                    return (long) row * 31 + column;
+                case INT:
+                    return row * 31 + column;
+                case DOUBLE:
+                    return row + column / 100.0;
+                case BOOLEAN:
+                    return (row + column & 1) == 0;
+                case TIMESTAMP:
+                    return new Timestamp(1_600_000_000_000L + row * 60_000L);
+                default:
+                    return "value-" + row + "-" + column;
+            }
+        }
+    }
+
+    public static final String URL_PREFIX = "jdbc:esbatis-stub:";
+
+    private static final String ARTICLE_COLUMNS = "id:long,title:string,content:string,summary:string,category_id:long,"
+            + "is_top:string,tags:long,create_by:long,create_time:timestamp";
+
+    private static final Map<String, StubTable> TABLES = new ConcurrentHashMap<>();
+
+    private final String[] columnNames;
+    private final ColumnType[] columnTypes;
+    private final Object[][] rows;
+
+    public StubTable(String[] columnNames, ColumnType[] columnTypes, int rowCount) {
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.rows = new Object[rowCount][];
+        for (int r = 0; r < rowCount; r++) {
+            Object[] row = new Object[columnTypes.length];
+            for (int c = 0; c < columnTypes.length; c++) {
+                row[c] = columnTypes[c].value(r, c);
+            }
+            rows[r] = row;
+        }
+    }
+
+    /**
+     * 按连接地址获取表，相同地址的连接共用同一份数据
+     * @param url
+     * @return
+     */
+    public static StubTable forUrl(String url) {
+        StubTable table = TABLES.get(url);
+        if (null == table) {
+            table = parse(url.substring(URL_PREFIX.length()));
+            StubTable previous = TABLES.putIfAbsent(url, table);
+            if (null != previous) {
+                table = previous;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 生成连接地址
+     * @param rows
+     * @param columns 列定义，或 article
+     * @return
+     */
+    public static String url(int rows, String columns) {
+        return URL_PREFIX + "rows=" + rows + ";columns=" + columns;
+    }
+
+    /**
+     * 生成 columnCount 列的定义，类型按 types 循环
+     * @param columnCount
+     * @param types
+     * @return
+     */
+    public static String columns(int columnCount, ColumnType... types) {
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                columns.append(',');
+            }
+            columns.append("c").append(i).append(':').append(types[i % types.length].name().toLowerCase(Locale.ROOT));
+        }
+        return columns.toString();
+    }
+
+    static StubTable parse(String spec) {
+        int rowCount = 0;
+        String columns = "article";
+        for (String option : spec.split(";")) {
+            int eq = option.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String name = option.substring(0, eq).trim();
+            String value = option.substring(eq + 1).trim();
+            if ("rows".equals(name)) {
+                rowCount = Integer.parseInt(value);
+            } else if ("columns".equals(name)) {
+                columns = value;
+            } else {
+                throw new IllegalArgumentException("Unknown stub table option: " + name);
+            }
+        }
+        if ("article".equals(columns)) {
+            columns = ARTICLE_COLUMNS;
+        }
+        List<String> names = new ArrayList<>();
+        List<ColumnType> types = new ArrayList<>();
+        for (String column : columns.split(",")) {
+            int colon = column.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Column must be name:type, got " + column);
+            }
+            names.add(column.substring(0, colon).trim());
+            types.add(ColumnType.valueOf(column.substring(colon + 1).trim().toUpperCase(Locale.ROOT)));
+        }
+        return new StubTable(names.toArray(new String[0]), types.toArray(new ColumnType[0]), rowCount);
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    public ColumnType getColumnType(int column) {
+        return columnTypes[column];
+    }
+
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    Object[] row(int row) {
+        return rows[row];
+    }
+
+    /**
+     * 按列名查找下标（从 0 开始），不区分大小写
+     * @param columnName
+     * @return 找不到时为 -1
+     */
+    public int indexOf(String columnName) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "StubTable" + Arrays.toString(columnNames) + " x " + rows.length;
+    }
+}
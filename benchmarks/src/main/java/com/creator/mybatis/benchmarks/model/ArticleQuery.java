@@ -0,0 +1,49 @@
+package com.creator.mybatis.benchmarks.model;
+
+import java.util.List;
+
+/**
+ * 查询条件，用于对象参数的绑定与动态 SQL
+ */
+public class ArticleQuery {
+
+    private String title;
+
+    private Long categoryId;
+
+    private Long createBy;
+
+    private List<Long> ids;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCreateBy() {
+        return createBy;
+    }
+
+    public void setCreateBy(Long createBy) {
+        this.createBy = createBy;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,12 @@
+package com.creator.mybatis.binding;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+public class BindingException extends PersistenceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BindingException(String message) {
+        super(message);
+    }
+}
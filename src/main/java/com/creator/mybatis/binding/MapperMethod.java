@@ -0,0 +1,233 @@
+package com.creator.mybatis.binding;
+
+import com.creator.mybatis.annotations.Param;
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.PrimitiveArray;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+import com.creator.mybatis.session.SqlSession;
+import com.creator.mybatis.session.defaults.DefaultSqlSession;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * mapper 接口方法的调用计划
+ * 语句、返回方式与参数名在首次调用时解析一次，之后的调用直接执行。
+ */
+public class MapperMethod {
+
+    private enum ReturnKind {
+        ONE, MANY, CURSOR, HANDLER, COLUMN
+    }
+
+    private final String statementId;
+    private final XNode xNode;
+    private final ReturnKind returnKind;
+    private final Class<?> returnType;
+    /**
+     * 返回类型不能直接接收 ArrayList 时（如 Set）创建返回的集合，否则为空
+     */
+    private final Supplier<Object> collectionFactory;
+    /**
+     * 参数名，只有一个未命名参数时为空，直接传递参数本身
+     */
+    private final String[] paramNames;
+    /**
+     * 参数在 args 中的下标，跳过 ResultHandler 与 RowBounds
+     */
+    private final int[] paramIndexes;
+    private final int resultHandlerIndex;
+    private final int rowBoundsIndex;
+
+    public MapperMethod(Class<?> mapperInterface, Method method, Configuration configuration) {
+        this.statementId = mapperInterface.getName() + "." + method.getName();
+        this.xNode = configuration.getMappedStatement(statementId);
+        if (null == xNode) {
+            throw new BindingException("Invalid bound statement (not found): " + statementId);
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        int handlerIndex = -1;
+        int boundsIndex = -1;
+        int count = 0;
+        boolean named = false;
+        String[] names = new String[parameterTypes.length];
+        int[] indexes = new int[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+                if (handlerIndex >= 0) {
+                    throw new BindingException(statementId + " cannot have multiple ResultHandler parameters");
+                }
+                handlerIndex = i;
+                continue;
+            }
+            if (RowBounds.class.isAssignableFrom(parameterTypes[i])) {
+                if (boundsIndex >= 0) {
+                    throw new BindingException(statementId + " cannot have multiple RowBounds parameters");
+                }
+                boundsIndex = i;
+                continue;
+            }
+            String name = "arg" + count;
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof Param) {
+                    name = ((Param) annotation).value();
+                    named = true;
+                }
+            }
+            names[count] = name;
+            indexes[count] = i;
+            count++;
+        }
+        this.resultHandlerIndex = handlerIndex;
+        this.rowBoundsIndex = boundsIndex;
+        this.paramIndexes = Arrays.copyOf(indexes, count);
+        this.paramNames = count == 1 && !named ? null : Arrays.copyOf(names, count);
+        this.returnType = method.getReturnType();
+        this.returnKind = returnKind(method);
+        this.collectionFactory = returnKind == ReturnKind.MANY ? collectionFactory(configuration) : null;
+    }
+
+    /**
+     * List、Collection 直接返回查询得到的 ArrayList；Set 接口转为 LinkedHashSet，保持查询顺序；
+     * 其他集合类需要有无参构造器
+     */
+    private Supplier<Object> collectionFactory(Configuration configuration) {
+        if (returnType.isAssignableFrom(ArrayList.class)) {
+            return null;
+        }
+        if (returnType.isAssignableFrom(LinkedHashSet.class)) {
+            return LinkedHashSet::new;
+        }
+        if (returnType.isInterface() || Modifier.isAbstract(returnType.getModifiers())
+                || !configuration.getReflectorFactory().findForClass(returnType).hasDefaultConstructor()) {
+            throw new BindingException(statementId + " returns " + returnType.getName()
+                    + ", which is neither assignable from ArrayList nor a collection class with a default constructor");
+        }
+        return configuration.getReflectorFactory().findForClass(returnType).getConstructor();
+    }
+
+    private ReturnKind returnKind(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (void.class == returnType) {
+            if (resultHandlerIndex < 0) {
+                throw new BindingException(statementId + " returns void but has no ResultHandler parameter");
+            }
+            return ReturnKind.HANDLER;
+        }
+        if (Cursor.class.isAssignableFrom(returnType)) {
+            return ReturnKind.CURSOR;
+        }
+        if (Collection.class.isAssignableFrom(returnType)) {
+            return ReturnKind.MANY;
+        }
+        //long[]、LongArray 等按原始类型读取单列
+        if (null != PrimitiveArray.forType(returnType)) {
+            return ReturnKind.COLUMN;
+        }
+        return ReturnKind.ONE;
+    }
+
+    public Object execute(SqlSession sqlSession, Object[] args) {
+        Object parameter = parameter(args);
+        if (sqlSession instanceof DefaultSqlSession) {
+            //直接使用解析好的语句，不再按 id 查找
+            DefaultSqlSession session = (DefaultSqlSession) sqlSession;
+            switch (returnKind) {
+                case MANY:
+                    return collection(session.selectList(xNode, parameter, rowBounds(args)));
+                case COLUMN:
+                    return column(session.selectColumn(xNode, parameter, rowBounds(args), PrimitiveArray.forType(returnType)));
+                case CURSOR:
+                    return session.selectCursor(xNode, parameter);
+                case HANDLER:
+                    session.select(xNode, parameter, (ResultHandler<?>) args[resultHandlerIndex]);
+                    return null;
+                default:
+                    return one(session.selectOne(xNode, parameter));
+            }
+        }
+        switch (returnKind) {
+            case MANY:
+                return collection(sqlSession.selectList(statementId, parameter, rowBounds(args)));
+            case COLUMN:
+                return column(sqlSession.selectColumn(statementId, parameter, rowBounds(args), PrimitiveArray.forType(returnType)));
+            case CURSOR:
+                return sqlSession.selectCursor(statementId, parameter);
+            case HANDLER:
+                sqlSession.select(statementId, parameter, (ResultHandler<?>) args[resultHandlerIndex]);
+                return null;
+            default:
+                return one(sqlSession.selectOne(statementId, parameter));
+        }
+    }
+
+    /**
+     * 原始类型的返回值不能为 null，否则代理拆箱时抛出 NullPointerException
+     */
+    private Object one(Object result) {
+        if (null == result && returnType.isPrimitive()) {
+            throw new BindingException("Mapper method " + statementId + " attempted to return null from a method with a primitive return type ("
+                    + returnType + ")");
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object collection(List<Object> list) {
+        if (null == list || null == collectionFactory) {
+            return list;
+        }
+        Collection<Object> collection = (Collection<Object>) collectionFactory.get();
+        collection.addAll(list);
+        return collection;
+    }
+
+    /**
+     * 返回类型是原始类型数组时转换，否则直接返回 LongArray 等
+     */
+    private Object column(PrimitiveArray column) {
+        if (null == column || !returnType.isArray()) {
+            return column;
+        }
+        return column.toArray();
+    }
+
+    private RowBounds rowBounds(Object[] args) {
+        if (rowBoundsIndex < 0 || null == args[rowBoundsIndex]) {
+            return RowBounds.DEFAULT;
+        }
+        return (RowBounds) args[rowBoundsIndex];
+    }
+
+    /**
+     * 单个未命名参数直接传递，否则按参数名（以及 param1、param2...）放入 Map
+     */
+    private Object parameter(Object[] args) {
+        if (paramIndexes.length == 0) {
+            return null;
+        }
+        if (null == paramNames) {
+            return args[paramIndexes[0]];
+        }
+        Map<String, Object> param = new HashMap<>(paramIndexes.length * 4);
+        for (int i = 0; i < paramIndexes.length; i++) {
+            Object value = args[paramIndexes[i]];
+            param.put(paramNames[i], value);
+            param.put("param" + (i + 1), value);
+        }
+        return param;
+    }
+}
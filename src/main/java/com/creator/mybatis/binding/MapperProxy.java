@@ -0,0 +1,56 @@
+package com.creator.mybatis.binding;
+
+import com.creator.mybatis.session.SqlSession;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * mapper 接口的代理，按 Method 取出缓存的调用计划执行
+ * @param <T>
+ */
+public class MapperProxy<T> implements InvocationHandler {
+
+    private final SqlSession sqlSession;
+    private final Class<T> mapperInterface;
+    private final Map<Method, MapperMethod> methodCache;
+
+    public MapperProxy(SqlSession sqlSession, Class<T> mapperInterface, Map<Method, MapperMethod> methodCache) {
+        this.sqlSession = sqlSession;
+        this.mapperInterface = mapperInterface;
+        this.methodCache = methodCache;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (Object.class.equals(method.getDeclaringClass())) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return mapperInterface.getName() + " proxy";
+                default:
+                    return method.invoke(this, args);
+            }
+        }
+        if (method.isDefault()) {
+            throw new BindingException("Default method " + mapperInterface.getName() + "." + method.getName() + " is not supported");
+        }
+        return cachedMapperMethod(method).execute(sqlSession, args);
+    }
+
+    private MapperMethod cachedMapperMethod(Method method) {
+        MapperMethod mapperMethod = methodCache.get(method);
+        if (null == mapperMethod) {
+            mapperMethod = new MapperMethod(mapperInterface, method, sqlSession.getConfiguration());
+            MapperMethod existing = methodCache.putIfAbsent(method, mapperMethod);
+            if (null != existing) {
+                mapperMethod = existing;
+            }
+        }
+        return mapperMethod;
+    }
+}
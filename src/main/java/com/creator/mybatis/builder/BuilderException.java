@@ -0,0 +1,19 @@
+package com.creator.mybatis.builder;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+/**
+ * 解析配置或 mapper.xml 出错时抛出
+ */
+public class BuilderException extends PersistenceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BuilderException(String message) {
+        super(message);
+    }
+
+    public BuilderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
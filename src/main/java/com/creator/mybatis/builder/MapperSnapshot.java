@@ -0,0 +1,258 @@
+package com.creator.mybatis.builder;
+
+import com.creator.mybatis.builder.xml.MapperResource;
+import com.creator.mybatis.builder.xml.XMLMapperBuilder;
+import com.creator.mybatis.cache.CacheBuilder;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.scripting.DynamicSqlSource;
+import com.creator.mybatis.scripting.XMLScriptBuilder;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentHelper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已解析语句的二进制快照
+ * 文件头记录全部 mapper.xml 内容的 SHA-256，只有内容完全一致时才使用快照，否则重新解析 XML。
+ */
+public class MapperSnapshot {
+
+    private static final int MAGIC = 0x45534253;
+    private static final int VERSION = 3;
+
+    private final byte[] checksum;
+    private final List<XNode> statements;
+    private final Map<String, CacheBuilder> cacheBuilders;
+
+    public MapperSnapshot(byte[] checksum, List<XNode> statements, Map<String, CacheBuilder> cacheBuilders) {
+        this.checksum = checksum;
+        this.statements = statements;
+        this.cacheBuilders = cacheBuilders;
+    }
+
+    public List<XNode> getStatements() {
+        return statements;
+    }
+
+    public Map<String, CacheBuilder> getCacheBuilders() {
+        return cacheBuilders;
+    }
+
+    /**
+     * 读取全部资源的内容，返回以内存数据为输入的资源，避免解析时再次读取
+     * @param resources
+     * @return
+     * @throws Exception
+     */
+    public static List<MapperResource> readAll(List<MapperResource> resources) throws Exception {
+        List<MapperResource> list = new ArrayList<>(resources.size());
+        for (MapperResource resource : resources) {
+            byte[] content;
+            try (InputStream inputStream = resource.open()) {
+                content = toByteArray(inputStream);
+            }
+            list.add(new MapperResource(resource.getDescription(), content));
+        }
+        return list;
+    }
+
+    /**
+     * 按顺序计算全部资源的描述与内容的摘要
+     * @param resources 通过 readAll 读取过的资源
+     * @return
+     */
+    public static byte[] checksum(List<MapperResource> resources) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BuilderException("SHA-256 is not available", e);
+        }
+        for (MapperResource resource : resources) {
+            digest.update(resource.getDescription().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(resource.getContent());
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 读取快照，文件不存在、格式不符或摘要不一致时返回 null
+     * @param file
+     * @param checksum
+     * @return
+     * @throws IOException
+     */
+    public static MapperSnapshot read(Path file, byte[] checksum) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readUnsignedByte()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, checksum)) {
+                return null;
+            }
+            int cacheCount = in.readInt();
+            Map<String, CacheBuilder> cacheBuilders = new LinkedHashMap<>();
+            for (int i = 0; i < cacheCount; i++) {
+                CacheBuilder cacheBuilder = new CacheBuilder(readString(in))
+                        .eviction(readString(in))
+                        .size(in.readInt())
+                        .references(readString(in));
+                long flushInterval = in.readLong();
+                cacheBuilder.flushInterval(flushInterval < 0 ? null : flushInterval);
+                cacheBuilders.put(cacheBuilder.getId(), cacheBuilder);
+            }
+            int statementCount = in.readInt();
+            List<XNode> statements = new ArrayList<>(statementCount);
+            for (int i = 0; i < statementCount; i++) {
+                XNode xNode = new XNode();
+                xNode.setNamespace(readString(in));
+                xNode.setId(readString(in));
+                xNode.setResource(readString(in));
+                xNode.setParameterType(readString(in));
+                xNode.setResultType(readString(in));
+                xNode.setSql(readString(in));
+                int parameterCount = in.readInt();
+                Map<Integer, String> parameter = new HashMap<>();
+                for (int j = 1; j <= parameterCount; j++) {
+                    parameter.put(j, readString(in));
+                }
+                xNode.setParameter(parameter);
+                int fetchSize = in.readInt();
+                xNode.setFetchSize(fetchSize < 0 ? null : fetchSize);
+                int timeout = in.readInt();
+                xNode.setTimeout(timeout < 0 ? null : timeout);
+                byte pruneColumns = in.readByte();
+                xNode.setPruneColumns(pruneColumns < 0 ? null : pruneColumns == 1);
+                xNode.setUseCache(in.readBoolean());
+                String script = readString(in);
+                if (null != script) {
+                    xNode.setScript(script);
+                    xNode.setSqlSource(parseScript(script));
+                }
+                statements.add(xNode);
+            }
+            return new MapperSnapshot(checksum, statements, cacheBuilders);
+        }
+    }
+
+    /**
+     * 写入快照，先写临时文件再替换，避免其他进程读到不完整的文件
+     * @param file
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(checksum.length);
+                out.write(checksum);
+                out.writeInt(cacheBuilders.size());
+                for (CacheBuilder cacheBuilder : cacheBuilders.values()) {
+                    writeString(out, cacheBuilder.getId());
+                    writeString(out, cacheBuilder.getEviction());
+                    out.writeInt(cacheBuilder.getSize());
+                    writeString(out, cacheBuilder.getReferences());
+                    out.writeLong(null == cacheBuilder.getFlushInterval() ? -1 : cacheBuilder.getFlushInterval());
+                }
+                out.writeInt(statements.size());
+                for (XNode xNode : statements) {
+                    writeString(out, xNode.getNamespace());
+                    writeString(out, xNode.getId());
+                    writeString(out, xNode.getResource());
+                    writeString(out, xNode.getParameterType());
+                    writeString(out, xNode.getResultType());
+                    writeString(out, xNode.getSql());
+                    Map<Integer, String> parameter = xNode.getParameter();
+                    out.writeInt(parameter.size());
+                    for (int j = 1; j <= parameter.size(); j++) {
+                        writeString(out, parameter.get(j));
+                    }
+                    out.writeInt(null == xNode.getFetchSize() ? -1 : xNode.getFetchSize());
+                    out.writeInt(null == xNode.getTimeout() ? -1 : xNode.getTimeout());
+                    out.writeByte(null == xNode.getPruneColumns() ? -1 : xNode.getPruneColumns() ? 1 : 0);
+                    out.writeBoolean(xNode.isUseCache());
+                    writeString(out, xNode.getScript());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 按快照中的定义创建各命名空间的缓存，并关联到使用缓存的语句
+     */
+    public void attachCaches() {
+        XMLMapperBuilder.attachCaches(cacheBuilders, statements);
+    }
+
+    /**
+     * 动态语句以原始 XML 保存，加载时重新构建节点树
+     */
+    private static DynamicSqlSource parseScript(String script) throws IOException {
+        try {
+            return new XMLScriptBuilder(DocumentHelper.parseText(script).getRootElement()).parseScriptNode();
+        } catch (DocumentException e) {
+            throw new IOException("Invalid statement script in snapshot", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toByteArray(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
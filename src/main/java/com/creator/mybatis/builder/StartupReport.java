@@ -0,0 +1,61 @@
+package com.creator.mybatis.builder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动各阶段的耗时
+ */
+public class StartupReport {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private int mapperCount;
+    private int statementCount;
+
+    /**
+     * 记录一个阶段的耗时
+     * @param phase
+     * @param startNanos 阶段开始时的 System.nanoTime()
+     */
+    public synchronized void record(String phase, long startNanos) {
+        phases.put(phase, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 阶段名 -> 耗时（纳秒），按记录顺序
+     * @return
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+
+    public int getMapperCount() {
+        return mapperCount;
+    }
+
+    public void setMapperCount(int mapperCount) {
+        this.mapperCount = mapperCount;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public void setStatementCount(int statementCount) {
+        this.statementCount = statementCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("Startup: ")
+                .append(mapperCount).append(" mappers, ")
+                .append(statementCount).append(" statements");
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            builder.append(", ").append(entry.getKey()).append('=')
+                    .append(TimeUnit.NANOSECONDS.toMillis(entry.getValue())).append("ms");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.creator.mybatis.builder.xml;
+
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.parsing.XNode;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 延迟加载 mapper 时使用的 命名空间 -> 资源 索引
+ * 启动时只读取每个 mapper.xml 根元素的 namespace，首次请求某个命名空间的语句时才完整解析对应的文件，且只解析一次。
+ */
+public class LazyMapperIndex {
+
+    private final Map<String, Entry> entries;
+
+    private LazyMapperIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static LazyMapperIndex build(List<MapperResource> resources) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        //只读取根元素，不加载 DTD
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        Map<String, Entry> entries = new HashMap<>();
+        for (MapperResource resource : resources) {
+            String namespace = readNamespace(factory, resource);
+            Entry entry = entries.get(namespace);
+            if (null == entry) {
+                entry = new Entry();
+                entries.put(namespace, entry);
+            }
+            //同一命名空间可以分布在多个文件中，加载时一起解析
+            entry.resources.add(resource);
+        }
+        return new LazyMapperIndex(entries);
+    }
+
+    private static String readNamespace(XMLInputFactory factory, MapperResource resource) {
+        try (InputStream inputStream = resource.open()) {
+            XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        String namespace = reader.getAttributeValue(null, "namespace");
+                        if (null == namespace) {
+                            throw new BuilderException("Mapper " + resource + " has no namespace");
+                        }
+                        return namespace;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (BuilderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BuilderException("Error reading namespace of mapper " + resource, e);
+        }
+        throw new BuilderException("Mapper " + resource + " has no root element");
+    }
+
+    /**
+     * 加载命名空间对应的 mapper，已加载时直接返回
+     * @param namespace
+     * @param registrar 接收解析出的语句，在标记为已加载之前调用；失败时不能留下部分注册的语句
+     * @return 命名空间不存在时返回 false
+     * @throws BuilderException 解析或注册失败，之后每次加载该命名空间都以同一原因失败
+     */
+    public boolean load(String namespace, Consumer<List<XNode>> registrar) {
+        Entry entry = entries.get(namespace);
+        if (null == entry) {
+            return false;
+        }
+        entry.load(namespace, registrar);
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 已加载的 mapper 数量
+     * @return
+     */
+    public int loadedCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.loaded) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class Entry {
+
+        private final List<MapperResource> resources = new ArrayList<>(1);
+        private volatile boolean loaded;
+        /**
+         * 解析或注册失败的原因，之后的请求直接抛出，不再重复解析
+         */
+        private volatile BuilderException failure;
+
+        private void load(String namespace, Consumer<List<XNode>> registrar) {
+            if (loaded) {
+                return;
+            }
+            synchronized (this) {
+                if (loaded) {
+                    return;
+                }
+                if (null == failure) {
+                    try {
+                        List<XMLMapperBuilder> builders = new ArrayList<>(resources.size());
+                        List<XNode> statements = new ArrayList<>();
+                        for (MapperResource resource : resources) {
+                            XMLMapperBuilder builder = new XMLMapperBuilder(resource);
+                            try {
+                                statements.addAll(builder.parse());
+                            } catch (Exception e) {
+                                throw new BuilderException("Error parsing mapper " + resource, e);
+                            }
+                            builders.add(builder);
+                        }
+                        XMLMapperBuilder.attachCaches(XMLMapperBuilder.cacheBuilders(builders), statements);
+                        registrar.accept(statements);
+                        loaded = true;
+                        return;
+                    } catch (RuntimeException e) {
+                        failure = e instanceof BuilderException ? (BuilderException) e : new BuilderException("Error registering mapper " + resources, e);
+                    }
+                }
+                throw new BuilderException("Error loading mapper namespace " + namespace, failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.creator.mybatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * 待解析的 mapper.xml 资源
+ */
+public class MapperResource {
+
+    private final String description;
+    private final Callable<InputStream> opener;
+    /**
+     * 已读入内存的内容，未读取时为空
+     */
+    private final byte[] content;
+
+    /**
+     * @param description 资源描述，用于错误信息
+     * @param opener 打开资源的输入流
+     */
+    public MapperResource(String description, Callable<InputStream> opener) {
+        this.description = description;
+        this.opener = opener;
+        this.content = null;
+    }
+
+    /**
+     * @param description 资源描述
+     * @param content 已读入内存的内容
+     */
+    public MapperResource(String description, byte[] content) {
+        this.description = description;
+        this.opener = () -> new ByteArrayInputStream(content);
+        this.content = content;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public InputStream open() throws Exception {
+        return opener.call();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,172 @@
+package com.creator.mybatis.builder.xml;
+
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.cache.Cache;
+import com.creator.mybatis.cache.CacheBuilder;
+import com.creator.mybatis.parsing.GenericTokenParser;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.scripting.XMLScriptBuilder;
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+import org.xml.sax.InputSource;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析单个 mapper.xml，得到其中的语句
+ * 每个实例只在一个线程中使用，多个 mapper 可以并行解析。
+ */
+public class XMLMapperBuilder {
+
+    private final MapperResource resource;
+    private CacheBuilder cacheBuilder;
+    private List<XNode> statements;
+
+    public XMLMapperBuilder(MapperResource resource) {
+        this.resource = resource;
+    }
+
+    public List<XNode> parse() throws Exception {
+        SAXReader saxReader = new SAXReader();
+        //使用本地 DTD，避免解析时访问网络
+        saxReader.setEntityResolver(new XMLMapperEntityResolver());
+        Document document;
+        try (InputStream inputStream = resource.open()) {
+            document = saxReader.read(new InputSource(inputStream));
+        }
+        statements = parseElement(document.getRootElement());
+        return statements;
+    }
+
+    public MapperResource getResource() {
+        return resource;
+    }
+
+    /**
+     * 解析得到的语句，parse() 之前为空
+     * @return
+     */
+    public List<XNode> getStatements() {
+        return statements;
+    }
+
+    /**
+     * 命名空间的 &lt;cache&gt; 配置，未配置时为空
+     * @return
+     */
+    public CacheBuilder getCacheBuilder() {
+        return cacheBuilder;
+    }
+
+    /**
+     * 汇总各 mapper 的 &lt;cache&gt; 配置
+     * 同一命名空间可以分布在多个文件中，但只能在其中一个文件中配置 &lt;cache&gt;。
+     * @param builders 已解析的 mapper
+     * @return 命名空间 -> 缓存配置
+     */
+    public static Map<String, CacheBuilder> cacheBuilders(List<XMLMapperBuilder> builders) {
+        Map<String, CacheBuilder> cacheBuilders = new LinkedHashMap<>();
+        Map<String, MapperResource> declaredIn = new HashMap<>();
+        for (XMLMapperBuilder builder : builders) {
+            CacheBuilder cacheBuilder = builder.getCacheBuilder();
+            if (null == cacheBuilder) {
+                continue;
+            }
+            MapperResource existing = declaredIn.putIfAbsent(cacheBuilder.getId(), builder.getResource());
+            if (null != existing) {
+                throw new BuilderException("Cache for namespace " + cacheBuilder.getId() + " is declared in both "
+                        + existing + " and " + builder.getResource());
+            }
+            cacheBuilders.put(cacheBuilder.getId(), cacheBuilder);
+        }
+        return cacheBuilders;
+    }
+
+    /**
+     * 每个命名空间创建一个缓存，关联到该命名空间中所有使用缓存的语句，包括其他文件中的语句
+     * @param cacheBuilders 命名空间 -> 缓存配置
+     * @param statements
+     */
+    public static void attachCaches(Map<String, CacheBuilder> cacheBuilders, Collection<XNode> statements) {
+        Map<String, Cache> caches = new HashMap<>();
+        for (CacheBuilder cacheBuilder : cacheBuilders.values()) {
+            caches.put(cacheBuilder.getId(), cacheBuilder.build());
+        }
+        for (XNode xNode : statements) {
+            xNode.setCache(xNode.isUseCache() ? caches.get(xNode.getNamespace()) : null);
+        }
+    }
+
+    private List<XNode> parseElement(Element root) {
+        //命名空间
+        String namespace = root.attributeValue("namespace");
+        cacheElement(namespace, root.element("cache"));
+
+        // SELECT
+        List<Element> selectNodes = root.elements("select");
+        List<XNode> list = new ArrayList<>(selectNodes.size());
+        for (Element node : selectNodes) {
+            String id = node.attributeValue("id");
+            String parameterType = node.attributeValue("parameterType");
+            String resultType = node.attributeValue("resultType");
+            String fetchSize = node.attributeValue("fetchSize");
+            String timeout = node.attributeValue("timeout");
+            String pruneColumns = node.attributeValue("pruneColumns");
+            String useCache = node.attributeValue("useCache");
+
+            XNode xNode = new XNode();
+            if (XMLScriptBuilder.isDynamic(node)) {
+                //动态 SQL 在执行时求值
+                xNode.setSqlSource(new XMLScriptBuilder(node).parseScriptNode());
+                xNode.setScript(node.asXML());
+                xNode.setParameter(new HashMap<>());
+            } else {
+                // #{} 替换为 ?，按出现顺序记录参数名
+                Map<Integer, String> parameter = new HashMap<>();
+                String sql = new GenericTokenParser("#{", "}", content -> {
+                    parameter.put(parameter.size() + 1, content);
+                    return "?";
+                }).parse(node.getText());
+                xNode.setSql(sql);
+                xNode.setParameter(parameter);
+            }
+            xNode.setNamespace(namespace);
+            xNode.setId(id);
+            xNode.setResource(resource.getDescription());
+            xNode.setParameterType(parameterType);
+            xNode.setResultType(resultType);
+            xNode.setFetchSize(null == fetchSize ? null : Integer.valueOf(fetchSize));
+            xNode.setTimeout(null == timeout ? null : Integer.valueOf(timeout));
+            xNode.setPruneColumns(null == pruneColumns ? null : Boolean.valueOf(pruneColumns));
+            //缓存由 attachCaches 按命名空间统一关联
+            xNode.setUseCache(!"false".equals(useCache));
+            list.add(xNode);
+        }
+        return list;
+    }
+
+    /**
+     * 解析命名空间的 &lt;cache&gt; 配置
+     * @param namespace
+     * @param element
+     */
+    private void cacheElement(String namespace, Element element) {
+        if (null == element) {
+            return;
+        }
+        String size = element.attributeValue("size");
+        String flushInterval = element.attributeValue("flushInterval");
+        cacheBuilder = new CacheBuilder(namespace)
+                .eviction(element.attributeValue("eviction"))
+                .size(null == size ? null : Integer.valueOf(size))
+                .flushInterval(null == flushInterval ? null : Long.valueOf(flushInterval))
+                .references(element.attributeValue("references"));
+    }
+}
@@ -0,0 +1,22 @@
+package com.creator.mybatis.cache;
+
+/**
+ * 缓存接口，以 mapper 命名空间为单位
+ */
+public interface Cache {
+
+    /**
+     * 缓存 id，即 mapper 的命名空间
+     */
+    String getId();
+
+    void putObject(Object key, Object value);
+
+    Object getObject(Object key);
+
+    Object removeObject(Object key);
+
+    void clear();
+
+    int getSize();
+}
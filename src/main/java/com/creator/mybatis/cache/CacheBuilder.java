@@ -0,0 +1,112 @@
+package com.creator.mybatis.cache;
+
+import com.creator.mybatis.cache.decorators.FifoCache;
+import com.creator.mybatis.cache.decorators.LruCache;
+import com.creator.mybatis.cache.decorators.ReferenceCache;
+import com.creator.mybatis.cache.decorators.StatisticsCache;
+import com.creator.mybatis.cache.decorators.SynchronizedCache;
+import com.creator.mybatis.cache.decorators.TtlCache;
+import com.creator.mybatis.cache.impl.PerpetualCache;
+
+/**
+ * 根据 mapper.xml 中的 &lt;cache&gt; 配置组装缓存
+ * 装饰顺序：淘汰策略 -> 过期 -> 引用类型 -> 同步 -> 统计
+ * 引用类型在淘汰策略之外：值被回收后条目仍留在淘汰策略的键列表中，直到读取时经 removeObject 一并移除，
+ * 不会因重新写入而在键列表中重复；引用也直接指向缓存的值，而不是过期时间的包装对象。
+ */
+public class CacheBuilder {
+
+    private final String id;
+    private String eviction = "LRU";
+    private int size = 1024;
+    private Long flushInterval;
+    private String references = "STRONG";
+
+    public CacheBuilder(String id) {
+        this.id = id;
+    }
+
+    public CacheBuilder eviction(String eviction) {
+        if (null != eviction) {
+            this.eviction = eviction;
+        }
+        return this;
+    }
+
+    public CacheBuilder size(Integer size) {
+        if (null != size) {
+            this.size = size;
+        }
+        return this;
+    }
+
+    /**
+     * 条目的存活时间（毫秒），为空时不过期
+     * @param flushInterval
+     * @return
+     */
+    public CacheBuilder flushInterval(Long flushInterval) {
+        this.flushInterval = flushInterval;
+        return this;
+    }
+
+    public CacheBuilder references(String references) {
+        if (null != references) {
+            this.references = references;
+        }
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEviction() {
+        return eviction;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public String getReferences() {
+        return references;
+    }
+
+    public StatisticsCache build() {
+        if (size <= 0) {
+            throw new CacheException("Cache size must be positive in namespace " + id);
+        }
+        Cache cache = new PerpetualCache(id);
+        switch (eviction.toUpperCase()) {
+            case "LRU":
+                cache = new LruCache(cache, size);
+                break;
+            case "FIFO":
+                cache = new FifoCache(cache, size);
+                break;
+            default:
+                throw new CacheException("Unknown cache eviction '" + eviction + "' in namespace " + id);
+        }
+        if (null != flushInterval && flushInterval > 0) {
+            cache = new TtlCache(cache, flushInterval);
+        }
+        switch (references.toUpperCase()) {
+            case "STRONG":
+                break;
+            case "SOFT":
+                cache = new ReferenceCache(cache, true);
+                break;
+            case "WEAK":
+                cache = new ReferenceCache(cache, false);
+                break;
+            default:
+                throw new CacheException("Unknown cache references '" + references + "' in namespace " + id);
+        }
+        return new StatisticsCache(new SynchronizedCache(cache));
+    }
+}
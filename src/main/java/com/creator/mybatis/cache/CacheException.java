@@ -0,0 +1,12 @@
+package com.creator.mybatis.cache;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+public class CacheException extends PersistenceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CacheException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.creator.mybatis.cache;
+
+import java.util.Arrays;
+
+/**
+ * 查询结果的缓存键：语句 id + SQL + 绑定的参数值 + 其他影响结果的条件
+ */
+public final class CacheKey {
+
+    private final String statementId;
+    private final String sql;
+    private final Object[] values;
+    private final int hashCode;
+
+    public CacheKey(String statementId, String sql, Object... values) {
+        this.statementId = statementId;
+        this.sql = sql;
+        this.values = values;
+        int hash = statementId.hashCode();
+        hash = 31 * hash + sql.hashCode();
+        hash = 31 * hash + Arrays.deepHashCode(values);
+        this.hashCode = hash;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public Object[] getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey that = (CacheKey) o;
+        return hashCode == that.hashCode
+                && statementId.equals(that.statementId)
+                && sql.equals(that.sql)
+                && Arrays.deepEquals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return statementId + ":" + Arrays.deepToString(values);
+    }
+}
@@ -0,0 +1,43 @@
+package com.creator.mybatis.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存命中统计
+ */
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hit = getHits();
+        long total = hit + getMisses();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", hitRatio=" + getHitRatio() +
+                '}';
+    }
+}
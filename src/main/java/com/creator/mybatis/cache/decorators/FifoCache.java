@@ -0,0 +1,59 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 按写入顺序淘汰，限制缓存条目数
+ */
+public class FifoCache implements Cache {
+
+    private final Cache delegate;
+    private final Deque<Object> keyList = new ArrayDeque<>();
+    private final int size;
+
+    public FifoCache(Cache delegate, int size) {
+        this.delegate = delegate;
+        this.size = size;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        if (null == delegate.getObject(key)) {
+            keyList.addLast(key);
+            if (keyList.size() > size) {
+                delegate.removeObject(keyList.removeFirst());
+            }
+        }
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        keyList.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        keyList.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+}
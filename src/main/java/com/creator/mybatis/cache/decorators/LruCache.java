@@ -0,0 +1,71 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按最近最少使用淘汰，限制缓存条目数
+ */
+public class LruCache implements Cache {
+
+    private final Cache delegate;
+    private final LinkedHashMap<Object, Object> keyMap;
+    private Object eldestKey;
+
+    public LruCache(Cache delegate, int size) {
+        this.delegate = delegate;
+        this.keyMap = new LinkedHashMap<Object, Object>(size, .75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                boolean tooBig = size() > size;
+                if (tooBig) {
+                    eldestKey = eldest.getKey();
+                }
+                return tooBig;
+            }
+        };
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+        keyMap.put(key, key);
+        if (null != eldestKey) {
+            delegate.removeObject(eldestKey);
+            eldestKey = null;
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        //更新访问顺序
+        keyMap.get(key);
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        keyMap.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        keyMap.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+}
@@ -0,0 +1,61 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+
+/**
+ * 以软引用或弱引用保存缓存值，内存紧张时值可被 GC 回收
+ */
+public class ReferenceCache implements Cache {
+
+    private final Cache delegate;
+    private final boolean soft;
+
+    public ReferenceCache(Cache delegate, boolean soft) {
+        this.delegate = delegate;
+        this.soft = soft;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, soft ? new SoftReference<>(value) : new WeakReference<>(value));
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Reference<?> reference = (Reference<?>) delegate.getObject(key);
+        if (null == reference) {
+            return null;
+        }
+        Object value = reference.get();
+        if (null == value) {
+            //值已被回收
+            delegate.removeObject(key);
+        }
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Reference<?> reference = (Reference<?>) delegate.removeObject(key);
+        return null == reference ? null : reference.get();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+}
@@ -0,0 +1,57 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+import com.creator.mybatis.cache.CacheStats;
+
+/**
+ * 统计命中与未命中次数
+ */
+public class StatisticsCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheStats stats = new CacheStats();
+
+    public StatisticsCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.getObject(key);
+        if (null == value) {
+            stats.miss();
+        } else {
+            stats.hit();
+        }
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+
+/**
+ * 使缓存可以被多个会话并发访问
+ */
+public class SynchronizedCache implements Cache {
+
+    private final Cache delegate;
+
+    public SynchronizedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public synchronized void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public synchronized Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return delegate.getSize();
+    }
+}
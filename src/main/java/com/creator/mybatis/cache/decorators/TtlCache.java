@@ -0,0 +1,66 @@
+package com.creator.mybatis.cache.decorators;
+
+import com.creator.mybatis.cache.Cache;
+
+/**
+ * 条目写入超过 ttl 毫秒后视为过期
+ */
+public class TtlCache implements Cache {
+
+    private final Cache delegate;
+    private final long ttl;
+
+    public TtlCache(Cache delegate, long ttl) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, new Entry(value, System.currentTimeMillis() + ttl));
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Entry entry = (Entry) delegate.getObject(key);
+        if (null == entry) {
+            return null;
+        }
+        if (System.currentTimeMillis() > entry.expireAt) {
+            delegate.removeObject(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Entry entry = (Entry) delegate.removeObject(key);
+        return null == entry ? null : entry.value;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
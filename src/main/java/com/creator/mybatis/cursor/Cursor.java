@@ -0,0 +1,42 @@
+package com.creator.mybatis.cursor;
+
+import java.io.Closeable;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 游标：逐行读取并映射结果，内存占用只与 fetchSize 有关
+ * 游标占用连接上的语句与结果集，使用完毕必须关闭；会话关闭时会关闭其打开的所有游标。
+ * @param <T>
+ */
+public interface Cursor<T> extends Closeable, Iterable<T> {
+
+    /**
+     * 是否已开始读取且未关闭
+     */
+    boolean isOpen();
+
+    /**
+     * 是否已读取完所有行
+     */
+    boolean isConsumed();
+
+    /**
+     * 当前行下标，尚未读取时为 -1
+     */
+    int getCurrentIndex();
+
+    @Override
+    void close();
+
+    /**
+     * 以 Stream 的方式读取，关闭 Stream 时关闭游标
+     * @return
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+}
@@ -0,0 +1,138 @@
+package com.creator.mybatis.cursor.defaults;
+
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 基于 JDBC 结果集的游标，行在迭代时才被映射
+ * @param <T>
+ */
+public class DefaultCursor<T> implements Cursor<T> {
+
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RowMappingPlan plan;
+    /**
+     * 关闭时回调，用于从执行器的打开游标列表中移除
+     */
+    private final Consumer<DefaultCursor<?>> closeListener;
+
+    private int currentIndex = -1;
+    private boolean iteratorRetrieved;
+    private boolean consumed;
+    private boolean closed;
+
+    public DefaultCursor(Statement statement, ResultSet resultSet, RowMappingPlan plan, Consumer<DefaultCursor<?>> closeListener) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.plan = plan;
+        this.closeListener = closeListener;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return iteratorRetrieved && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        if (closed) {
+            throw new IllegalStateException("A Cursor is already closed.");
+        }
+        iteratorRetrieved = true;
+        return new CursorIterator();
+    }
+
+    /**
+     * 读取下一行，没有更多行时关闭游标并返回 null
+     * @return
+     */
+    private T fetchNextObject() {
+        if (closed) {
+            return null;
+        }
+        try {
+            if (resultSet.next()) {
+                currentIndex++;
+                return plan.mapRow(resultSet);
+            }
+        } catch (SQLException e) {
+            close();
+            throw new PersistenceException("Error fetching next row from cursor", e);
+        }
+        consumed = true;
+        close();
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException ignore) {
+            // 关闭失败不影响后续使用
+        }
+        try {
+            statement.close();
+        } catch (SQLException ignore) {
+            // 关闭失败不影响后续使用
+        }
+        if (null != closeListener) {
+            closeListener.accept(this);
+        }
+    }
+
+    private class CursorIterator implements Iterator<T> {
+
+        /**
+         * 预读的下一行
+         */
+        private T object;
+
+        @Override
+        public boolean hasNext() {
+            if (null == object) {
+                object = fetchNextObject();
+            }
+            return null != object;
+        }
+
+        @Override
+        public T next() {
+            T next = object;
+            if (null == next) {
+                next = fetchNextObject();
+            }
+            if (null == next) {
+                throw new NoSuchElementException();
+            }
+            object = null;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.creator.mybatis.datasource.pooled;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 连接池状态与监控数据
+ * 所有字段都在持有本对象锁时读写。
+ */
+public class PoolState {
+
+    protected final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    protected final List<PooledConnection> activeConnections = new ArrayList<>();
+
+    protected long requestCount;
+    protected long accumulatedRequestTime;
+    protected long maxRequestTime;
+    protected long hadToWaitCount;
+    protected long accumulatedWaitTime;
+    protected long timedOutCount;
+    protected long badConnectionCount;
+    protected long evictedCount;
+    protected long leakedConnectionCount;
+    protected long accumulatedCheckoutTime;
+    protected long checkinCount;
+
+    /**
+     * 获取连接的次数
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * 平均获取连接耗时（毫秒）
+     */
+    public synchronized long getAverageRequestTime() {
+        return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+    }
+
+    /**
+     * 最长获取连接耗时（毫秒）
+     */
+    public synchronized long getMaxRequestTime() {
+        return maxRequestTime;
+    }
+
+    /**
+     * 因连接池已满而需要等待的次数
+     */
+    public synchronized long getHadToWaitCount() {
+        return hadToWaitCount;
+    }
+
+    /**
+     * 平均等待时间（毫秒），只统计发生过等待的请求，等待超时的请求按实际等待的时间计入
+     */
+    public synchronized long getAverageWaitTime() {
+        return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+    }
+
+    /**
+     * 等待超时、获取连接失败的次数
+     */
+    public synchronized long getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    /**
+     * 校验失败被丢弃的连接数
+     */
+    public synchronized long getBadConnectionCount() {
+        return badConnectionCount;
+    }
+
+    /**
+     * 因空闲过久被回收的连接数
+     */
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * 检测到的疑似泄漏连接数
+     */
+    public synchronized long getLeakedConnectionCount() {
+        return leakedConnectionCount;
+    }
+
+    /**
+     * 连接被借出的平均时长（毫秒）
+     */
+    public synchronized long getAverageCheckoutTime() {
+        return checkinCount == 0 ? 0 : accumulatedCheckoutTime / checkinCount;
+    }
+
+    public synchronized int getIdleConnectionCount() {
+        return idleConnections.size();
+    }
+
+    public synchronized int getActiveConnectionCount() {
+        return activeConnections.size();
+    }
+
+    synchronized List<PooledConnection> drain() {
+        List<PooledConnection> all = new ArrayList<>(idleConnections);
+        all.addAll(activeConnections);
+        idleConnections.clear();
+        activeConnections.clear();
+        return all;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PoolState{" +
+                "active=" + activeConnections.size() +
+                ", idle=" + idleConnections.size() +
+                ", requestCount=" + requestCount +
+                ", averageRequestTime=" + getAverageRequestTime() +
+                ", maxRequestTime=" + maxRequestTime +
+                ", hadToWaitCount=" + hadToWaitCount +
+                ", averageWaitTime=" + getAverageWaitTime() +
+                ", timedOutCount=" + timedOutCount +
+                ", badConnectionCount=" + badConnectionCount +
+                ", evictedCount=" + evictedCount +
+                ", leakedConnectionCount=" + leakedConnectionCount +
+                ", averageCheckoutTime=" + getAverageCheckoutTime() +
+                '}';
+    }
+}
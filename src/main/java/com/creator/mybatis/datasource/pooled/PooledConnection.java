@@ -0,0 +1,179 @@
+package com.creator.mybatis.datasource.pooled;
+
+import com.creator.mybatis.executor.statement.StatementCache;
+import com.creator.mybatis.executor.statement.StatementCacheAware;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 池化连接
+ * 交给调用方的是真实连接的代理，调用 close() 时把连接归还给连接池而不是真正关闭。
+ * 代理同时实现 StatementCacheAware，预编译语句缓存跟随物理连接复用。
+ */
+public class PooledConnection implements InvocationHandler {
+
+    private static final String CLOSE = "close";
+    private static final String IS_CLOSED = "isClosed";
+    private static final Class<?>[] IFACES = new Class<?>[]{Connection.class, StatementCacheAware.class};
+
+    private final PooledDataSource dataSource;
+    private final Connection realConnection;
+    private final Connection proxyConnection;
+    private final long createdTimestamp;
+    private long lastUsedTimestamp;
+    private long checkoutTimestamp;
+    /**
+     * 开启泄漏检测时记录借出连接的调用栈
+     */
+    private Throwable checkoutTrace;
+    private boolean leakReported;
+    private volatile boolean valid;
+    private StatementCache statementCache;
+
+    public PooledConnection(Connection connection, PooledDataSource dataSource) {
+        this(connection, dataSource, System.currentTimeMillis());
+    }
+
+    /**
+     * 归还连接时用同一个真实连接创建新的包装，旧代理随之失效
+     * @param previous
+     */
+    PooledConnection(PooledConnection previous) {
+        this(previous.realConnection, previous.dataSource, previous.createdTimestamp);
+        this.statementCache = previous.statementCache;
+    }
+
+    private PooledConnection(Connection connection, PooledDataSource dataSource, long createdTimestamp) {
+        this.realConnection = connection;
+        this.dataSource = dataSource;
+        this.createdTimestamp = createdTimestamp;
+        this.lastUsedTimestamp = System.currentTimeMillis();
+        this.valid = true;
+        this.proxyConnection = (Connection) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(), IFACES, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        if (CLOSE.equals(methodName)) {
+            if (valid) {
+                dataSource.pushConnection(this);
+            }
+            return null;
+        }
+        if (IS_CLOSED.equals(methodName)) {
+            return !valid || realConnection.isClosed();
+        }
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args);
+        }
+        if (method.getDeclaringClass() == StatementCacheAware.class) {
+            checkConnection();
+            if (null == args) {
+                return statementCache;
+            }
+            statementCache = (StatementCache) args[0];
+            return null;
+        }
+        checkConnection();
+        try {
+            return method.invoke(realConnection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void checkConnection() throws SQLException {
+        if (!valid) {
+            throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
+        }
+    }
+
+    /**
+     * 使当前代理失效，之后再通过旧代理访问会抛出异常
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 关闭物理连接，同时关闭其上缓存的预编译语句
+     * @throws SQLException
+     */
+    void closeRealConnection() throws SQLException {
+        if (null != statementCache) {
+            statementCache.close();
+        }
+        realConnection.close();
+    }
+
+    public Connection getRealConnection() {
+        return realConnection;
+    }
+
+    public Connection getProxyConnection() {
+        return proxyConnection;
+    }
+
+    long getCreatedTimestamp() {
+        return createdTimestamp;
+    }
+
+    long getLastUsedTimestamp() {
+        return lastUsedTimestamp;
+    }
+
+    void setLastUsedTimestamp(long lastUsedTimestamp) {
+        this.lastUsedTimestamp = lastUsedTimestamp;
+    }
+
+    long getCheckoutTimestamp() {
+        return checkoutTimestamp;
+    }
+
+    void setCheckoutTimestamp(long checkoutTimestamp) {
+        this.checkoutTimestamp = checkoutTimestamp;
+    }
+
+    Throwable getCheckoutTrace() {
+        return checkoutTrace;
+    }
+
+    void setCheckoutTrace(Throwable checkoutTrace) {
+        this.checkoutTrace = checkoutTrace;
+        this.leakReported = false;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    @Override
+    public int hashCode() {
+        return realConnection.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PooledConnection) {
+            return realConnection == ((PooledConnection) obj).realConnection;
+        }
+        if (obj instanceof Connection) {
+            return proxyConnection == obj;
+        }
+        return false;
+    }
+}
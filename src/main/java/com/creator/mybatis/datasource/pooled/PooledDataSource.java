@@ -0,0 +1,430 @@
+package com.creator.mybatis.datasource.pooled;
+
+import com.creator.mybatis.datasource.unpooled.UnpooledDataSource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 带连接池的数据源
+ * 支持的 dataSource 属性（时间单位均为毫秒）：
+ * poolMaximumActiveConnections   最大连接数，默认 10
+ * poolMinimumIdleConnections     回收空闲连接时至少保留的个数，默认 0；只限制回收，不会预先创建连接
+ * poolMaximumIdleTime            空闲超过该时间的连接会被回收，默认 600000
+ * poolTimeToWait                 连接池已满时最长等待时间，默认 20000
+ * poolPingEnabled / poolPingQuery / poolPingConnectionsNotUsedFor  借出前的校验
+ * poolLeakDetectionThreshold     连接借出超过该时间未归还时打印借出位置，默认 0（关闭）
+ */
+public class PooledDataSource implements DataSource {
+
+    private static final Logger log = Logger.getLogger(PooledDataSource.class.getName());
+
+    private final PoolState state = new PoolState();
+    /**
+     * 真正创建连接的数据源
+     */
+    private final DataSource dataSource;
+
+    protected int poolMaximumActiveConnections = 10;
+    protected int poolMinimumIdleConnections = 0;
+    protected long poolMaximumIdleTime = 600_000;
+    protected long poolTimeToWait = 20_000;
+    protected boolean poolPingEnabled;
+    protected String poolPingQuery = "SELECT 1";
+    protected long poolPingConnectionsNotUsedFor;
+    protected long poolLeakDetectionThreshold;
+
+    /**
+     * 正在创建中的连接数，已计入最大连接数
+     */
+    private int pendingCount;
+    private boolean closed;
+
+    public PooledDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public PooledDataSource(Map<String, String> properties) {
+        this(new UnpooledDataSource(properties), properties);
+    }
+
+    public PooledDataSource(DataSource dataSource, Map<String, String> properties) {
+        this(dataSource);
+        poolMaximumActiveConnections = intValue(properties, "poolMaximumActiveConnections", poolMaximumActiveConnections);
+        poolMinimumIdleConnections = intValue(properties, "poolMinimumIdleConnections", poolMinimumIdleConnections);
+        poolMaximumIdleTime = longValue(properties, "poolMaximumIdleTime", poolMaximumIdleTime);
+        poolTimeToWait = longValue(properties, "poolTimeToWait", poolTimeToWait);
+        poolPingEnabled = Boolean.parseBoolean(properties.getOrDefault("poolPingEnabled", String.valueOf(poolPingEnabled)));
+        poolPingQuery = properties.getOrDefault("poolPingQuery", poolPingQuery);
+        poolPingConnectionsNotUsedFor = longValue(properties, "poolPingConnectionsNotUsedFor", poolPingConnectionsNotUsedFor);
+        poolLeakDetectionThreshold = longValue(properties, "poolLeakDetectionThreshold", poolLeakDetectionThreshold);
+    }
+
+    private static int intValue(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        return null == value ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longValue(Map<String, String> properties, String name, long defaultValue) {
+        String value = properties.get(name);
+        return null == value ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return popConnection().getProxyConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("PooledDataSource does not support per-call credentials");
+    }
+
+    /**
+     * 借出连接：优先复用最近归还的空闲连接，其次在未达上限时新建，否则等待其他连接归还
+     * @return
+     * @throws SQLException
+     */
+    private PooledConnection popConnection() throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean countedWait = false;
+        while (true) {
+            PooledConnection conn = null;
+            boolean create = false;
+            List<PooledConnection> expired;
+            synchronized (state) {
+                if (closed) {
+                    throw new SQLException("PooledDataSource is closed");
+                }
+                long now = System.currentTimeMillis();
+                expired = evictIdleConnections(now);
+                detectLeaks(now);
+                if (!state.idleConnections.isEmpty()) {
+                    conn = state.idleConnections.pollLast();
+                    state.activeConnections.add(conn);
+                } else if (state.activeConnections.size() + pendingCount < poolMaximumActiveConnections) {
+                    pendingCount++;
+                    create = true;
+                } else {
+                    long remaining = start + poolTimeToWait - now;
+                    if (remaining <= 0) {
+                        state.timedOutCount++;
+                        if (countedWait) {
+                            state.accumulatedWaitTime += now - start;
+                        }
+                        throw new SQLException("Could not get a connection from the pool within " + poolTimeToWait + " ms, " + state);
+                    }
+                    if (!countedWait) {
+                        state.hadToWaitCount++;
+                        countedWait = true;
+                    }
+                    try {
+                        state.wait(remaining);
+                    } catch (InterruptedException e) {
+                        state.accumulatedWaitTime += System.currentTimeMillis() - start;
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection", e);
+                    }
+                    continue;
+                }
+            }
+            closeQuietly(expired);
+
+            if (create) {
+                conn = createConnection();
+            } else if (!pingConnection(conn)) {
+                synchronized (state) {
+                    state.activeConnections.remove(conn);
+                    state.badConnectionCount++;
+                    state.notifyAll();
+                }
+                closeQuietly(conn);
+                continue;
+            }
+
+            Throwable checkoutTrace = poolLeakDetectionThreshold > 0 ? new Throwable("Connection checked out here") : null;
+            long now = System.currentTimeMillis();
+            synchronized (state) {
+                conn.setCheckoutTimestamp(now);
+                conn.setLastUsedTimestamp(now);
+                conn.setCheckoutTrace(checkoutTrace);
+                long requestTime = now - start;
+                state.requestCount++;
+                state.accumulatedRequestTime += requestTime;
+                state.maxRequestTime = Math.max(state.maxRequestTime, requestTime);
+                if (countedWait) {
+                    state.accumulatedWaitTime += requestTime;
+                }
+            }
+            return conn;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection realConnection;
+        try {
+            realConnection = dataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            synchronized (state) {
+                pendingCount--;
+                state.notifyAll();
+            }
+            throw e;
+        }
+        PooledConnection conn = new PooledConnection(realConnection, this);
+        synchronized (state) {
+            pendingCount--;
+            state.activeConnections.add(conn);
+        }
+        return conn;
+    }
+
+    /**
+     * 归还连接
+     * @param conn
+     */
+    void pushConnection(PooledConnection conn) {
+        boolean discard;
+        long now = System.currentTimeMillis();
+        synchronized (state) {
+            if (!state.activeConnections.remove(conn)) {
+                return;
+            }
+            conn.invalidate();
+            state.checkinCount++;
+            state.accumulatedCheckoutTime += now - conn.getCheckoutTimestamp();
+            discard = closed || isClosed(conn.getRealConnection());
+            if (!discard) {
+                PooledConnection newConn = new PooledConnection(conn);
+                newConn.setLastUsedTimestamp(now);
+                state.idleConnections.addLast(newConn);
+            } else {
+                state.badConnectionCount++;
+            }
+            state.notifyAll();
+        }
+        if (discard) {
+            closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 回收空闲过久的连接，至少保留 poolMinimumIdleConnections 个
+     * 空闲队列尾部是最近归还的连接，头部是最久未使用的连接。
+     */
+    private List<PooledConnection> evictIdleConnections(long now) {
+        List<PooledConnection> expired = null;
+        while (state.idleConnections.size() > poolMinimumIdleConnections) {
+            PooledConnection oldest = state.idleConnections.peekFirst();
+            if (now - oldest.getLastUsedTimestamp() <= poolMaximumIdleTime) {
+                break;
+            }
+            state.idleConnections.pollFirst();
+            oldest.invalidate();
+            state.evictedCount++;
+            if (null == expired) {
+                expired = new ArrayList<>();
+            }
+            expired.add(oldest);
+        }
+        return expired;
+    }
+
+    private void detectLeaks(long now) {
+        if (poolLeakDetectionThreshold <= 0) {
+            return;
+        }
+        for (PooledConnection conn : state.activeConnections) {
+            if (conn.isLeakReported() || null == conn.getCheckoutTrace()
+                    || now - conn.getCheckoutTimestamp() <= poolLeakDetectionThreshold) {
+                continue;
+            }
+            conn.setLeakReported(true);
+            state.leakedConnectionCount++;
+            log.log(Level.WARNING, "Connection has been checked out for more than " + poolLeakDetectionThreshold
+                    + " ms, possible connection leak", conn.getCheckoutTrace());
+        }
+    }
+
+    /**
+     * 借出前校验连接是否可用
+     * @param conn
+     * @return
+     */
+    private boolean pingConnection(PooledConnection conn) {
+        Connection realConnection = conn.getRealConnection();
+        if (isClosed(realConnection)) {
+            return false;
+        }
+        if (!poolPingEnabled || System.currentTimeMillis() - conn.getLastUsedTimestamp() <= poolPingConnectionsNotUsedFor) {
+            return true;
+        }
+        try (Statement statement = realConnection.createStatement()) {
+            statement.executeQuery(poolPingQuery).close();
+            return true;
+        } catch (SQLException e) {
+            log.log(Level.FINE, "Connection validation failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * 关闭连接池中的所有连接，之后不能再获取连接
+     */
+    public void close() {
+        List<PooledConnection> all;
+        synchronized (state) {
+            closed = true;
+            all = state.drain();
+            for (PooledConnection conn : all) {
+                conn.invalidate();
+            }
+            state.notifyAll();
+        }
+        closeQuietly(all);
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(List<PooledConnection> connections) {
+        if (null == connections) {
+            return;
+        }
+        for (PooledConnection conn : connections) {
+            closeQuietly(conn);
+        }
+    }
+
+    private static void closeQuietly(PooledConnection conn) {
+        try {
+            conn.closeRealConnection();
+        } catch (SQLException e) {
+            log.log(Level.FINE, "Error closing connection", e);
+        }
+    }
+
+    /**
+     * 连接池监控数据：活动/空闲连接数、等待时间、借出耗时等
+     * @return
+     */
+    public PoolState getPoolState() {
+        return state;
+    }
+
+    public int getPoolMaximumActiveConnections() {
+        return poolMaximumActiveConnections;
+    }
+
+    public void setPoolMaximumActiveConnections(int poolMaximumActiveConnections) {
+        this.poolMaximumActiveConnections = poolMaximumActiveConnections;
+    }
+
+    public int getPoolMinimumIdleConnections() {
+        return poolMinimumIdleConnections;
+    }
+
+    public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+        this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    }
+
+    public long getPoolMaximumIdleTime() {
+        return poolMaximumIdleTime;
+    }
+
+    public void setPoolMaximumIdleTime(long poolMaximumIdleTime) {
+        this.poolMaximumIdleTime = poolMaximumIdleTime;
+    }
+
+    public long getPoolTimeToWait() {
+        return poolTimeToWait;
+    }
+
+    public void setPoolTimeToWait(long poolTimeToWait) {
+        this.poolTimeToWait = poolTimeToWait;
+    }
+
+    public boolean isPoolPingEnabled() {
+        return poolPingEnabled;
+    }
+
+    public void setPoolPingEnabled(boolean poolPingEnabled) {
+        this.poolPingEnabled = poolPingEnabled;
+    }
+
+    public String getPoolPingQuery() {
+        return poolPingQuery;
+    }
+
+    public void setPoolPingQuery(String poolPingQuery) {
+        this.poolPingQuery = poolPingQuery;
+    }
+
+    public long getPoolPingConnectionsNotUsedFor() {
+        return poolPingConnectionsNotUsedFor;
+    }
+
+    public void setPoolPingConnectionsNotUsedFor(long poolPingConnectionsNotUsedFor) {
+        this.poolPingConnectionsNotUsedFor = poolPingConnectionsNotUsedFor;
+    }
+
+    public long getPoolLeakDetectionThreshold() {
+        return poolLeakDetectionThreshold;
+    }
+
+    public void setPoolLeakDetectionThreshold(long poolLeakDetectionThreshold) {
+        this.poolLeakDetectionThreshold = poolLeakDetectionThreshold;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return log;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException(getClass().getName() + " is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,98 @@
+package com.creator.mybatis.datasource.rest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * 通过代理实现的 Connection
+ * 本身不持有网络连接，HTTP 连接由 JDK 按主机复用，因此创建与关闭都很轻量。
+ * ES SQL 只读且没有事务，事务相关的方法为空操作。
+ */
+class EsRestConnection implements InvocationHandler {
+
+    private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
+
+    private final EsSqlClient client;
+    private final boolean columnar;
+    private final Connection proxy;
+    private volatile boolean closed;
+
+    EsRestConnection(EsSqlClient client, boolean columnar) {
+        this.client = client;
+        this.columnar = columnar;
+        this.proxy = (Connection) Proxy.newProxyInstance(EsRestConnection.class.getClassLoader(), IFACES, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            try {
+                return method.invoke(this, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (name) {
+            case "close":
+                closed = true;
+                return null;
+            case "isClosed":
+                return closed;
+            case "isValid":
+                return !closed;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                throw new SQLException("Not a wrapper for " + ((Class<?>) args[0]).getName());
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        switch (name) {
+            case "prepareStatement":
+                return EsRestStatement.newStatement(this, (String) args[0]);
+            case "createStatement":
+                return EsRestStatement.newStatement(this, null);
+            case "getAutoCommit":
+            case "isReadOnly":
+                return true;
+            case "getTransactionIsolation":
+                return Connection.TRANSACTION_NONE;
+            case "setAutoCommit":
+            case "setReadOnly":
+            case "commit":
+            case "rollback":
+            case "clearWarnings":
+                return null;
+            case "getWarnings":
+                return null;
+            case "nativeSQL":
+                return args[0];
+            default:
+                throw new SQLFeatureNotSupportedException("Connection." + name + " is not supported by the ES_REST transport");
+        }
+    }
+
+    Connection getProxy() {
+        return proxy;
+    }
+
+    EsSqlClient getClient() {
+        return client;
+    }
+
+    boolean isColumnar() {
+        return columnar;
+    }
+}
@@ -0,0 +1,118 @@
+package com.creator.mybatis.datasource.rest;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 直接访问 ES _sql 接口的数据源，不经过 x-pack JDBC 驱动
+ * 属性：
+ * url：http://host:9200，也接受 jdbc:es://host:9200 的写法；
+ * username/password：Basic 认证；
+ * format：json（默认，逐行流式解析）或 columnar（按列返回，响应更紧凑）；
+ * connectTimeout/readTimeout：毫秒；
+ * timeZone：请求的 time_zone。
+ */
+public class EsRestDataSource implements DataSource {
+
+    private static final String JDBC_PREFIX = "jdbc:es://";
+    private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    private final EsSqlClient client;
+    private final boolean columnar;
+    private int loginTimeout;
+
+    public EsRestDataSource(Map<String, String> properties) {
+        String url = properties.get("url");
+        if (null == url || url.isEmpty()) {
+            throw new IllegalArgumentException("ES_REST dataSource requires a url");
+        }
+        String format = properties.get("format");
+        if (null != format && !"json".equalsIgnoreCase(format) && !"columnar".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unknown ES_REST format: " + format);
+        }
+        this.columnar = "columnar".equalsIgnoreCase(format);
+        try {
+            this.client = new EsSqlClient(baseUrl(url), properties.get("username"), properties.get("password"),
+                    intValue(properties, "connectTimeout", DEFAULT_CONNECT_TIMEOUT), intValue(properties, "readTimeout", 0),
+                    properties.get("timeZone"));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid ES_REST url: " + url, e);
+        }
+    }
+
+    private static String baseUrl(String url) {
+        if (url.startsWith(JDBC_PREFIX)) {
+            url = url.substring(JDBC_PREFIX.length());
+        }
+        return url.contains("://") ? url : "http://" + url;
+    }
+
+    private static int intValue(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        return null == value || value.isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public EsSqlClient getClient() {
+        return client;
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return new EsRestConnection(client, columnar).getProxy();
+    }
+
+    /**
+     * 认证信息在数据源上配置，这里忽略参数
+     */
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException(getClass().getName() + " is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
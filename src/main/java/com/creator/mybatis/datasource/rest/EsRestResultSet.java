@@ -0,0 +1,224 @@
+package com.creator.mybatis.datasource.rest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * _sql 查询结果，通过代理实现 ResultSet
+ * 列值已在解析时转换为列类型对应的 Java 对象，getObject 直接返回；类型化的 getter 只做必要的数值与文本转换。
+ */
+class EsRestResultSet implements InvocationHandler {
+
+    private static final Class<?>[] IFACES = new Class<?>[]{ResultSet.class};
+
+    private final Statement statement;
+    private final EsSqlRows rows;
+    private final ResultSet proxy;
+    private Object[] current;
+    private boolean wasNull;
+    private int fetchSize;
+    private boolean closed;
+
+    private EsRestResultSet(Statement statement, EsSqlRows rows) {
+        this.statement = statement;
+        this.rows = rows;
+        this.proxy = (ResultSet) Proxy.newProxyInstance(EsRestResultSet.class.getClassLoader(), IFACES, this);
+    }
+
+    static EsRestResultSet create(Statement statement, EsSqlRows rows) {
+        return new EsRestResultSet(statement, rows);
+    }
+
+    ResultSet getProxy() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            try {
+                return method.invoke(this, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (name) {
+            case "next":
+                return next();
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "wasNull":
+                return wasNull;
+            case "getMetaData":
+                return new EsRestResultSetMetaData(rows.getNames(), rows.getTypes());
+            case "getStatement":
+                return statement;
+            case "findColumn":
+                return findColumn((String) args[0]);
+            case "getFetchSize":
+                return fetchSize;
+            case "setFetchSize":
+                fetchSize = (Integer) args[0];
+                return null;
+            case "getType":
+                return ResultSet.TYPE_FORWARD_ONLY;
+            case "getConcurrency":
+                return ResultSet.CONCUR_READ_ONLY;
+            case "getWarnings":
+                return null;
+            case "clearWarnings":
+                return null;
+            case "unwrap":
+                return unwrap((Class<?>) args[0]);
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            default:
+                break;
+        }
+        if (name.startsWith("get") && null != args && args.length == 1) {
+            int columnIndex = args[0] instanceof Integer ? (Integer) args[0] : findColumn((String) args[0]);
+            return get(name, value(columnIndex));
+        }
+        throw new SQLFeatureNotSupportedException("ResultSet." + name + " is not supported by the ES_REST transport");
+    }
+
+    private boolean next() throws SQLException {
+        checkOpen();
+        if (rows.next()) {
+            current = rows.current();
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    private Object value(int columnIndex) throws SQLException {
+        checkOpen();
+        if (null == current) {
+            throw new SQLException("No current row");
+        }
+        if (columnIndex < 1 || columnIndex > current.length) {
+            throw new SQLException("Invalid column index " + columnIndex);
+        }
+        Object value = current[columnIndex - 1];
+        wasNull = null == value;
+        return value;
+    }
+
+    private Object get(String getter, Object value) throws SQLException {
+        switch (getter) {
+            case "getObject":
+                return value;
+            case "getString":
+                return null == value ? null : value.toString();
+            case "getLong":
+                return null == value ? 0L : number(value).longValue();
+            case "getInt":
+                return null == value ? 0 : number(value).intValue();
+            case "getShort":
+                return null == value ? (short) 0 : number(value).shortValue();
+            case "getByte":
+                return null == value ? (byte) 0 : number(value).byteValue();
+            case "getDouble":
+                return null == value ? 0D : number(value).doubleValue();
+            case "getFloat":
+                return null == value ? 0F : number(value).floatValue();
+            case "getBigDecimal":
+                return null == value || value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+            case "getBoolean":
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if (value instanceof Number) {
+                    return ((Number) value).intValue() != 0;
+                }
+                return null != value && Boolean.parseBoolean(value.toString());
+            case "getTimestamp":
+                return timestamp(value);
+            case "getDate":
+                Timestamp timestamp = timestamp(value);
+                return null == timestamp ? null : new Date(timestamp.getTime());
+            case "getTime":
+                if (null == value || value instanceof Time) {
+                    return value;
+                }
+                Timestamp time = timestamp(value);
+                return new Time(time.getTime());
+            default:
+                throw new SQLFeatureNotSupportedException("ResultSet." + getter + " is not supported by the ES_REST transport");
+        }
+    }
+
+    private static Number number(Object value) throws SQLException {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException("Cannot convert '" + value + "' to a number", e);
+        }
+    }
+
+    private static Timestamp timestamp(Object value) throws SQLException {
+        if (null == value || value instanceof Timestamp) {
+            return (Timestamp) value;
+        }
+        if (value instanceof Number) {
+            return new Timestamp(((Number) value).longValue());
+        }
+        try {
+            return EsType.parseTimestamp(value.toString());
+        } catch (java.io.IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    private int findColumn(String columnLabel) throws SQLException {
+        String[] names = rows.getNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column not found: " + columnLabel);
+    }
+
+    private Object unwrap(Class<?> iface) throws SQLException {
+        if (iface.isInstance(proxy)) {
+            return proxy;
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("ResultSet is closed");
+        }
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            current = null;
+            rows.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.creator.mybatis.datasource.rest;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * _sql 响应中 columns 的列信息
+ */
+class EsRestResultSetMetaData implements ResultSetMetaData {
+
+    private final String[] names;
+    private final EsType[] types;
+
+    EsRestResultSetMetaData(String[] names, EsType[] types) {
+        this.names = names;
+        this.types = types;
+    }
+
+    private int index(int column) throws SQLException {
+        if (column < 1 || column > names.length) {
+            throw new SQLException("Invalid column index " + column);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return names[index(column)];
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        return names[index(column)];
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return types[index(column)].getJdbcType();
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        return types[index(column)].name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        return types[index(column)].getJavaType().getName();
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        index(column);
+        return 0;
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        index(column);
+        return 0;
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        index(column);
+        return 0;
+    }
+
+    @Override
+    public String getCatalogName(int column) {
+        return "";
+    }
+
+    @Override
+    public String getSchemaName(int column) {
+        return "";
+    }
+
+    @Override
+    public String getTableName(int column) {
+        return "";
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) {
+        return false;
+    }
+
+    @Override
+    public int isNullable(int column) {
+        return columnNullable;
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        switch (types[index(column)]) {
+            case LONG:
+            case INTEGER:
+            case SHORT:
+            case BYTE:
+            case DOUBLE:
+            case FLOAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isSearchable(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isReadOnly(int column) {
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) {
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,178 @@
+package com.creator.mybatis.datasource.rest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 通过代理实现的 PreparedStatement，SQL 与 ? 参数原样发送到 _sql 接口
+ * cancel() 断开当前查询正在使用的 HTTP 连接，可以被超时看门狗从其他线程调用。
+ */
+class EsRestStatement implements InvocationHandler {
+
+    private static final Class<?>[] IFACES = new Class<?>[]{PreparedStatement.class};
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final EsRestConnection connection;
+    private final String sql;
+    private final PreparedStatement proxy;
+    private Object[] parameters = NO_PARAMETERS;
+    private int parameterCount;
+    private int fetchSize;
+    private int maxRows;
+    private int queryTimeout;
+    private volatile EsSqlClient.Cancellation cancellation;
+    private EsRestResultSet resultSet;
+    private ResultSet resultSetProxy;
+    private boolean closed;
+
+    private EsRestStatement(EsRestConnection connection, String sql) {
+        this.connection = connection;
+        this.sql = sql;
+        this.proxy = (PreparedStatement) Proxy.newProxyInstance(EsRestStatement.class.getClassLoader(), IFACES, this);
+    }
+
+    /**
+     * @param connection
+     * @param sql createStatement 时为空，在 executeQuery(String) 时给出
+     * @return
+     */
+    static PreparedStatement newStatement(EsRestConnection connection, String sql) {
+        return new EsRestStatement(connection, sql).proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            try {
+                return method.invoke(this, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        switch (name) {
+            case "executeQuery":
+                return executeQuery(null == args ? sql : (String) args[0]);
+            case "cancel":
+                EsSqlClient.Cancellation current = cancellation;
+                if (null != current) {
+                    current.cancel();
+                }
+                return null;
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "clearParameters":
+                Arrays.fill(parameters, null);
+                parameterCount = 0;
+                return null;
+            case "setNull":
+                setParameter((Integer) args[0], null);
+                return null;
+            case "getFetchSize":
+                return fetchSize;
+            case "setFetchSize":
+                fetchSize = (Integer) args[0];
+                return null;
+            case "getMaxRows":
+                return maxRows;
+            case "setMaxRows":
+                maxRows = (Integer) args[0];
+                return null;
+            case "getQueryTimeout":
+                return queryTimeout;
+            case "setQueryTimeout":
+                queryTimeout = (Integer) args[0];
+                return null;
+            case "getResultSet":
+                return resultSetProxy;
+            case "getUpdateCount":
+                return -1;
+            case "getMoreResults":
+                closeResultSet();
+                return false;
+            case "getConnection":
+                return connection.getProxy();
+            case "getWarnings":
+                return null;
+            case "clearWarnings":
+            case "setEscapeProcessing":
+            case "setPoolable":
+            case "closeOnCompletion":
+                return null;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                throw new SQLException("Not a wrapper for " + ((Class<?>) args[0]).getName());
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            default:
+                break;
+        }
+        //setLong、setString、setObject 等，按值绑定，类型在发送时根据值推断
+        if (name.startsWith("set") && null != args && args.length >= 2 && args[0] instanceof Integer) {
+            setParameter((Integer) args[0], args[1]);
+            return null;
+        }
+        throw new SQLFeatureNotSupportedException("Statement." + name + " is not supported by the ES_REST transport");
+    }
+
+    private void setParameter(int parameterIndex, Object value) throws SQLException {
+        if (parameterIndex < 1) {
+            throw new SQLException("Invalid parameter index " + parameterIndex);
+        }
+        if (parameterIndex > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(parameterIndex, parameters.length * 2));
+        }
+        parameters[parameterIndex - 1] = value;
+        parameterCount = Math.max(parameterCount, parameterIndex);
+    }
+
+    private ResultSet executeQuery(String sql) throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+        if (null == sql) {
+            throw new SQLException("No SQL to execute");
+        }
+        closeResultSet();
+        List<Object> values = parameterCount == 0 ? Collections.emptyList() : new ArrayList<>(Arrays.asList(parameters).subList(0, parameterCount));
+        //限制了行数时不多取
+        int size = maxRows > 0 && (fetchSize <= 0 || fetchSize > maxRows) ? maxRows : fetchSize;
+        EsSqlClient.Cancellation current = new EsSqlClient.Cancellation();
+        cancellation = current;
+        EsSqlRows rows = new EsSqlRows(connection.getClient(), sql, values, size, queryTimeout, maxRows, connection.isColumnar(), current);
+        resultSet = EsRestResultSet.create(proxy, rows);
+        resultSetProxy = resultSet.getProxy();
+        return resultSetProxy;
+    }
+
+    private void closeResultSet() {
+        if (null != resultSet) {
+            resultSet.close();
+            resultSet = null;
+            resultSetProxy = null;
+        }
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            closeResultSet();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.creator.mybatis.datasource.rest;
+
+import com.creator.mybatis.parsing.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ES _sql 接口的 HTTP 客户端
+ * 使用 HttpURLConnection：响应读完并关闭输入流后，底层连接由 JDK 的 keep-alive 缓存复用，不需要额外的连接池。
+ */
+public class EsSqlClient {
+
+    private static final Logger log = Logger.getLogger(EsSqlClient.class.getName());
+
+    private final URL queryUrl;
+    private final URL closeUrl;
+    private final String authorization;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final String timeZone;
+
+    /**
+     * @param baseUrl 形如 http://localhost:9200
+     * @param username 为空时不认证
+     * @param password
+     * @param connectTimeout 毫秒
+     * @param readTimeout 毫秒，0 表示不限制
+     * @param timeZone 请求的 time_zone，为空时使用 ES 默认的 UTC
+     */
+    public EsSqlClient(String baseUrl, String username, String password, int connectTimeout, int readTimeout, String timeZone) throws IOException {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.queryUrl = new URL(base + "/_sql?format=json");
+        this.closeUrl = new URL(base + "/_sql/close");
+        this.authorization = null == username ? null
+                : "Basic " + Base64.getEncoder().encodeToString((username + ":" + (null == password ? "" : password)).getBytes(StandardCharsets.UTF_8));
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * 一次请求与它的响应
+     * 调用方通过 reader 拉取响应内容，结束后调用 close() 归还 keep-alive 连接。
+     */
+    public static final class Exchange implements AutoCloseable {
+
+        private final InputStream in;
+        private final JsonReader reader;
+
+        private Exchange(InputStream in) {
+            this.in = in;
+            this.reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        public JsonReader reader() {
+            return reader;
+        }
+
+        /**
+         * 关闭输入流，剩余内容不多时 JDK 会读完并复用连接
+         */
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Error closing _sql response", e);
+            }
+        }
+    }
+
+    /**
+     * 取消一次查询（包括后续的翻页请求）
+     * 断开正在使用的 HTTP 连接，阻塞在等待响应或读取响应的线程随即收到异常。
+     */
+    public static final class Cancellation {
+
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        void attach(HttpURLConnection connection) {
+            this.connection = connection;
+            if (cancelled) {
+                connection.disconnect();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            HttpURLConnection current = connection;
+            if (null != current) {
+                current.disconnect();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * 执行查询，返回第一页
+     * @param sql 使用 ? 占位符
+     * @param parameters
+     * @param fetchSize 0 表示使用 ES 默认值
+     * @param timeoutSeconds 0 表示不限制
+     * @param columnar 是否按列返回
+     * @param cancellation
+     * @return
+     * @throws SQLException
+     */
+    public Exchange query(String sql, List<Object> parameters, int fetchSize, int timeoutSeconds, boolean columnar, Cancellation cancellation) throws SQLException {
+        StringBuilder body = new StringBuilder(sql.length() + 64);
+        body.append("{\"query\":");
+        quote(body, sql);
+        if (!parameters.isEmpty()) {
+            body.append(",\"params\":[");
+            for (int i = 0; i < parameters.size(); i++) {
+                Object value = parameters.get(i);
+                if (i > 0) {
+                    body.append(',');
+                }
+                body.append("{\"type\":\"").append(EsType.paramType(value)).append("\",\"value\":");
+                value(body, value);
+                body.append('}');
+            }
+            body.append(']');
+        }
+        if (fetchSize > 0) {
+            body.append(",\"fetch_size\":").append(fetchSize);
+        }
+        if (timeoutSeconds > 0) {
+            body.append(",\"request_timeout\":\"").append(timeoutSeconds).append("s\"");
+        }
+        if (null != timeZone) {
+            body.append(",\"time_zone\":");
+            quote(body, timeZone);
+        }
+        if (columnar) {
+            body.append(",\"columnar\":true");
+        }
+        body.append('}');
+        return post(queryUrl, body.toString(), timeoutSeconds, cancellation);
+    }
+
+    /**
+     * 按 cursor 获取下一页
+     * @param cursor
+     * @param timeoutSeconds
+     * @param columnar
+     * @param cancellation
+     * @return
+     * @throws SQLException
+     */
+    public Exchange next(String cursor, int timeoutSeconds, boolean columnar, Cancellation cancellation) throws SQLException {
+        StringBuilder body = new StringBuilder(cursor.length() + 32);
+        body.append("{\"cursor\":");
+        quote(body, cursor);
+        if (columnar) {
+            body.append(",\"columnar\":true");
+        }
+        body.append('}');
+        return post(queryUrl, body.toString(), timeoutSeconds, cancellation);
+    }
+
+    /**
+     * 提前结束时释放服务端的 cursor
+     * @param cursor
+     */
+    public void closeCursor(String cursor) {
+        StringBuilder body = new StringBuilder(cursor.length() + 16);
+        body.append("{\"cursor\":");
+        quote(body, cursor);
+        body.append('}');
+        try (Exchange exchange = post(closeUrl, body.toString(), 0, null)) {
+            exchange.reader().skipValue();
+        } catch (SQLException | IOException e) {
+            log.log(Level.FINE, "Error closing _sql cursor", e);
+        }
+    }
+
+    private Exchange post(URL url, String body, int timeoutSeconds, Cancellation cancellation) throws SQLException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            if (null != cancellation) {
+                cancellation.attach(connection);
+            }
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setUseCaches(false);
+            connection.setConnectTimeout(connectTimeout);
+            //查询设置了超时时，读取超时与之一致
+            connection.setReadTimeout(timeoutSeconds > 0 ? timeoutSeconds * 1000 : readTimeout);
+            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            connection.setRequestProperty("Accept", "application/json");
+            if (null != authorization) {
+                connection.setRequestProperty("Authorization", authorization);
+            }
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+            int status = connection.getResponseCode();
+            if (status >= 400) {
+                throw error(connection, status);
+            }
+            return new Exchange(connection.getInputStream());
+        } catch (SocketTimeoutException e) {
+            if (null != connection) {
+                connection.disconnect();
+            }
+            throw new SQLTimeoutException("Timed out waiting for " + url, e);
+        } catch (IOException e) {
+            if (null != connection) {
+                connection.disconnect();
+            }
+            if (null != cancellation && cancellation.isCancelled()) {
+                throw new SQLException("Query was cancelled", "HY008", e);
+            }
+            throw new SQLException("Error requesting " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取 ES 的错误响应：{"error":{"type":...,"reason":...},"status":...}
+     */
+    private static SQLException error(HttpURLConnection connection, int status) throws IOException {
+        String type = null;
+        String reason = null;
+        InputStream in = connection.getErrorStream();
+        if (null != in) {
+            try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("error".equals(reader.nextName()) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                String name = reader.nextName();
+                                if ("type".equals(name) && reader.peek() == JsonReader.Token.STRING) {
+                                    type = reader.nextString();
+                                } else if ("reason".equals(name) && reader.peek() == JsonReader.Token.STRING) {
+                                    reason = reader.nextString();
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.log(Level.FINE, "Could not parse _sql error response", e);
+            }
+        }
+        String message = "Elasticsearch returned " + status + (null == type ? "" : " " + type) + (null == reason ? "" : ": " + reason);
+        return new SQLException(message, type, status);
+    }
+
+    private static void value(StringBuilder body, Object value) {
+        if (null == value) {
+            body.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            body.append(value);
+        } else if (value instanceof java.sql.Date) {
+            quote(body, ((java.sql.Date) value).toLocalDate().toString());
+        } else if (value instanceof Timestamp) {
+            quote(body, ((Timestamp) value).toInstant().toString());
+        } else if (value instanceof java.util.Date) {
+            quote(body, ((java.util.Date) value).toInstant().toString());
+        } else {
+            quote(body, value.toString());
+        }
+    }
+
+    static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,312 @@
+package com.creator.mybatis.datasource.rest;
+
+import com.creator.mybatis.parsing.JsonReader;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * _sql 查询结果的行来源
+ * json 格式下读到 rows 数组后停止，之后每次 next() 只解析一行，不缓冲整页；
+ * columnar 格式的值按列排列，每页先按列读入再逐行返回。
+ * 一页读完后按响应中的 cursor 请求下一页，提前结束时释放服务端的 cursor。
+ */
+class EsSqlRows implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger(EsSqlRows.class.getName());
+
+    private final EsSqlClient client;
+    private final boolean columnar;
+    private final int timeoutSeconds;
+    private final int maxRows;
+    private final EsSqlClient.Cancellation cancellation;
+
+    private String[] names;
+    private EsType[] types;
+
+    private EsSqlClient.Exchange exchange;
+    private JsonReader reader;
+    /**
+     * json 格式：reader 位于 rows 数组内
+     */
+    private boolean inRows;
+    /**
+     * columnar 格式：当前页的列值与读取位置
+     */
+    private Object[][] columnValues;
+    private int pageSize;
+    private int pageIndex;
+
+    private String cursor;
+    private int returned;
+    private Object[] current;
+    private boolean closed;
+
+    /**
+     * 发送查询并读取第一页的列信息
+     * @param maxRows 0 表示不限制
+     */
+    EsSqlRows(EsSqlClient client, String sql, List<Object> parameters, int fetchSize, int timeoutSeconds, int maxRows,
+              boolean columnar, EsSqlClient.Cancellation cancellation) throws SQLException {
+        this.client = client;
+        this.columnar = columnar;
+        this.timeoutSeconds = timeoutSeconds;
+        this.maxRows = maxRows;
+        this.cancellation = cancellation;
+        this.exchange = client.query(sql, parameters, fetchSize, timeoutSeconds, columnar, cancellation);
+        try {
+            openPage();
+        } catch (IOException e) {
+            close();
+            throw readError(e);
+        }
+        if (null == names) {
+            close();
+            throw new SQLException("_sql response has no columns");
+        }
+    }
+
+    String[] getNames() {
+        return names;
+    }
+
+    EsType[] getTypes() {
+        return types;
+    }
+
+    Object[] current() {
+        return current;
+    }
+
+    /**
+     * 移动到下一行
+     * @return 没有更多行时为 false
+     * @throws SQLException
+     */
+    boolean next() throws SQLException {
+        if (closed) {
+            return false;
+        }
+        try {
+            while (true) {
+                if (maxRows > 0 && returned >= maxRows) {
+                    close();
+                    current = null;
+                    return false;
+                }
+                if (columnar) {
+                    if (pageIndex < pageSize) {
+                        Object[] row = new Object[columnValues.length];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = columnValues[i][pageIndex];
+                        }
+                        pageIndex++;
+                        returned++;
+                        current = row;
+                        return true;
+                    }
+                } else if (inRows) {
+                    if (reader.hasNext()) {
+                        current = readRow();
+                        returned++;
+                        return true;
+                    }
+                    reader.endArray();
+                    inRows = false;
+                    finishPage();
+                }
+                if (null == cursor) {
+                    close();
+                    current = null;
+                    return false;
+                }
+                String next = cursor;
+                cursor = null;
+                exchange = client.next(next, timeoutSeconds, columnar, cancellation);
+                openPage();
+            }
+        } catch (IOException e) {
+            close();
+            throw readError(e);
+        }
+    }
+
+    /**
+     * 读取一页直到 rows 数组开始（json）或整页结束（columnar）
+     */
+    private void openPage() throws IOException {
+        reader = exchange.reader();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "columns":
+                    readColumns();
+                    break;
+                case "rows":
+                    if (null == names) {
+                        throw new IOException("_sql response has rows before columns");
+                    }
+                    reader.beginArray();
+                    inRows = true;
+                    return;
+                case "values":
+                    readColumnValues();
+                    break;
+                case "cursor":
+                    cursor = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        closeExchange();
+    }
+
+    /**
+     * rows 之后的字段，通常是 cursor
+     */
+    private void finishPage() throws IOException {
+        while (reader.hasNext()) {
+            if ("cursor".equals(reader.nextName())) {
+                cursor = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        closeExchange();
+    }
+
+    private void readColumns() throws IOException {
+        List<String> columnNames = new ArrayList<>();
+        List<EsType> columnTypes = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String name = null;
+            EsType type = EsType.OTHER;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name":
+                        name = reader.nextString();
+                        break;
+                    case "type":
+                        type = EsType.of(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            columnNames.add(name);
+            columnTypes.add(type);
+        }
+        reader.endArray();
+        if (null == names) {
+            names = columnNames.toArray(new String[0]);
+            types = columnTypes.toArray(new EsType[0]);
+        }
+    }
+
+    private void readColumnValues() throws IOException {
+        if (null == names) {
+            throw new IOException("_sql response has values before columns");
+        }
+        Object[][] values = new Object[names.length][];
+        int size = 0;
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+            List<Object> column = new ArrayList<>();
+            reader.beginArray();
+            EsType type = i < types.length ? types[i] : EsType.OTHER;
+            while (reader.hasNext()) {
+                column.add(type.read(reader));
+            }
+            reader.endArray();
+            if (i < values.length) {
+                values[i] = column.toArray();
+                size = column.size();
+            }
+        }
+        reader.endArray();
+        for (int i = 0; i < values.length; i++) {
+            if (null == values[i]) {
+                values[i] = new Object[size];
+            }
+        }
+        columnValues = values;
+        pageSize = size;
+        pageIndex = 0;
+    }
+
+    private Object[] readRow() throws IOException {
+        Object[] row = new Object[types.length];
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+            if (i < row.length) {
+                row[i] = types[i].read(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return row;
+    }
+
+    private SQLException readError(IOException e) {
+        if (null != cancellation && cancellation.isCancelled()) {
+            return new SQLException("Query was cancelled", "HY008", e);
+        }
+        if (e instanceof SocketTimeoutException) {
+            return new SQLTimeoutException("Timed out reading _sql response", e);
+        }
+        return new SQLException("Error reading _sql response: " + e.getMessage(), e);
+    }
+
+    private void closeExchange() {
+        if (null != exchange) {
+            exchange.close();
+            exchange = null;
+        }
+        reader = null;
+    }
+
+    /**
+     * 结束读取
+     * 当前页还没读完时先跳过剩余的行以取得 cursor（cursor 位于 rows 之后），再通知服务端释放。
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean cancelled = null != cancellation && cancellation.isCancelled();
+        if (inRows && !cancelled) {
+            try {
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+                finishPage();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Error skipping the rest of the _sql page", e);
+            }
+        }
+        inRows = false;
+        closeExchange();
+        if (null != cursor && !cancelled) {
+            client.closeCursor(cursor);
+        }
+        cursor = null;
+        columnValues = null;
+    }
+}
@@ -0,0 +1,192 @@
+package com.creator.mybatis.datasource.rest;
+
+import com.creator.mybatis.parsing.JsonReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * ES SQL 列类型
+ * 读取值时按列类型直接从 JSON 解析为与 x-pack JDBC 驱动相同的 Java 类型，日期时间为 Timestamp。
+ */
+enum EsType {
+
+    LONG(Types.BIGINT, Long.class),
+    INTEGER(Types.INTEGER, Integer.class),
+    SHORT(Types.SMALLINT, Short.class),
+    BYTE(Types.TINYINT, Byte.class),
+    DOUBLE(Types.DOUBLE, Double.class),
+    FLOAT(Types.REAL, Float.class),
+    BOOLEAN(Types.BOOLEAN, Boolean.class),
+    KEYWORD(Types.VARCHAR, String.class),
+    DATETIME(Types.TIMESTAMP, Timestamp.class),
+    TIME(Types.TIME, Time.class),
+    /**
+     * 其他类型（ip、geo_point、object 等）按 JSON 原样返回
+     */
+    OTHER(Types.JAVA_OBJECT, Object.class);
+
+    private final int jdbcType;
+    private final Class<?> javaType;
+
+    EsType(int jdbcType, Class<?> javaType) {
+        this.jdbcType = jdbcType;
+        this.javaType = javaType;
+    }
+
+    int getJdbcType() {
+        return jdbcType;
+    }
+
+    Class<?> getJavaType() {
+        return javaType;
+    }
+
+    static EsType of(String esType) {
+        switch (esType.toLowerCase(Locale.ROOT)) {
+            case "long":
+            case "unsigned_long":
+                return LONG;
+            case "integer":
+                return INTEGER;
+            case "short":
+                return SHORT;
+            case "byte":
+                return BYTE;
+            case "double":
+            case "scaled_float":
+                return DOUBLE;
+            case "float":
+            case "half_float":
+                return FLOAT;
+            case "boolean":
+                return BOOLEAN;
+            case "keyword":
+            case "text":
+            case "constant_keyword":
+            case "wildcard":
+            case "version":
+                return KEYWORD;
+            case "datetime":
+            case "date":
+                return DATETIME;
+            case "time":
+                return TIME;
+            default:
+                return OTHER;
+        }
+    }
+
+    /**
+     * 按列类型读取下一个值
+     * @param reader
+     * @return
+     * @throws IOException
+     */
+    Object read(JsonReader reader) throws IOException {
+        JsonReader.Token token = reader.peek();
+        if (token == JsonReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonReader.Token.BEGIN_ARRAY || token == JsonReader.Token.BEGIN_OBJECT) {
+            //多值字段或对象
+            return reader.nextValue();
+        }
+        switch (this) {
+            case LONG:
+                return reader.nextLong();
+            case INTEGER:
+                return (int) reader.nextLong();
+            case SHORT:
+                return (short) reader.nextLong();
+            case BYTE:
+                return (byte) reader.nextLong();
+            case DOUBLE:
+                return reader.nextDouble();
+            case FLOAT:
+                return (float) reader.nextDouble();
+            case BOOLEAN:
+                return token == JsonReader.Token.BOOLEAN ? reader.nextBoolean() : Boolean.valueOf(reader.nextString());
+            case KEYWORD:
+                return token == JsonReader.Token.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+            case DATETIME:
+                return token == JsonReader.Token.NUMBER ? new Timestamp(reader.nextLong()) : parseTimestamp(reader.nextString());
+            case TIME:
+                return parseTime(reader.nextString());
+            default:
+                return reader.nextValue();
+        }
+    }
+
+    static Timestamp parseTimestamp(String text) throws IOException {
+        try {
+            return Timestamp.from(OffsetDateTime.parse(text).toInstant());
+        } catch (DateTimeParseException e) {
+            //没有时区的日期时间或纯日期，按 UTC 处理
+            try {
+                return Timestamp.from(LocalDateTime.parse(text).toInstant(ZoneOffset.UTC));
+            } catch (DateTimeParseException e2) {
+                try {
+                    return Timestamp.from(LocalDate.parse(text).atStartOfDay().toInstant(ZoneOffset.UTC));
+                } catch (DateTimeParseException e3) {
+                    throw new IOException("Cannot parse datetime '" + text + "'", e);
+                }
+            }
+        }
+    }
+
+    private static Time parseTime(String text) throws IOException {
+        try {
+            return Time.valueOf(OffsetTime.parse(text).toLocalTime());
+        } catch (DateTimeParseException e) {
+            throw new IOException("Cannot parse time '" + text + "'", e);
+        }
+    }
+
+    /**
+     * 参数值对应的 ES SQL 类型名
+     * @param value
+     * @return
+     */
+    static String paramType(Object value) {
+        if (null == value) {
+            return "null";
+        }
+        if (value instanceof Long) {
+            return "long";
+        }
+        if (value instanceof Integer) {
+            return "integer";
+        }
+        if (value instanceof Short) {
+            return "short";
+        }
+        if (value instanceof Byte) {
+            return "byte";
+        }
+        if (value instanceof Float) {
+            return "float";
+        }
+        if (value instanceof Double || value instanceof BigDecimal) {
+            return "double";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof java.util.Date || value instanceof LocalDateTime || value instanceof LocalDate) {
+            return "datetime";
+        }
+        return "keyword";
+    }
+}
@@ -0,0 +1,125 @@
+package com.creator.mybatis.datasource.unpooled;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * 不带连接池的数据源，每次获取连接都通过 DriverManager 新建
+ */
+public class UnpooledDataSource implements DataSource {
+
+    /**
+     * 以 driver. 开头的属性会去掉前缀后传给驱动
+     */
+    private static final String DRIVER_PROPERTY_PREFIX = "driver.";
+
+    private String url;
+    private String username;
+    private String password;
+    private final Properties driverProperties = new Properties();
+
+    public UnpooledDataSource() {
+    }
+
+    public UnpooledDataSource(Map<String, String> properties) {
+        this.url = properties.get("url");
+        this.username = properties.get("username");
+        this.password = properties.get("password");
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            if (entry.getKey().startsWith(DRIVER_PROPERTY_PREFIX) && null != entry.getValue()) {
+                driverProperties.setProperty(entry.getKey().substring(DRIVER_PROPERTY_PREFIX.length()), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(username, password);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(driverProperties);
+        if (null != username) {
+            properties.setProperty("user", username);
+        }
+        if (null != password) {
+            properties.setProperty("password", password);
+        }
+        return DriverManager.getConnection(url, properties);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Properties getDriverProperties() {
+        return driverProperties;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException(getClass().getName() + " is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
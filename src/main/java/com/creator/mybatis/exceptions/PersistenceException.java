@@ -0,0 +1,21 @@
+package com.creator.mybatis.exceptions;
+
+/**
+ * ESbatis 运行时异常的基类
+ */
+public class PersistenceException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PersistenceException(String message) {
+        super(message);
+    }
+
+    public PersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public PersistenceException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.creator.mybatis.exceptions;
+
+/**
+ * 查询超过语句超时或调用方设定的截止时间
+ */
+public class QueryTimeoutException extends PersistenceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public QueryTimeoutException(String message) {
+        super(message);
+    }
+
+    public QueryTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
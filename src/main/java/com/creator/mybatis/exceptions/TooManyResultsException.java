@@ -0,0 +1,13 @@
+package com.creator.mybatis.exceptions;
+
+/**
+ * selectOne 查询到多于一条结果时抛出
+ */
+public class TooManyResultsException extends PersistenceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyResultsException(String message) {
+        super(message);
+    }
+}
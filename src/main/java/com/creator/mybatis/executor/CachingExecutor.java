@@ -0,0 +1,99 @@
+package com.creator.mybatis.executor;
+
+import com.creator.mybatis.cache.Cache;
+import com.creator.mybatis.cache.CacheKey;
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.scripting.BoundSql;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.PrimitiveArray;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 二级缓存执行器，装饰实际执行查询的执行器
+ * 只缓存收集为 List 的查询；ResultHandler、游标与单列数值查询逐行处理结果，不经过缓存。
+ * 缓存中的结果对象在会话间共享，调用方不应修改。
+ */
+public class CachingExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Configuration configuration;
+
+    public CachingExecutor(Executor delegate, Configuration configuration) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public <E> List<E> query(XNode xNode, Object parameter) throws SQLException {
+        return query(xNode, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> List<E> query(XNode xNode, Object parameter, RowBounds rowBounds) throws SQLException {
+        Cache cache = xNode.getCache();
+        if (null == cache) {
+            return delegate.query(xNode, parameter, rowBounds);
+        }
+        if (null != xNode.getSqlSource()) {
+            //先对动态语句求值，缓存键与实际执行使用同一个形态
+            BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+            if (null != boundSql.getBatches()) {
+                //拆分执行的查询不进入二级缓存
+                return delegate.query(xNode, parameter, rowBounds);
+            }
+            xNode = boundSql.getXNode();
+            parameter = boundSql.getParameterObject();
+        }
+        CacheKey key = createCacheKey(xNode, parameter, rowBounds);
+        List<E> cached = (List<E>) cache.getObject(key);
+        if (null != cached) {
+            return new ArrayList<>(cached);
+        }
+        List<E> list = delegate.query(xNode, parameter, rowBounds);
+        cache.putObject(key, Collections.unmodifiableList(new ArrayList<>(list)));
+        return list;
+    }
+
+    @Override
+    public void query(XNode xNode, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        delegate.query(xNode, parameter, resultHandler);
+    }
+
+    @Override
+    public void query(XNode xNode, Object parameter, RowBounds rowBounds, ResultHandler<?> resultHandler) throws SQLException {
+        delegate.query(xNode, parameter, rowBounds, resultHandler);
+    }
+
+    @Override
+    public void queryColumn(XNode xNode, Object parameter, RowBounds rowBounds, PrimitiveArray column) throws SQLException {
+        delegate.queryColumn(xNode, parameter, rowBounds, column);
+    }
+
+    @Override
+    public <E> Cursor<E> queryCursor(XNode xNode, Object parameter) throws SQLException {
+        return delegate.queryCursor(xNode, parameter);
+    }
+
+    @Override
+    public CacheKey createCacheKey(XNode xNode, Object parameter, RowBounds rowBounds) {
+        return delegate.createCacheKey(xNode, parameter, rowBounds);
+    }
+
+    @Override
+    public void clearLocalCache() {
+        delegate.clearLocalCache();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
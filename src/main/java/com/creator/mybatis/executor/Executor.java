@@ -0,0 +1,57 @@
+package com.creator.mybatis.executor;
+
+import com.creator.mybatis.cache.CacheKey;
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.PrimitiveArray;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 语句执行器，负责预编译、参数绑定、执行与结果映射
+ */
+public interface Executor {
+
+    <E> List<E> query(XNode xNode, Object parameter) throws SQLException;
+
+    /**
+     * 查询并收集结果
+     * @param rowBounds 行范围，limit 通过 Statement.setMaxRows 下推给驱动
+     */
+    <E> List<E> query(XNode xNode, Object parameter, RowBounds rowBounds) throws SQLException;
+
+    /**
+     * 逐行交给 resultHandler 处理，不收集结果
+     */
+    void query(XNode xNode, Object parameter, ResultHandler<?> resultHandler) throws SQLException;
+
+    void query(XNode xNode, Object parameter, RowBounds rowBounds, ResultHandler<?> resultHandler) throws SQLException;
+
+    /**
+     * 查询单列数值，逐行读取第一列并以原始类型追加到 column，不经过结果对象映射
+     */
+    void queryColumn(XNode xNode, Object parameter, RowBounds rowBounds, PrimitiveArray column) throws SQLException;
+
+    /**
+     * 打开游标，行在迭代时才读取与映射
+     */
+    <E> Cursor<E> queryCursor(XNode xNode, Object parameter) throws SQLException;
+
+    /**
+     * 缓存键：语句 id + SQL + 按占位符顺序的参数值 + 行范围
+     */
+    CacheKey createCacheKey(XNode xNode, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 清空一级缓存
+     */
+    void clearLocalCache();
+
+    /**
+     * 关闭执行器，同时关闭仍然打开的游标
+     */
+    void close();
+}
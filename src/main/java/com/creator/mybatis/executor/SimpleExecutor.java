@@ -0,0 +1,480 @@
+package com.creator.mybatis.executor;
+
+import com.creator.mybatis.cache.CacheKey;
+import com.creator.mybatis.cache.impl.PerpetualCache;
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.cursor.defaults.DefaultCursor;
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.exceptions.QueryTimeoutException;
+import com.creator.mybatis.executor.result.DefaultResultContext;
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.executor.statement.ProjectionPruner;
+import com.creator.mybatis.executor.statement.StatementCache;
+import com.creator.mybatis.executor.statement.StatementCacheAware;
+import com.creator.mybatis.executor.statement.StatementWatchdog;
+import com.creator.mybatis.metrics.ExecutionTimer;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.scripting.BoundSql;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.Deadline;
+import com.creator.mybatis.session.LocalCacheScope;
+import com.creator.mybatis.session.PrimitiveArray;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class SimpleExecutor implements Executor {
+
+    private final Configuration configuration;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    /**
+     * 非池化连接上的语句缓存归本执行器所有，关闭时一并关闭
+     */
+    private final boolean ownsStatementCache;
+    private final List<DefaultCursor<?>> openCursors = new ArrayList<>();
+    /**
+     * 一级缓存，只在本会话内可见
+     */
+    private final PerpetualCache localCache = new PerpetualCache("LocalCache");
+
+    public SimpleExecutor(Configuration configuration, Connection connection) {
+        this.configuration = configuration;
+        this.connection = connection;
+        if (connection instanceof StatementCacheAware) {
+            //池化连接：语句缓存挂在物理连接上，在多个会话间复用
+            StatementCacheAware aware = (StatementCacheAware) connection;
+            StatementCache cache = aware.getStatementCache();
+            if (null == cache) {
+                cache = configuration.newStatementCache();
+                aware.setStatementCache(cache);
+            }
+            this.statementCache = cache;
+            this.ownsStatementCache = false;
+        } else {
+            this.statementCache = configuration.newStatementCache();
+            this.ownsStatementCache = true;
+        }
+    }
+
+    @Override
+    public <E> List<E> query(XNode xNode, Object parameter) throws SQLException {
+        return query(xNode, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> List<E> query(XNode xNode, Object parameter, RowBounds rowBounds) throws SQLException {
+        if (null != xNode.getSqlSource()) {
+            BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+            if (null == boundSql.getBatches()) {
+                return query(boundSql.getXNode(), boundSql.getParameterObject(), rowBounds);
+            }
+            //超长 IN 列表拆分执行，按批次顺序合并结果
+            List<E> list = new ArrayList<>();
+            ResultHandler<Object> handler = context -> list.add((E) context.getResultObject());
+            queryBatches(boundSql.getBatches(), rowBounds, (resultSet, resultType, bounds) -> handleResultSet(resultSet, resultType, bounds, handler));
+            return list;
+        }
+        CacheKey key = null;
+        if (configuration.getLocalCacheScope() == LocalCacheScope.SESSION) {
+            key = createCacheKey(xNode, parameter, rowBounds);
+            List<E> cached = (List<E>) localCache.getObject(key);
+            if (null != cached) {
+                //与 CachingExecutor 相同，调用方拿到的是副本，修改不影响缓存
+                return new ArrayList<>(cached);
+            }
+        }
+        List<E> list = new ArrayList<>();
+        query(xNode, parameter, rowBounds, context -> list.add((E) context.getResultObject()));
+        if (null != key) {
+            localCache.putObject(key, Collections.unmodifiableList(new ArrayList<>(list)));
+        }
+        return list;
+    }
+
+    @Override
+    public void query(XNode xNode, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        query(xNode, parameter, RowBounds.DEFAULT, resultHandler);
+    }
+
+    @Override
+    public void query(XNode xNode, Object parameter, RowBounds rowBounds, ResultHandler<?> resultHandler) throws SQLException {
+        query(xNode, parameter, rowBounds, (resultSet, resultType, bounds) -> handleResultSet(resultSet, resultType, bounds, resultHandler));
+    }
+
+    @Override
+    public void queryColumn(XNode xNode, Object parameter, RowBounds rowBounds, PrimitiveArray column) throws SQLException {
+        query(xNode, parameter, rowBounds, (resultSet, resultType, bounds) -> readColumn(resultSet, bounds, column));
+    }
+
+    private void query(XNode xNode, Object parameter, RowBounds rowBounds, ResultReader reader) throws SQLException {
+        if (null != xNode.getSqlSource()) {
+            BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+            if (null == boundSql.getBatches()) {
+                execute(boundSql.getXNode(), boundSql.getParameterObject(), rowBounds, reader);
+            } else {
+                queryBatches(boundSql.getBatches(), rowBounds, reader);
+            }
+            return;
+        }
+        execute(xNode, parameter, rowBounds, reader);
+    }
+
+    /**
+     * 从结果集读取行的方式：映射为结果对象，或读取单列数值
+     */
+    private interface ResultReader {
+        /**
+         * @return 从结果集读取的行数，包括按 offset 跳过的行
+         */
+        int read(ResultSet resultSet, Class<?> resultType, RowBounds rowBounds) throws SQLException;
+    }
+
+    /**
+     * 依次执行各批次，行范围作用于合并后的结果
+     */
+    private void queryBatches(List<BoundSql> batches, RowBounds rowBounds, ResultReader reader) throws SQLException {
+        int offset = rowBounds.getOffset();
+        int limit = rowBounds.getLimit();
+        for (BoundSql batch : batches) {
+            int read = execute(batch.getXNode(), batch.getParameterObject(), new RowBounds(offset, limit), reader);
+            int skipped = Math.min(read, offset);
+            offset -= skipped;
+            if (rowBounds.isLimited()) {
+                limit -= read - skipped;
+                if (limit <= 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行静态语句
+     * @return 从结果集读取的行数，包括按 offset 跳过的行
+     */
+    private int execute(XNode xNode, Object parameter, RowBounds rowBounds, ResultReader reader) throws SQLException {
+        Class<?> resultType = resultType(xNode);
+        String sql = sql(xNode, resultType);
+        long timeoutMillis = timeoutMillis(xNode);
+        ExecutionTimer timer = configuration.isMetricsEnabled() ? new ExecutionTimer() : null;
+        PreparedStatement preparedStatement = null;
+        StatementWatchdog.Watch watch = null;
+        boolean reusable = true;
+        int read = 0;
+        Throwable error = null;
+        try {
+            preparedStatement = statementCache.prepare(connection, sql);
+            prepareStatement(preparedStatement, xNode, parameter, rowBounds, timeoutMillis);
+            if (null != timer) {
+                timer.prepared();
+            }
+            if (timeoutMillis > 0) {
+                watch = configuration.getStatementWatchdog().watch(preparedStatement, timeoutMillis);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (null != timer) {
+                    timer.executed();
+                }
+                learnProjection(xNode, resultType, resultSet);
+                read = reader.read(resultSet, resultType, rowBounds);
+            } finally {
+                //被看门狗取消过的语句即使执行成功也不再复用
+                if (null != watch && watch.close()) {
+                    reusable = false;
+                }
+            }
+            if (!reusable) {
+                //驱动在取消后没有报错，读到的结果可能不完整
+                throw new QueryTimeoutException("Query " + xNode.getStatementId() + " timed out after " + timeoutMillis + "ms");
+            }
+            return read;
+        } catch (SQLException e) {
+            //出错的语句可能已处于不可用状态，不再复用
+            reusable = false;
+            if (null != watch && watch.isFired() || e instanceof SQLTimeoutException) {
+                QueryTimeoutException timeout = timeoutException(xNode, timeoutMillis, e);
+                error = timeout;
+                throw timeout;
+            }
+            error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (null != preparedStatement) {
+                if (reusable) {
+                    statementCache.release(preparedStatement);
+                } else {
+                    statementCache.invalidate(sql, preparedStatement);
+                }
+            }
+            if (null != timer) {
+                fireExecution(timer, xNode, parameter, sql, Math.max(0, read - rowBounds.getOffset()), error);
+            }
+        }
+    }
+
+    /**
+     * 本次执行的超时毫秒数
+     * 语句的 timeout 优先于 defaultStatementTimeout，当前线程设有截止时间时取两者中较小的一个。
+     * @return 0 表示不限制
+     */
+    private long timeoutMillis(XNode xNode) {
+        Integer timeout = xNode.getTimeout();
+        if (null == timeout) {
+            timeout = configuration.getDefaultStatementTimeout();
+        }
+        long millis = null == timeout || timeout <= 0 ? 0 : TimeUnit.SECONDS.toMillis(timeout);
+        Deadline deadline = Deadline.current();
+        if (null != deadline) {
+            long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+            if (remaining <= 0) {
+                throw new QueryTimeoutException("Deadline expired before query " + xNode.getStatementId() + " was executed");
+            }
+            if (millis == 0 || remaining < millis) {
+                millis = remaining;
+            }
+        }
+        return millis;
+    }
+
+    private static QueryTimeoutException timeoutException(XNode xNode, long timeoutMillis, SQLException e) {
+        return new QueryTimeoutException("Query " + xNode.getStatementId() + " timed out after " + timeoutMillis + "ms", e);
+    }
+
+    private void fireExecution(ExecutionTimer timer, XNode xNode, Object parameter, String sql, int rows, Throwable error) {
+        configuration.fireExecution(timer.finish(xNode.getStatementId(), sql,
+                () -> configuration.getParameterBinder(xNode, parameter).values(parameter), rows, error));
+    }
+
+    @Override
+    public <E> Cursor<E> queryCursor(XNode xNode, Object parameter) throws SQLException {
+        if (null != xNode.getSqlSource()) {
+            BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+            if (null != boundSql.getBatches()) {
+                throw new PersistenceException("IN list of " + xNode.getNamespace() + "." + xNode.getId()
+                        + " exceeds inListMaxBucket (" + configuration.getInListMaxBucket() + ") and cannot be split for a cursor");
+            }
+            xNode = boundSql.getXNode();
+            parameter = boundSql.getParameterObject();
+        }
+        Class<?> resultType = resultType(xNode);
+        String sql = sql(xNode, resultType);
+        long timeoutMillis = timeoutMillis(xNode);
+        ExecutionTimer timer = configuration.isMetricsEnabled() ? new ExecutionTimer() : null;
+        //游标在迭代期间一直占用语句，不能与其他查询共用缓存中的语句
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try {
+            prepareStatement(preparedStatement, xNode, parameter, RowBounds.DEFAULT, timeoutMillis);
+            if (null != timer) {
+                timer.prepared();
+            }
+            //游标的读取由调用方控制，看门狗只覆盖 executeQuery
+            ResultSet resultSet;
+            StatementWatchdog.Watch watch = timeoutMillis > 0 ? configuration.getStatementWatchdog().watch(preparedStatement, timeoutMillis) : null;
+            try {
+                resultSet = preparedStatement.executeQuery();
+            } catch (SQLException e) {
+                if (null != watch && watch.isFired() || e instanceof SQLTimeoutException) {
+                    throw timeoutException(xNode, timeoutMillis, e);
+                }
+                throw e;
+            } finally {
+                if (null != watch) {
+                    watch.close();
+                }
+            }
+            if (null != timer) {
+                timer.executed();
+            }
+            learnProjection(xNode, resultType, resultSet);
+            RowMappingPlan plan = configuration.getRowMappingPlan(resultType, resultSet.getMetaData());
+            DefaultCursor<E> cursor = new DefaultCursor<>(preparedStatement, resultSet, plan, openCursors::remove);
+            openCursors.add(cursor);
+            if (null != timer) {
+                //行在迭代时读取，只记录到 executeQuery 为止
+                fireExecution(timer, xNode, parameter, sql, 0, null);
+            }
+            return cursor;
+        } catch (SQLException | RuntimeException e) {
+            preparedStatement.close();
+            if (null != timer) {
+                fireExecution(timer, xNode, parameter, sql, 0, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 获取实际执行的 SQL
+     * 开启投影裁剪时，第一次执行原语句，之后使用按其结果列改写出的 SQL，见 {@link #learnProjection}。
+     */
+    private String sql(XNode xNode, Class<?> resultType) {
+        String sql = prunes(xNode, resultType) ? xNode.getPrunedSql() : null;
+        return null == sql ? xNode.getSql() : sql;
+    }
+
+    /**
+     * Map 与单列数值结果没有可参照的属性，不裁剪
+     */
+    private boolean prunes(XNode xNode, Class<?> resultType) {
+        Boolean pruneColumns = xNode.getPruneColumns();
+        return (null == pruneColumns ? configuration.isPruneSelectStar() : pruneColumns) && !resultType.isArray() && Map.class != resultType;
+    }
+
+    /**
+     * 根据 SELECT * 返回的列改写语句，每条语句只改写一次
+     */
+    private void learnProjection(XNode xNode, Class<?> resultType, ResultSet resultSet) throws SQLException {
+        if (null != xNode.getPrunedSql() || !prunes(xNode, resultType)) {
+            return;
+        }
+        xNode.setPrunedSql(ProjectionPruner.prune(xNode.getSql(), configuration.getReflectorFactory().findForClass(resultType),
+                resultSet.getMetaData(), configuration.isMapUnderscoreToCamelCase()));
+    }
+
+    /**
+     * 设置 fetchSize、maxRows、queryTimeout 并绑定参数
+     * 缓存的语句会被不同调用复用，因此每次都重新设置。
+     * 限制了行数时 fetchSize 不超过 maxRows，驱动不会多取用不到的行。
+     * queryTimeout 按秒向上取整，更精确的时限由看门狗保证。
+     */
+    private void prepareStatement(PreparedStatement preparedStatement, XNode xNode, Object parameter, RowBounds rowBounds, long timeoutMillis) throws SQLException {
+        Integer fetchSize = xNode.getFetchSize();
+        if (null == fetchSize) {
+            fetchSize = configuration.getDefaultFetchSize();
+        }
+        int maxRows = rowBounds.getMaxRows();
+        if (maxRows > 0 && (null == fetchSize || fetchSize > maxRows)) {
+            fetchSize = maxRows;
+        }
+        preparedStatement.setFetchSize(null == fetchSize ? 0 : fetchSize);
+        preparedStatement.setMaxRows(maxRows);
+        preparedStatement.setQueryTimeout((int) ((timeoutMillis + 999) / 1000));
+        configuration.getParameterBinder(xNode, parameter).bind(preparedStatement, parameter);
+    }
+
+    /**
+     * 跳过 offset 行后逐行映射结果并交给 resultHandler
+     * @param resultSet
+     * @param clazz
+     * @param rowBounds
+     * @param resultHandler
+     * @return 读取的行数，包括跳过的行
+     * @throws SQLException
+     */
+    @SuppressWarnings("unchecked")
+    private int handleResultSet(ResultSet resultSet, Class<?> clazz, RowBounds rowBounds, ResultHandler<?> resultHandler) throws SQLException {
+        //跳过的行不映射
+        int read = skipRows(resultSet, rowBounds);
+        if (read < rowBounds.getOffset()) {
+            return read;
+        }
+        //同一结果类型与列布局的映射计划只构建一次
+        RowMappingPlan plan = configuration.getRowMappingPlan(clazz, resultSet.getMetaData());
+        DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+        int limit = rowBounds.getLimit();
+        //遍历行
+        while (!resultContext.isStopped() && resultContext.getResultCount() < limit && resultSet.next()) {
+            read++;
+            resultContext.nextResultObject(plan.mapRow(resultSet));
+            ((ResultHandler<Object>) resultHandler).handleResult(resultContext);
+        }
+        return read;
+    }
+
+    /**
+     * 跳过 offset 行后逐行读取第一个非 ES 元数据列，直接以原始类型追加到 column
+     * @return 读取的行数，包括跳过的行
+     */
+    private int readColumn(ResultSet resultSet, RowBounds rowBounds, PrimitiveArray column) throws SQLException {
+        int read = skipRows(resultSet, rowBounds);
+        if (read < rowBounds.getOffset()) {
+            return read;
+        }
+        int columnIndex = valueColumn(resultSet.getMetaData());
+        int limit = rowBounds.getLimit();
+        for (int count = 0; count < limit && resultSet.next(); count++) {
+            read++;
+            column.readFrom(resultSet, columnIndex);
+        }
+        return read;
+    }
+
+    private static int valueColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String columnName = metaData.getColumnName(i);
+            if (columnName.length() > 0 && '_' != columnName.charAt(0)) {
+                return i;
+            }
+        }
+        throw new SQLException("Result set has no column to read");
+    }
+
+    /**
+     * @return 跳过的行数，小于 offset 说明结果集已读完
+     */
+    private static int skipRows(ResultSet resultSet, RowBounds rowBounds) throws SQLException {
+        int read = 0;
+        while (read < rowBounds.getOffset()) {
+            if (!resultSet.next()) {
+                return read;
+            }
+            read++;
+        }
+        return read;
+    }
+
+    private Class<?> resultType(XNode xNode) {
+        try {
+            return xNode.getResultTypeClass();
+        } catch (ClassNotFoundException e) {
+            throw new PersistenceException("Could not resolve resultType of " + xNode.getNamespace() + "." + xNode.getId(), e);
+        }
+    }
+
+    @Override
+    public CacheKey createCacheKey(XNode xNode, Object parameter, RowBounds rowBounds) {
+        if (null != xNode.getSqlSource()) {
+            BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+            xNode = boundSql.getXNode();
+            parameter = boundSql.getParameterObject();
+        }
+        Object[] values = configuration.getParameterBinder(xNode, parameter).values(parameter);
+        Object[] keyValues = new Object[values.length + 2];
+        System.arraycopy(values, 0, keyValues, 0, values.length);
+        keyValues[values.length] = rowBounds.getOffset();
+        keyValues[values.length + 1] = rowBounds.getLimit();
+        return new CacheKey(xNode.getNamespace() + "." + xNode.getId(), xNode.getSql(), keyValues);
+    }
+
+    @Override
+    public void clearLocalCache() {
+        localCache.clear();
+    }
+
+    @Override
+    public void close() {
+        localCache.clear();
+        for (DefaultCursor<?> cursor : new ArrayList<>(openCursors)) {
+            cursor.close();
+        }
+        if (ownsStatementCache) {
+            statementCache.close();
+        }
+    }
+}
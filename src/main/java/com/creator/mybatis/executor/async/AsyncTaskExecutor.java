@@ -0,0 +1,117 @@
+package com.creator.mybatis.executor.async;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 异步查询使用的有界执行器
+ * 平台线程模式：固定大小线程池 + 有界队列，队列满时由调用线程执行任务，从而限制提交速度；
+ * 虚拟线程模式（JDK 21+）：每个任务一个虚拟线程，用信号量限制同时执行的任务数，超出时提交方阻塞等待。
+ */
+public class AsyncTaskExecutor {
+
+    private static final Logger log = Logger.getLogger(AsyncTaskExecutor.class.getName());
+
+    private final ExecutorService executorService;
+    /**
+     * 虚拟线程模式下限制并发数，平台线程模式为空
+     */
+    private final Semaphore permits;
+
+    public AsyncTaskExecutor(int poolSize, int queueCapacity, boolean virtualThreads) {
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (null != virtual) {
+            this.executorService = virtual;
+            this.permits = new Semaphore(poolSize);
+        } else {
+            this.executorService = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new DaemonThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+            this.permits = null;
+        }
+    }
+
+    /**
+     * 提交任务，任务抛出的异常使 future 异常完成
+     * @param task
+     * @param <T>
+     * @return
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (null == permits) {
+            executorService.execute(runnable);
+            return future;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new CompletionException(e));
+            return future;
+        }
+        try {
+            executorService.execute(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，当前 JDK 不支持时返回 null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.log(Level.WARNING, "Virtual threads are not available on this JDK, falling back to a platform thread pool");
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new PersistenceException("Could not create virtual thread executor", e);
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "esbatis-async-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
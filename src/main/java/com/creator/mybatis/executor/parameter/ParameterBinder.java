@@ -0,0 +1,105 @@
+package com.creator.mybatis.executor.parameter;
+
+import com.creator.mybatis.reflection.ReflectionException;
+import com.creator.mybatis.reflection.Reflector;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import com.creator.mybatis.type.TypeHandler;
+import com.creator.mybatis.type.TypeHandlerRegistry;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 参数绑定计划
+ * 针对某条语句与某个参数类型，预先解析好“占位符下标 -> getter -> TypeHandler”，
+ * 绑定时只读取 #{} 中引用到的属性，不创建中间集合。
+ */
+public class ParameterBinder {
+
+    private static final Function<Object, Object> IDENTITY = Function.identity();
+
+    private final Function<Object, Object>[] getters;
+    private final TypeHandler<Object>[] typeHandlers;
+
+    private ParameterBinder(Function<Object, Object>[] getters, TypeHandler<Object>[] typeHandlers) {
+        this.getters = getters;
+        this.typeHandlers = typeHandlers;
+    }
+
+    /**
+     * 编译参数绑定计划
+     * @param parameterMap 占位符下标（从 1 开始） -> 参数名
+     * @param parameterType 参数的实际类型，参数为 null 时传 null
+     * @param reflectorFactory
+     * @param typeHandlerRegistry
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static ParameterBinder compile(Map<Integer, String> parameterMap, Class<?> parameterType, ReflectorFactory reflectorFactory,
+                                          TypeHandlerRegistry typeHandlerRegistry) {
+        int size = parameterMap.size();
+        Function<Object, Object>[] getters = (Function<Object, Object>[]) new Function<?, ?>[size];
+        TypeHandler<Object>[] typeHandlers = (TypeHandler<Object>[]) new TypeHandler<?>[size];
+        //单个参数，所有占位符都使用参数本身
+        boolean single = null == parameterType || typeHandlerRegistry.hasTypeHandler(parameterType);
+        boolean map = !single && Map.class.isAssignableFrom(parameterType);
+        Reflector reflector = single || map || 0 == size ? null : reflectorFactory.findForClass(parameterType);
+        for (int i = 0; i < size; i++) {
+            String name = parameterMap.get(i + 1);
+            if (single) {
+                getters[i] = IDENTITY;
+                typeHandlers[i] = typeHandler(typeHandlerRegistry, parameterType);
+            } else if (map) {
+                getters[i] = parameter -> ((Map<?, ?>) parameter).get(name);
+                typeHandlers[i] = typeHandlerRegistry.getUnknownTypeHandler();
+            } else {
+                Function<Object, Object> getter = reflector.getGetter(name);
+                if (null == getter) {
+                    throw new ReflectionException("There is no getter for property named '" + name + "' in '" + parameterType.getName() + "'");
+                }
+                getters[i] = getter;
+                typeHandlers[i] = typeHandler(typeHandlerRegistry, reflector.getGetterType(name));
+            }
+        }
+        return new ParameterBinder(getters, typeHandlers);
+    }
+
+    /**
+     * 静态类型没有对应的处理器时，按值的实际类型分派
+     */
+    @SuppressWarnings("unchecked")
+    private static TypeHandler<Object> typeHandler(TypeHandlerRegistry typeHandlerRegistry, Class<?> type) {
+        TypeHandler<?> handler = null == type ? null : typeHandlerRegistry.getTypeHandler(type);
+        return null == handler ? typeHandlerRegistry.getUnknownTypeHandler() : (TypeHandler<Object>) handler;
+    }
+
+    /**
+     * 填充 preparedStatement 中的参数
+     * @param preparedStatement
+     * @param parameter
+     * @throws SQLException
+     */
+    public void bind(PreparedStatement preparedStatement, Object parameter) throws SQLException {
+        for (int i = 0; i < getters.length; i++) {
+            Object value = null == parameter ? null : getters[i].apply(parameter);
+            typeHandlers[i].setParameter(preparedStatement, i + 1, value);
+        }
+    }
+
+    /**
+     * 按占位符顺序取出参数值，用作缓存键的一部分
+     * @param parameter
+     * @return
+     */
+    public Object[] values(Object parameter) {
+        Object[] values = new Object[getters.length];
+        if (null != parameter) {
+            for (int i = 0; i < getters.length; i++) {
+                values[i] = getters[i].apply(parameter);
+            }
+        }
+        return values;
+    }
+}
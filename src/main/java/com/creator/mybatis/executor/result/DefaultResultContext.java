@@ -0,0 +1,35 @@
+package com.creator.mybatis.executor.result;
+
+import com.creator.mybatis.session.ResultContext;
+
+public class DefaultResultContext<T> implements ResultContext<T> {
+
+    private T resultObject;
+    private int resultCount;
+    private boolean stopped;
+
+    public void nextResultObject(T resultObject) {
+        resultCount++;
+        this.resultObject = resultObject;
+    }
+
+    @Override
+    public T getResultObject() {
+        return resultObject;
+    }
+
+    @Override
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+}
@@ -0,0 +1,83 @@
+package com.creator.mybatis.executor.resultset;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * resultType="map" 时的一行结果，只读
+ * 列名索引由同一列布局的所有行共用，每行只持有值数组；按列名查找通过共用索引定位下标。
+ * 值为 NULL 的列同样存在于 Map 中，值为 null。
+ */
+public final class RowMap extends AbstractMap<String, Object> {
+
+    private final RowMapColumns columns;
+    private final Object[] values;
+    private transient Set<Entry<String, Object>> entrySet;
+
+    RowMap(RowMapColumns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return columns.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = columns.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int index = columns.indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Set<Entry<String, Object>> set = entrySet;
+        if (null == set) {
+            set = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < values.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (index >= values.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Object> entry = new SimpleImmutableEntry<>(columns.name(index), values[index]);
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.length;
+                }
+            };
+            entrySet = set;
+        }
+        return set;
+    }
+}
@@ -0,0 +1,39 @@
+package com.creator.mybatis.executor.resultset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RowMap 共用的列索引：列名与列名到下标的映射
+ * 同一列布局的所有行共用一个实例，构建后不再修改。
+ */
+final class RowMapColumns {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    RowMapColumns(String[] names) {
+        this.names = names;
+        this.indexes = new HashMap<>(names.length * 4 / 3 + 1);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * @param name
+     * @return 不存在时为 -1
+     */
+    int indexOf(Object name) {
+        Integer index = indexes.get(name);
+        return null == index ? -1 : index;
+    }
+}
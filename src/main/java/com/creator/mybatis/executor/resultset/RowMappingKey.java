@@ -0,0 +1,48 @@
+package com.creator.mybatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 行映射计划的缓存键：结果类型 + 结果集列布局（列名与 JDBC 类型，TypeHandler 按两者选定）
+ */
+public final class RowMappingKey {
+
+    private final Class<?> resultType;
+    private final String[] columnNames;
+    private final int[] columnTypes;
+    private final int hashCode;
+
+    public RowMappingKey(Class<?> resultType, ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] columnNames = new String[columnCount];
+        int[] columnTypes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = metaData.getColumnName(i + 1);
+            columnTypes[i] = metaData.getColumnType(i + 1);
+        }
+        this.resultType = resultType;
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.hashCode = 31 * (31 * resultType.hashCode() + Arrays.hashCode(columnNames)) + Arrays.hashCode(columnTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RowMappingKey)) {
+            return false;
+        }
+        RowMappingKey that = (RowMappingKey) o;
+        return hashCode == that.hashCode && resultType == that.resultType && Arrays.equals(columnNames, that.columnNames)
+                && Arrays.equals(columnTypes, that.columnTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
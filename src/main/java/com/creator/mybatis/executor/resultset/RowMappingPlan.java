@@ -0,0 +1,179 @@
+package com.creator.mybatis.executor.resultset;
+
+import com.creator.mybatis.reflection.Reflector;
+import com.creator.mybatis.type.TypeHandler;
+import com.creator.mybatis.type.TypeHandlerRegistry;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 行映射计划
+ * 针对某个结果类型与某种列布局，预先解析好“列下标 -> TypeHandler + setter”，
+ * TypeHandler 按属性类型与列的 JDBC 类型选定，逐行映射时直接调用类型化的 getter 并交给已解析的 setter。
+ * 结果类型为 Map 时改为预先建立列名索引，每行只读取值数组，映射为共用该索引的 RowMap。
+ */
+public class RowMappingPlan {
+
+    private final Class<?> resultType;
+    private final Supplier<Object> constructor;
+    /**
+     * 需要映射的列下标（从 1 开始），已跳过以 _ 开头的 ES 元数据列
+     */
+    private final int[] columnIndexes;
+    private final BiConsumer<Object, Object>[] setters;
+    private final TypeHandler<?>[] typeHandlers;
+    /**
+     * 结果类型为 Map 时的列名索引，否则为空
+     */
+    private final RowMapColumns mapColumns;
+
+    private RowMappingPlan(Reflector reflector, int[] columnIndexes, BiConsumer<Object, Object>[] setters, TypeHandler<?>[] typeHandlers) {
+        this.resultType = reflector.getType();
+        this.constructor = reflector.getConstructor();
+        this.columnIndexes = columnIndexes;
+        this.setters = setters;
+        this.typeHandlers = typeHandlers;
+        this.mapColumns = null;
+    }
+
+    private RowMappingPlan(int[] columnIndexes, RowMapColumns mapColumns) {
+        this.resultType = Map.class;
+        this.constructor = null;
+        this.columnIndexes = columnIndexes;
+        this.setters = null;
+        this.typeHandlers = null;
+        this.mapColumns = mapColumns;
+    }
+
+    /**
+     * 根据结果类型的 Reflector 与结果集元数据构建映射计划
+     * @param reflector
+     * @param metaData
+     * @param typeHandlerRegistry
+     * @param mapUnderscoreToCamelCase 见 {@link #columnToProperty(String, boolean)}
+     * @return
+     * @throws SQLException
+     */
+    @SuppressWarnings("unchecked")
+    public static RowMappingPlan build(Reflector reflector, ResultSetMetaData metaData, TypeHandlerRegistry typeHandlerRegistry,
+                                       boolean mapUnderscoreToCamelCase) throws SQLException {
+        if (!reflector.hasDefaultConstructor()) {
+            throw new SQLException("There is no default constructor for " + reflector.getType().getName());
+        }
+        int columnCount = metaData.getColumnCount();
+        int[] columnIndexes = new int[columnCount];
+        BiConsumer<Object, Object>[] setters = (BiConsumer<Object, Object>[]) new BiConsumer<?, ?>[columnCount];
+        TypeHandler<?>[] typeHandlers = new TypeHandler<?>[columnCount];
+        int size = 0;
+        for (int i = 1; i <= columnCount; i++) {
+            String columnName = metaData.getColumnName(i);
+            //如果是非用户自定义的列，就跳过
+            if (columnName.length() <= 0 || '_' == columnName.charAt(0)) {
+                continue;
+            }
+            String propertyName = columnToProperty(columnName, mapUnderscoreToCamelCase);
+            BiConsumer<Object, Object> setter = reflector.getSetter(propertyName);
+            if (null == setter) {
+                continue;
+            }
+            Class<?> propertyType = reflector.getSetterType(propertyName);
+            TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(propertyType, TypeHandlerRegistry.jdbcType(metaData.getColumnType(i)));
+            columnIndexes[size] = i;
+            setters[size] = setter;
+            typeHandlers[size] = null == typeHandler ? typeHandlerRegistry.getUnknownTypeHandler() : typeHandler;
+            size++;
+        }
+        return new RowMappingPlan(reflector, Arrays.copyOf(columnIndexes, size), Arrays.copyOf(setters, size), Arrays.copyOf(typeHandlers, size));
+    }
+
+    /**
+     * 构建映射为 Map 的计划
+     * 跳过以 _ 开头的列；列名重复时只保留第一列，保证 Map 的键唯一。
+     * @param metaData
+     * @return
+     * @throws SQLException
+     */
+    public static RowMappingPlan buildMap(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        int[] columnIndexes = new int[columnCount];
+        String[] names = new String[columnCount];
+        Set<String> seen = new HashSet<>();
+        int size = 0;
+        for (int i = 1; i <= columnCount; i++) {
+            String columnName = metaData.getColumnName(i);
+            //与映射为对象时一样跳过非用户自定义的列
+            if (columnName.length() <= 0 || '_' == columnName.charAt(0) || !seen.add(columnName)) {
+                continue;
+            }
+            columnIndexes[size] = i;
+            names[size] = columnName;
+            size++;
+        }
+        return new RowMappingPlan(Arrays.copyOf(columnIndexes, size), new RowMapColumns(Arrays.copyOf(names, size)));
+    }
+
+    /**
+     * 将当前行映射为结果对象
+     * @param resultSet
+     * @return
+     * @param <T>
+     * @throws SQLException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T mapRow(ResultSet resultSet) throws SQLException {
+        if (null != mapColumns) {
+            Object[] values = new Object[columnIndexes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resultSet.getObject(columnIndexes[i]);
+            }
+            return (T) new RowMap(mapColumns, values);
+        }
+        T obj = (T) constructor.get();
+        for (int i = 0; i < columnIndexes.length; i++) {
+            Object value = typeHandlers[i].getResult(resultSet, columnIndexes[i]);
+            //NULL 不调用 setter，原始类型字段保持默认值
+            if (null == value) {
+                continue;
+            }
+            setters[i].accept(obj, value);
+        }
+        return obj;
+    }
+
+    public Class<?> getResultType() {
+        return resultType;
+    }
+
+    /**
+     * 列名转属性名
+     * 数据库中属性字段假设为 "user_name"，而代码中对应的属性叫 userName。
+     * 考虑到非严谨的数据库表设计，如果本身字段名叫 "Name"，只将首字母转为小写。
+     * @param columnName
+     * @param mapUnderscoreToCamelCase 为 false 时不处理下划线，只将首字母转为小写
+     * @return
+     */
+    public static String columnToProperty(String columnName, boolean mapUnderscoreToCamelCase) {
+        if (!mapUnderscoreToCamelCase) {
+            return columnName.isEmpty() ? columnName : Character.toLowerCase(columnName.charAt(0)) + columnName.substring(1);
+        }
+        StringBuilder fieldName = new StringBuilder(columnName.length());
+        for (String word : columnName.split("_")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            fieldName.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        if (fieldName.length() > 0) {
+            fieldName.setCharAt(0, Character.toLowerCase(fieldName.charAt(0)));
+        }
+        return fieldName.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package com.creator.mybatis.executor.statement;
+
+import com.creator.mybatis.parsing.XNode;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 为 keyset 分页改写语句：加入 seek 条件 key &gt; ?（降序为 &lt;），没有 ORDER BY 时按 key 排序
+ * 只识别最外层的子句，括号与引号中的内容不参与匹配。
+ */
+public final class KeysetRewriter {
+
+    /**
+     * seek 条件占位符对应的参数名
+     */
+    public static final String KEYSET_PARAMETER = "__keyset_last";
+
+    private static final Pattern CLAUSE = Pattern.compile("\\b(WHERE|GROUP\\s+BY|HAVING|ORDER\\s+BY|LIMIT)\\b", Pattern.CASE_INSENSITIVE);
+
+    private KeysetRewriter() {
+    }
+
+    /**
+     * 改写语句
+     * @param shape 静态语句
+     * @param column 排序键列名
+     * @param descending 是否降序
+     * @param seek 是否加入 seek 条件，第一页为 false
+     * @return 新的语句形态，seek 占位符的参数名为 KEYSET_PARAMETER
+     */
+    public static XNode rewrite(XNode shape, String column, boolean descending, boolean seek) {
+        String sql = shape.getSql();
+        boolean[] topLevel = topLevel(sql);
+        int where = -1;
+        int whereEnd = -1;
+        int tail = -1;
+        int orderBy = -1;
+        int limit = -1;
+        Matcher matcher = CLAUSE.matcher(sql);
+        while (matcher.find()) {
+            if (!topLevel[matcher.start()]) {
+                continue;
+            }
+            String keyword = matcher.group(1).toUpperCase(Locale.ENGLISH);
+            if ("WHERE".equals(keyword)) {
+                where = matcher.start();
+                whereEnd = matcher.end();
+                tail = -1;
+                orderBy = -1;
+                limit = -1;
+                continue;
+            }
+            if (tail < 0) {
+                tail = matcher.start();
+            }
+            if (keyword.startsWith("ORDER")) {
+                orderBy = matcher.start();
+            } else if ("LIMIT".equals(keyword)) {
+                limit = matcher.start();
+            }
+        }
+        int insertAt = tail < 0 ? sql.length() : tail;
+        StringBuilder builder = new StringBuilder(sql.length() + column.length() * 2 + 32);
+        int parameterIndex = 0;
+        if (seek) {
+            String predicate = column + (descending ? " < ?" : " > ?");
+            if (where >= 0) {
+                //原条件加括号，避免 OR 的优先级改变语义
+                builder.append(sql, 0, whereEnd).append(" (").append(sql, whereEnd, insertAt).append(") AND ").append(predicate).append(' ');
+            } else {
+                builder.append(sql, 0, insertAt).append(" WHERE ").append(predicate).append(' ');
+            }
+            parameterIndex = countPlaceholders(sql, insertAt) + 1;
+        } else {
+            builder.append(sql, 0, insertAt);
+        }
+        if (orderBy < 0) {
+            int orderAt = limit < 0 ? sql.length() : limit;
+            builder.append(sql, insertAt, orderAt);
+            if (!Character.isWhitespace(builder.charAt(builder.length() - 1))) {
+                builder.append(' ');
+            }
+            builder.append("ORDER BY ").append(column).append(descending ? " DESC " : " ").append(sql, orderAt, sql.length());
+        } else {
+            builder.append(sql, insertAt, sql.length());
+        }
+        return shape.newShape(builder.toString().trim(), parameters(shape.getParameter(), parameterIndex));
+    }
+
+    /**
+     * 在 parameterIndex 处插入 seek 参数，其后的占位符顺延
+     */
+    private static Map<Integer, String> parameters(Map<Integer, String> parameter, int parameterIndex) {
+        if (0 == parameterIndex) {
+            return parameter;
+        }
+        Map<Integer, String> shifted = new HashMap<>(parameter.size() * 2 + 2);
+        for (Map.Entry<Integer, String> entry : parameter.entrySet()) {
+            int index = entry.getKey();
+            shifted.put(index < parameterIndex ? index : index + 1, entry.getValue());
+        }
+        shifted.put(parameterIndex, KEYSET_PARAMETER);
+        return shifted;
+    }
+
+    private static int countPlaceholders(String sql, int end) {
+        boolean[] quoted = quoted(sql);
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (sql.charAt(i) == '?' && !quoted[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 每个字符是否在引号之内
+     */
+    private static boolean[] quoted(String sql) {
+        boolean[] quoted = new boolean[sql.length()];
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (0 != quote) {
+                quoted[i] = true;
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                quoted[i] = true;
+            }
+        }
+        return quoted;
+    }
+
+    /**
+     * 每个字符是否位于最外层（不在括号或引号之内）
+     */
+    private static boolean[] topLevel(String sql) {
+        boolean[] quoted = quoted(sql);
+        boolean[] topLevel = new boolean[sql.length()];
+        int depth = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (quoted[i]) {
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else {
+                topLevel[i] = 0 == depth;
+            }
+        }
+        return topLevel;
+    }
+}
@@ -0,0 +1,54 @@
+package com.creator.mybatis.executor.statement;
+
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.reflection.Reflector;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 将 SELECT * 改写为结果类型可映射的列，避免 ES 返回整个 _source
+ * 可映射的列取自 SELECT * 实际返回的列，只保留能按行映射的规则对应到 setter 的列，
+ * 因此不会选出索引中不存在的字段，改写后的列名也一定能映射回原来的属性。
+ */
+public final class ProjectionPruner {
+
+    private static final Pattern SELECT_STAR = Pattern.compile("^(\\s*SELECT\\s+)\\*(\\s+FROM\\s)", Pattern.CASE_INSENSITIVE);
+
+    private ProjectionPruner() {
+    }
+
+    /**
+     * 改写 SQL
+     * @param sql
+     * @param reflector 结果类型
+     * @param metaData 执行 sql 得到的结果集元数据
+     * @param mapUnderscoreToCamelCase 与行映射使用相同的设置
+     * @return 不是以 SELECT * FROM 开头或没有可映射的列时原样返回
+     * @throws SQLException
+     */
+    public static String prune(String sql, Reflector reflector, ResultSetMetaData metaData, boolean mapUnderscoreToCamelCase) throws SQLException {
+        Matcher matcher = SELECT_STAR.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+        StringBuilder columns = new StringBuilder();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String column = metaData.getColumnName(i);
+            if (column.length() <= 0 || '_' == column.charAt(0)
+                    || !reflector.hasSetter(RowMappingPlan.columnToProperty(column, mapUnderscoreToCamelCase))) {
+                continue;
+            }
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append('"').append(column).append('"');
+        }
+        if (columns.length() == 0) {
+            return sql;
+        }
+        return matcher.group(1) + columns + matcher.group(2) + sql.substring(matcher.end());
+    }
+}
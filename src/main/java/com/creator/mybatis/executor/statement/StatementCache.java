@@ -0,0 +1,108 @@
+package com.creator.mybatis.executor.statement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个连接上的预编译语句 LRU 缓存，以 SQL 为键
+ * 连接同一时间只会被一个会话使用，因此本类不做同步。
+ */
+public class StatementCache {
+
+    private final int capacity;
+    private final StatementCacheStats stats;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    public StatementCache(int capacity, StatementCacheStats stats) {
+        this.capacity = capacity;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 获取 SQL 对应的预编译语句，缓存中没有时新建
+     * @param connection
+     * @param sql
+     * @return
+     * @throws SQLException
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        if (capacity <= 0) {
+            stats.miss();
+            return connection.prepareStatement(sql);
+        }
+        PreparedStatement statement = statements.get(sql);
+        if (null != statement && !statement.isClosed()) {
+            stats.hit();
+            return statement;
+        }
+        stats.miss();
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        evictOverflow();
+        return statement;
+    }
+
+    /**
+     * 语句使用完毕，未被缓存的语句直接关闭
+     * @param statement
+     */
+    public void release(PreparedStatement statement) {
+        if (capacity <= 0) {
+            closeQuietly(statement);
+        }
+    }
+
+    /**
+     * 语句执行出错后不再复用：关闭本次使用的语句，缓存中的语句是同一个实例时才移除
+     * 未启用缓存时 prepare 返回的语句不在缓存中，同样需要关闭。
+     * @param sql
+     * @param statement prepare 返回的语句
+     */
+    public void invalidate(String sql, PreparedStatement statement) {
+        statements.remove(sql, statement);
+        closeQuietly(statement);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+        while (statements.size() > capacity && iterator.hasNext()) {
+            PreparedStatement eldest = iterator.next().getValue();
+            iterator.remove();
+            stats.evict();
+            closeQuietly(eldest);
+        }
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * 关闭所有缓存的语句，在物理连接关闭前调用
+     */
+    public void close() {
+        List<PreparedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (PreparedStatement statement : all) {
+            closeQuietly(statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        if (null == statement) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException ignore) {
+            // 关闭失败不影响后续使用
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.creator.mybatis.executor.statement;
+
+/**
+ * 可以挂载预编译语句缓存的连接
+ * 池化连接实现该接口，使缓存跟随物理连接在多个会话间复用。
+ */
+public interface StatementCacheAware {
+
+    StatementCache getStatementCache();
+
+    void setStatementCache(StatementCache statementCache);
+}
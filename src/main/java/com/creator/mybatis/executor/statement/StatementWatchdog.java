@@ -0,0 +1,93 @@
+package com.creator.mybatis.executor.statement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 超时看门狗：执行超过时限时调用 Statement.cancel()
+ * setQueryTimeout 只能精确到秒，且部分驱动在读取结果阶段不检查超时，看门狗按毫秒覆盖执行与读取两个阶段。
+ */
+public class StatementWatchdog {
+
+    private static final Logger log = Logger.getLogger(StatementWatchdog.class.getName());
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public StatementWatchdog() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "esbatis-statement-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //执行按时完成时取消的任务立即移出队列
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 开始监视
+     * @param statement
+     * @param timeoutMillis 大于 0
+     * @return 执行结束后需调用 Watch.close()
+     */
+    public Watch watch(Statement statement, long timeoutMillis) {
+        Watch watch = new Watch(statement);
+        watch.future = scheduler.schedule(watch, timeoutMillis, TimeUnit.MILLISECONDS);
+        return watch;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public static final class Watch implements Runnable {
+
+        private static final int ACTIVE = 0;
+        private static final int DONE = 1;
+        private static final int FIRED = 2;
+
+        private final Statement statement;
+        private final AtomicInteger state = new AtomicInteger(ACTIVE);
+        private volatile ScheduledFuture<?> future;
+
+        private Watch(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(ACTIVE, FIRED)) {
+                return;
+            }
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.log(Level.WARNING, "Could not cancel statement after timeout", e);
+            }
+        }
+
+        public boolean isFired() {
+            return state.get() == FIRED;
+        }
+
+        /**
+         * 结束监视
+         * @return 看门狗是否已经取消过语句，为 true 时语句不应再复用
+         */
+        public boolean close() {
+            if (state.compareAndSet(ACTIVE, DONE)) {
+                ScheduledFuture<?> scheduled = future;
+                if (null != scheduled) {
+                    scheduled.cancel(false);
+                }
+                return false;
+            }
+            return state.get() == FIRED;
+        }
+    }
+}
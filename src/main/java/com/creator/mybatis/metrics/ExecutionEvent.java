@@ -0,0 +1,83 @@
+package com.creator.mybatis.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 一次语句执行的耗时与结果
+ * 耗时分为三个阶段：prepare（获取预编译语句、设置参数），execute（executeQuery），fetch（读取并映射结果）。
+ */
+public class ExecutionEvent {
+
+    private final String statementId;
+    private final String sql;
+    private final Supplier<Object[]> parameterValues;
+    private final long prepareNanos;
+    private final long executeNanos;
+    private final long fetchNanos;
+    private final int rows;
+    private final Throwable error;
+
+    public ExecutionEvent(String statementId, String sql, Supplier<Object[]> parameterValues,
+                          long prepareNanos, long executeNanos, long fetchNanos, int rows, Throwable error) {
+        this.statementId = statementId;
+        this.sql = sql;
+        this.parameterValues = parameterValues;
+        this.prepareNanos = prepareNanos;
+        this.executeNanos = executeNanos;
+        this.fetchNanos = fetchNanos;
+        this.rows = rows;
+        this.error = error;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 按占位符顺序的参数值，调用时才计算
+     * @return
+     */
+    public Object[] getParameterValues() {
+        return parameterValues.get();
+    }
+
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos() {
+        return prepareNanos + executeNanos + fetchNanos;
+    }
+
+    /**
+     * 映射的行数，游标查询为 0（行在迭代时才读取）
+     * @return
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * 执行失败时的异常，成功时为 null
+     * @return
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isError() {
+        return null != error;
+    }
+}
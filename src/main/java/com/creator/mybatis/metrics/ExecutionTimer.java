@@ -0,0 +1,37 @@
+package com.creator.mybatis.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 记录一次执行各阶段的时间点，执行结束时生成 ExecutionEvent
+ * 未到达的阶段耗时计为 0，失败前已经过的时间计入失败所在的阶段。
+ */
+public class ExecutionTimer {
+
+    private final long start = System.nanoTime();
+    private long prepared;
+    private long executed;
+
+    /**
+     * 已取得预编译语句并绑定参数
+     */
+    public void prepared() {
+        prepared = System.nanoTime();
+    }
+
+    /**
+     * executeQuery 已返回
+     */
+    public void executed() {
+        executed = System.nanoTime();
+    }
+
+    public ExecutionEvent finish(String statementId, String sql, Supplier<Object[]> parameterValues, int rows, Throwable error) {
+        long end = System.nanoTime();
+        long prepareEnd = 0 == prepared ? end : prepared;
+        long executeEnd = 0 == executed ? end : executed;
+        long executeNanos = 0 == prepared ? 0 : executeEnd - prepared;
+        long fetchNanos = 0 == executed ? 0 : end - executed;
+        return new ExecutionEvent(statementId, sql, parameterValues, prepareEnd - start, executeNanos, fetchNanos, rows, error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.creator.mybatis.metrics;
+
+/**
+ * 语句执行指标的监听器，每次执行结束（成功或失败）后回调一次
+ * 回调在执行查询的线程中同步进行，实现应尽量轻量且线程安全。
+ */
+public interface MetricsListener {
+
+    void onExecution(ExecutionEvent event);
+}
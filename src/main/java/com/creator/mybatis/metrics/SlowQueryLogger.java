@@ -0,0 +1,52 @@
+package com.creator.mybatis.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 慢查询日志：总耗时达到阈值的执行按采样率输出语句 id、参数与各阶段耗时
+ */
+public class SlowQueryLogger implements MetricsListener {
+
+    private static final Logger log = Logger.getLogger(SlowQueryLogger.class.getName());
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    /**
+     * @param thresholdMillis 慢查询阈值（毫秒）
+     * @param sampleRate 采样率，0 到 1 之间，1 表示全部输出
+     */
+    public SlowQueryLogger(long thresholdMillis, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("slowQuerySampleRate must be between 0 and 1: " + sampleRate);
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void onExecution(ExecutionEvent event) {
+        if (event.getTotalNanos() < thresholdNanos || !log.isLoggable(Level.WARNING)) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.warning(String.format("Slow query %s took %.3fms (prepare %.3fms, execute %.3fms, fetch %.3fms), rows %d, parameters %s%s",
+                event.getStatementId(), event.getTotalNanos() / 1e6, event.getPrepareNanos() / 1e6,
+                event.getExecuteNanos() / 1e6, event.getFetchNanos() / 1e6, event.getRows(),
+                Arrays.toString(event.getParameterValues()), event.isError() ? ", failed: " + event.getError() : ""));
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+}
@@ -0,0 +1,85 @@
+package com.creator.mybatis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单条语句的累计指标
+ */
+public class StatementMetrics {
+
+    private final String statementId;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram prepare = new LatencyHistogram();
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram fetch = new LatencyHistogram();
+
+    public StatementMetrics(String statementId) {
+        this.statementId = statementId;
+    }
+
+    void record(ExecutionEvent event) {
+        executions.increment();
+        if (event.isError()) {
+            errors.increment();
+        }
+        rows.add(event.getRows());
+        prepare.record(event.getPrepareNanos());
+        execute.record(event.getExecuteNanos());
+        fetch.record(event.getFetchNanos());
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * 获取预编译语句与绑定参数的耗时
+     * @return
+     */
+    public LatencyHistogram getPrepare() {
+        return prepare;
+    }
+
+    /**
+     * executeQuery 的耗时
+     * @return
+     */
+    public LatencyHistogram getExecute() {
+        return execute;
+    }
+
+    /**
+     * 读取与映射结果的耗时
+     * @return
+     */
+    public LatencyHistogram getFetch() {
+        return fetch;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementMetrics{" +
+                "statementId='" + statementId + '\'' +
+                ", executions=" + getExecutions() +
+                ", errors=" + getErrors() +
+                ", rows=" + getRows() +
+                ", prepare={" + prepare + '}' +
+                ", execute={" + execute + '}' +
+                ", fetch={" + fetch + '}' +
+                '}';
+    }
+}
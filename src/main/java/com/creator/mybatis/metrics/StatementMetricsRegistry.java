@@ -0,0 +1,43 @@
+package com.creator.mybatis.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内置的指标监听器，按语句 id 累计执行次数、错误数、行数与各阶段耗时
+ */
+public class StatementMetricsRegistry implements MetricsListener {
+
+    private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void onExecution(ExecutionEvent event) {
+        String statementId = event.getStatementId();
+        StatementMetrics statementMetrics = metrics.get(statementId);
+        if (null == statementMetrics) {
+            statementMetrics = new StatementMetrics(statementId);
+            StatementMetrics existing = metrics.putIfAbsent(statementId, statementMetrics);
+            if (null != existing) {
+                statementMetrics = existing;
+            }
+        }
+        statementMetrics.record(event);
+    }
+
+    /**
+     * @param statementId
+     * @return 语句还没有执行过时为 null
+     */
+    public StatementMetrics get(String statementId) {
+        return metrics.get(statementId);
+    }
+
+    public Map<String, StatementMetrics> getAll() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    public void clear() {
+        metrics.clear();
+    }
+}
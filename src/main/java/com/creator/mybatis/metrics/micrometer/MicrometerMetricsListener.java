@@ -0,0 +1,88 @@
+package com.creator.mybatis.metrics.micrometer;
+
+import com.creator.mybatis.metrics.ExecutionEvent;
+import com.creator.mybatis.metrics.MetricsListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将语句指标发布到 Micrometer
+ * 指标：esbatis.statement（Timer，标签 statement、phase），esbatis.statement.errors（Counter），
+ * esbatis.statement.rows（DistributionSummary）。
+ * Micrometer 为可选依赖，只有使用本类时才需要在类路径上。
+ */
+public class MicrometerMetricsListener implements MetricsListener {
+
+    private final MeterRegistry registry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 发布到 Micrometer 全局注册表
+     * @return
+     */
+    public static MicrometerMetricsListener globalRegistry() {
+        return new MicrometerMetricsListener(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void onExecution(ExecutionEvent event) {
+        String statementId = event.getStatementId();
+        Meters statementMeters = meters.get(statementId);
+        if (null == statementMeters) {
+            statementMeters = new Meters(registry, statementId);
+            Meters existing = meters.putIfAbsent(statementId, statementMeters);
+            if (null != existing) {
+                statementMeters = existing;
+            }
+        }
+        statementMeters.prepare.record(event.getPrepareNanos(), TimeUnit.NANOSECONDS);
+        statementMeters.execute.record(event.getExecuteNanos(), TimeUnit.NANOSECONDS);
+        statementMeters.fetch.record(event.getFetchNanos(), TimeUnit.NANOSECONDS);
+        statementMeters.rows.record(event.getRows());
+        if (event.isError()) {
+            statementMeters.errors.increment();
+        }
+    }
+
+    /**
+     * 一条语句的全部指标，创建一次后复用，避免每次执行都查找注册表
+     */
+    private static final class Meters {
+        private final Timer prepare;
+        private final Timer execute;
+        private final Timer fetch;
+        private final Counter errors;
+        private final DistributionSummary rows;
+
+        private Meters(MeterRegistry registry, String statementId) {
+            this.prepare = timer(registry, statementId, "prepare");
+            this.execute = timer(registry, statementId, "execute");
+            this.fetch = timer(registry, statementId, "fetch");
+            this.errors = Counter.builder("esbatis.statement.errors")
+                    .tag("statement", statementId)
+                    .register(registry);
+            this.rows = DistributionSummary.builder("esbatis.statement.rows")
+                    .tag("statement", statementId)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String statementId, String phase) {
+            return Timer.builder("esbatis.statement")
+                    .tag("statement", statementId)
+                    .tag("phase", phase)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
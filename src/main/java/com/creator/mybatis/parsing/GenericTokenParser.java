@@ -0,0 +1,49 @@
+package com.creator.mybatis.parsing;
+
+/**
+ * 单遍扫描的占位符解析器，将 openToken...closeToken 替换为 handler 返回的文本
+ * 以反斜杠转义的 openToken 原样保留（去掉反斜杠）。
+ */
+public class GenericTokenParser {
+
+    private final String openToken;
+    private final String closeToken;
+    private final TokenHandler handler;
+
+    public GenericTokenParser(String openToken, String closeToken, TokenHandler handler) {
+        this.openToken = openToken;
+        this.closeToken = closeToken;
+        this.handler = handler;
+    }
+
+    public String parse(String text) {
+        if (null == text || text.isEmpty()) {
+            return "";
+        }
+        int start = text.indexOf(openToken);
+        if (start == -1) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        int offset = 0;
+        while (start > -1) {
+            if (start > 0 && text.charAt(start - 1) == '\\') {
+                //转义的 openToken
+                builder.append(text, offset, start - 1).append(openToken);
+                offset = start + openToken.length();
+            } else {
+                int end = text.indexOf(closeToken, start + openToken.length());
+                if (end == -1) {
+                    //没有闭合，剩余部分原样保留
+                    break;
+                }
+                builder.append(text, offset, start);
+                builder.append(handler.handleToken(text.substring(start + openToken.length(), end).trim()));
+                offset = end + closeToken.length();
+            }
+            start = text.indexOf(openToken, offset);
+        }
+        builder.append(text, offset, text.length());
+        return builder.toString();
+    }
+}
@@ -0,0 +1,535 @@
+package com.creator.mybatis.parsing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 拉取式 JSON 解析器
+ * 调用方按文档结构逐个读取标记，不构建整棵树，读取大数组时内存占用与元素个数无关。
+ * 数字可以直接读取为 long/double，不经过中间字符串。
+ * <pre>
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     ...
+ * }
+ * reader.endObject();
+ * </pre>
+ */
+public class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    /**
+     * 已丢弃的缓冲区字符数，用于报告出错位置
+     */
+    private long consumed;
+    private int[] stack = new int[16];
+    private int stackSize;
+    private Token peeked;
+    private final StringBuilder builder = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * 查看下一个标记，不消费值
+     * @return
+     * @throws IOException
+     */
+    public Token peek() throws IOException {
+        if (null != peeked) {
+            return peeked;
+        }
+        int c;
+        switch (stack[stackSize - 1]) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                return peeked = peekValue();
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                expect(c, ',');
+                return peeked = peekValue();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+                    expect(c, ',');
+                    c = nextNonWhitespace();
+                }
+                expect(c, '"');
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                expect(nextNonWhitespace(), ':');
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return peeked = peekValue();
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return peeked = peekValue();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Expected end of document");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                pos++;
+                return Token.BEGIN_OBJECT;
+            case '[':
+                pos++;
+                return Token.BEGIN_ARRAY;
+            case '"':
+                pos++;
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError(c == -1 ? "Unexpected end of input" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void expect(int c, char expected) throws IOException {
+        if (c != expected) {
+            throw syntaxError(c == -1 ? "Unexpected end of input, expected '" + expected + "'"
+                    : "Expected '" + expected + "' but was '" + (char) c + "'");
+        }
+        pos++;
+    }
+
+    private Token consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+        return token;
+    }
+
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    /**
+     * 当前数组或对象中是否还有元素
+     * @return
+     * @throws IOException
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * 读取字符串，数字按原文返回
+     * @return
+     * @throws IOException
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return readString();
+        }
+        if (token == Token.NUMBER) {
+            peeked = null;
+            return readLiteral();
+        }
+        throw syntaxError("Expected STRING but was " + token);
+    }
+
+    /**
+     * 读取整数，整数字面量直接在缓冲区上累加，字符串按十进制解析
+     * @return
+     * @throws IOException
+     */
+    public long nextLong() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return parseLong(readString());
+        }
+        if (token != Token.NUMBER) {
+            throw syntaxError("Expected NUMBER but was " + token);
+        }
+        peeked = null;
+        fill(1);
+        boolean negative = buffer[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < limit || fill(1)) {
+            char c = buffer[pos];
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (digits >= 18) {
+                //可能溢出，按文本解析
+                return parseLong((negative ? "-" : "") + value + readLiteral());
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            pos++;
+        }
+        if (pos < limit || fill(1)) {
+            char c = buffer[pos];
+            if (c == '.' || c == 'e' || c == 'E') {
+                //1.0、1e3 这类整数值
+                String text = (negative ? "-" : "") + value + readLiteral();
+                return parseLong(text);
+            }
+        }
+        if (digits == 0) {
+            throw syntaxError("Malformed number");
+        }
+        return negative ? -value : value;
+    }
+
+    private long parseLong(String text) throws IOException {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            double value;
+            try {
+                value = Double.parseDouble(text);
+            } catch (NumberFormatException e2) {
+                throw syntaxError("Expected a long but was " + text);
+            }
+            long result = (long) value;
+            if (result != value) {
+                throw syntaxError("Expected a long but was " + text);
+            }
+            return result;
+        }
+    }
+
+    public double nextDouble() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw syntaxError("Expected NUMBER but was " + token);
+        }
+        String text = nextString();
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a double but was " + text);
+        }
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        String literal = readLiteral();
+        if ("true".equals(literal)) {
+            return true;
+        }
+        if ("false".equals(literal)) {
+            return false;
+        }
+        throw syntaxError("Expected a boolean but was " + literal);
+    }
+
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+        String literal = readLiteral();
+        if (!"null".equals(literal)) {
+            throw syntaxError("Expected null but was " + literal);
+        }
+    }
+
+    /**
+     * 读取任意值：对象为 Map，数组为 List，整数为 Long，小数为 Double
+     * @return
+     * @throws IOException
+     */
+    public Object nextValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(nextValue());
+                }
+                endArray();
+                return list;
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    map.put(nextName(), nextValue());
+                }
+                endObject();
+                return map;
+            case STRING:
+                return nextString();
+            case NUMBER:
+                String text = nextString();
+                if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                    try {
+                        return Long.valueOf(text);
+                    } catch (NumberFormatException e) {
+                        //超出 long 范围，按小数处理
+                    }
+                }
+                return Double.valueOf(text);
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    /**
+     * 跳过下一个值，对象与数组整体跳过
+     * @throws IOException
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                case NUMBER:
+                    nextString();
+                    break;
+                case BOOLEAN:
+                case NULL:
+                    peeked = null;
+                    readLiteral();
+                    break;
+                default:
+                    throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * 读取引号内的字符串，开头的引号已被消费
+     */
+    private String readString() throws IOException {
+        int start = pos;
+        //快速路径：缓冲区内没有转义字符
+        while (pos < limit) {
+            char c = buffer[pos];
+            if (c == '"') {
+                String value = new String(buffer, start, pos - start);
+                pos++;
+                return value;
+            }
+            if (c == '\\') {
+                break;
+            }
+            pos++;
+        }
+        builder.setLength(0);
+        builder.append(buffer, start, pos - start);
+        while (true) {
+            if (pos >= limit && !fill(1)) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c == '\\') {
+                builder.append(readEscape());
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos >= limit && !fill(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case 'u':
+                if (pos + 4 > limit && !fill(4)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            default:
+                throw syntaxError("Invalid escape sequence \\" + c);
+        }
+    }
+
+    /**
+     * 读取 true、false、null 或数字字面量，直到分隔符为止
+     */
+    private String readLiteral() throws IOException {
+        builder.setLength(0);
+        while (pos < limit || fill(1)) {
+            char c = buffer[pos];
+            if (c == ',' || c == ']' || c == '}' || c == ':' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+        return builder.toString();
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill(1)) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * 保证缓冲区中至少还有 minimum 个字符
+     * @return 输入已结束且字符不足时为 false
+     */
+    private boolean fill(int minimum) throws IOException {
+        if (limit - pos >= minimum) {
+            return true;
+        }
+        consumed += pos;
+        System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        int read;
+        while ((read = in.read(buffer, limit, buffer.length - limit)) != -1) {
+            limit += read;
+            if (limit >= minimum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + (consumed + pos));
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 0;
+        in.close();
+    }
+}
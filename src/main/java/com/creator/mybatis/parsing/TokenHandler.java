@@ -0,0 +1,13 @@
+package com.creator.mybatis.parsing;
+
+/**
+ * 处理 GenericTokenParser 识别出的占位符内容
+ */
+public interface TokenHandler {
+
+    /**
+     * @param content 占位符中的内容，如 #{id} 中的 id
+     * @return 替换占位符的文本
+     */
+    String handleToken(String content);
+}
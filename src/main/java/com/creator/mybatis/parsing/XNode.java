@@ -1,14 +1,60 @@
 package com.creator.mybatis.parsing;
 
+import com.creator.mybatis.cache.Cache;
+import com.creator.mybatis.executor.parameter.ParameterBinder;
+import com.creator.mybatis.scripting.DynamicSqlSource;
+
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class XNode {
     private String namespace;
     private String id;
+    private String statementId;
+    /**
+     * 语句所在的 mapper 资源
+     */
+    private String resource;
     private String parameterType;
     private String resultType;
     private String sql;
     private Map<Integer, String> parameter;
+    /**
+     * 含 &lt;if&gt;、&lt;foreach&gt; 等元素的动态语句，静态语句为空
+     */
+    private DynamicSqlSource sqlSource;
+    /**
+     * 动态语句的原始 XML，用于写入语句快照
+     */
+    private String script;
+    private Integer fetchSize;
+    /**
+     * 查询超时（秒），为空时使用 defaultStatementTimeout
+     */
+    private Integer timeout;
+    /**
+     * 是否将 SELECT * 改写为结果类型的列，为空时使用全局配置
+     */
+    private Boolean pruneColumns;
+    private volatile String prunedSql;
+    /**
+     * 命名空间的二级缓存，未配置 &lt;cache&gt; 或 useCache="false" 时为空
+     */
+    private Cache cache;
+    /**
+     * 是否使用命名空间的二级缓存（select 的 useCache 属性）
+     */
+    private boolean useCache = true;
+    private volatile Class<?> resultTypeClass;
+    /**
+     * 参数绑定计划，按参数类型缓存
+     */
+    private final Map<Class<?>, ParameterBinder> parameterBinders = new ConcurrentHashMap<>();
+    /**
+     * 派生形态，首次使用时创建
+     */
+    private volatile Map<String, XNode> derivedShapes;
 
     public String getNamespace() {
         return namespace;
@@ -16,6 +62,7 @@ public class XNode {
 
     public void setNamespace(String namespace) {
         this.namespace = namespace;
+        this.statementId = null;
     }
 
     public String getId() {
@@ -24,6 +71,28 @@ public class XNode {
 
     public void setId(String id) {
         this.id = id;
+        this.statementId = null;
+    }
+
+    /**
+     * 语句 id：命名空间.id
+     * @return
+     */
+    public String getStatementId() {
+        String statementId = this.statementId;
+        if (null == statementId) {
+            statementId = namespace + "." + id;
+            this.statementId = statementId;
+        }
+        return statementId;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
     }
 
     public String getParameterType() {
@@ -40,6 +109,37 @@ public class XNode {
 
     public void setResultType(String resultType) {
         this.resultType = resultType;
+        this.resultTypeClass = null;
+    }
+
+    /**
+     * 获取结果类型对应的 Class，只加载一次
+     * map 表示每行映射为只读的 Map；long[]、int[]、double[] 表示按原始类型读取单列数值
+     * @return
+     * @throws ClassNotFoundException
+     */
+    public Class<?> getResultTypeClass() throws ClassNotFoundException {
+        Class<?> clazz = resultTypeClass;
+        if (null == clazz) {
+            switch (resultType) {
+                case "map":
+                    clazz = Map.class;
+                    break;
+                case "long[]":
+                    clazz = long[].class;
+                    break;
+                case "int[]":
+                    clazz = int[].class;
+                    break;
+                case "double[]":
+                    clazz = double[].class;
+                    break;
+                default:
+                    clazz = Class.forName(resultType);
+            }
+            resultTypeClass = clazz;
+        }
+        return clazz;
     }
 
     public String getSql() {
@@ -48,6 +148,7 @@ public class XNode {
 
     public void setSql(String sql) {
         this.sql = sql;
+        this.prunedSql = null;
     }
 
     public Map<Integer, String> getParameter() {
@@ -56,5 +157,129 @@ public class XNode {
 
     public void setParameter(Map<Integer, String> parameter) {
         this.parameter = parameter;
+        this.parameterBinders.clear();
+    }
+
+    public DynamicSqlSource getSqlSource() {
+        return sqlSource;
+    }
+
+    public void setSqlSource(DynamicSqlSource sqlSource) {
+        this.sqlSource = sqlSource;
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    public void setScript(String script) {
+        this.script = script;
+    }
+
+    /**
+     * 以动态语句求值得到的 SQL 创建一个静态形态，其余属性与本语句相同
+     * @param sql
+     * @param parameter
+     * @return
+     */
+    public XNode newShape(String sql, Map<Integer, String> parameter) {
+        XNode shape = new XNode();
+        shape.namespace = namespace;
+        shape.id = id;
+        shape.resource = resource;
+        shape.parameterType = parameterType;
+        shape.resultType = resultType;
+        shape.resultTypeClass = resultTypeClass;
+        shape.sql = sql;
+        shape.parameter = parameter;
+        shape.fetchSize = fetchSize;
+        shape.timeout = timeout;
+        shape.pruneColumns = pruneColumns;
+        shape.cache = cache;
+        shape.useCache = useCache;
+        return shape;
+    }
+
+    /**
+     * 获取由本语句派生的形态（如 keyset 分页的 seek 语句），同一个键只创建一次
+     * @param key 由派生方定义
+     * @param factory
+     * @return
+     */
+    public XNode getDerivedShape(String key, Function<XNode, XNode> factory) {
+        Map<String, XNode> shapes = derivedShapes;
+        if (null == shapes) {
+            synchronized (this) {
+                if (null == derivedShapes) {
+                    derivedShapes = new ConcurrentHashMap<>();
+                }
+                shapes = derivedShapes;
+            }
+        }
+        XNode shape = shapes.get(key);
+        if (null == shape) {
+            shape = factory.apply(this);
+            XNode existing = shapes.putIfAbsent(key, shape);
+            if (null != existing) {
+                shape = existing;
+            }
+        }
+        return shape;
+    }
+
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Integer timeout) {
+        this.timeout = timeout;
+    }
+
+    public Boolean getPruneColumns() {
+        return pruneColumns;
+    }
+
+    public void setPruneColumns(Boolean pruneColumns) {
+        this.pruneColumns = pruneColumns;
+    }
+
+    /**
+     * 改写投影后的 SQL，首次使用时生成
+     * @return
+     */
+    public String getPrunedSql() {
+        return prunedSql;
+    }
+
+    public void setPrunedSql(String prunedSql) {
+        this.prunedSql = prunedSql;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    public Map<Class<?>, ParameterBinder> getParameterBinders() {
+        return parameterBinders;
     }
 }
@@ -0,0 +1,267 @@
+package com.creator.mybatis.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 访问器生成器
+ * 优先通过 LambdaMetafactory 生成直接调用的构造器/setter/getter，
+ * 生成失败（类不可见、非 public 等）时退化为 MethodHandle，最后退化为普通反射。
+ */
+public final class AccessorGenerator {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private AccessorGenerator() {
+    }
+
+    /**
+     * 生成无参构造器
+     * @param type
+     * @return 没有可用的无参构造器时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static Supplier<Object> constructor(Class<?> type) {
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (canGenerate(type) && Modifier.isPublic(constructor.getModifiers())) {
+            try {
+                MethodHandle target = LOOKUP.unreflectConstructor(constructor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        target, MethodType.methodType(type));
+                return (Supplier<Object>) site.getTarget().invoke();
+            } catch (Throwable ignore) {
+                // 退化为反射
+            }
+        }
+        constructor.setAccessible(true);
+        final Constructor<?> c = constructor;
+        return () -> {
+            try {
+                return c.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new ReflectionException("Could not instantiate " + c.getDeclaringClass().getName(), e);
+            }
+        };
+    }
+
+    /**
+     * 生成 setter
+     * @param method
+     * @return
+     */
+    public static BiConsumer<Object, Object> setter(Method method) {
+        BiConsumer<Object, Object> setter = lambdaSetter(method);
+        if (null == setter) {
+            setter = handleSetter(method);
+        }
+        return null == setter ? reflectiveSetter(method) : setter;
+    }
+
+    /**
+     * @return 无法生成时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> lambdaSetter(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!canGenerate(declaringClass) || !Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle target = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    target, MethodType.methodType(void.class, declaringClass, wrap(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 无法访问时返回 null
+     */
+    static BiConsumer<Object, Object> handleSetter(Method method) {
+        try {
+            method.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new ReflectionException("Could not invoke " + method, t);
+                }
+            };
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    static BiConsumer<Object, Object> reflectiveSetter(Method method) {
+        return (target, value) -> {
+            try {
+                method.invoke(target, value);
+            } catch (ReflectiveOperationException e) {
+                throw new ReflectionException("Could not invoke " + method, e);
+            }
+        };
+    }
+
+    /**
+     * 生成 getter
+     * @param method
+     * @return
+     */
+    public static Function<Object, Object> getter(Method method) {
+        Function<Object, Object> getter = lambdaGetter(method);
+        if (null == getter) {
+            getter = handleGetter(method);
+        }
+        return null == getter ? reflectiveGetter(method) : getter;
+    }
+
+    /**
+     * @return 无法生成时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> lambdaGetter(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!canGenerate(declaringClass) || !Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle target = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    target, MethodType.methodType(wrap(method.getReturnType()), declaringClass));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 无法访问时返回 null
+     */
+    static Function<Object, Object> handleGetter(Method method) {
+        try {
+            method.setAccessible(true);
+            return handleGetter(LOOKUP.unreflect(method), method.toString());
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    static Function<Object, Object> reflectiveGetter(Method method) {
+        return target -> {
+            try {
+                return method.invoke(target);
+            } catch (ReflectiveOperationException e) {
+                throw new ReflectionException("Could not invoke " + method, e);
+            }
+        };
+    }
+
+    /**
+     * 生成字段读取器，用于没有 getter 的字段
+     * @param field
+     * @return
+     */
+    public static Function<Object, Object> getter(Field field) {
+        try {
+            field.setAccessible(true);
+            return handleGetter(LOOKUP.unreflectGetter(field), field.toString());
+        } catch (Exception ignore) {
+            // 退化为反射
+        }
+        return target -> {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new ReflectionException("Could not read " + field, e);
+            }
+        };
+    }
+
+    private static Function<Object, Object> handleGetter(MethodHandle handle, String description) {
+        final MethodHandle h = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return target -> {
+            try {
+                return h.invokeExact(target);
+            } catch (Throwable t) {
+                throw new ReflectionException("Could not invoke " + description, t);
+            }
+        };
+    }
+
+    /**
+     * 生成的 lambda 挂在本类上，只有本类的类加载器能看到目标类、且目标类为 public 时才能生成
+     * @param type
+     * @return
+     */
+    private static boolean canGenerate(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        for (Class<?> c = type.getEnclosingClass(); c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, AccessorGenerator.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (int.class == type) {
+            return Integer.class;
+        }
+        if (long.class == type) {
+            return Long.class;
+        }
+        if (boolean.class == type) {
+            return Boolean.class;
+        }
+        if (double.class == type) {
+            return Double.class;
+        }
+        if (float.class == type) {
+            return Float.class;
+        }
+        if (short.class == type) {
+            return Short.class;
+        }
+        if (byte.class == type) {
+            return Byte.class;
+        }
+        if (char.class == type) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+}
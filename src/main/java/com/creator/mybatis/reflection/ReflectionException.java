@@ -0,0 +1,17 @@
+package com.creator.mybatis.reflection;
+
+/**
+ * 反射调用失败时抛出
+ */
+public class ReflectionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReflectionException(String message) {
+        super(message);
+    }
+
+    public ReflectionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,166 @@
+package com.creator.mybatis.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 某个类的属性访问元信息
+ * 构造器、setter、getter 均在创建时生成好，之后的读写不再经过反射查找。
+ */
+public class Reflector {
+
+    private final Class<?> type;
+    private final Supplier<Object> constructor;
+    private final Map<String, BiConsumer<Object, Object>> setters = new HashMap<>();
+    private final Map<String, Class<?>> setterTypes = new HashMap<>();
+    private final Map<String, Function<Object, Object>> getters = new HashMap<>();
+    private final Map<String, Class<?>> getterTypes = new HashMap<>();
+
+    public Reflector(Class<?> type) {
+        this.type = type;
+        this.constructor = AccessorGenerator.constructor(type);
+        Map<String, Class<?>> fieldTypes = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fieldTypes.putIfAbsent(field.getName(), field.getType());
+                }
+            }
+        }
+        addGetMethods(type.getMethods());
+        addSetMethods(type.getMethods(), fieldTypes);
+        addFields(type);
+    }
+
+    private void addGetMethods(Method[] methods) {
+        for (Method method : methods) {
+            if (method.getParameterCount() != 0 || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            String property;
+            if (name.startsWith("get") && name.length() > 3 && void.class != method.getReturnType()) {
+                property = decapitalize(name.substring(3));
+            } else if (name.startsWith("is") && name.length() > 2 && boolean.class == method.getReturnType()) {
+                property = decapitalize(name.substring(2));
+            } else {
+                continue;
+            }
+            if (!getters.containsKey(property)) {
+                getters.put(property, AccessorGenerator.getter(method));
+                getterTypes.put(property, method.getReturnType());
+            }
+        }
+    }
+
+    private void addSetMethods(Method[] methods, Map<String, Class<?>> fieldTypes) {
+        Map<String, Method> chosen = new HashMap<>();
+        for (Method method : methods) {
+            String name = method.getName();
+            if (method.getParameterCount() != 1 || !name.startsWith("set") || name.length() <= 3) {
+                continue;
+            }
+            String property = decapitalize(name.substring(3));
+            Method existing = chosen.get(property);
+            //存在重载的 setter 时，优先选择参数类型与字段或 getter 类型一致的那个
+            if (null == existing || matches(method, property, fieldTypes)) {
+                chosen.put(property, method);
+            }
+        }
+        for (Map.Entry<String, Method> entry : chosen.entrySet()) {
+            Method method = entry.getValue();
+            setters.put(entry.getKey(), AccessorGenerator.setter(method));
+            setterTypes.put(entry.getKey(), method.getParameterTypes()[0]);
+        }
+    }
+
+    private boolean matches(Method setter, String property, Map<String, Class<?>> fieldTypes) {
+        Class<?> paramType = setter.getParameterTypes()[0];
+        Class<?> expected = fieldTypes.get(property);
+        if (null == expected) {
+            expected = getterTypes.get(property);
+        }
+        return paramType == expected;
+    }
+
+    /**
+     * 没有 getter 的字段直接读取字段值（参数对象常见这种写法）
+     * @param type
+     */
+    private void addFields(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || getters.containsKey(field.getName())) {
+                    continue;
+                }
+                getters.put(field.getName(), AccessorGenerator.getter(field));
+                getterTypes.put(field.getName(), field.getType());
+            }
+        }
+    }
+
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean hasDefaultConstructor() {
+        return null != constructor;
+    }
+
+    /**
+     * 创建实例
+     * @return
+     */
+    public Object newInstance() {
+        if (null == constructor) {
+            throw new ReflectionException("There is no default constructor for " + type.getName());
+        }
+        return constructor.get();
+    }
+
+    public Supplier<Object> getConstructor() {
+        return constructor;
+    }
+
+    public BiConsumer<Object, Object> getSetter(String property) {
+        return setters.get(property);
+    }
+
+    public Class<?> getSetterType(String property) {
+        return setterTypes.get(property);
+    }
+
+    public Function<Object, Object> getGetter(String property) {
+        return getters.get(property);
+    }
+
+    public Class<?> getGetterType(String property) {
+        return getterTypes.get(property);
+    }
+
+    public boolean hasSetter(String property) {
+        return setters.containsKey(property);
+    }
+
+    public boolean hasGetter(String property) {
+        return getters.containsKey(property);
+    }
+
+    public Map<String, Class<?>> getSetterTypes() {
+        return Collections.unmodifiableMap(setterTypes);
+    }
+}
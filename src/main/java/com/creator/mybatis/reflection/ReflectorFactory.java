@@ -0,0 +1,24 @@
+package com.creator.mybatis.reflection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reflector 缓存，每个类只解析一次
+ */
+public class ReflectorFactory {
+
+    private final Map<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
+
+    public Reflector findForClass(Class<?> type) {
+        Reflector reflector = reflectorMap.get(type);
+        if (null == reflector) {
+            reflector = new Reflector(type);
+            Reflector existing = reflectorMap.putIfAbsent(type, reflector);
+            if (null != existing) {
+                reflector = existing;
+            }
+        }
+        return reflector;
+    }
+}
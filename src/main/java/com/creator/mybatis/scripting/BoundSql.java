@@ -0,0 +1,51 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.parsing.XNode;
+
+import java.util.List;
+
+/**
+ * 动态 SQL 求值的结果：本次执行使用的语句形态与参数
+ */
+public class BoundSql {
+
+    private final XNode xNode;
+    private final Object parameterObject;
+    private final List<BoundSql> batches;
+
+    public BoundSql(XNode xNode, Object parameterObject) {
+        this.xNode = xNode;
+        this.parameterObject = parameterObject;
+        this.batches = null;
+    }
+
+    /**
+     * 超长 IN 列表拆分后的多次执行，语句与参数取第一批
+     * @param batches
+     */
+    public BoundSql(List<BoundSql> batches) {
+        this.xNode = batches.get(0).getXNode();
+        this.parameterObject = batches.get(0).getParameterObject();
+        this.batches = batches;
+    }
+
+    /**
+     * 具体 SQL 形态对应的语句，同一形态共用同一个对象，从而共用预编译语句与参数绑定计划
+     * @return
+     */
+    public XNode getXNode() {
+        return xNode;
+    }
+
+    public Object getParameterObject() {
+        return parameterObject;
+    }
+
+    /**
+     * 需要依次执行并合并结果的各批次，未拆分时为 null
+     * @return
+     */
+    public List<BoundSql> getBatches() {
+        return batches;
+    }
+}
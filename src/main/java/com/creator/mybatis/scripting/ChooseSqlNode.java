@@ -0,0 +1,28 @@
+package com.creator.mybatis.scripting;
+
+import java.util.List;
+
+public class ChooseSqlNode implements SqlNode {
+
+    private final SqlNode[] ifSqlNodes;
+    private final SqlNode defaultSqlNode;
+
+    public ChooseSqlNode(List<SqlNode> ifSqlNodes, SqlNode defaultSqlNode) {
+        this.ifSqlNodes = ifSqlNodes.toArray(new SqlNode[0]);
+        this.defaultSqlNode = defaultSqlNode;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        for (SqlNode sqlNode : ifSqlNodes) {
+            if (sqlNode.apply(context)) {
+                return true;
+            }
+        }
+        if (null != defaultSqlNode) {
+            defaultSqlNode.apply(context);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 表达式中的比较运算
+ * 数值按数值比较（1 == 1L），枚举可以与其名称比较，单个字符可以与长度为 1 的字符串比较。
+ */
+final class Comparisons {
+
+    private Comparisons() {
+    }
+
+    static boolean equal(Object left, Object right) {
+        if (left == right) {
+            return true;
+        }
+        if (null == left || null == right) {
+            return false;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right) == 0;
+        }
+        if (left instanceof Enum && right instanceof String) {
+            return ((Enum<?>) left).name().equals(right);
+        }
+        if (left instanceof String && right instanceof Enum) {
+            return ((Enum<?>) right).name().equals(left);
+        }
+        if (left instanceof Character || right instanceof Character) {
+            return left.toString().equals(right.toString());
+        }
+        return left.equals(right);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object left, Object right, String expression) {
+        if (null == left || null == right) {
+            throw new PersistenceException("Cannot compare null in expression: " + expression);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right);
+        }
+        if (left instanceof Comparable && left.getClass().isInstance(right)) {
+            return ((Comparable) left).compareTo(right);
+        }
+        throw new PersistenceException("Cannot compare " + left.getClass().getName() + " with "
+                + right.getClass().getName() + " in expression: " + expression);
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return toBigDecimal(left).compareTo(toBigDecimal(right));
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+}
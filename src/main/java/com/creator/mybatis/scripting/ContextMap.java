@@ -0,0 +1,48 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.reflection.ReflectionException;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import com.creator.mybatis.type.SimpleTypeRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 动态 SQL 生成了额外参数时传给执行器的参数
+ * 先查额外参数，再查原始参数的同名属性。
+ */
+public class ContextMap extends HashMap<String, Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object parameterObject;
+    private final transient ReflectorFactory reflectorFactory;
+
+    public ContextMap(Map<String, Object> additionalParameters, Object parameterObject, ReflectorFactory reflectorFactory) {
+        super(additionalParameters);
+        this.parameterObject = parameterObject;
+        this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (super.containsKey(key)) {
+            return super.get(key);
+        }
+        if (null == parameterObject) {
+            return null;
+        }
+        if (parameterObject instanceof Map) {
+            return ((Map<?, ?>) parameterObject).get(key);
+        }
+        if (SimpleTypeRegistry.isSimpleType(parameterObject.getClass())) {
+            return parameterObject;
+        }
+        Function<Object, Object> getter = reflectorFactory.findForClass(parameterObject.getClass()).getGetter((String) key);
+        if (null == getter) {
+            throw new ReflectionException("There is no getter for property named '" + key + "' in '" + parameterObject.getClass().getName() + "'");
+        }
+        return getter.apply(parameterObject);
+    }
+}
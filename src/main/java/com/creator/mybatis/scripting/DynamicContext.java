@@ -0,0 +1,195 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.reflection.ReflectorFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次动态 SQL 求值的上下文：参数、foreach 变量、生成中的 SQL 与占位符
+ */
+public class DynamicContext {
+
+    public static final String PARAMETER_OBJECT_KEY = "_parameter";
+
+    private final Object parameterObject;
+    private final ReflectorFactory reflectorFactory;
+    /**
+     * foreach 的 item、index 等变量
+     */
+    private final Map<String, Object> bindings = new HashMap<>();
+    /**
+     * 求值时计算出的参数值（foreach 元素、属性路径），键为生成的参数名
+     */
+    private Map<String, Object> additionalParameters;
+    private final Map<Integer, String> parameterMap = new HashMap<>();
+    private StringBuilder sql = new StringBuilder();
+    private int uniqueNumber;
+    /**
+     * IN 列表占位符个数的上限，0 表示不补齐、不拆分
+     */
+    private final int inListMaxBucket;
+    /**
+     * 本次求值取超长 IN 列表的起始位置
+     */
+    private final int splitOffset;
+    private SqlNode splitNode;
+    private int splitSize;
+
+    public DynamicContext(Object parameterObject, ReflectorFactory reflectorFactory) {
+        this(parameterObject, reflectorFactory, 0, 0);
+    }
+
+    public DynamicContext(Object parameterObject, ReflectorFactory reflectorFactory, int inListMaxBucket, int splitOffset) {
+        this.parameterObject = parameterObject;
+        this.reflectorFactory = reflectorFactory;
+        this.inListMaxBucket = inListMaxBucket;
+        this.splitOffset = splitOffset;
+        this.bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
+        //集合、数组参数没有属性名，按 list / collection / array 引用
+        if (parameterObject instanceof Collection) {
+            this.bindings.put("collection", parameterObject);
+            if (parameterObject instanceof List) {
+                this.bindings.put("list", parameterObject);
+            }
+        } else if (null != parameterObject && parameterObject.getClass().isArray()) {
+            this.bindings.put("array", parameterObject);
+        }
+    }
+
+    public Object getParameterObject() {
+        return parameterObject;
+    }
+
+    public ReflectorFactory getReflectorFactory() {
+        return reflectorFactory;
+    }
+
+    public boolean containsBinding(String name) {
+        return bindings.containsKey(name);
+    }
+
+    public Object getBinding(String name) {
+        return bindings.get(name);
+    }
+
+    /**
+     * 设置变量
+     * @param name
+     * @param value
+     * @return 变量原来的值
+     */
+    public Object bind(String name, Object value) {
+        return bindings.put(name, value);
+    }
+
+    public void unbind(String name) {
+        bindings.remove(name);
+    }
+
+    public void appendSql(String text) {
+        sql.append(text);
+    }
+
+    /**
+     * 替换 SQL 缓冲区，trim 类节点用它收集子节点生成的内容
+     * @param buffer
+     * @return 原来的缓冲区
+     */
+    public StringBuilder swapSql(StringBuilder buffer) {
+        StringBuilder previous = sql;
+        sql = buffer;
+        return previous;
+    }
+
+    /**
+     * 追加一个 #{} 占位符
+     * 直接引用参数属性的占位符由参数绑定计划取值；引用 foreach 变量或属性路径的占位符在此时求值。
+     * @param expression
+     */
+    public void appendParameter(PropertyExpression expression) {
+        if (expression.isSimple() && !containsBinding(expression.getRootName())) {
+            parameterMap.put(parameterMap.size() + 1, expression.getPath());
+            sql.append('?');
+        } else {
+            appendValue(expression.getRootName(), expression.evaluate(this));
+        }
+    }
+
+    /**
+     * 追加一个值已确定的占位符，值以生成的参数名保存
+     * @param rootName 生成参数名使用的前缀
+     * @param value
+     */
+    public void appendValue(String rootName, Object value) {
+        String name = "__frch_" + rootName + "_" + uniqueNumber++;
+        if (null == additionalParameters) {
+            additionalParameters = new HashMap<>();
+        }
+        additionalParameters.put(name, value);
+        parameterMap.put(parameterMap.size() + 1, name);
+        sql.append('?');
+    }
+
+    /**
+     * IN 列表补齐后的占位符个数：不小于 size 的 2 的幂，且不超过上限
+     * @param size
+     * @return
+     */
+    public int bucketSize(int size) {
+        if (inListMaxBucket <= 0) {
+            return size;
+        }
+        int bucket = Integer.highestOneBit(size);
+        if (bucket < size) {
+            bucket <<= 1;
+        }
+        return Math.min(bucket, inListMaxBucket);
+    }
+
+    /**
+     * 取本次执行使用的 IN 列表片段
+     * 超过上限的列表按上限拆成多次执行，每条语句只允许一个超长列表。
+     * @param node
+     * @param items
+     * @return
+     */
+    public List<?> inListChunk(SqlNode node, List<?> items) {
+        if (inListMaxBucket <= 0 || items.size() <= inListMaxBucket) {
+            return items;
+        }
+        if (null != splitNode) {
+            throw new PersistenceException("Only one IN list per statement may exceed inListMaxBucket (" + inListMaxBucket + ")");
+        }
+        splitNode = node;
+        splitSize = items.size();
+        return items.subList(splitOffset, Math.min(splitOffset + inListMaxBucket, splitSize));
+    }
+
+    /**
+     * 超长 IN 列表的长度，没有超长列表时为 0
+     * @return
+     */
+    public int getSplitSize() {
+        return splitSize;
+    }
+
+    public int getInListMaxBucket() {
+        return inListMaxBucket;
+    }
+
+    public String getSql() {
+        return sql.toString().trim();
+    }
+
+    public Map<Integer, String> getParameterMap() {
+        return parameterMap;
+    }
+
+    public Map<String, Object> getAdditionalParameters() {
+        return additionalParameters;
+    }
+}
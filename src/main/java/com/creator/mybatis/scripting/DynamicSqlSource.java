@@ -0,0 +1,97 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.reflection.ReflectorFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 动态语句：每次执行时对节点树求值，生成的 SQL 形态按 SQL + 参数名 驻留
+ */
+public class DynamicSqlSource {
+
+    /**
+     * 每条语句最多驻留的形态数，超出后新形态不再缓存
+     */
+    private static final int MAX_SHAPES = 256;
+
+    private final SqlNode rootSqlNode;
+    private final Map<String, XNode> shapes = new ConcurrentHashMap<>();
+
+    public DynamicSqlSource(SqlNode rootSqlNode) {
+        this.rootSqlNode = rootSqlNode;
+    }
+
+    public BoundSql getBoundSql(XNode statement, Object parameterObject, ReflectorFactory reflectorFactory) {
+        return getBoundSql(statement, parameterObject, reflectorFactory, 0);
+    }
+
+    /**
+     * 求值并生成本次执行的语句
+     * IN 列表超过 inListMaxBucket 时按上限拆分，返回的 BoundSql 带有各批次。
+     * @param statement
+     * @param parameterObject
+     * @param reflectorFactory
+     * @param inListMaxBucket IN 列表占位符个数的上限，0 表示不补齐、不拆分
+     * @return
+     */
+    public BoundSql getBoundSql(XNode statement, Object parameterObject, ReflectorFactory reflectorFactory, int inListMaxBucket) {
+        DynamicContext context = new DynamicContext(parameterObject, reflectorFactory, inListMaxBucket, 0);
+        rootSqlNode.apply(context);
+        BoundSql first = bind(statement, context, parameterObject);
+        int splitSize = context.getSplitSize();
+        if (0 == splitSize) {
+            return first;
+        }
+        List<BoundSql> batches = new ArrayList<>(splitSize / inListMaxBucket + 1);
+        batches.add(first);
+        for (int offset = inListMaxBucket; offset < splitSize; offset += inListMaxBucket) {
+            DynamicContext batch = new DynamicContext(parameterObject, reflectorFactory, inListMaxBucket, offset);
+            rootSqlNode.apply(batch);
+            batches.add(bind(statement, batch, parameterObject));
+        }
+        return new BoundSql(batches);
+    }
+
+    private BoundSql bind(XNode statement, DynamicContext context, Object parameterObject) {
+        String sql = context.getSql();
+        Map<Integer, String> parameterMap = context.getParameterMap();
+        String key = shapeKey(sql, parameterMap);
+        XNode shape = shapes.get(key);
+        if (null == shape) {
+            shape = statement.newShape(sql, parameterMap);
+            if (shapes.size() < MAX_SHAPES) {
+                XNode existing = shapes.putIfAbsent(key, shape);
+                if (null != existing) {
+                    shape = existing;
+                }
+            }
+        }
+        Map<String, Object> additionalParameters = context.getAdditionalParameters();
+        Object parameter = null == additionalParameters ? parameterObject
+                : new ContextMap(additionalParameters, parameterObject, context.getReflectorFactory());
+        return new BoundSql(shape, parameter);
+    }
+
+    /**
+     * 已驻留的形态数
+     * @return
+     */
+    public int getShapeCount() {
+        return shapes.size();
+    }
+
+    private static String shapeKey(String sql, Map<Integer, String> parameterMap) {
+        if (parameterMap.isEmpty()) {
+            return sql;
+        }
+        StringBuilder key = new StringBuilder(sql.length() + parameterMap.size() * 8).append(sql);
+        for (int i = 1; i <= parameterMap.size(); i++) {
+            key.append('\u0000').append(parameterMap.get(i));
+        }
+        return key.toString();
+    }
+}
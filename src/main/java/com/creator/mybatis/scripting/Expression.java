@@ -0,0 +1,30 @@
+package com.creator.mybatis.scripting;
+
+/**
+ * 编译后的表达式，用于 &lt;if test&gt;、&lt;foreach collection&gt; 等属性
+ */
+public interface Expression {
+
+    Object evaluate(DynamicContext context);
+
+    /**
+     * 表达式结果作为条件时的真假：null、false、数值 0 为假，其他对象为真
+     * @param value
+     * @return
+     */
+    static boolean isTrue(Object value) {
+        if (null == value) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        if (value instanceof Character) {
+            return (Character) value != 0;
+        }
+        return true;
+    }
+}
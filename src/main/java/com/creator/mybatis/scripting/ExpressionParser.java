@@ -0,0 +1,247 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.builder.BuilderException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将条件表达式编译为 Expression 树，只在解析 mapper 时执行一次
+ * 支持：属性路径（a.b.size()）、null/true/false、数字与字符串字面量、
+ * == != &lt; &lt;= &gt; &gt;=（及 eq neq lt lte gt gte）、and/&amp;&amp;、or/||、not/!、括号。
+ */
+public class ExpressionParser {
+
+    private final String text;
+    private final List<String> tokens;
+    private int position;
+
+    private ExpressionParser(String text) {
+        this.text = text;
+        this.tokens = tokenize(text);
+    }
+
+    public static Expression parse(String text) {
+        if (null == text || text.trim().isEmpty()) {
+            throw new BuilderException("Empty expression");
+        }
+        ExpressionParser parser = new ExpressionParser(text);
+        Expression expression = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.error("Unexpected '" + parser.tokens.get(parser.position) + "'");
+        }
+        return expression;
+    }
+
+    private Expression parseOr() {
+        Expression left = parseAnd();
+        while (accept("or") || accept("||")) {
+            Expression l = left;
+            Expression r = parseAnd();
+            left = context -> Expression.isTrue(l.evaluate(context)) || Expression.isTrue(r.evaluate(context));
+        }
+        return left;
+    }
+
+    private Expression parseAnd() {
+        Expression left = parseNot();
+        while (accept("and") || accept("&&")) {
+            Expression l = left;
+            Expression r = parseNot();
+            left = context -> Expression.isTrue(l.evaluate(context)) && Expression.isTrue(r.evaluate(context));
+        }
+        return left;
+    }
+
+    private Expression parseNot() {
+        if (accept("!") || accept("not")) {
+            Expression operand = parseNot();
+            return context -> !Expression.isTrue(operand.evaluate(context));
+        }
+        return parseComparison();
+    }
+
+    private Expression parseComparison() {
+        Expression left = parsePrimary();
+        String operator = peek();
+        if (null == operator) {
+            return left;
+        }
+        switch (operator) {
+            case "==":
+            case "eq": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> Comparisons.equal(left.evaluate(context), right.evaluate(context));
+            }
+            case "!=":
+            case "neq": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> !Comparisons.equal(left.evaluate(context), right.evaluate(context));
+            }
+            case "<":
+            case "lt": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> Comparisons.compare(left.evaluate(context), right.evaluate(context), text) < 0;
+            }
+            case "<=":
+            case "lte": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> Comparisons.compare(left.evaluate(context), right.evaluate(context), text) <= 0;
+            }
+            case ">":
+            case "gt": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> Comparisons.compare(left.evaluate(context), right.evaluate(context), text) > 0;
+            }
+            case ">=":
+            case "gte": {
+                position++;
+                Expression right = parsePrimary();
+                return context -> Comparisons.compare(left.evaluate(context), right.evaluate(context), text) >= 0;
+            }
+            default:
+                return left;
+        }
+    }
+
+    private Expression parsePrimary() {
+        String token = next();
+        if ("(".equals(token)) {
+            Expression expression = parseOr();
+            expect(")");
+            return expression;
+        }
+        if ("null".equals(token)) {
+            return context -> null;
+        }
+        if ("true".equals(token) || "false".equals(token)) {
+            Boolean value = Boolean.valueOf(token);
+            return context -> value;
+        }
+        char first = token.charAt(0);
+        if (first == '\'' || first == '"') {
+            String value = token.substring(1, token.length() - 1);
+            return context -> value;
+        }
+        if (Character.isDigit(first)) {
+            Object value = number(token);
+            return context -> value;
+        }
+        if (Character.isJavaIdentifierStart(first)) {
+            StringBuilder path = new StringBuilder(token);
+            while (accept(".")) {
+                String name = next();
+                if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+                    throw error("Expected property name after '.'");
+                }
+                //size()、isEmpty()、length() 与属性访问等价
+                if (accept("(")) {
+                    expect(")");
+                    if ("isEmpty".equals(name)) {
+                        name = "empty";
+                    }
+                }
+                path.append('.').append(name);
+            }
+            return new PropertyExpression(path.toString());
+        }
+        throw error("Unexpected '" + token + "'");
+    }
+
+    private Object number(String token) {
+        try {
+            String digits = token;
+            char last = Character.toUpperCase(token.charAt(token.length() - 1));
+            if (last == 'L' || last == 'D' || last == 'F') {
+                digits = token.substring(0, token.length() - 1);
+            }
+            if (digits.indexOf('.') >= 0 || last == 'D' || last == 'F') {
+                return new BigDecimal(digits);
+            }
+            return Long.valueOf(digits);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + token + "'");
+        }
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private String next() {
+        if (position >= tokens.size()) {
+            throw error("Unexpected end of expression");
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private BuilderException error(String message) {
+        return new BuilderException(message + " in expression: " + text);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = text.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new BuilderException("Unterminated string in expression: " + text);
+                }
+                tokens.add(text.substring(i, end + 1));
+                i = end + 1;
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else if (i + 1 < length && isTwoCharOperator(c, text.charAt(i + 1))) {
+                tokens.add(text.substring(i, i + 2));
+                i += 2;
+            } else if ("<>!().,".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                throw new BuilderException("Unexpected character '" + c + "' in expression: " + text);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isTwoCharOperator(char c, char next) {
+        return (next == '=' && (c == '=' || c == '!' || c == '<' || c == '>'))
+                || (c == '&' && next == '&')
+                || (c == '|' && next == '|');
+    }
+}
@@ -0,0 +1,116 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 遍历集合、数组或 Map，item 与 index 在子节点中作为变量使用
+ */
+public class ForEachSqlNode implements SqlNode {
+
+    private final Expression collection;
+    private final String collectionExpression;
+    private final SqlNode contents;
+    private final String item;
+    private final String index;
+    private final String open;
+    private final String close;
+    private final String separator;
+
+    public ForEachSqlNode(SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+        this.collection = ExpressionParser.parse(collectionExpression);
+        this.collectionExpression = collectionExpression;
+        this.contents = contents;
+        this.item = item;
+        this.index = index;
+        this.open = open;
+        this.close = close;
+        this.separator = separator;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        Iterator<?> iterator = iterator(collection.evaluate(context));
+        if (!iterator.hasNext()) {
+            return true;
+        }
+        Object previousItem = null == item ? null : context.getBinding(item);
+        Object previousIndex = null == index ? null : context.getBinding(index);
+        boolean hadItem = null != item && context.containsBinding(item);
+        boolean hadIndex = null != index && context.containsBinding(index);
+        if (null != open) {
+            context.appendSql(open);
+        }
+        for (int i = 0; iterator.hasNext(); i++) {
+            Object o = iterator.next();
+            if (i > 0 && null != separator) {
+                context.appendSql(separator);
+            }
+            if (o instanceof Map.Entry) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                bind(context, entry.getKey(), entry.getValue());
+            } else {
+                bind(context, i, o);
+            }
+            contents.apply(context);
+        }
+        if (null != close) {
+            context.appendSql(close);
+        }
+        restore(context, item, hadItem, previousItem);
+        restore(context, index, hadIndex, previousIndex);
+        return true;
+    }
+
+    private void bind(DynamicContext context, Object indexValue, Object itemValue) {
+        if (null != index) {
+            context.bind(index, indexValue);
+        }
+        if (null != item) {
+            context.bind(item, itemValue);
+        }
+    }
+
+    private static void restore(DynamicContext context, String name, boolean had, Object previous) {
+        if (null == name) {
+            return;
+        }
+        if (had) {
+            context.bind(name, previous);
+        } else {
+            context.unbind(name);
+        }
+    }
+
+    private Iterator<?> iterator(Object value) {
+        if (null == value) {
+            throw new PersistenceException("The expression '" + collectionExpression + "' evaluated to a null value.");
+        }
+        if (value instanceof Iterable) {
+            return ((Iterable<?>) value).iterator();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().iterator();
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            return new Iterator<Object>() {
+                private int i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < length;
+                }
+
+                @Override
+                public Object next() {
+                    return Array.get(value, i++);
+                }
+            };
+        }
+        throw new PersistenceException("Error evaluating expression '" + collectionExpression + "'. Return value (" + value + ") was not iterable.");
+    }
+}
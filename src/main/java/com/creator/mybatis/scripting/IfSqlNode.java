@@ -0,0 +1,21 @@
+package com.creator.mybatis.scripting;
+
+public class IfSqlNode implements SqlNode {
+
+    private final Expression test;
+    private final SqlNode contents;
+
+    public IfSqlNode(SqlNode contents, String test) {
+        this.test = ExpressionParser.parse(test);
+        this.contents = contents;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        if (Expression.isTrue(test.evaluate(context))) {
+            contents.apply(context);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * IN 列表，如 id IN (#{ids}) 或只包含 #{item} 的 foreach
+ * 占位符个数补齐到 1、2、4、8……（用最后一个值填充），不同长度的列表共用少数几种 SQL 形态，
+ * 从而复用预编译语句；超过上限的列表拆成多次执行。
+ * NOT IN 的结果不能按片段合并，列表总是在一条语句中展开；空列表无法表示“不排除任何行”，直接报错。
+ */
+public class InListSqlNode implements SqlNode {
+
+    private final PropertyExpression collection;
+    private final String open;
+    private final String close;
+    private final boolean negated;
+
+    /**
+     * @param collectionExpression
+     * @param open
+     * @param close
+     * @param negated 是否为 NOT IN
+     */
+    public InListSqlNode(String collectionExpression, String open, String close, boolean negated) {
+        this.collection = new PropertyExpression(collectionExpression.trim());
+        this.open = open;
+        this.close = close;
+        this.negated = negated;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        List<?> items = toList(value(context));
+        context.appendSql(open);
+        if (null == items) {
+            //单个值，与普通占位符相同
+            context.appendParameter(collection);
+        } else if (items.isEmpty()) {
+            if (negated) {
+                //NOT IN (NULL) 不返回任何行，与空列表应返回全部行的语义相反
+                throw new PersistenceException("The list '" + collection.getPath() + "' for NOT IN must not be empty");
+            }
+            //空列表不匹配任何行，同时保持 SQL 合法
+            context.appendSql("NULL");
+        } else {
+            List<?> chunk = negated ? items : context.inListChunk(this, items);
+            //超过上限的 NOT IN 列表不补齐，按实际长度展开
+            int bucket = Math.max(chunk.size(), context.bucketSize(chunk.size()));
+            Object last = chunk.get(chunk.size() - 1);
+            for (int i = 0; i < bucket; i++) {
+                if (i > 0) {
+                    context.appendSql(",");
+                }
+                context.appendValue(collection.getRootName(), i < chunk.size() ? chunk.get(i) : last);
+            }
+        }
+        context.appendSql(close);
+        return true;
+    }
+
+    private Object value(DynamicContext context) {
+        Object parameter = context.getParameterObject();
+        //参数本身就是集合时，#{ids} 直接指向参数
+        if (collection.isSimple() && !context.containsBinding(collection.getRootName())
+                && (parameter instanceof Collection || (null != parameter && parameter.getClass().isArray()))) {
+            return parameter;
+        }
+        return collection.evaluate(context);
+    }
+
+    private static List<?> toList(Object value) {
+        if (value instanceof List) {
+            return (List<?>) value;
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (null != value && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(Array.get(value, i));
+            }
+            return list;
+        }
+        return null;
+    }
+}
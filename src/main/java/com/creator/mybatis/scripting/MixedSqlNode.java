@@ -0,0 +1,20 @@
+package com.creator.mybatis.scripting;
+
+import java.util.List;
+
+public class MixedSqlNode implements SqlNode {
+
+    private final SqlNode[] contents;
+
+    public MixedSqlNode(List<SqlNode> contents) {
+        this.contents = contents.toArray(new SqlNode[0]);
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        for (SqlNode sqlNode : contents) {
+            sqlNode.apply(context);
+        }
+        return true;
+    }
+}
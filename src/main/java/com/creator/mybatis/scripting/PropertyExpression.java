@@ -0,0 +1,120 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.reflection.Reflector;
+import com.creator.mybatis.type.SimpleTypeRegistry;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 属性路径表达式，如 user.name、ids.size()
+ * 每一段按目标对象的类型缓存 getter，类型不变时不再查找。
+ */
+public class PropertyExpression implements Expression {
+
+    private final String path;
+    private final String[] names;
+    private final CachedGetter[] cache;
+
+    public PropertyExpression(String path) {
+        this.path = path;
+        this.names = path.split("\\.");
+        this.cache = new CachedGetter[names.length];
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 路径的第一段，即参数中的属性名或 foreach 变量名
+     * @return
+     */
+    public String getRootName() {
+        return names[0];
+    }
+
+    public boolean isSimple() {
+        return names.length == 1;
+    }
+
+    @Override
+    public Object evaluate(DynamicContext context) {
+        Object value;
+        if (context.containsBinding(names[0])) {
+            value = context.getBinding(names[0]);
+        } else {
+            Object parameter = context.getParameterObject();
+            if (null == parameter) {
+                return null;
+            }
+            //单个简单类型参数，任意名称都指向参数本身
+            value = SimpleTypeRegistry.isSimpleType(parameter.getClass()) ? parameter : property(parameter, 0, context);
+        }
+        for (int i = 1; i < names.length && null != value; i++) {
+            value = property(value, i, context);
+        }
+        return value;
+    }
+
+    private Object property(Object target, int i, DynamicContext context) {
+        String name = names[i];
+        if (target instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) target;
+            if (map.containsKey(name)) {
+                return map.get(name);
+            }
+            if ("size".equals(name)) {
+                return map.size();
+            }
+            if ("empty".equals(name)) {
+                return map.isEmpty();
+            }
+            return null;
+        }
+        if (target instanceof Collection) {
+            if ("size".equals(name)) {
+                return ((Collection<?>) target).size();
+            }
+            if ("empty".equals(name)) {
+                return ((Collection<?>) target).isEmpty();
+            }
+        } else if (target.getClass().isArray()) {
+            if ("length".equals(name) || "size".equals(name)) {
+                return Array.getLength(target);
+            }
+        } else if (target instanceof CharSequence) {
+            if ("length".equals(name) || "size".equals(name)) {
+                return ((CharSequence) target).length();
+            }
+            if ("empty".equals(name)) {
+                return ((CharSequence) target).length() == 0;
+            }
+        }
+        Class<?> type = target.getClass();
+        CachedGetter cached = cache[i];
+        if (null == cached || cached.type != type) {
+            Reflector reflector = context.getReflectorFactory().findForClass(type);
+            Function<Object, Object> getter = reflector.getGetter(name);
+            if (null == getter) {
+                throw new PersistenceException("There is no getter for property named '" + name + "' in '" + type.getName() + "' (expression: " + path + ")");
+            }
+            cached = new CachedGetter(type, getter);
+            cache[i] = cached;
+        }
+        return cached.getter.apply(target);
+    }
+
+    private static final class CachedGetter {
+        private final Class<?> type;
+        private final Function<Object, Object> getter;
+
+        private CachedGetter(Class<?> type, Function<Object, Object> getter) {
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.creator.mybatis.scripting;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 有内容时加上 SET，并去掉结尾多余的逗号
+ */
+public class SetSqlNode extends TrimSqlNode {
+
+    private static final List<String> COMMA = Collections.singletonList(",");
+
+    public SetSqlNode(SqlNode contents) {
+        super(contents, "SET", COMMA, null, COMMA);
+    }
+}
@@ -0,0 +1,14 @@
+package com.creator.mybatis.scripting;
+
+/**
+ * 动态 SQL 的节点，解析 mapper 时构建一次，每次执行时根据参数生成 SQL
+ */
+public interface SqlNode {
+
+    /**
+     * 将本节点生成的 SQL 追加到 context
+     * @param context
+     * @return 是否生成了内容（用于 choose）
+     */
+    boolean apply(DynamicContext context);
+}
@@ -0,0 +1,46 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.parsing.GenericTokenParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文本节点，#{} 在解析时拆分为文本片段与属性表达式
+ */
+public class TextSqlNode implements SqlNode {
+
+    private static final char MARKER = '\u0000';
+
+    private final String[] texts;
+    private final PropertyExpression[] parameters;
+
+    public TextSqlNode(String text) {
+        List<PropertyExpression> expressions = new ArrayList<>();
+        String marked = new GenericTokenParser("#{", "}", content -> {
+            expressions.add(new PropertyExpression(content));
+            return String.valueOf(MARKER);
+        }).parse(text);
+        List<String> pieces = new ArrayList<>(expressions.size() + 1);
+        int start = 0;
+        for (int i = marked.indexOf(MARKER); i >= 0; i = marked.indexOf(MARKER, start)) {
+            pieces.add(marked.substring(start, i));
+            start = i + 1;
+        }
+        pieces.add(marked.substring(start));
+        this.texts = pieces.toArray(new String[0]);
+        this.parameters = expressions.toArray(new PropertyExpression[0]);
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        context.appendSql(texts[0]);
+        for (int i = 0; i < parameters.length; i++) {
+            context.appendParameter(parameters[i]);
+            context.appendSql(texts[i + 1]);
+        }
+        //相邻节点之间补一个空格，避免元素间没有空白时 SQL 粘连
+        context.appendSql(" ");
+        return true;
+    }
+}
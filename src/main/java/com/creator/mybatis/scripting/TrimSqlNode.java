@@ -0,0 +1,82 @@
+package com.creator.mybatis.scripting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringTokenizer;
+
+/**
+ * 子节点生成内容时加上前后缀，并去掉多余的开头或结尾（如多余的 AND、逗号）
+ */
+public class TrimSqlNode implements SqlNode {
+
+    private final SqlNode contents;
+    private final String prefix;
+    private final String suffix;
+    private final List<String> prefixesToOverride;
+    private final List<String> suffixesToOverride;
+
+    public TrimSqlNode(SqlNode contents, String prefix, String prefixesToOverride, String suffix, String suffixesToOverride) {
+        this(contents, prefix, parseOverrides(prefixesToOverride), suffix, parseOverrides(suffixesToOverride));
+    }
+
+    protected TrimSqlNode(SqlNode contents, String prefix, List<String> prefixesToOverride, String suffix, List<String> suffixesToOverride) {
+        this.contents = contents;
+        this.prefix = prefix;
+        this.prefixesToOverride = prefixesToOverride;
+        this.suffix = suffix;
+        this.suffixesToOverride = suffixesToOverride;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        StringBuilder previous = context.swapSql(new StringBuilder());
+        boolean result = contents.apply(context);
+        StringBuilder sql = context.swapSql(previous);
+        String trimmed = sql.toString().trim();
+        if (trimmed.isEmpty()) {
+            return result;
+        }
+        StringBuilder builder = new StringBuilder(trimmed);
+        String upper = trimmed.toUpperCase(Locale.ENGLISH);
+        for (String toRemove : prefixesToOverride) {
+            if (upper.startsWith(toRemove)) {
+                builder.delete(0, toRemove.trim().length());
+                upper = upper.substring(toRemove.trim().length());
+                break;
+            }
+        }
+        for (String toRemove : suffixesToOverride) {
+            String token = toRemove.trim();
+            if (upper.endsWith(token)) {
+                builder.delete(builder.length() - token.length(), builder.length());
+                break;
+            }
+        }
+        context.appendSql(" ");
+        if (null != prefix) {
+            context.appendSql(prefix);
+            context.appendSql(" ");
+        }
+        context.appendSql(builder.toString().trim());
+        if (null != suffix) {
+            context.appendSql(" ");
+            context.appendSql(suffix);
+        }
+        context.appendSql(" ");
+        return result;
+    }
+
+    private static List<String> parseOverrides(String overrides) {
+        if (null == overrides) {
+            return Collections.emptyList();
+        }
+        StringTokenizer tokenizer = new StringTokenizer(overrides, "|", false);
+        List<String> list = new ArrayList<>(tokenizer.countTokens());
+        while (tokenizer.hasMoreTokens()) {
+            list.add(tokenizer.nextToken().toUpperCase(Locale.ENGLISH));
+        }
+        return list;
+    }
+}
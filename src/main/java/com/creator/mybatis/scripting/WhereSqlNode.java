@@ -0,0 +1,17 @@
+package com.creator.mybatis.scripting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 有条件时加上 WHERE，并去掉开头多余的 AND / OR
+ */
+public class WhereSqlNode extends TrimSqlNode {
+
+    private static final List<String> PREFIX_LIST = Arrays.asList("AND ", "OR ", "AND\n", "OR\n", "AND\r", "OR\r", "AND\t", "OR\t");
+
+    public WhereSqlNode(SqlNode contents) {
+        super(contents, "WHERE", PREFIX_LIST, null, Collections.emptyList());
+    }
+}
@@ -0,0 +1,166 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.builder.BuilderException;
+import org.dom4j.Element;
+import org.dom4j.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 将 &lt;select&gt; 中的动态 SQL 元素构建为 SqlNode 树
+ */
+public class XMLScriptBuilder {
+
+    /**
+     * 静态 SQL 中的 IN (#{name})，执行时按参数值展开
+     */
+    private static final Pattern IN_LIST = Pattern.compile("\\bIN\\s*\\(\\s*#\\{([^}]+)}\\s*\\)", Pattern.CASE_INSENSITIVE);
+    /**
+     * 紧接在 IN 之前的 NOT，NOT IN 的列表不能拆成多次执行
+     */
+    private static final Pattern ENDS_WITH_NOT = Pattern.compile("\\bNOT\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ENDS_WITH_NOT_IN = Pattern.compile("\\bNOT\\s+IN\\s*$", Pattern.CASE_INSENSITIVE);
+
+    private final Element context;
+
+    public XMLScriptBuilder(Element context) {
+        this.context = context;
+    }
+
+    /**
+     * 是否包含动态 SQL 元素
+     * @param element
+     * @return
+     */
+    public static boolean isDynamic(Element element) {
+        return !element.elements().isEmpty() || IN_LIST.matcher(element.getText()).find();
+    }
+
+    public DynamicSqlSource parseScriptNode() {
+        return new DynamicSqlSource(parseDynamicTags(context));
+    }
+
+    private MixedSqlNode parseDynamicTags(Element element) {
+        List<SqlNode> contents = new ArrayList<>();
+        String precedingText = "";
+        for (Object o : element.content()) {
+            Node node = (Node) o;
+            switch (node.getNodeType()) {
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    precedingText = node.getText();
+                    parseText(precedingText, contents);
+                    break;
+                case Node.ELEMENT_NODE:
+                    contents.add(parseElement((Element) node, precedingText));
+                    precedingText = "";
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new MixedSqlNode(contents);
+    }
+
+    private static void parseText(String text, List<SqlNode> contents) {
+        Matcher matcher = IN_LIST.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            //保留 IN 关键字，括号与占位符由 InListSqlNode 生成
+            boolean negated = ENDS_WITH_NOT.matcher(text.substring(start, matcher.start())).find();
+            addText(text.substring(start, matcher.start() + 2), contents);
+            contents.add(new InListSqlNode(matcher.group(1), "(", ")", negated));
+            start = matcher.end();
+        }
+        addText(text.substring(start), contents);
+    }
+
+    private static void addText(String text, List<SqlNode> contents) {
+        if (!text.trim().isEmpty()) {
+            contents.add(new TextSqlNode(text));
+        }
+    }
+
+    /**
+     * 只包含 #{item}、以逗号分隔并由括号包围的 foreach 按 IN 列表处理
+     * @param element
+     * @return
+     */
+    private static boolean isInList(Element element) {
+        String item = element.attributeValue("item");
+        String open = element.attributeValue("open");
+        String close = element.attributeValue("close");
+        String separator = element.attributeValue("separator");
+        return null != item && null == element.attributeValue("index") && element.elements().isEmpty()
+                && null != open && open.trim().endsWith("(") && null != close && close.trim().startsWith(")")
+                && null != separator && ",".equals(separator.trim())
+                && ("#{" + item + "}").equals(element.getText().trim());
+    }
+
+    /**
+     * foreach 前面的文本与 open 中去掉括号的部分以 NOT IN 结尾
+     */
+    private static boolean isNotIn(Element element, String precedingText) {
+        String open = element.attributeValue("open").trim();
+        return ENDS_WITH_NOT_IN.matcher(precedingText + " " + open.substring(0, open.length() - 1)).find();
+    }
+
+    private SqlNode parseElement(Element element, String precedingText) {
+        String name = element.getName();
+        switch (name) {
+            case "if":
+            case "when":
+                return new IfSqlNode(parseDynamicTags(element), required(element, "test"));
+            case "where":
+                return new WhereSqlNode(parseDynamicTags(element));
+            case "set":
+                return new SetSqlNode(parseDynamicTags(element));
+            case "trim":
+                return new TrimSqlNode(parseDynamicTags(element),
+                        element.attributeValue("prefix"), element.attributeValue("prefixOverrides"),
+                        element.attributeValue("suffix"), element.attributeValue("suffixOverrides"));
+            case "foreach":
+                if (isInList(element)) {
+                    return new InListSqlNode(required(element, "collection"), element.attributeValue("open"), element.attributeValue("close"),
+                            isNotIn(element, precedingText));
+                }
+                return new ForEachSqlNode(parseDynamicTags(element), required(element, "collection"),
+                        element.attributeValue("index"), element.attributeValue("item"),
+                        element.attributeValue("open"), element.attributeValue("close"), element.attributeValue("separator"));
+            case "choose":
+                return parseChoose(element);
+            default:
+                throw new BuilderException("Unknown element <" + name + "> in SQL statement.");
+        }
+    }
+
+    private SqlNode parseChoose(Element element) {
+        List<SqlNode> whens = new ArrayList<>();
+        SqlNode otherwise = null;
+        for (Object o : element.elements()) {
+            Element child = (Element) o;
+            if ("when".equals(child.getName())) {
+                whens.add(parseElement(child, ""));
+            } else if ("otherwise".equals(child.getName())) {
+                if (null != otherwise) {
+                    throw new BuilderException("Too many default (otherwise) elements in choose statement.");
+                }
+                otherwise = parseDynamicTags(child);
+            } else {
+                throw new BuilderException("Unknown element <" + child.getName() + "> in choose statement.");
+            }
+        }
+        return new ChooseSqlNode(whens, otherwise);
+    }
+
+    private static String required(Element element, String attribute) {
+        String value = element.attributeValue(attribute);
+        if (null == value) {
+            throw new BuilderException("Missing attribute '" + attribute + "' on <" + element.getName() + ">");
+        }
+        return value;
+    }
+}
@@ -1,14 +1,127 @@
 package com.creator.mybatis.session;
 
+import com.creator.mybatis.binding.BindingException;
+import com.creator.mybatis.binding.MapperProxyFactory;
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.builder.StartupReport;
+import com.creator.mybatis.builder.xml.LazyMapperIndex;
+import com.creator.mybatis.cache.Cache;
+import com.creator.mybatis.cache.CacheStats;
+import com.creator.mybatis.cache.decorators.StatisticsCache;
+import com.creator.mybatis.executor.async.AsyncTaskExecutor;
+import com.creator.mybatis.executor.parameter.ParameterBinder;
+import com.creator.mybatis.executor.resultset.RowMappingKey;
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.executor.statement.StatementCache;
+import com.creator.mybatis.executor.statement.StatementCacheStats;
+import com.creator.mybatis.executor.statement.StatementWatchdog;
+import com.creator.mybatis.metrics.ExecutionEvent;
+import com.creator.mybatis.metrics.MetricsListener;
+import com.creator.mybatis.metrics.StatementMetricsRegistry;
 import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import com.creator.mybatis.scripting.BoundSql;
+import com.creator.mybatis.scripting.DynamicSqlSource;
+import com.creator.mybatis.type.TypeHandlerRegistry;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Configuration {
+
+    private static final Logger log = Logger.getLogger(Configuration.class.getName());
+
     protected Connection connection;
     protected Map<String, String> dataSource;
+    /**
+     * 根据 dataSource 配置创建的数据源，为空时所有会话共用 connection
+     */
+    protected DataSource jdbcDataSource;
     protected Map<String, XNode> mapperElement;
+    /**
+     * 延迟加载模式下的 命名空间 -> mapper 资源 索引，非延迟模式为空
+     */
+    protected LazyMapperIndex lazyMapperIndex;
+    /**
+     * 是否延迟加载 mapper，启用时不使用语句快照
+     */
+    protected boolean lazyMapperLoading;
+    protected final ReflectorFactory reflectorFactory = new ReflectorFactory();
+    protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
+    /**
+     * 行映射计划缓存，键为 结果类型 + 列布局
+     */
+    protected final Map<RowMappingKey, RowMappingPlan> rowMappingPlans = new ConcurrentHashMap<>();
+    /**
+     * 每个连接缓存的预编译语句数量上限，0 表示不缓存
+     */
+    protected int statementCacheSize = 32;
+    protected final StatementCacheStats statementCacheStats = new StatementCacheStats();
+    /**
+     * 默认的 JDBC fetchSize，语句上配置了 fetchSize 时以语句为准
+     */
+    protected Integer defaultFetchSize;
+    /**
+     * 是否默认将 SELECT * 改写为结果类型可映射的列
+     */
+    protected boolean pruneSelectStar;
+    /**
+     * 列名是否为下划线风格（user_name 对应属性 userName），行映射、投影裁剪与 keyset 分页都按此设置转换列名
+     */
+    protected boolean mapUnderscoreToCamelCase = true;
+    /**
+     * 异步查询的线程数（虚拟线程模式下为最大并发数）
+     */
+    protected int asyncPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    /**
+     * 异步查询等待队列的容量，队列满时由提交线程执行
+     */
+    protected int asyncQueueCapacity = 256;
+    /**
+     * 运行在支持虚拟线程的 JDK 上时，异步查询是否使用虚拟线程
+     */
+    protected boolean asyncVirtualThreads;
+    private volatile AsyncTaskExecutor asyncTaskExecutor;
+    /**
+     * mapper 接口的代理工厂，首次获取时创建
+     */
+    protected final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new ConcurrentHashMap<>();
+    protected StartupReport startupReport;
+    /**
+     * 已解析语句的快照文件，为空时不使用快照
+     */
+    protected String mapperSnapshotFile;
+    protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+    /**
+     * IN 列表占位符个数的上限，列表补齐到不超过该值的 2 的幂，更长的列表拆成多次执行；0 表示不补齐、不拆分
+     */
+    protected int inListMaxBucket = 512;
+    /**
+     * 是否记录语句执行指标
+     */
+    protected boolean metricsEnabled = true;
+    protected final StatementMetricsRegistry statementMetrics = new StatementMetricsRegistry();
+    protected final List<MetricsListener> metricsListeners = new CopyOnWriteArrayList<>();
+    /**
+     * 默认的查询超时（秒），语句上配置了 timeout 时以语句为准，为空表示不限制
+     */
+    protected Integer defaultStatementTimeout;
+    private volatile StatementWatchdog statementWatchdog;
+    /**
+     * 二级缓存，键为命名空间
+     */
+    protected final Map<String, Cache> caches = new ConcurrentHashMap<>();
 
     public Connection getConnection() {
         return connection;
@@ -26,11 +139,400 @@ public class Configuration {
         this.dataSource = dataSource;
     }
 
+    public DataSource getJdbcDataSource() {
+        return jdbcDataSource;
+    }
+
+    public void setJdbcDataSource(DataSource jdbcDataSource) {
+        this.jdbcDataSource = jdbcDataSource;
+    }
+
     public Map<String, XNode> getMapperElement() {
         return mapperElement;
     }
 
     public void setMapperElement(Map<String, XNode> mapperElement) {
         this.mapperElement = mapperElement;
+        caches.clear();
+        for (XNode xNode : mapperElement.values()) {
+            if (null != xNode.getCache()) {
+                caches.putIfAbsent(xNode.getNamespace(), xNode.getCache());
+            }
+        }
+    }
+
+    public boolean isLazyMapperLoading() {
+        return lazyMapperLoading;
+    }
+
+    public void setLazyMapperLoading(boolean lazyMapperLoading) {
+        this.lazyMapperLoading = lazyMapperLoading;
+    }
+
+    public LazyMapperIndex getLazyMapperIndex() {
+        return lazyMapperIndex;
+    }
+
+    /**
+     * 启用延迟加载，语句在首次请求时才从对应的 mapper.xml 解析
+     * @param lazyMapperIndex
+     */
+    public void setLazyMapperIndex(LazyMapperIndex lazyMapperIndex) {
+        this.lazyMapperIndex = lazyMapperIndex;
+        setMapperElement(new ConcurrentHashMap<>());
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public Integer getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+
+    public void setDefaultFetchSize(Integer defaultFetchSize) {
+        this.defaultFetchSize = defaultFetchSize;
+    }
+
+    public boolean isPruneSelectStar() {
+        return pruneSelectStar;
+    }
+
+    public void setPruneSelectStar(boolean pruneSelectStar) {
+        this.pruneSelectStar = pruneSelectStar;
+    }
+
+    public boolean isMapUnderscoreToCamelCase() {
+        return mapUnderscoreToCamelCase;
+    }
+
+    public void setMapUnderscoreToCamelCase(boolean mapUnderscoreToCamelCase) {
+        this.mapUnderscoreToCamelCase = mapUnderscoreToCamelCase;
+        rowMappingPlans.clear();
+    }
+
+    /**
+     * 预编译语句缓存的命中、未命中与淘汰次数
+     * @return
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    public StatementCache newStatementCache() {
+        return new StatementCache(statementCacheSize, statementCacheStats);
+    }
+
+    /**
+     * 获取 mapper 接口的代理
+     * @param type
+     * @param sqlSession
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
+        MapperProxyFactory<T> factory = (MapperProxyFactory<T>) knownMappers.get(type);
+        if (null == factory) {
+            if (!type.isInterface()) {
+                throw new BindingException("Type " + type.getName() + " is not an interface");
+            }
+            factory = new MapperProxyFactory<>(type);
+            MapperProxyFactory<T> existing = (MapperProxyFactory<T>) knownMappers.putIfAbsent(type, factory);
+            if (null != existing) {
+                factory = existing;
+            }
+        }
+        return factory.newInstance(sqlSession);
+    }
+
+    public int getAsyncPoolSize() {
+        return asyncPoolSize;
+    }
+
+    public void setAsyncPoolSize(int asyncPoolSize) {
+        this.asyncPoolSize = asyncPoolSize;
+    }
+
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
+
+    public boolean isAsyncVirtualThreads() {
+        return asyncVirtualThreads;
+    }
+
+    public void setAsyncVirtualThreads(boolean asyncVirtualThreads) {
+        this.asyncVirtualThreads = asyncVirtualThreads;
+    }
+
+    /**
+     * 获取异步查询执行器，首次使用时按配置创建
+     * @return
+     */
+    public AsyncTaskExecutor getAsyncTaskExecutor() {
+        AsyncTaskExecutor executor = asyncTaskExecutor;
+        if (null == executor) {
+            synchronized (this) {
+                executor = asyncTaskExecutor;
+                if (null == executor) {
+                    executor = new AsyncTaskExecutor(asyncPoolSize, asyncQueueCapacity, asyncVirtualThreads);
+                    asyncTaskExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 获取超时看门狗，首次使用时创建
+     * @return
+     */
+    public StatementWatchdog getStatementWatchdog() {
+        StatementWatchdog watchdog = statementWatchdog;
+        if (null == watchdog) {
+            synchronized (this) {
+                watchdog = statementWatchdog;
+                if (null == watchdog) {
+                    watchdog = new StatementWatchdog();
+                    statementWatchdog = watchdog;
+                }
+            }
+        }
+        return watchdog;
+    }
+
+    public Integer getDefaultStatementTimeout() {
+        return defaultStatementTimeout;
+    }
+
+    public void setDefaultStatementTimeout(Integer defaultStatementTimeout) {
+        this.defaultStatementTimeout = defaultStatementTimeout;
+    }
+
+    public void setAsyncTaskExecutor(AsyncTaskExecutor asyncTaskExecutor) {
+        this.asyncTaskExecutor = asyncTaskExecutor;
+    }
+
+    /**
+     * 构建配置时各阶段的耗时
+     * @return
+     */
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    public void setStartupReport(StartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    public String getMapperSnapshotFile() {
+        return mapperSnapshotFile;
+    }
+
+    public void setMapperSnapshotFile(String mapperSnapshotFile) {
+        this.mapperSnapshotFile = mapperSnapshotFile;
+    }
+
+    public LocalCacheScope getLocalCacheScope() {
+        return localCacheScope;
+    }
+
+    public void setLocalCacheScope(LocalCacheScope localCacheScope) {
+        this.localCacheScope = localCacheScope;
+    }
+
+    public int getInListMaxBucket() {
+        return inListMaxBucket;
+    }
+
+    public void setInListMaxBucket(int inListMaxBucket) {
+        this.inListMaxBucket = inListMaxBucket;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * 按语句 id 累计的执行指标
+     * @return
+     */
+    public StatementMetricsRegistry getStatementMetrics() {
+        return statementMetrics;
+    }
+
+    public void addMetricsListener(MetricsListener listener) {
+        metricsListeners.add(listener);
+    }
+
+    public List<MetricsListener> getMetricsListeners() {
+        return metricsListeners;
+    }
+
+    /**
+     * 分发一次执行的指标，监听器抛出的异常不影响查询
+     * @param event
+     */
+    public void fireExecution(ExecutionEvent event) {
+        statementMetrics.onExecution(event);
+        for (MetricsListener listener : metricsListeners) {
+            try {
+                listener.onExecution(event);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Metrics listener " + listener.getClass().getName() + " failed", e);
+            }
+        }
+    }
+
+    public Cache getCache(String namespace) {
+        return caches.get(namespace);
+    }
+
+    /**
+     * 清空命名空间的二级缓存，数据在外部被修改后调用
+     * @param namespace
+     */
+    public void clearCache(String namespace) {
+        Cache cache = caches.get(namespace);
+        if (null != cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 命名空间二级缓存的命中统计
+     * @param namespace
+     * @return 未配置缓存时返回 null
+     */
+    public CacheStats getCacheStats(String namespace) {
+        Cache cache = caches.get(namespace);
+        return cache instanceof StatisticsCache ? ((StatisticsCache) cache).getStats() : null;
+    }
+
+    public ReflectorFactory getReflectorFactory() {
+        return reflectorFactory;
+    }
+
+    /**
+     * 自定义的 TypeHandler 需在执行查询之前注册
+     */
+    public TypeHandlerRegistry getTypeHandlerRegistry() {
+        return typeHandlerRegistry;
+    }
+
+    /**
+     * 根据语句 id 获取 SQL 语句信息
+     * @param statement
+     * @return
+     */
+    public XNode getMappedStatement(String statement) {
+        XNode xNode = mapperElement.get(statement);
+        if (null == xNode && null != lazyMapperIndex) {
+            int dot = statement.lastIndexOf('.');
+            if (dot > 0 && lazyMapperIndex.load(statement.substring(0, dot), this::addMappedStatements)) {
+                xNode = mapperElement.get(statement);
+            }
+        }
+        return xNode;
+    }
+
+    /**
+     * 注册延迟加载得到的语句
+     * 全部成功或全部不注册：先检查重复的 id，插入时发现冲突则移除本批已插入的语句，缓存在全部插入后再登记。
+     * @param statements
+     */
+    protected void addMappedStatements(List<XNode> statements) {
+        Set<String> ids = new HashSet<>();
+        for (XNode xNode : statements) {
+            String id = xNode.getNamespace() + "." + xNode.getId();
+            if (!ids.add(id) || mapperElement.containsKey(id)) {
+                throw new BuilderException("Mapped Statements collection already contains value for " + id);
+            }
+        }
+        List<String> inserted = new ArrayList<>(statements.size());
+        for (XNode xNode : statements) {
+            String id = xNode.getNamespace() + "." + xNode.getId();
+            if (null != mapperElement.putIfAbsent(id, xNode)) {
+                for (String insertedId : inserted) {
+                    mapperElement.remove(insertedId);
+                }
+                throw new BuilderException("Mapped Statements collection already contains value for " + id);
+            }
+            inserted.add(id);
+        }
+        for (XNode xNode : statements) {
+            if (null != xNode.getCache()) {
+                caches.putIfAbsent(xNode.getNamespace(), xNode.getCache());
+            }
+        }
+    }
+
+    /**
+     * 动态语句按参数求值，得到本次执行的语句形态与参数；静态语句原样返回
+     * @param xNode
+     * @param parameter
+     * @return
+     */
+    public BoundSql getBoundSql(XNode xNode, Object parameter) {
+        DynamicSqlSource sqlSource = xNode.getSqlSource();
+        if (null == sqlSource) {
+            return new BoundSql(xNode, parameter);
+        }
+        return sqlSource.getBoundSql(xNode, parameter, reflectorFactory, inListMaxBucket);
+    }
+
+    /**
+     * 获取行映射计划，同一结果类型与列布局只构建一次
+     * 结果类型为 Map 时每行映射为共用列名索引的只读 RowMap。
+     * @param resultType
+     * @param metaData
+     * @return
+     * @throws SQLException
+     */
+    public RowMappingPlan getRowMappingPlan(Class<?> resultType, ResultSetMetaData metaData) throws SQLException {
+        RowMappingKey key = new RowMappingKey(resultType, metaData);
+        RowMappingPlan plan = rowMappingPlans.get(key);
+        if (null == plan) {
+            plan = Map.class == resultType ? RowMappingPlan.buildMap(metaData)
+                    : RowMappingPlan.build(reflectorFactory.findForClass(resultType), metaData, typeHandlerRegistry, mapUnderscoreToCamelCase);
+            RowMappingPlan existing = rowMappingPlans.putIfAbsent(key, plan);
+            if (null != existing) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 获取语句的参数绑定计划，同一语句与参数类型只编译一次
+     * @param xNode
+     * @param parameter
+     * @return
+     */
+    public ParameterBinder getParameterBinder(XNode xNode, Object parameter) {
+        Class<?> parameterType = null == parameter ? Void.class : parameter.getClass();
+        Map<Class<?>, ParameterBinder> binders = xNode.getParameterBinders();
+        ParameterBinder binder = binders.get(parameterType);
+        if (null == binder) {
+            binder = ParameterBinder.compile(xNode.getParameter(), null == parameter ? null : parameterType, reflectorFactory, typeHandlerRegistry);
+            ParameterBinder existing = binders.putIfAbsent(parameterType, binder);
+            if (null != existing) {
+                binder = existing;
+            }
+        }
+        return binder;
     }
 }
@@ -0,0 +1,87 @@
+package com.creator.mybatis.session;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用方设定的截止时间，在当前线程的作用域内对所有查询生效
+ * 每次执行的超时取语句超时与剩余时间中较小的一个；异步查询在提交时捕获当前截止时间并带入任务线程。
+ * <pre>
+ * try (Deadline.Scope ignored = Deadline.after(200, TimeUnit.MILLISECONDS).enter()) {
+ *     session.selectList("...");
+ * }
+ * </pre>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * 当前线程生效的截止时间，没有时为 null
+     * @return
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 剩余时间，已过期时为 0 或负数
+     * @param unit
+     * @return
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 在当前线程上生效，嵌套时以较早的截止时间为准
+     * @return 关闭时恢复原来的截止时间
+     */
+    public Scope enter() {
+        return enter(this);
+    }
+
+    /**
+     * 在当前线程上生效
+     * @param deadline 为 null 时不改变当前的截止时间
+     * @return
+     */
+    public static Scope enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        if (null != deadline && (null == previous || deadline.deadlineNanos - previous.deadlineNanos < 0)) {
+            CURRENT.set(deadline);
+        }
+        return new Scope(previous);
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (null == previous) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
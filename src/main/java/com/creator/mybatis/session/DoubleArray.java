@@ -0,0 +1,69 @@
+package com.creator.mybatis.session;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 可增长的 double 数组，selectDoubles 的结果
+ */
+public final class DoubleArray extends PrimitiveArray {
+
+    private double[] values;
+
+    public DoubleArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleArray(int initialCapacity) {
+        this.values = new double[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+        values[size++] = value;
+    }
+
+    public void addNull() {
+        markNull();
+        add(0D);
+    }
+
+    /**
+     * @param index
+     * @return 空值返回 0，需要区分时使用 isNull
+     */
+    public double get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public void readFrom(ResultSet resultSet, int columnIndex) throws SQLException {
+        double value = resultSet.getDouble(columnIndex);
+        if (value == 0 && resultSet.wasNull()) {
+            addNull();
+        } else {
+            add(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(isNull(i) ? "null" : String.valueOf(values[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.creator.mybatis.session;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 可增长的 int 数组，selectInts 的结果
+ */
+public final class IntArray extends PrimitiveArray {
+
+    private int[] values;
+
+    public IntArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArray(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+        values[size++] = value;
+    }
+
+    public void addNull() {
+        markNull();
+        add(0);
+    }
+
+    /**
+     * @param index
+     * @return 空值返回 0，需要区分时使用 isNull
+     */
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public void readFrom(ResultSet resultSet, int columnIndex) throws SQLException {
+        int value = resultSet.getInt(columnIndex);
+        if (value == 0 && resultSet.wasNull()) {
+            addNull();
+        } else {
+            add(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(isNull(i) ? "null" : String.valueOf(values[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
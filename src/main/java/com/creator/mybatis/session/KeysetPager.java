@@ -0,0 +1,150 @@
+package com.creator.mybatis.session;
+
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.executor.statement.KeysetRewriter;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.scripting.BoundSql;
+import com.creator.mybatis.scripting.ContextMap;
+import com.creator.mybatis.session.defaults.DefaultSqlSession;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * keyset 分页：以上一页最后一行的排序键作为 seek 条件重新执行语句，
+ * 每一页都只读取 pageSize 行，深分页与第一页的代价相同。
+ * 语句应按排序键排序（没有 ORDER BY 时自动追加），排序键需唯一。
+ * @param <T>
+ */
+public class KeysetPager<T> {
+
+    private final DefaultSqlSession session;
+    private final String statement;
+    private final Object parameter;
+    private final String column;
+    private final int pageSize;
+    private String keyProperty;
+    private boolean descending;
+    private Object lastKey;
+    private boolean exhausted;
+
+    /**
+     * @param session
+     * @param statement 语句 id
+     * @param parameter 语句参数
+     * @param column 排序键列名
+     * @param pageSize 每页行数
+     */
+    public KeysetPager(SqlSession session, String statement, Object parameter, String column, int pageSize) {
+        if (!(session instanceof DefaultSqlSession)) {
+            throw new PersistenceException("KeysetPager requires a DefaultSqlSession");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        this.session = (DefaultSqlSession) session;
+        this.statement = statement;
+        this.parameter = parameter;
+        this.column = column;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 按排序键降序翻页
+     * @return
+     */
+    public KeysetPager<T> descending() {
+        this.descending = true;
+        return this;
+    }
+
+    /**
+     * 结果对象中排序键的属性名，默认按行映射的规则由列名推出（user_id 对应 userId）
+     * @param keyProperty
+     * @return
+     */
+    public KeysetPager<T> keyProperty(String keyProperty) {
+        this.keyProperty = keyProperty;
+        return this;
+    }
+
+    /**
+     * 从指定的排序键之后开始，例如恢复之前保存的位置
+     * @param key
+     * @return
+     */
+    public KeysetPager<T> startAfter(Object key) {
+        this.lastKey = key;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return !exhausted;
+    }
+
+    /**
+     * 最近一页最后一行的排序键，可保存下来用于 startAfter
+     * @return
+     */
+    public Object getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * 读取下一页，没有更多数据时返回空列表
+     * @return
+     */
+    public List<T> nextPage() {
+        if (exhausted) {
+            return Collections.emptyList();
+        }
+        Configuration configuration = session.getConfiguration();
+        XNode xNode = configuration.getMappedStatement(statement);
+        if (null == xNode) {
+            throw new PersistenceException("Mapped statement not found: " + statement);
+        }
+        BoundSql boundSql = configuration.getBoundSql(xNode, parameter);
+        if (null != boundSql.getBatches()) {
+            throw new PersistenceException("IN list of " + statement + " exceeds inListMaxBucket and cannot be used with KeysetPager");
+        }
+        boolean seek = null != lastKey;
+        String key = (descending ? "keyset:desc:" : "keyset:asc:") + column + (seek ? ":seek" : ":first");
+        XNode shape = boundSql.getXNode().getDerivedShape(key, s -> KeysetRewriter.rewrite(s, column, descending, seek));
+        Object pageParameter = boundSql.getParameterObject();
+        if (seek) {
+            Map<String, Object> additional = new HashMap<>(2);
+            additional.put(KeysetRewriter.KEYSET_PARAMETER, lastKey);
+            pageParameter = new ContextMap(additional, pageParameter, configuration.getReflectorFactory());
+        }
+        List<T> page = session.selectList(shape, pageParameter, new RowBounds(0, pageSize));
+        if (null == page) {
+            throw new PersistenceException("Error querying page of " + statement);
+        }
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!page.isEmpty()) {
+            lastKey = key(page.get(page.size() - 1), configuration);
+        }
+        return page;
+    }
+
+    private Object key(Object row, Configuration configuration) {
+        if (row instanceof Map) {
+            return ((Map<?, ?>) row).get(column);
+        }
+        String property = keyProperty;
+        if (null == property) {
+            property = RowMappingPlan.columnToProperty(column, configuration.isMapUnderscoreToCamelCase());
+        }
+        Function<Object, Object> getter = configuration.getReflectorFactory().findForClass(row.getClass()).getGetter(property);
+        if (null == getter) {
+            throw new PersistenceException("There is no getter for keyset property '" + property + "' in '" + row.getClass().getName() + "'");
+        }
+        return getter.apply(row);
+    }
+}
@@ -0,0 +1,15 @@
+package com.creator.mybatis.session;
+
+/**
+ * 一级缓存的作用范围
+ */
+public enum LocalCacheScope {
+    /**
+     * 会话内相同的查询只执行一次，会话关闭或 clearCache() 时清空
+     */
+    SESSION,
+    /**
+     * 每次查询结束即清空，相当于关闭一级缓存
+     */
+    STATEMENT
+}
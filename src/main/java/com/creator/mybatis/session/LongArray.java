@@ -0,0 +1,69 @@
+package com.creator.mybatis.session;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 可增长的 long 数组，selectLongs 的结果
+ */
+public final class LongArray extends PrimitiveArray {
+
+    private long[] values;
+
+    public LongArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongArray(int initialCapacity) {
+        this.values = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+        values[size++] = value;
+    }
+
+    public void addNull() {
+        markNull();
+        add(0L);
+    }
+
+    /**
+     * @param index
+     * @return 空值返回 0，需要区分时使用 isNull
+     */
+    public long get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public void readFrom(ResultSet resultSet, int columnIndex) throws SQLException {
+        long value = resultSet.getLong(columnIndex);
+        if (value == 0 && resultSet.wasNull()) {
+            addNull();
+        } else {
+            add(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(isNull(i) ? "null" : String.valueOf(values[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.creator.mybatis.session;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * 单列数值查询的结果，按原始类型存放，不装箱
+ * 空值在数组中记为 0，另用位图标记；没有空值时不创建位图。
+ */
+public abstract class PrimitiveArray {
+
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    protected int size;
+    private BitSet nulls;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index
+     * @return 该位置的值在数据库中是否为 NULL
+     */
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return null != nulls && nulls.get(index);
+    }
+
+    public boolean hasNulls() {
+        return null != nulls;
+    }
+
+    /**
+     * @return 空值位置的副本，没有空值时为 null
+     */
+    public BitSet getNulls() {
+        return null == nulls ? null : (BitSet) nulls.clone();
+    }
+
+    /**
+     * 按结果类型创建对应的数组
+     * @param type long[]、int[]、double[] 或 LongArray、IntArray、DoubleArray
+     * @return 不是单列数值类型时为 null
+     */
+    public static PrimitiveArray forType(Class<?> type) {
+        if (long[].class == type || LongArray.class == type) {
+            return new LongArray();
+        }
+        if (int[].class == type || IntArray.class == type) {
+            return new IntArray();
+        }
+        if (double[].class == type || DoubleArray.class == type) {
+            return new DoubleArray();
+        }
+        return null;
+    }
+
+    /**
+     * @return 长度等于 size 的原始类型数组副本
+     */
+    public abstract Object toArray();
+
+    /**
+     * 从结果集当前行读取一个值追加到末尾，通过 wasNull 判断空值
+     * @param resultSet
+     * @param columnIndex 从 1 开始
+     * @throws SQLException
+     */
+    public abstract void readFrom(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    /**
+     * 在下一个位置标记空值，由子类在追加 0 之前调用
+     */
+    protected void markNull() {
+        if (null == nulls) {
+            nulls = new BitSet();
+        }
+        nulls.set(size);
+    }
+
+    /**
+     * 按 1.5 倍扩容后的容量
+     */
+    protected static int grow(int capacity) {
+        int newCapacity = capacity + (capacity >> 1) + 1;
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError("Primitive array too large");
+        }
+        return newCapacity;
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
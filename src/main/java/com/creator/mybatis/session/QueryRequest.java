@@ -0,0 +1,27 @@
+package com.creator.mybatis.session;
+
+/**
+ * 批量查询中的一条查询：语句 id 与参数
+ */
+public class QueryRequest {
+
+    private final String statement;
+    private final Object parameter;
+
+    public QueryRequest(String statement) {
+        this(statement, null);
+    }
+
+    public QueryRequest(String statement, Object parameter) {
+        this.statement = statement;
+        this.parameter = parameter;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public Object getParameter() {
+        return parameter;
+    }
+}
@@ -0,0 +1,48 @@
+package com.creator.mybatis.session;
+
+import java.util.List;
+
+/**
+ * 批量查询中一条查询的结果，查询失败时保存异常，不影响其他查询
+ * @param <T>
+ */
+public class QueryResult<T> {
+
+    private final QueryRequest request;
+    private final List<T> results;
+    private final Throwable error;
+
+    private QueryResult(QueryRequest request, List<T> results, Throwable error) {
+        this.request = request;
+        this.results = results;
+        this.error = error;
+    }
+
+    public static <T> QueryResult<T> success(QueryRequest request, List<T> results) {
+        return new QueryResult<>(request, results, null);
+    }
+
+    public static <T> QueryResult<T> failure(QueryRequest request, Throwable error) {
+        return new QueryResult<>(request, null, error);
+    }
+
+    public QueryRequest getRequest() {
+        return request;
+    }
+
+    public boolean isSuccess() {
+        return null == error;
+    }
+
+    /**
+     * 查询结果，查询失败时为 null
+     * @return
+     */
+    public List<T> getResults() {
+        return results;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+}
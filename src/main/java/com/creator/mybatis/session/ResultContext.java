@@ -0,0 +1,25 @@
+package com.creator.mybatis.session;
+
+/**
+ * 结果处理上下文
+ * @param <T>
+ */
+public interface ResultContext<T> {
+
+    /**
+     * 当前行映射得到的对象
+     */
+    T getResultObject();
+
+    /**
+     * 已处理的行数
+     */
+    int getResultCount();
+
+    boolean isStopped();
+
+    /**
+     * 停止读取后续的行
+     */
+    void stop();
+}
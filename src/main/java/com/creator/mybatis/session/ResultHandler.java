@@ -0,0 +1,10 @@
+package com.creator.mybatis.session;
+
+/**
+ * 逐行处理查询结果，结果不会被收集到列表中
+ * @param <T>
+ */
+public interface ResultHandler<T> {
+
+    void handleResult(ResultContext<? extends T> resultContext);
+}
@@ -0,0 +1,73 @@
+package com.creator.mybatis.session;
+
+/**
+ * 查询的行范围：跳过 offset 行后最多返回 limit 行
+ * limit 通过 Statement.setMaxRows 下推给驱动，offset 在客户端跳过，深分页请使用 KeysetPager。
+ */
+public class RowBounds {
+
+    public static final int NO_ROW_OFFSET = 0;
+    public static final int NO_ROW_LIMIT = Integer.MAX_VALUE;
+    public static final RowBounds DEFAULT = new RowBounds();
+
+    private final int offset;
+    private final int limit;
+
+    public RowBounds() {
+        this(NO_ROW_OFFSET, NO_ROW_LIMIT);
+    }
+
+    public RowBounds(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("RowBounds offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isLimited() {
+        return limit != NO_ROW_LIMIT;
+    }
+
+    /**
+     * 交给 Statement.setMaxRows 的行数：offset + limit，不限制时为 0
+     * @return
+     */
+    public int getMaxRows() {
+        if (!isLimited()) {
+            return 0;
+        }
+        long maxRows = (long) offset + limit;
+        return maxRows > Integer.MAX_VALUE ? 0 : (int) maxRows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RowBounds)) {
+            return false;
+        }
+        RowBounds that = (RowBounds) o;
+        return offset == that.offset && limit == that.limit;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * offset + limit;
+    }
+
+    @Override
+    public String toString() {
+        return "RowBounds[offset=" + offset + ", limit=" + limit + "]";
+    }
+}
@@ -1,8 +1,12 @@
 package com.creator.mybatis.session;
 
+import com.creator.mybatis.cursor.Cursor;
+
+import java.io.Closeable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public interface SqlSession {
+public interface SqlSession extends Closeable {
 
     <T> T selectOne(String statement);
 
@@ -12,5 +16,78 @@ public interface SqlSession {
 
     <T> List<T> selectList(String statement, Object parameter);
 
+    /**
+     * 按行范围查询，limit 通过 Statement.setMaxRows 下推给驱动
+     */
+    <T> List<T> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 查询单列数值，按原始类型读取第一列，不创建包装对象
+     * 适合返回大量 id、计数、分值的语句，结果不经过一级与二级缓存。
+     */
+    LongArray selectLongs(String statement);
+
+    LongArray selectLongs(String statement, Object parameter);
+
+    IntArray selectInts(String statement);
+
+    IntArray selectInts(String statement, Object parameter);
+
+    DoubleArray selectDoubles(String statement);
+
+    DoubleArray selectDoubles(String statement, Object parameter);
+
+    /**
+     * 按行范围查询单列数值，追加到给定的数组
+     * @return column 本身，查询失败时为 null
+     */
+    <A extends PrimitiveArray> A selectColumn(String statement, Object parameter, RowBounds rowBounds, A column);
+
+    /**
+     * 在异步执行器上查询，任务使用独立的会话，从数据源借出独立的连接，查询出错时 future 异常完成
+     * 没有配置数据源（只有一个共用连接）时直接抛出 PersistenceException。
+     */
+    <T> CompletableFuture<T> selectOneAsync(String statement);
+
+    <T> CompletableFuture<T> selectOneAsync(String statement, Object parameter);
+
+    <T> CompletableFuture<List<T>> selectListAsync(String statement);
+
+    <T> CompletableFuture<List<T>> selectListAsync(String statement, Object parameter);
+
+    /**
+     * 并发执行多条相互独立的查询，每条查询使用独立的连接
+     * 结果按请求顺序返回，单条查询失败只体现在对应的 QueryResult 中
+     * 与异步查询相同，需要配置数据源。
+     */
+    List<QueryResult<Object>> selectAll(List<QueryRequest> requests);
+
+    /**
+     * 以游标方式查询，行在迭代时才读取与映射，使用完毕需关闭游标
+     */
+    <T> Cursor<T> selectCursor(String statement);
+
+    <T> Cursor<T> selectCursor(String statement, Object parameter);
+
+    /**
+     * 逐行交给 handler 处理，不在内存中收集结果
+     */
+    void select(String statement, ResultHandler<?> handler);
+
+    void select(String statement, Object parameter, ResultHandler<?> handler);
+
+    /**
+     * 获取 mapper 接口的代理，方法按 命名空间（接口全限定名）.方法名 对应语句
+     */
+    <T> T getMapper(Class<T> type);
+
+    Configuration getConfiguration();
+
+    /**
+     * 清空会话的一级缓存
+     */
+    void clearCache();
+
+    @Override
     void close();
 }
@@ -1,9 +1,24 @@
 package com.creator.mybatis.session;
 
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.builder.MapperSnapshot;
+import com.creator.mybatis.builder.StartupReport;
+import com.creator.mybatis.builder.xml.LazyMapperIndex;
+import com.creator.mybatis.builder.xml.MapperResource;
+import com.creator.mybatis.builder.xml.XMLMapperBuilder;
 import com.creator.mybatis.builder.xml.XMLMapperEntityResolver;
+import com.creator.mybatis.cache.CacheBuilder;
+import com.creator.mybatis.datasource.pooled.PooledDataSource;
+import com.creator.mybatis.datasource.rest.EsRestDataSource;
+import com.creator.mybatis.datasource.unpooled.UnpooledDataSource;
 import com.creator.mybatis.io.Resources;
+import com.creator.mybatis.metrics.MetricsListener;
+import com.creator.mybatis.metrics.SlowQueryLogger;
+import com.creator.mybatis.metrics.micrometer.MicrometerMetricsListener;
 import com.creator.mybatis.parsing.XNode;
 import com.creator.mybatis.session.defaults.DefaultSqlSessionFactory;
+import com.creator.mybatis.type.TypeHandler;
+import com.creator.mybatis.type.TypeHandlerRegistry;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.Element;
@@ -13,28 +28,59 @@ import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.xml.sax.InputSource;
 
+import javax.sql.DataSource;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.sql.JDBCType;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class SqlSessionFactoryBuilder {
 
+    private static final Logger log = Logger.getLogger(SqlSessionFactoryBuilder.class.getName());
+
+    /**
+     * 语句快照文件，为空时每次启动都解析 mapper.xml；配置文件中的 mapperSnapshotFile 设置优先
+     */
+    private String mapperSnapshotFile;
+
+    /**
+     * 是否延迟加载 mapper；配置文件中的 lazyMapperLoading 设置优先
+     */
+    private boolean lazyMapperLoading;
+
+    public SqlSessionFactoryBuilder setMapperSnapshotFile(String mapperSnapshotFile) {
+        this.mapperSnapshotFile = mapperSnapshotFile;
+        return this;
+    }
+
+    public SqlSessionFactoryBuilder setLazyMapperLoading(boolean lazyMapperLoading) {
+        this.lazyMapperLoading = lazyMapperLoading;
+        return this;
+    }
+
     public DefaultSqlSessionFactory build(Reader reader) {
         SAXReader saxReader = new SAXReader();
         try {
+            long start = System.nanoTime();
+            StartupReport report = new StartupReport();
             saxReader.setEntityResolver(new XMLMapperEntityResolver());
             Document document = saxReader.read(new InputSource(reader));
-            Configuration configuration = parseConfiguration(document.getRootElement());
-            return new DefaultSqlSessionFactory(configuration);
+            report.record("config.read", start);
+            Configuration configuration = parseConfiguration(document.getRootElement(), report);
+            return newFactory(configuration, report, start);
         } catch (DocumentException e) {
             e.printStackTrace();
         }
@@ -50,33 +96,247 @@ public class SqlSessionFactoryBuilder {
      * @throws DocumentException
      */
     public DefaultSqlSessionFactory build(Connection connection, String packageSearchPath) throws IOException, DocumentException {
+        long start = System.nanoTime();
+        StartupReport report = new StartupReport();
         Configuration configuration = new Configuration();
         configuration.setConnection(connection);
-        // 读取配置
+        configuration.setLazyMapperLoading(lazyMapperLoading);
+        loadMappers(configuration, mapperResourcesFromPath(packageSearchPath, report), report);
+        return newFactory(configuration, report, start);
+    }
+
+    /**
+     * 配合 esbatis-spring-boot-starter，每个会话从数据源借出独立的连接
+     * @param dataSource
+     * @param packageSearchPath
+     * @return
+     * @throws IOException
+     * @throws DocumentException
+     */
+    public DefaultSqlSessionFactory build(DataSource dataSource, String packageSearchPath) throws IOException, DocumentException {
+        long start = System.nanoTime();
+        StartupReport report = new StartupReport();
+        Configuration configuration = new Configuration();
+        configuration.setJdbcDataSource(dataSource);
+        configuration.setLazyMapperLoading(lazyMapperLoading);
+        loadMappers(configuration, mapperResourcesFromPath(packageSearchPath, report), report);
+        return newFactory(configuration, report, start);
+    }
+
+    private DefaultSqlSessionFactory newFactory(Configuration configuration, StartupReport report, long start) {
+        report.record("total", start);
+        configuration.setStartupReport(report);
+        log.info(report.toString());
+        return new DefaultSqlSessionFactory(configuration);
+    }
+
+    /**
+     * 按资源路径表达式读取 mapper.xml
+     * @param packageSearchPath
+     * @param report
+     * @return
+     * @throws IOException
+     */
+    private List<MapperResource> mapperResourcesFromPath(String packageSearchPath, StartupReport report) throws IOException {
+        long start = System.nanoTime();
         ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
         Resource[] resources = resourcePatternResolver.getResources(packageSearchPath);
-        List<Element> list = new ArrayList<>(resources.length);
-        for(Resource resource : resources) {
-            Document document = new SAXReader().read(new InputSource(new InputStreamReader(resource.getInputStream())));
-            list.add(document.getRootElement());
+        List<MapperResource> list = new ArrayList<>(resources.length);
+        for (Resource resource : resources) {
+            list.add(new MapperResource(resource.getDescription(), resource::getInputStream));
         }
-        configuration.setMapperElement(mapperElementNoResource(list));
-        return new DefaultSqlSessionFactory(configuration);
+        report.record("mapper.discover", start);
+        return list;
     }
 
     /**
      * 解析配置
      * @param root
+     * @param report
      * @return
      */
-    private Configuration parseConfiguration(Element root) {
+    private Configuration parseConfiguration(Element root, StartupReport report) {
+        long start = System.nanoTime();
         Configuration configuration = new Configuration();
-        configuration.setDataSource(dataSource(root.selectNodes("//dataSource")));
-        configuration.setConnection(connection(configuration.getDataSource()));
-        configuration.setMapperElement(mapperElement(root.selectNodes("mappers")));
+        configuration.setLazyMapperLoading(lazyMapperLoading);
+        settingsElement(configuration, root.selectNodes("settings/setting"));
+        typeHandlerElement(configuration.getTypeHandlerRegistry(), root.selectNodes("typeHandlers/*"));
+        List<Element> dataSourceElements = root.selectNodes("//dataSource");
+        configuration.setDataSource(dataSource(dataSourceElements));
+        configuration.setJdbcDataSource(jdbcDataSource(dataSourceElements.get(0).attributeValue("type"), configuration.getDataSource()));
+        List<MapperResource> mapperResources = mapperResources(root.selectNodes("mappers"));
+        report.record("config.parse", start);
+        loadMappers(configuration, mapperResources, report);
         return configuration;
     }
 
+    /**
+     * 加载 mapper：延迟模式下只建立命名空间索引，否则解析全部语句
+     * @param configuration
+     * @param resources
+     * @param report
+     */
+    private void loadMappers(Configuration configuration, List<MapperResource> resources, StartupReport report) {
+        if (configuration.isLazyMapperLoading()) {
+            long start = System.nanoTime();
+            configuration.setLazyMapperIndex(LazyMapperIndex.build(resources));
+            report.record("mapper.index", start);
+            report.setMapperCount(resources.size());
+            return;
+        }
+        String snapshotFile = null == configuration.getMapperSnapshotFile() ? mapperSnapshotFile : configuration.getMapperSnapshotFile();
+        configuration.setMapperElement(mapperElement(resources, snapshotFile, report));
+    }
+
+    /**
+     * 读取 settings 配置
+     * @param configuration
+     * @param list
+     */
+    private void settingsElement(Configuration configuration, List<Element> list) {
+        Long slowQueryThreshold = null;
+        double slowQuerySampleRate = 1;
+        for (Element e : list) {
+            String name = e.attributeValue("name");
+            String value = e.attributeValue("value");
+            switch (name) {
+                case "statementCacheSize":
+                    configuration.setStatementCacheSize(Integer.parseInt(value));
+                    break;
+                case "defaultFetchSize":
+                    configuration.setDefaultFetchSize(Integer.valueOf(value));
+                    break;
+                case "pruneSelectStar":
+                    configuration.setPruneSelectStar(Boolean.parseBoolean(value));
+                    break;
+                case "mapUnderscoreToCamelCase":
+                    configuration.setMapUnderscoreToCamelCase(Boolean.parseBoolean(value));
+                    break;
+                case "asyncPoolSize":
+                    configuration.setAsyncPoolSize(Integer.parseInt(value));
+                    break;
+                case "asyncQueueCapacity":
+                    configuration.setAsyncQueueCapacity(Integer.parseInt(value));
+                    break;
+                case "asyncVirtualThreads":
+                    configuration.setAsyncVirtualThreads(Boolean.parseBoolean(value));
+                    break;
+                case "lazyMapperLoading":
+                    configuration.setLazyMapperLoading(Boolean.parseBoolean(value));
+                    break;
+                case "mapperSnapshotFile":
+                    configuration.setMapperSnapshotFile(value);
+                    break;
+                case "localCacheScope":
+                    configuration.setLocalCacheScope(LocalCacheScope.valueOf(value));
+                    break;
+                case "inListMaxBucket":
+                    configuration.setInListMaxBucket(Integer.parseInt(value));
+                    break;
+                case "defaultStatementTimeout":
+                    configuration.setDefaultStatementTimeout(Integer.valueOf(value));
+                    break;
+                case "metricsEnabled":
+                    configuration.setMetricsEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "slowQueryThreshold":
+                    slowQueryThreshold = Long.valueOf(value);
+                    break;
+                case "slowQuerySampleRate":
+                    slowQuerySampleRate = Double.parseDouble(value);
+                    break;
+                case "micrometerMetrics":
+                    if (Boolean.parseBoolean(value)) {
+                        configuration.addMetricsListener(micrometerListener());
+                    }
+                    break;
+                default:
+                    throw new BuilderException("The setting " + name + " is not known. Make sure you spelled it correctly (case sensitive).");
+            }
+        }
+        if (null != slowQueryThreshold) {
+            configuration.addMetricsListener(new SlowQueryLogger(slowQueryThreshold, slowQuerySampleRate));
+        }
+    }
+
+    /**
+     * 注册 typeHandlers 中配置的处理器
+     * 未指定 javaType 时取处理器声明的泛型参数；处理器可以有一个接收 javaType 的构造方法。
+     * @param registry
+     * @param list
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void typeHandlerElement(TypeHandlerRegistry registry, List<Element> list) {
+        for (Element element : list) {
+            if (!"typeHandler".equals(element.getName())) {
+                throw new BuilderException("Scanning typeHandlers by package is not supported, declare each typeHandler instead");
+            }
+            String handlerName = element.attributeValue("handler");
+            String javaTypeName = element.attributeValue("javaType");
+            String jdbcTypeName = element.attributeValue("jdbcType");
+            try {
+                Class<?> handlerType = Class.forName(handlerName);
+                if (!TypeHandler.class.isAssignableFrom(handlerType)) {
+                    throw new BuilderException(handlerName + " does not implement " + TypeHandler.class.getName());
+                }
+                Class<?> javaType = null == javaTypeName ? handledType(handlerType) : Class.forName(javaTypeName);
+                if (null == javaType) {
+                    throw new BuilderException("Cannot determine the javaType of " + handlerName + ", specify it with the javaType attribute");
+                }
+                JDBCType jdbcType = null == jdbcTypeName ? null : JDBCType.valueOf(jdbcTypeName);
+                registry.register((Class) javaType, jdbcType, newTypeHandler(handlerType, javaType));
+            } catch (ClassNotFoundException | IllegalArgumentException e) {
+                throw new BuilderException("Error registering typeHandler " + handlerName + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static TypeHandler<?> newTypeHandler(Class<?> handlerType, Class<?> javaType) {
+        try {
+            try {
+                return (TypeHandler<?>) handlerType.getConstructor(Class.class).newInstance(javaType);
+            } catch (NoSuchMethodException ignored) {
+                return (TypeHandler<?>) handlerType.getConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new BuilderException("Error instantiating typeHandler " + handlerType.getName(), e);
+        }
+    }
+
+    /**
+     * 处理器实现 TypeHandler&lt;T&gt; 或继承 BaseTypeHandler&lt;T&gt; 时的 T
+     */
+    private static Class<?> handledType(Class<?> handlerType) {
+        for (Class<?> type = handlerType; null != type && Object.class != type; type = type.getSuperclass()) {
+            List<Type> candidates = new ArrayList<>();
+            candidates.add(type.getGenericSuperclass());
+            Collections.addAll(candidates, type.getGenericInterfaces());
+            for (Type candidate : candidates) {
+                if (candidate instanceof ParameterizedType) {
+                    ParameterizedType parameterized = (ParameterizedType) candidate;
+                    Type argument = parameterized.getActualTypeArguments()[0];
+                    if (TypeHandler.class.isAssignableFrom((Class<?>) parameterized.getRawType()) && argument instanceof Class) {
+                        return (Class<?>) argument;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 发布到 Micrometer 全局注册表，Spring Boot 默认会把自己的注册表加入其中
+     * @return
+     */
+    private static MetricsListener micrometerListener() {
+        try {
+            Class.forName("io.micrometer.core.instrument.MeterRegistry");
+        } catch (ClassNotFoundException e) {
+            throw new BuilderException("Setting micrometerMetrics requires micrometer-core on the classpath", e);
+        }
+        return MicrometerMetricsListener.globalRegistry();
+    }
+
     /**
      * 获取数据源配置信息
      * @param list
@@ -85,9 +345,8 @@ public class SqlSessionFactoryBuilder {
     private Map<String, String> dataSource(List<Element> list) {
         Map<String, String> dataSource = new HashMap<>();
         Element element = list.get(0);
-        List content = element.content();
-        for (Object o : content) {
-            Element e = (Element) o;
+        List<Element> content = element.elements("property");
+        for (Element e : content) {
             String name = e.attributeValue("name");
             String value = e.attributeValue("value");
             dataSource.put(name, value);
@@ -96,96 +355,164 @@ public class SqlSessionFactoryBuilder {
     }
 
     /**
-     * 获取连接
+     * 根据 dataSource 的 type 创建数据源
+     * POOLED（默认）使用内置连接池，UNPOOLED 每个会话新建连接，ES_REST 直接请求 ES 的 _sql 接口
+     * @param type
      * @param dataSource
      * @return
      */
-    private Connection connection(Map<String, String> dataSource) {
-        try {
-//            Class.forName(dataSource.get("driver"));
-            return DriverManager.getConnection(dataSource.get("url"));
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private DataSource jdbcDataSource(String type, Map<String, String> dataSource) {
+        if ("UNPOOLED".equalsIgnoreCase(type)) {
+            return new UnpooledDataSource(dataSource);
         }
-        return null;
+        if ("ES_REST".equalsIgnoreCase(type)) {
+            return new EsRestDataSource(dataSource);
+        }
+        return new PooledDataSource(dataSource);
     }
 
     /**
-     * 获取 SQL 语句信息
+     * 获取 mappers 中配置的 mapper 资源
      * @param list
      * @return
      */
-    private Map<String, XNode> mapperElement(List<Element> list) {
-        Map<String, XNode> map = new HashMap<>();
+    private List<MapperResource> mapperResources(List<Element> list) {
+        List<MapperResource> resources = new ArrayList<>();
         Element element = list.get(0);
-        List content = element.content();
-        for (Object o : content) {
-            Element e = (Element) o;
+        for (Element e : (List<Element>) element.elements("mapper")) {
             String resource = e.attributeValue("resource");
+            resources.add(new MapperResource(resource, () -> Resources.getResourceAsStream(resource)));
+        }
+        return resources;
+    }
 
-            try {
-                Reader reader = Resources.getResourceAsReader(resource);
-                SAXReader saxReader = new SAXReader();
-                Document document = saxReader.read(new InputSource(reader));
-                Element root = document.getRootElement();
-                parseElement(map, root);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+    /**
+     * 加载 mapper.xml 中的语句
+     * 配置了快照文件时，mapper 内容与快照一致则直接从快照加载，否则解析 XML 并重新写入快照。
+     * @param resources
+     * @param snapshotFile 快照文件路径，为空时不使用快照
+     * @param report
+     * @return
+     */
+    private Map<String, XNode> mapperElement(List<MapperResource> resources, String snapshotFile, StartupReport report) {
+        report.setMapperCount(resources.size());
+        if (null == snapshotFile) {
+            return mergeStatements(parseMappers(resources, report), report);
+        }
+        Path path = Paths.get(snapshotFile);
+        long start = System.nanoTime();
+        List<MapperResource> loaded;
+        try {
+            loaded = MapperSnapshot.readAll(resources);
+        } catch (Exception e) {
+            throw new BuilderException("Error reading mapper resources", e);
+        }
+        byte[] checksum = MapperSnapshot.checksum(loaded);
+        report.record("mapper.read", start);
 
+        start = System.nanoTime();
+        MapperSnapshot snapshot = null;
+        try {
+            snapshot = MapperSnapshot.read(path, checksum);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not read mapper snapshot " + path + ", parsing mapper XML instead", e);
+        }
+        if (null != snapshot) {
+            snapshot.attachCaches();
+            report.record("snapshot.load", start);
+            return merge(Collections.singletonList(snapshot.getStatements()), report);
+        }
+
+        List<XMLMapperBuilder> builders = parseMappers(loaded, report);
+        List<List<XNode>> parsed = new ArrayList<>(builders.size());
+        List<XNode> statements = new ArrayList<>();
+        for (XMLMapperBuilder builder : builders) {
+            parsed.add(builder.getStatements());
+            statements.addAll(builder.getStatements());
         }
+        Map<String, CacheBuilder> cacheBuilders = XMLMapperBuilder.cacheBuilders(builders);
+        XMLMapperBuilder.attachCaches(cacheBuilders, statements);
+        Map<String, XNode> map = merge(parsed, report);
+        start = System.nanoTime();
+        try {
+            new MapperSnapshot(checksum, statements, cacheBuilders).write(path);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not write mapper snapshot " + path, e);
+        }
+        report.record("snapshot.write", start);
         return map;
     }
 
+    private Map<String, XNode> mergeStatements(List<XMLMapperBuilder> builders, StartupReport report) {
+        List<List<XNode>> parsed = new ArrayList<>(builders.size());
+        List<XNode> statements = new ArrayList<>();
+        for (XMLMapperBuilder builder : builders) {
+            parsed.add(builder.getStatements());
+            statements.addAll(builder.getStatements());
+        }
+        XMLMapperBuilder.attachCaches(XMLMapperBuilder.cacheBuilders(builders), statements);
+        return merge(parsed, report);
+    }
+
     /**
-     * 从对应的 mapper.xml 中直接获取 SQL 语句信息
-     * @param list
+     * 并行解析 mapper.xml，返回的解析器与资源顺序一致
+     * 等待全部解析结束后，有 mapper 解析失败时抛出第一个失败的 BuilderException，其余失败附加为 suppressed。
+     * @param resources
+     * @param report
      * @return
      */
-    private Map<String, XNode> mapperElementNoResource(List<Element> list) {
-        Map<String, XNode> map = new HashMap<>();
-        for (Element o : list) {
+    private List<XMLMapperBuilder> parseMappers(List<MapperResource> resources, StartupReport report) {
+        long start = System.nanoTime();
+        List<XMLMapperBuilder> builders = new ArrayList<>(resources.size());
+        List<ForkJoinTask<List<XNode>>> tasks = new ArrayList<>(resources.size());
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (MapperResource resource : resources) {
+            XMLMapperBuilder builder = new XMLMapperBuilder(resource);
+            builders.add(builder);
+            tasks.add(pool.submit(builder::parse));
+        }
+        BuilderException failure = null;
+        for (int i = 0; i < tasks.size(); i++) {
             try {
-                parseElement(map, o);
-            } catch (Exception ex) {
-                ex.printStackTrace();
+                tasks.get(i).join();
+            } catch (RuntimeException ex) {
+                BuilderException error = new BuilderException("Error parsing mapper " + resources.get(i), ex);
+                log.log(Level.SEVERE, error.getMessage(), ex);
+                if (null == failure) {
+                    failure = error;
+                } else {
+                    failure.addSuppressed(error);
+                }
             }
         }
-        return map;
+        report.record("mapper.parse", start);
+        if (null != failure) {
+            throw failure;
+        }
+        return builders;
     }
 
-    private void parseElement(Map<String, XNode> map, Element root) {
-        //命名空间
-        String namespace = root.attributeValue("namespace");
-
-        // SELECT
-        List<Element> selectNodes = root.selectNodes("select");
-        for (Element node : selectNodes) {
-            String id = node.attributeValue("id");
-            String parameterType = node.attributeValue("parameterType");
-            String resultType = node.attributeValue("resultType");
-            String sql = node.getText();
-
-            // ? 匹配
-            Map<Integer, String> parameter = new HashMap<>();
-            Pattern pattern = Pattern.compile("(#\\{(.*?)})");
-            Matcher matcher = pattern.matcher(sql);
-            for (int i = 1; matcher.find(); i++) {
-                String g1 = matcher.group(1);
-                String g2 = matcher.group(2);
-                parameter.put(i, g2);
-                sql = sql.replace(g1, "?");
+    /**
+     * 按资源顺序合并语句，重复的语句 id 总是报告在后出现的资源上
+     * @param parsed
+     * @param report
+     * @return
+     */
+    private Map<String, XNode> merge(List<List<XNode>> parsed, StartupReport report) {
+        long start = System.nanoTime();
+        Map<String, XNode> map = new HashMap<>();
+        for (List<XNode> xNodes : parsed) {
+            for (XNode xNode : xNodes) {
+                String id = xNode.getNamespace() + "." + xNode.getId();
+                XNode existing = map.putIfAbsent(id, xNode);
+                if (null != existing) {
+                    throw new BuilderException("Mapped Statements collection already contains value for " + id
+                            + " (defined in " + existing.getResource() + " and " + xNode.getResource() + ")");
+                }
             }
-
-            XNode xNode = new XNode();
-            xNode.setNamespace(namespace);
-            xNode.setId(id);
-            xNode.setParameterType(parameterType);
-            xNode.setResultType(resultType);
-            xNode.setSql(sql);
-            xNode.setParameter(parameter);
-
-            map.put(namespace + "." + id, xNode);
         }
+        report.record("mapper.merge", start);
+        report.setStatementCount(map.size());
+        return map;
     }
 }
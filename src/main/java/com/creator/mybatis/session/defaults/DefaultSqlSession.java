@@ -1,259 +1,370 @@
 package com.creator.mybatis.session.defaults;
 
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.exceptions.QueryTimeoutException;
+import com.creator.mybatis.exceptions.TooManyResultsException;
+import com.creator.mybatis.executor.CachingExecutor;
+import com.creator.mybatis.executor.Executor;
+import com.creator.mybatis.executor.SimpleExecutor;
 import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.Deadline;
+import com.creator.mybatis.session.DoubleArray;
+import com.creator.mybatis.session.IntArray;
+import com.creator.mybatis.session.LongArray;
+import com.creator.mybatis.session.PrimitiveArray;
+import com.creator.mybatis.session.QueryRequest;
+import com.creator.mybatis.session.QueryResult;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
 import com.creator.mybatis.session.SqlSession;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import javax.sql.DataSource;
 import java.sql.*;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class DefaultSqlSession implements SqlSession {
 
+    private static final Logger log = Logger.getLogger(DefaultSqlSession.class.getName());
+
+    /**
+     * selectOne 最多取两行，足以判断结果是否多于一条
+     */
+    private static final RowBounds SELECT_ONE_BOUNDS = new RowBounds(0, 2);
+
     private Connection connection;
-    private Map<String, XNode> mapperElement;
+    private Configuration configuration;
+    private final Executor executor;
+    /**
+     * 关闭会话时是否关闭连接，共用连接时不能关闭
+     */
+    private final boolean closeConnection;
+    private boolean closed;
+
+    public DefaultSqlSession(Connection connection, Configuration configuration) {
+        this(connection, configuration, true);
+    }
 
-    public DefaultSqlSession(Connection connection, Map<String, XNode> mapperElement) {
+    public DefaultSqlSession(Connection connection, Configuration configuration, boolean closeConnection) {
         this.connection = connection;
-        this.mapperElement = mapperElement;
+        this.configuration = configuration;
+        this.closeConnection = closeConnection;
+        this.executor = new CachingExecutor(new SimpleExecutor(configuration, connection), configuration);
     }
 
     @Override
     public <T> T selectOne(String statement) {
-        try {
-            XNode xNode = mapperElement.get(statement);
-            PreparedStatement preparedStatement = connection.prepareStatement(xNode.getSql());
-            ResultSet resultSet = preparedStatement.executeQuery();
-            List<T> objects = resultSet2Obj(resultSet, Class.forName(xNode.getResultType()));
-            return objects.get(0);
-        } catch (SQLException | ClassNotFoundException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return selectOne(statement, null);
     }
 
     @Override
     public <T> T selectOne(String statement, Object parameter) {
-        XNode xNode = mapperElement.get(statement);
+        return selectOne(configuration.getMappedStatement(statement), parameter);
+    }
+
+    /**
+     * 使用已解析的语句查询，mapper 代理通过此方法跳过按 id 查找
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T selectOne(XNode xNode, Object parameter) {
+        //resultType 为 long[] 等时返回整列
+        PrimitiveArray column = null == xNode ? null : PrimitiveArray.forType(resultTypeClass(xNode));
+        if (null != column) {
+            column = selectColumn(xNode, parameter, RowBounds.DEFAULT, column);
+            return null == column ? null : (T) column.toArray();
+        }
+        List<T> objects;
         try {
-            PreparedStatement preparedStatement = connection.prepareStatement(xNode.getSql());
-            buildParameter(preparedStatement, parameter, xNode.getParameter());
-            ResultSet resultSet = preparedStatement.executeQuery();
-            List<T> objects = resultSet2Obj(resultSet, Class.forName(xNode.getResultType()));
-            return objects.get(0);
+            objects = executor.query(xNode, parameter, SELECT_ONE_BOUNDS);
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logError(xNode, e);
+            return null;
         }
-        return null;
+        if (objects.size() > 1) {
+            throw new TooManyResultsException("Expected one result (or null) to be returned by selectOne(), but found more than one in " + xNode.getNamespace() + "." + xNode.getId());
+        }
+        return objects.isEmpty() ? null : objects.get(0);
     }
 
     @Override
     public <T> List<T> selectList(String statement) {
+        return selectList(statement, null);
+    }
+
+    @Override
+    public <T> List<T> selectList(String statement, Object parameter) {
+        return selectList(configuration.getMappedStatement(statement), parameter);
+    }
+
+    public <T> List<T> selectList(XNode xNode, Object parameter) {
+        return selectList(xNode, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    public <T> List<T> selectList(String statement, Object parameter, RowBounds rowBounds) {
+        return selectList(configuration.getMappedStatement(statement), parameter, rowBounds);
+    }
+
+    public <T> List<T> selectList(XNode xNode, Object parameter, RowBounds rowBounds) {
         try {
-            XNode xNode = mapperElement.get(statement);
-            PreparedStatement preparedStatement = connection.prepareStatement(xNode.getSql());
-            ResultSet resultSet = preparedStatement.executeQuery();
-            return resultSet2Obj(resultSet, Class.forName(xNode.getResultType()));
-        } catch (SQLException | ClassNotFoundException e) {
-            e.printStackTrace();
+            return executor.query(xNode, parameter, rowBounds);
+        } catch (QueryTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logError(xNode, e);
         }
         return null;
     }
 
     @Override
-    public <T> List<T> selectList(String statement, Object parameter) {
-        XNode xNode = mapperElement.get(statement);
+    public LongArray selectLongs(String statement) {
+        return selectLongs(statement, null);
+    }
+
+    @Override
+    public LongArray selectLongs(String statement, Object parameter) {
+        return selectColumn(statement, parameter, RowBounds.DEFAULT, new LongArray());
+    }
+
+    @Override
+    public IntArray selectInts(String statement) {
+        return selectInts(statement, null);
+    }
+
+    @Override
+    public IntArray selectInts(String statement, Object parameter) {
+        return selectColumn(statement, parameter, RowBounds.DEFAULT, new IntArray());
+    }
+
+    @Override
+    public DoubleArray selectDoubles(String statement) {
+        return selectDoubles(statement, null);
+    }
+
+    @Override
+    public DoubleArray selectDoubles(String statement, Object parameter) {
+        return selectColumn(statement, parameter, RowBounds.DEFAULT, new DoubleArray());
+    }
+
+    @Override
+    public <A extends PrimitiveArray> A selectColumn(String statement, Object parameter, RowBounds rowBounds, A column) {
+        return selectColumn(configuration.getMappedStatement(statement), parameter, rowBounds, column);
+    }
+
+    public <A extends PrimitiveArray> A selectColumn(XNode xNode, Object parameter, RowBounds rowBounds, A column) {
         try {
-            PreparedStatement preparedStatement = connection.prepareStatement(xNode.getSql());
-            buildParameter(preparedStatement, parameter, xNode.getParameter());
-            ResultSet resultSet = preparedStatement.executeQuery();
-            return resultSet2Obj(resultSet, Class.forName(xNode.getResultType()));
+            executor.queryColumn(xNode, parameter, rowBounds, column);
+            return column;
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logError(xNode, e);
         }
         return null;
     }
 
     /**
-     * 将结果封装为列表集合
-     * @param resultSet
-     * @param clazz
-     * @return
-     * @param <T>
+     * @return 无法加载时为 null，由执行器报告错误
      */
-    private <T> List<T> resultSet2Obj(ResultSet resultSet, Class<?> clazz) {
-        List<T> list = new ArrayList<>();
+    private static Class<?> resultTypeClass(XNode xNode) {
         try {
-            ResultSetMetaData metaData = resultSet.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            //遍历行
-            while(resultSet.next()) {
-                T obj = (T) clazz.newInstance();
-                //建立字段名与类型的映射，为后面按名取类型做准备。
-                Map<String, Class<?>> fieldToClassMap = new HashMap<>();
-                Field[] fields = clazz.getDeclaredFields();
-                for(Field field: fields) {
-                    fieldToClassMap.put(field.getName(), field.getType());
-                }
-                //遍历当前行中的每列
-                for (int i = 1; i <= columnCount; i++) {
-                    //获取当前列的值
-                    Object value = resultSet.getObject(i);
-                    //获取列名
-                    String columnName = metaData.getColumnName(i);
-                    //如果是非用户自定义的列，就跳过
-                    if(columnName.length() <= 0 || '_' == columnName.charAt(0)) {
-                        continue;
-                    }
-                    //拼接得到对应的 setter 方法名
-                    //columnName.substring(0,1).toUpperCase() 解释：
-                    //数据库中属性字段假设为 "user_name"，而代码中对应包装对象的 setter 方法叫 setUserName。所以需要将单词的首字母转为大写
-                    //考虑到非严谨的数据库表设计，如果本身字段名叫 "Name"，则不用将第一个字符转大写。故采用 jdk 中的函数，而不是让字符减 32
-                    StringBuilder setMethod = new StringBuilder("set");
-                    //单独存一下字段名
-                    StringBuilder fieldName = new StringBuilder();
-                    String[] words = columnName.split("_");
-                    for (String word : words) {
-                        fieldName.append(word.substring(0, 1).toUpperCase()).append(word.substring(1));
-                    }
-                    setMethod.append(fieldName);
-                    //将字段的首字母转为小写（小驼峰要求）
-                    fieldName.replace(0, 1, fieldName.substring(0,1).toLowerCase());
-                    //反射拿到 setter 方法
-                    Method method = null;
-                    if(value instanceof Timestamp || value instanceof LocalDateTime) {
-                        //时间戳类型转换为日期类型
-                        method = clazz.getMethod(setMethod.toString(), java.util.Date.class);
-                    } else if(null != value){
-                        //如果真实类型是数字的话，将 ES 中的 Text 类型转为对应的数字对象
-                        Class<?> valueClass = fieldToClassMap.get(fieldName.toString());
-                        if(Long.class.getTypeName().equals(valueClass.getTypeName())) {
-                            value = Long.parseLong(String.valueOf(value));
-                        } else if (Integer.class.getTypeName().equals(valueClass.getTypeName())) {
-                            value = Integer.parseInt(String.valueOf(value));
-                        } else if (!valueClass.isInstance(value)) {
-                            //对象不是类型的实例，说明类型不一致
-                            if(List.class.getTypeName().equals(valueClass.getTypeName())) {
-                                //说明当前类型是列表，将对象封装进去
-                                List<Object> objects = new ArrayList<>();
-                                objects.add(value);
-                                value = objects;
-                            }
-                        }
-                        method = clazz.getMethod(setMethod.toString(), valueClass);
-                    }
-                    //执行 setter 方法，给 obj 对象中的属性赋值
-                    if (method != null) {
-                        //将 LocalDateTime 转为 Date
-                        if(value instanceof LocalDateTime) {
-                            LocalDateTime localDateTime = (LocalDateTime) value;
-                            value = java.util.Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
-                        }
-                        method.invoke(obj, value);
-                    }
+            return xNode.getResultTypeClass();
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> selectOneAsync(String statement) {
+        return selectOneAsync(statement, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> selectOneAsync(String statement, Object parameter) {
+        DataSource dataSource = taskDataSource();
+        //截止时间随任务带到执行线程
+        Deadline deadline = Deadline.current();
+        return configuration.getAsyncTaskExecutor().submit(() -> {
+            //在任务中查找语句，延迟加载 mapper 失败时只影响本次查询的结果
+            XNode xNode = configuration.getMappedStatement(statement);
+            checkStatement(xNode, statement);
+            Deadline.Scope scope = Deadline.enter(deadline);
+            try (DefaultSqlSession session = openTaskSession(dataSource)) {
+                List<T> objects = session.executor.query(xNode, parameter, SELECT_ONE_BOUNDS);
+                if (objects.size() > 1) {
+                    throw new TooManyResultsException("Expected one result (or null) to be returned by selectOneAsync(), but found more than one in " + statement);
                 }
-                list.add(obj);
+                return objects.isEmpty() ? null : objects.get(0);
+            } catch (SQLException e) {
+                throw new PersistenceException("Error querying " + statement, e);
+            } finally {
+                scope.close();
             }
-        } catch (SQLException | InstantiationException | IllegalAccessException | NoSuchMethodException |
-                 InvocationTargetException e) {
-            e.printStackTrace();
-        }
-        return list;
+        });
     }
 
-    /**
-     * 填充 preparedStatement 中的参数
-     * @param preparedStatement
-     * @param parameter
-     * @param parameterMap
-     * @throws SQLException
-     * @throws IllegalAccessException
-     */
-    private void buildParameter(PreparedStatement preparedStatement, Object parameter, Map<Integer, String> parameterMap) throws SQLException, IllegalAccessException {
-        int size = parameterMap.size();
-        //单个参数
-        if(parameter instanceof Long) {
-            for (int i = 1; i <= size; i++) {
-                preparedStatement.setLong(i, Long.parseLong(parameter.toString()));
+    @Override
+    public <T> CompletableFuture<List<T>> selectListAsync(String statement) {
+        return selectListAsync(statement, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> selectListAsync(String statement, Object parameter) {
+        DataSource dataSource = taskDataSource();
+        //截止时间随任务带到执行线程
+        Deadline deadline = Deadline.current();
+        return configuration.getAsyncTaskExecutor().submit(() -> {
+            //在任务中查找语句，延迟加载 mapper 失败时只影响本次查询的结果
+            XNode xNode = configuration.getMappedStatement(statement);
+            checkStatement(xNode, statement);
+            Deadline.Scope scope = Deadline.enter(deadline);
+            try (DefaultSqlSession session = openTaskSession(dataSource)) {
+                return session.executor.<T>query(xNode, parameter);
+            } catch (SQLException e) {
+                throw new PersistenceException("Error querying " + statement, e);
+            } finally {
+                scope.close();
             }
-            return;
-        }
+        });
+    }
 
-        if (parameter instanceof Integer) {
-            for (int i = 1; i <= size; i++) {
-                preparedStatement.setInt(i, Integer.parseInt(parameter.toString()));
+    @Override
+    public List<QueryResult<Object>> selectAll(List<QueryRequest> requests) {
+        if (!requests.isEmpty()) {
+            //没有数据源时整体失败，而不是只提交了一部分查询
+            taskDataSource();
+        }
+        List<CompletableFuture<List<Object>>> futures = new ArrayList<>(requests.size());
+        for (QueryRequest request : requests) {
+            futures.add(selectListAsync(request.getStatement(), request.getParameter()));
+        }
+        List<QueryResult<Object>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            QueryRequest request = requests.get(i);
+            try {
+                results.add(QueryResult.success(request, futures.get(i).get()));
+            } catch (ExecutionException e) {
+                results.add(QueryResult.failure(request, e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(QueryResult.failure(request, e));
             }
-            return;
         }
+        return results;
+    }
 
-        if (parameter instanceof String) {
-            for (int i = 1; i <= size; i++) {
-                preparedStatement.setString(i, parameter.toString());
-            }
-            return;
+    /**
+     * 查询失败时记录语句 id 与异常，调用方得到 null
+     * 超时不在此处理，QueryTimeoutException 直接抛给调用方。
+     */
+    private static void logError(XNode xNode, Exception e) {
+        log.log(Level.SEVERE, "Error querying " + (null == xNode ? "unknown statement" : xNode.getStatementId()), e);
+    }
+
+    private static void checkStatement(XNode xNode, String statement) {
+        if (null == xNode) {
+            throw new PersistenceException("Mapped statement not found: " + statement);
         }
-        //对象参数
-        Map<String, Object> fieldMap = new HashMap<>();
-        //得到当前字节码对象的不包括父类的字段数组，包括各种访问权限的。
-        Field[] declaredFields = parameter.getClass().getDeclaredFields();
-        for (Field field : declaredFields) {
-            String name = field.getName();
-            //设置为允许访问（避免字段是私有的造成不可访问）
-            field.setAccessible(true);
-            //获取参数对象此 field 字段的值
-            Object obj = field.get(parameter);
-            field.setAccessible(false);
-            fieldMap.put(name, obj);
+    }
+
+    /**
+     * 异步任务借出各自的连接；只有一个共用连接时多个任务会同时在该连接上执行，因此不允许
+     */
+    private DataSource taskDataSource() {
+        DataSource dataSource = configuration.getJdbcDataSource();
+        if (null == dataSource) {
+            throw new PersistenceException("Async queries need a DataSource so that each task borrows its own connection, "
+                    + "but the session factory was built on a single shared connection");
         }
+        return dataSource;
+    }
 
-        for (int i = 1; i <= size; i++) {
-            //拿参数名
-            String parameterDefine = parameterMap.get(i);
-            //通过参数名得到上一步中对应参数的值
-            Object obj = fieldMap.get(parameterDefine);
+    /**
+     * 异步任务使用独立的会话，不与当前会话共用连接与一级缓存
+     */
+    private DefaultSqlSession openTaskSession(DataSource dataSource) throws SQLException {
+        return new DefaultSqlSession(dataSource.getConnection(), configuration, true);
+    }
 
-            if (obj instanceof Short) {
-                preparedStatement.setShort(i, Short.parseShort(obj.toString()));
-                continue;
-            }
+    @Override
+    public <T> Cursor<T> selectCursor(String statement) {
+        return selectCursor(statement, null);
+    }
 
-            if (obj instanceof Integer) {
-                preparedStatement.setInt(i, Integer.parseInt(obj.toString()));
-                continue;
-            }
+    @Override
+    public <T> Cursor<T> selectCursor(String statement, Object parameter) {
+        return selectCursor(configuration.getMappedStatement(statement), parameter);
+    }
 
-            if (obj instanceof Long) {
-                preparedStatement.setLong(i, Long.parseLong(obj.toString()));
-                continue;
-            }
+    public <T> Cursor<T> selectCursor(XNode xNode, Object parameter) {
+        try {
+            return executor.queryCursor(xNode, parameter);
+        } catch (QueryTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logError(xNode, e);
+        }
+        return null;
+    }
 
-            if (obj instanceof String) {
-                preparedStatement.setString(i, obj.toString());
-                continue;
-            }
+    @Override
+    public void select(String statement, ResultHandler<?> handler) {
+        select(statement, null, handler);
+    }
 
-            if (obj instanceof Date) {
-                preparedStatement.setDate(i, (java.sql.Date) obj);
-            }
+    @Override
+    public void select(String statement, Object parameter, ResultHandler<?> handler) {
+        select(configuration.getMappedStatement(statement), parameter, handler);
+    }
+
+    public void select(XNode xNode, Object parameter, ResultHandler<?> handler) {
+        try {
+            executor.query(xNode, parameter, handler);
+        } catch (QueryTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            logError(xNode, e);
         }
+    }
+
+    @Override
+    public <T> T getMapper(Class<T> type) {
+        return configuration.getMapper(type, this);
+    }
 
+    @Override
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public void clearCache() {
+        executor.clearLocalCache();
     }
 
     @Override
     public void close() {
-        if(null == connection) {
+        if(null == connection || closed) {
+            return;
+        }
+        closed = true;
+        executor.close();
+        if (!closeConnection) {
             return;
         }
         try {
+            //池化连接的 close 会将连接归还给连接池
             connection.close();
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.log(Level.WARNING, "Error closing connection", e);
         }
     }
 }
@@ -1,9 +1,13 @@
 package com.creator.mybatis.session.defaults;
 
+import com.creator.mybatis.exceptions.PersistenceException;
 import com.creator.mybatis.session.SqlSession;
 import com.creator.mybatis.session.Configuration;
 import com.creator.mybatis.session.SqlSessionFactory;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
 public class DefaultSqlSessionFactory implements SqlSessionFactory {
 
     private final Configuration configuration;
@@ -14,6 +18,20 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
 
     @Override
     public SqlSession openSession() {
-        return new DefaultSqlSession(configuration.getConnection(), configuration.getMapperElement());
+        DataSource dataSource = configuration.getJdbcDataSource();
+        if (null == dataSource) {
+            //没有数据源时共用同一个连接，会话关闭时不关闭该连接
+            return new DefaultSqlSession(configuration.getConnection(), configuration, false);
+        }
+        try {
+            //从数据源借出连接，会话关闭时归还
+            return new DefaultSqlSession(dataSource.getConnection(), configuration, true);
+        } catch (SQLException e) {
+            throw new PersistenceException("Error opening session, could not get a connection", e);
+        }
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
     }
 }
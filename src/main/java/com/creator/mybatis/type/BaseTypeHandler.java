@@ -0,0 +1,46 @@
+package com.creator.mybatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * TypeHandler 的基类，统一处理参数为 null 的情况
+ * 子类实现 getNullableResult 时，对 SQL NULL 返回 null：getString 等返回对象的方法本身如此，
+ * getLong 等返回原始类型的方法需要通过 wasNull 判断。
+ * @param <T>
+ */
+public abstract class BaseTypeHandler<T> implements TypeHandler<T> {
+
+    /**
+     * 参数为 null 时 setNull 使用的 java.sql.Types
+     */
+    private final int nullType;
+
+    protected BaseTypeHandler() {
+        this(Types.NULL);
+    }
+
+    protected BaseTypeHandler(int nullType) {
+        this.nullType = nullType;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int i, T parameter) throws SQLException {
+        if (null == parameter) {
+            ps.setNull(i, nullType);
+        } else {
+            setNonNullParameter(ps, i, parameter);
+        }
+    }
+
+    @Override
+    public T getResult(ResultSet rs, int columnIndex) throws SQLException {
+        return getNullableResult(rs, columnIndex);
+    }
+
+    protected abstract void setNonNullParameter(PreparedStatement ps, int i, T parameter) throws SQLException;
+
+    protected abstract T getNullableResult(ResultSet rs, int columnIndex) throws SQLException;
+}
@@ -0,0 +1,30 @@
+package com.creator.mybatis.type;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 可以直接绑定到占位符的简单类型
+ * 动态 SQL 求值时，这些类型的参数不再按属性展开。
+ */
+public final class SimpleTypeRegistry {
+
+    private static final Set<Class<?>> SIMPLE_TYPES = new HashSet<>(Arrays.asList(
+            Long.class, long.class, Integer.class, int.class, Short.class, short.class, Byte.class, byte.class,
+            Double.class, double.class, Float.class, float.class, Boolean.class, boolean.class,
+            String.class, Character.class, char.class, BigDecimal.class, byte[].class,
+            java.sql.Date.class, Time.class, Timestamp.class, java.util.Date.class, LocalDateTime.class, LocalDate.class));
+
+    private SimpleTypeRegistry() {
+    }
+
+    public static boolean isSimpleType(Class<?> type) {
+        return SIMPLE_TYPES.contains(type) || type.isEnum();
+    }
+}
@@ -0,0 +1,31 @@
+package com.creator.mybatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Java 类型与 JDBC 类型之间的转换
+ * 参数绑定与结果读取都通过它直接调用类型化的 JDBC 方法，选择在编译绑定计划或映射计划时完成一次。
+ * @param <T> Java 类型
+ */
+public interface TypeHandler<T> {
+
+    /**
+     * 设置参数，parameter 为 null 时设置 SQL NULL
+     * @param ps
+     * @param i 占位符下标，从 1 开始
+     * @param parameter
+     * @throws SQLException
+     */
+    void setParameter(PreparedStatement ps, int i, T parameter) throws SQLException;
+
+    /**
+     * 读取当前行的列值
+     * @param rs
+     * @param columnIndex 从 1 开始
+     * @return SQL NULL 时为 null
+     * @throws SQLException
+     */
+    T getResult(ResultSet rs, int columnIndex) throws SQLException;
+}
@@ -0,0 +1,495 @@
+package com.creator.mybatis.type;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * TypeHandler 注册表，按 Java 类型 × JDBC 类型查找
+ * 查找时先匹配列的 JDBC 类型，没有专门的处理器时使用该 Java 类型的默认处理器；
+ * 都没有时沿父类查找，枚举按名称转换。
+ * 自定义处理器应在执行查询之前注册，已构建的映射计划不会重新选择。
+ */
+public class TypeHandlerRegistry {
+
+    /**
+     * 字符类型的列，数字字段从文本解析
+     */
+    private static final JDBCType[] CHARACTER_TYPES = {
+            JDBCType.CHAR, JDBCType.VARCHAR, JDBCType.LONGVARCHAR, JDBCType.NCHAR, JDBCType.NVARCHAR, JDBCType.LONGNVARCHAR
+    };
+
+    private final Map<Class<?>, TypeHandler<?>> defaultHandlers = new ConcurrentHashMap<>();
+    /**
+     * 按 JDBC 类型区分的处理器，EnumMap 在注册时整体替换，查找时不加锁
+     */
+    private final Map<Class<?>, Map<JDBCType, TypeHandler<?>>> jdbcTypeHandlers = new ConcurrentHashMap<>();
+    /**
+     * 静态类型未知时使用，参数按值的实际类型分派，结果直接取 getObject
+     */
+    private final TypeHandler<Object> unknownTypeHandler = new BaseTypeHandler<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void setNonNullParameter(PreparedStatement ps, int i, Object parameter) throws SQLException {
+            TypeHandler<Object> handler = (TypeHandler<Object>) getTypeHandler(parameter.getClass());
+            if (null != handler && handler != this) {
+                handler.setParameter(ps, i, parameter);
+            } else {
+                ps.setObject(i, parameter);
+            }
+        }
+
+        @Override
+        protected Object getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getObject(columnIndex);
+        }
+    };
+
+    public TypeHandlerRegistry() {
+        register(Long.class, new BaseTypeHandler<Long>(Types.BIGINT) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Long parameter) throws SQLException {
+                ps.setLong(i, parameter);
+            }
+
+            @Override
+            protected Long getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                long value = rs.getLong(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Long::valueOf);
+        register(Integer.class, new BaseTypeHandler<Integer>(Types.INTEGER) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Integer parameter) throws SQLException {
+                ps.setInt(i, parameter);
+            }
+
+            @Override
+            protected Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                int value = rs.getInt(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Integer::valueOf);
+        register(Short.class, new BaseTypeHandler<Short>(Types.SMALLINT) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Short parameter) throws SQLException {
+                ps.setShort(i, parameter);
+            }
+
+            @Override
+            protected Short getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                short value = rs.getShort(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Short::valueOf);
+        register(Byte.class, new BaseTypeHandler<Byte>(Types.TINYINT) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Byte parameter) throws SQLException {
+                ps.setByte(i, parameter);
+            }
+
+            @Override
+            protected Byte getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                byte value = rs.getByte(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Byte::valueOf);
+        register(Double.class, new BaseTypeHandler<Double>(Types.DOUBLE) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Double parameter) throws SQLException {
+                ps.setDouble(i, parameter);
+            }
+
+            @Override
+            protected Double getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                double value = rs.getDouble(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Double::valueOf);
+        register(Float.class, new BaseTypeHandler<Float>(Types.REAL) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Float parameter) throws SQLException {
+                ps.setFloat(i, parameter);
+            }
+
+            @Override
+            protected Float getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                float value = rs.getFloat(columnIndex);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+        }, Float::valueOf);
+        register(Boolean.class, new BaseTypeHandler<Boolean>(Types.BOOLEAN) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Boolean parameter) throws SQLException {
+                ps.setBoolean(i, parameter);
+            }
+
+            @Override
+            protected Boolean getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                boolean value = rs.getBoolean(columnIndex);
+                return !value && rs.wasNull() ? null : value;
+            }
+        }, Boolean::valueOf);
+        register(BigDecimal.class, new BaseTypeHandler<BigDecimal>(Types.DECIMAL) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, BigDecimal parameter) throws SQLException {
+                ps.setBigDecimal(i, parameter);
+            }
+
+            @Override
+            protected BigDecimal getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getBigDecimal(columnIndex);
+            }
+        }, BigDecimal::new);
+        register(String.class, new BaseTypeHandler<String>(Types.VARCHAR) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, String parameter) throws SQLException {
+                ps.setString(i, parameter);
+            }
+
+            @Override
+            protected String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getString(columnIndex);
+            }
+        });
+        BaseTypeHandler<Character> characterHandler = new BaseTypeHandler<Character>(Types.CHAR) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Character parameter) throws SQLException {
+                ps.setString(i, parameter.toString());
+            }
+
+            @Override
+            protected Character getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                String value = rs.getString(columnIndex);
+                return null == value || value.isEmpty() ? null : value.charAt(0);
+            }
+        };
+        register(Character.class, characterHandler);
+        register(char.class, characterHandler);
+        register(byte[].class, new BaseTypeHandler<byte[]>(Types.VARBINARY) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, byte[] parameter) throws SQLException {
+                ps.setBytes(i, parameter);
+            }
+
+            @Override
+            protected byte[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getBytes(columnIndex);
+            }
+        });
+        register(Timestamp.class, new BaseTypeHandler<Timestamp>(Types.TIMESTAMP) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Timestamp parameter) throws SQLException {
+                ps.setTimestamp(i, parameter);
+            }
+
+            @Override
+            protected Timestamp getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getTimestamp(columnIndex);
+            }
+        });
+        //Timestamp 本身就是 java.util.Date，读取结果时不再复制
+        register(java.util.Date.class, new BaseTypeHandler<java.util.Date>(Types.TIMESTAMP) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, java.util.Date parameter) throws SQLException {
+                ps.setTimestamp(i, parameter instanceof Timestamp ? (Timestamp) parameter : new Timestamp(parameter.getTime()));
+            }
+
+            @Override
+            protected java.util.Date getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getTimestamp(columnIndex);
+            }
+        });
+        register(java.sql.Date.class, new BaseTypeHandler<java.sql.Date>(Types.DATE) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, java.sql.Date parameter) throws SQLException {
+                ps.setDate(i, parameter);
+            }
+
+            @Override
+            protected java.sql.Date getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getDate(columnIndex);
+            }
+        });
+        register(Time.class, new BaseTypeHandler<Time>(Types.TIME) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, Time parameter) throws SQLException {
+                ps.setTime(i, parameter);
+            }
+
+            @Override
+            protected Time getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getTime(columnIndex);
+            }
+        });
+        register(LocalDateTime.class, new BaseTypeHandler<LocalDateTime>(Types.TIMESTAMP) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, LocalDateTime parameter) throws SQLException {
+                ps.setTimestamp(i, Timestamp.valueOf(parameter));
+            }
+
+            @Override
+            protected LocalDateTime getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                Timestamp value = rs.getTimestamp(columnIndex);
+                return null == value ? null : value.toLocalDateTime();
+            }
+        });
+        register(LocalDate.class, new BaseTypeHandler<LocalDate>(Types.DATE) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, LocalDate parameter) throws SQLException {
+                ps.setDate(i, java.sql.Date.valueOf(parameter));
+            }
+
+            @Override
+            protected LocalDate getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                java.sql.Date value = rs.getDate(columnIndex);
+                return null == value ? null : value.toLocalDate();
+            }
+        });
+        //ES 的多值字段：驱动返回 List 或数组时直接使用，单个值放进列表
+        register(List.class, new BaseTypeHandler<List<?>>() {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, List<?> parameter) throws SQLException {
+                ps.setObject(i, parameter);
+            }
+
+            @Override
+            protected List<?> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                return toList(rs.getObject(columnIndex));
+            }
+        });
+        register(List.class, JDBCType.ARRAY, new BaseTypeHandler<List<?>>(Types.ARRAY) {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, List<?> parameter) throws SQLException {
+                ps.setObject(i, parameter);
+            }
+
+            @Override
+            protected List<?> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                Array array = rs.getArray(columnIndex);
+                if (null == array) {
+                    return null;
+                }
+                try {
+                    return toList(array.getArray());
+                } finally {
+                    array.free();
+                }
+            }
+        });
+        register(Object.class, unknownTypeHandler);
+    }
+
+    /**
+     * 注册内置的数字处理器，包装类型同时为原始类型注册，字符类型的列按文本解析
+     */
+    private <T> void register(Class<T> javaType, BaseTypeHandler<T> handler, Function<String, T> parser) {
+        Class<T> primitiveType = primitiveType(javaType);
+        register(javaType, handler);
+        if (null != primitiveType) {
+            register(primitiveType, handler);
+        }
+        BaseTypeHandler<T> textHandler = new BaseTypeHandler<T>() {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, T parameter) throws SQLException {
+                handler.setNonNullParameter(ps, i, parameter);
+            }
+
+            @Override
+            protected T getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                String value = rs.getString(columnIndex);
+                if (null == value) {
+                    return null;
+                }
+                try {
+                    return parser.apply(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new SQLException("Cannot convert '" + value + "' in column " + columnIndex + " to " + javaType.getSimpleName(), e);
+                }
+            }
+        };
+        for (JDBCType jdbcType : CHARACTER_TYPES) {
+            register(javaType, jdbcType, textHandler);
+            if (null != primitiveType) {
+                register(primitiveType, jdbcType, textHandler);
+            }
+        }
+    }
+
+    /**
+     * @return 不是包装类型时为 null
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> primitiveType(Class<T> wrapperType) {
+        try {
+            return (Class<T>) wrapperType.getField("TYPE").get(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> toList(Object value) throws SQLException {
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        if (value instanceof Object[]) {
+            return new ArrayList<>(Arrays.asList((Object[]) value));
+        }
+        if (value instanceof Array) {
+            return toList(((Array) value).getArray());
+        }
+        List<Object> list = new ArrayList<>(1);
+        list.add(value);
+        return list;
+    }
+
+    /**
+     * 注册某个 Java 类型的默认处理器，覆盖已有的注册
+     * @param javaType
+     * @param handler
+     * @param <T>
+     */
+    public <T> void register(Class<T> javaType, TypeHandler<? extends T> handler) {
+        defaultHandlers.put(javaType, handler);
+    }
+
+    /**
+     * 注册某个 Java 类型在某种 JDBC 类型的列上使用的处理器
+     * @param javaType
+     * @param jdbcType
+     * @param handler
+     * @param <T>
+     */
+    public <T> void register(Class<T> javaType, JDBCType jdbcType, TypeHandler<? extends T> handler) {
+        if (null == jdbcType) {
+            register(javaType, handler);
+            return;
+        }
+        synchronized (jdbcTypeHandlers) {
+            Map<JDBCType, TypeHandler<?>> existing = jdbcTypeHandlers.get(javaType);
+            Map<JDBCType, TypeHandler<?>> handlers = null == existing ? new EnumMap<>(JDBCType.class) : new EnumMap<>(existing);
+            handlers.put(jdbcType, handler);
+            jdbcTypeHandlers.put(javaType, Collections.unmodifiableMap(handlers));
+        }
+    }
+
+    /**
+     * 参数绑定使用，JDBC 类型未知
+     */
+    public TypeHandler<?> getTypeHandler(Class<?> javaType) {
+        return getTypeHandler(javaType, null);
+    }
+
+    /**
+     * 查找处理器
+     * @param javaType
+     * @param jdbcType 列的 JDBC 类型，未知时为 null
+     * @return 没有匹配的处理器时为 null
+     */
+    public TypeHandler<?> getTypeHandler(Class<?> javaType, JDBCType jdbcType) {
+        for (Class<?> type = javaType; null != type && (Object.class != type || Object.class == javaType); type = type.getSuperclass()) {
+            TypeHandler<?> handler = find(type, jdbcType);
+            if (null != handler) {
+                return handler;
+            }
+            if (type.isEnum()) {
+                return enumTypeHandler(type);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * java.sql.Types 中的值转为 JDBCType，驱动私有的类型返回 null
+     */
+    public static JDBCType jdbcType(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean hasTypeHandler(Class<?> javaType) {
+        return null != getTypeHandler(javaType);
+    }
+
+    public TypeHandler<Object> getUnknownTypeHandler() {
+        return unknownTypeHandler;
+    }
+
+    private TypeHandler<?> find(Class<?> type, JDBCType jdbcType) {
+        if (null != jdbcType) {
+            Map<JDBCType, TypeHandler<?>> handlers = jdbcTypeHandlers.get(type);
+            TypeHandler<?> handler = null == handlers ? null : handlers.get(jdbcType);
+            if (null != handler) {
+                return handler;
+            }
+        }
+        return defaultHandlers.get(type);
+    }
+
+    /**
+     * 枚举按名称转换，每个枚举类型创建一次
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private TypeHandler<?> enumTypeHandler(Class<?> type) {
+        TypeHandler<?> handler = defaultHandlers.get(type);
+        if (null == handler) {
+            handler = new EnumTypeHandler(type);
+            TypeHandler<?> existing = defaultHandlers.putIfAbsent(type, handler);
+            if (null != existing) {
+                handler = existing;
+            }
+        }
+        return handler;
+    }
+
+    private static final class EnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
+
+        private final Class<E> type;
+
+        EnumTypeHandler(Class<E> type) {
+            super(Types.VARCHAR);
+            this.type = type;
+        }
+
+        @Override
+        protected void setNonNullParameter(PreparedStatement ps, int i, E parameter) throws SQLException {
+            ps.setString(i, parameter.name());
+        }
+
+        @Override
+        protected E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            String value = rs.getString(columnIndex);
+            if (null == value) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(type, value);
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("No enum constant " + type.getName() + "." + value + " for column " + columnIndex, e);
+            }
+        }
+    }
+}
@@ -31,4 +31,25 @@ public class ORMTest {
         }
     }
 
+    @Test
+    public void test_mapperProxy() {
+        String resource = "mybatis-config-datasource.xml";
+        Reader reader;
+        try {
+            reader = Resources.getResourceAsReader(resource);
+            SqlSessionFactory sqlMapper = new SqlSessionFactoryBuilder().build(reader);
+            SqlSession session = sqlMapper.openSession();
+            try {
+                IUserDao userDao = session.getMapper(IUserDao.class);
+                Article article = userDao.queryUserInfoById(3L);
+                System.out.println(article.toString());
+            } finally {
+                session.close();
+                reader.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
 }
@@ -0,0 +1,355 @@
+package com.creator.mybatis;
+
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的内存 JDBC 桩
+ * 每次 executeQuery 交给 Responder 按 SQL 与参数生成结果集，并记录执行的 SQL、参数与所用连接；
+ * dataSource() 每次借出新的连接，记录借出与归还的次数。
+ */
+public class StubDatabase {
+
+    public interface Responder {
+        ResultSet respond(String sql, List<Object> parameters) throws SQLException;
+    }
+
+    public static final class Execution {
+        public final String sql;
+        public final List<Object> parameters;
+        public final Connection connection;
+        /**
+         * 执行时语句上设置的 fetchSize
+         */
+        public final int fetchSize;
+
+        Execution(String sql, List<Object> parameters, Connection connection, int fetchSize) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.connection = connection;
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    private final Responder responder;
+    private final List<Execution> executions = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    public StubDatabase(Responder responder) {
+        this.responder = responder;
+    }
+
+    public List<Execution> getExecutions() {
+        synchronized (executions) {
+            return new ArrayList<>(executions);
+        }
+    }
+
+    public List<String> getExecutedSql() {
+        List<String> sql = new ArrayList<>();
+        for (Execution execution : getExecutions()) {
+            sql.add(execution.sql);
+        }
+        return sql;
+    }
+
+    public int getOpenedCount() {
+        return opened.get();
+    }
+
+    public int getClosedCount() {
+        return closed.get();
+    }
+
+    public DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            if ("getConnection".equals(method.getName())) {
+                return connection();
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    public Connection connection() {
+        opened.incrementAndGet();
+        boolean[] isClosed = {false};
+        Connection[] self = new Connection[1];
+        self[0] = (Connection) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return statement(self[0], (String) args[0]);
+                case "close":
+                    if (!isClosed[0]) {
+                        isClosed[0] = true;
+                        closed.incrementAndGet();
+                    }
+                    return null;
+                case "isClosed":
+                    return isClosed[0];
+                case "isValid":
+                    return !isClosed[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+        return self[0];
+    }
+
+    private PreparedStatement statement(Connection connection, String sql) {
+        Map<Integer, Object> parameters = new HashMap<>();
+        int[] maxRows = {0};
+        int[] fetchSize = {0};
+        boolean[] isClosed = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery":
+                    List<Object> values = new ArrayList<>();
+                    for (int i = 1; i <= parameters.size(); i++) {
+                        values.add(parameters.get(i));
+                    }
+                    executions.add(new Execution(sql, values, connection, fetchSize[0]));
+                    ResultSet resultSet = responder.respond(sql, values);
+                    return maxRows[0] > 0 ? limit(resultSet, maxRows[0]) : resultSet;
+                case "setMaxRows":
+                    maxRows[0] = (Integer) args[0];
+                    return null;
+                case "setFetchSize":
+                    fetchSize[0] = (Integer) args[0];
+                    return null;
+                case "setNull":
+                    parameters.put((Integer) args[0], null);
+                    return null;
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "getConnection":
+                    return connection;
+                case "close":
+                    isClosed[0] = true;
+                    return null;
+                case "isClosed":
+                    return isClosed[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    if (name.startsWith("set") && null != args && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], args[1]);
+                        return null;
+                    }
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * 创建结果集，列的 JDBC 类型按第一个非空值推断
+     * @param columns
+     * @param rows
+     * @return
+     */
+    public static ResultSet resultSet(String[] columns, Object[]... rows) {
+        return resultSet(columns, Arrays.asList(rows));
+    }
+
+    public static ResultSet resultSet(String[] columns, List<Object[]> rows) {
+        int[] types = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            types[i] = Types.OTHER;
+            for (Object[] row : rows) {
+                if (null != row[i]) {
+                    types[i] = jdbcType(row[i]);
+                    break;
+                }
+            }
+        }
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return columns.length;
+                case "getColumnName":
+                case "getColumnLabel":
+                    return columns[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return types[(Integer) args[0] - 1];
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        boolean[] isClosed = {false};
+        return (ResultSet) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++row[0] < rows.size();
+                case "close":
+                    isClosed[0] = true;
+                    return null;
+                case "isClosed":
+                    return isClosed[0];
+                case "wasNull":
+                    return wasNull[0];
+                case "getMetaData":
+                    return metaData;
+                case "findColumn":
+                    return Arrays.asList(columns).indexOf(args[0]) + 1;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            if (name.startsWith("get") && null != args && args.length == 1) {
+                int index = args[0] instanceof Integer ? (Integer) args[0] : Arrays.asList(columns).indexOf(args[0]) + 1;
+                Object value = rows.get(row[0])[index - 1];
+                wasNull[0] = null == value;
+                return convert(name, value, method.getReturnType());
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static ResultSet limit(ResultSet resultSet, int maxRows) {
+        int[] count = {0};
+        return (ResultSet) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            if ("next".equals(method.getName()) && count[0]++ >= maxRows) {
+                return false;
+            }
+            return method.invoke(resultSet, args);
+        });
+    }
+
+    private static Object convert(String getter, Object value, Class<?> returnType) {
+        if (null == value) {
+            return defaultValue(returnType);
+        }
+        switch (getter) {
+            case "getString":
+                return value.toString();
+            case "getLong":
+                return ((Number) value).longValue();
+            case "getInt":
+                return ((Number) value).intValue();
+            case "getShort":
+                return ((Number) value).shortValue();
+            case "getByte":
+                return ((Number) value).byteValue();
+            case "getDouble":
+                return ((Number) value).doubleValue();
+            case "getFloat":
+                return ((Number) value).floatValue();
+            case "getTimestamp":
+                return value instanceof Timestamp ? value : new Timestamp(((java.util.Date) value).getTime());
+            default:
+                return value;
+        }
+    }
+
+    private static int jdbcType(Object value) {
+        if (value instanceof Long) {
+            return Types.BIGINT;
+        }
+        if (value instanceof Integer) {
+            return Types.INTEGER;
+        }
+        if (value instanceof Double) {
+            return Types.DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return Types.BOOLEAN;
+        }
+        if (value instanceof String) {
+            return Types.VARCHAR;
+        }
+        if (value instanceof java.util.Date) {
+            return Types.TIMESTAMP;
+        }
+        return Types.OTHER;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || void.class == type) {
+            return null;
+        }
+        if (boolean.class == type) {
+            return false;
+        }
+        if (char.class == type) {
+            return '\0';
+        }
+        if (long.class == type) {
+            return 0L;
+        }
+        if (double.class == type) {
+            return 0D;
+        }
+        if (float.class == type) {
+            return 0F;
+        }
+        if (short.class == type) {
+            return (short) 0;
+        }
+        if (byte.class == type) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * 创建一条静态语句并注册到 configuration
+     * @param configuration
+     * @param statementId namespace.id
+     * @param resultType
+     * @param sql
+     * @param parameterNames 按 ? 的顺序
+     * @return
+     */
+    public static XNode addStatement(Configuration configuration, String statementId, Class<?> resultType, String sql, String... parameterNames) {
+        int dot = statementId.lastIndexOf('.');
+        XNode xNode = new XNode();
+        xNode.setNamespace(statementId.substring(0, dot));
+        xNode.setId(statementId.substring(dot + 1));
+        xNode.setResultType(resultType.getName());
+        xNode.setSql(sql);
+        Map<Integer, String> parameter = new HashMap<>();
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameter.put(i + 1, parameterNames[i]);
+        }
+        xNode.setParameter(parameter);
+        if (null == configuration.getMapperElement()) {
+            configuration.setMapperElement(new ConcurrentHashMap<>());
+        }
+        configuration.getMapperElement().put(statementId, xNode);
+        return xNode;
+    }
+}
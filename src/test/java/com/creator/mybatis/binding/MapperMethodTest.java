@@ -0,0 +1,209 @@
+package com.creator.mybatis.binding;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.annotations.Param;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.LongArray;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+import com.creator.mybatis.session.SqlSession;
+import com.creator.mybatis.session.defaults.DefaultSqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+public class MapperMethodTest {
+
+    public interface ArticleMapper {
+        Article byId(Long id);
+
+        Article byTitle(@Param("title") String title, @Param("categoryId") Long categoryId);
+
+        Article byUnnamed(String title, Long categoryId);
+
+        long count();
+
+        List<Article> list(Long categoryId, RowBounds rowBounds);
+
+        Collection<Article> collection();
+
+        Set<Long> ids();
+
+        LinkedList<Long> linkedIds();
+
+        long[] idColumn();
+
+        void each(ResultHandler<Article> handler);
+    }
+
+    public interface BrokenMapper {
+        Set<Long> ids(ResultHandler<Long> first, ResultHandler<Long> second);
+
+        SortedSet<Long> sorted();
+
+        void noHandler();
+    }
+
+    private final Configuration configuration = new Configuration();
+    /**
+     * 记录 SqlSession 上被调用的方法与参数
+     */
+    private final List<Object[]> calls = new ArrayList<>();
+    private Object result;
+
+    public MapperMethodTest() {
+        for (String id : Arrays.asList("byId", "byTitle", "byUnnamed", "count", "list", "collection", "ids", "linkedIds", "idColumn", "each")) {
+            StubDatabase.addStatement(configuration, ArticleMapper.class.getName() + "." + id, Article.class, "SELECT * FROM article");
+        }
+        for (String id : Arrays.asList("ids", "sorted", "noHandler")) {
+            StubDatabase.addStatement(configuration, BrokenMapper.class.getName() + "." + id, Article.class, "SELECT * FROM article");
+        }
+    }
+
+    private SqlSession recordingSession() {
+        return (SqlSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SqlSession.class}, (proxy, method, args) -> {
+            if ("getConfiguration".equals(method.getName())) {
+                return configuration;
+            }
+            if ("getMapper".equals(method.getName())) {
+                return configuration.getMapper((Class<?>) args[0], (SqlSession) proxy);
+            }
+            calls.add(new Object[]{method.getName(), args[0], args.length > 1 ? args[1] : null, args.length > 2 ? args[2] : null});
+            return result;
+        });
+    }
+
+    private Object[] lastCall() {
+        return calls.get(calls.size() - 1);
+    }
+
+    @Test
+    public void test_parameterNames() {
+        ArticleMapper mapper = recordingSession().getMapper(ArticleMapper.class);
+        mapper.byId(7L);
+        Assert.assertEquals("单个未命名参数直接传递", 7L, lastCall()[2]);
+
+        mapper.byTitle("t", 3L);
+        Map<?, ?> named = (Map<?, ?>) lastCall()[2];
+        Assert.assertEquals("t", named.get("title"));
+        Assert.assertEquals(3L, named.get("categoryId"));
+        Assert.assertEquals("t", named.get("param1"));
+        Assert.assertEquals(3L, named.get("param2"));
+
+        mapper.byUnnamed("u", 4L);
+        Map<?, ?> unnamed = (Map<?, ?>) lastCall()[2];
+        Assert.assertEquals("u", unnamed.get("arg0"));
+        Assert.assertEquals(4L, unnamed.get("arg1"));
+        Assert.assertEquals(4L, unnamed.get("param2"));
+
+        result = 0L;
+        mapper.count();
+        Assert.assertNull("没有参数时传递 null", lastCall()[2]);
+    }
+
+    @Test
+    public void test_returnKindDispatch() {
+        ArticleMapper mapper = recordingSession().getMapper(ArticleMapper.class);
+        RowBounds rowBounds = new RowBounds(1, 2);
+        result = new ArrayList<>(Arrays.asList(3L, 1L, 3L));
+        Assert.assertEquals(Arrays.asList(3L, 1L, 3L), mapper.list(5L, rowBounds));
+        Assert.assertEquals("selectList", lastCall()[0]);
+        Assert.assertEquals(ArticleMapper.class.getName() + ".list", lastCall()[1]);
+        Assert.assertEquals("RowBounds 不作为语句参数", 5L, lastCall()[2]);
+        Assert.assertSame(rowBounds, lastCall()[3]);
+        Assert.assertEquals(3, mapper.collection().size());
+        Assert.assertEquals("Set 按查询顺序去重", Arrays.asList(3L, 1L), new ArrayList<>(mapper.ids()));
+        Assert.assertEquals(Arrays.asList(3L, 1L, 3L), mapper.linkedIds());
+
+        LongArray column = new LongArray();
+        column.add(9L);
+        result = column;
+        Assert.assertArrayEquals(new long[]{9L}, mapper.idColumn());
+        Assert.assertEquals("selectColumn", lastCall()[0]);
+
+        result = null;
+        ResultHandler<Article> handler = context -> {
+        };
+        mapper.each(handler);
+        Assert.assertEquals("select", lastCall()[0]);
+        Assert.assertSame(handler, lastCall()[3]);
+
+        result = 5L;
+        Assert.assertEquals(5L, mapper.count());
+        Assert.assertEquals("selectOne", lastCall()[0]);
+    }
+
+    @Test
+    public void test_nullForPrimitiveReturn() {
+        result = null;
+        try {
+            recordingSession().getMapper(ArticleMapper.class).count();
+            Assert.fail();
+        } catch (BindingException expected) {
+            Assert.assertTrue(expected.getMessage().contains("primitive return type (long)"));
+        }
+    }
+
+    @Test
+    public void test_rejectInvalidMethods() {
+        BrokenMapper mapper = recordingSession().getMapper(BrokenMapper.class);
+        try {
+            mapper.ids(null, null);
+            Assert.fail("不能有多个 ResultHandler 参数");
+        } catch (BindingException expected) {
+            Assert.assertTrue(expected.getMessage().contains("multiple ResultHandler"));
+        }
+        try {
+            mapper.noHandler();
+            Assert.fail("返回 void 时必须有 ResultHandler 参数");
+        } catch (BindingException expected) {
+            Assert.assertTrue(expected.getMessage().contains("no ResultHandler"));
+        }
+        try {
+            mapper.sorted();
+            Assert.fail("SortedSet 无法由查询结果创建");
+        } catch (BindingException expected) {
+            Assert.assertTrue(expected.getMessage().contains("SortedSet"));
+        }
+        Assert.assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void test_methodCacheSharedAcrossProxies() {
+        SqlSession session = recordingSession();
+        session.getMapper(ArticleMapper.class).byId(1L);
+        //调用计划已缓存，之后不再按 id 查找语句
+        configuration.getMapperElement().remove(ArticleMapper.class.getName() + ".byId");
+        session.getMapper(ArticleMapper.class).byId(2L);
+        Assert.assertEquals(2L, lastCall()[2]);
+        configuration.getMapperElement().remove(ArticleMapper.class.getName() + ".byUnnamed");
+        try {
+            session.getMapper(ArticleMapper.class).byUnnamed("a", 1L);
+            Assert.fail("未调用过的方法在首次调用时查找语句");
+        } catch (BindingException expected) {
+            Assert.assertTrue(expected.getMessage().contains(".byUnnamed"));
+        }
+    }
+
+    @Test
+    public void test_defaultSessionUsesResolvedStatement() {
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(
+                new String[]{"id", "title"}, new Object[]{2L, "b"}, new Object[]{1L, "a"}));
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            ArticleMapper mapper = session.getMapper(ArticleMapper.class);
+            List<Article> articles = mapper.list(5L, null);
+            Assert.assertEquals("b", articles.get(0).getTitle());
+            Assert.assertEquals(2, mapper.collection().size());
+        }
+    }
+}
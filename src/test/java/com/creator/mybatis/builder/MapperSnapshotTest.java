@@ -0,0 +1,141 @@
+package com.creator.mybatis.builder;
+
+import com.creator.mybatis.builder.xml.MapperResource;
+import com.creator.mybatis.cache.CacheBuilder;
+import com.creator.mybatis.parsing.XNode;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MapperSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String SCRIPT = "<select id=\"byTitle\"><if test=\"title != null\">WHERE title = #{title}</if></select>";
+
+    private static byte[] checksum(String content) throws Exception {
+        List<MapperResource> resources = Collections.singletonList(
+                new MapperResource("Article.xml", content.getBytes(StandardCharsets.UTF_8)));
+        return MapperSnapshot.checksum(MapperSnapshot.readAll(resources));
+    }
+
+    private static MapperSnapshot snapshot(byte[] checksum) {
+        XNode plain = new XNode();
+        plain.setNamespace("article");
+        plain.setId("byId");
+        plain.setResource("Article.xml");
+        plain.setParameterType("java.lang.Long");
+        plain.setResultType("com.creator.mybatis.Article");
+        plain.setSql("SELECT * FROM article WHERE id = ? AND category_id = ?");
+        Map<Integer, String> parameter = new HashMap<>();
+        parameter.put(1, "id");
+        parameter.put(2, "categoryId");
+        plain.setParameter(parameter);
+        plain.setFetchSize(500);
+        plain.setPruneColumns(false);
+        plain.setUseCache(true);
+
+        XNode dynamic = new XNode();
+        dynamic.setNamespace("article");
+        dynamic.setId("byTitle");
+        dynamic.setResultType("com.creator.mybatis.Article");
+        dynamic.setParameter(new HashMap<>());
+        dynamic.setTimeout(3);
+        dynamic.setUseCache(false);
+        dynamic.setScript(SCRIPT);
+
+        Map<String, CacheBuilder> cacheBuilders = new LinkedHashMap<>();
+        cacheBuilders.put("article", new CacheBuilder("article").eviction("LRU").size(64).flushInterval(60000L));
+        return new MapperSnapshot(checksum, new ArrayList<>(Arrays.asList(plain, dynamic)), cacheBuilders);
+    }
+
+    @Test
+    public void test_roundTrip() throws Exception {
+        byte[] checksum = checksum("<mapper namespace=\"article\"/>");
+        Path file = folder.getRoot().toPath().resolve("snapshot/mapper.bin");
+        snapshot(checksum).write(file);
+
+        MapperSnapshot read = MapperSnapshot.read(file, checksum);
+        Assert.assertNotNull(read);
+        Assert.assertEquals(2, read.getStatements().size());
+
+        XNode plain = read.getStatements().get(0);
+        Assert.assertEquals("article", plain.getNamespace());
+        Assert.assertEquals("byId", plain.getId());
+        Assert.assertEquals("Article.xml", plain.getResource());
+        Assert.assertEquals("java.lang.Long", plain.getParameterType());
+        Assert.assertEquals("com.creator.mybatis.Article", plain.getResultType());
+        Assert.assertEquals("SELECT * FROM article WHERE id = ? AND category_id = ?", plain.getSql());
+        Assert.assertEquals("id", plain.getParameter().get(1));
+        Assert.assertEquals("categoryId", plain.getParameter().get(2));
+        Assert.assertEquals(Integer.valueOf(500), plain.getFetchSize());
+        Assert.assertNull(plain.getTimeout());
+        Assert.assertEquals(Boolean.FALSE, plain.getPruneColumns());
+        Assert.assertTrue(plain.isUseCache());
+        Assert.assertNull(plain.getSqlSource());
+
+        XNode dynamic = read.getStatements().get(1);
+        Assert.assertNull(dynamic.getResource());
+        Assert.assertNull(dynamic.getSql());
+        Assert.assertTrue(dynamic.getParameter().isEmpty());
+        Assert.assertNull(dynamic.getFetchSize());
+        Assert.assertEquals(Integer.valueOf(3), dynamic.getTimeout());
+        Assert.assertNull("未设置时保持为空，沿用全局配置", dynamic.getPruneColumns());
+        Assert.assertFalse(dynamic.isUseCache());
+        Assert.assertEquals(SCRIPT, dynamic.getScript());
+        Assert.assertNotNull("动态语句按原始 XML 重新构建", dynamic.getSqlSource());
+
+        CacheBuilder cacheBuilder = read.getCacheBuilders().get("article");
+        Assert.assertEquals("LRU", cacheBuilder.getEviction());
+        Assert.assertEquals(64, cacheBuilder.getSize());
+        Assert.assertEquals(Long.valueOf(60000L), cacheBuilder.getFlushInterval());
+        Assert.assertEquals("STRONG", cacheBuilder.getReferences());
+
+        read.attachCaches();
+        Assert.assertNotNull(plain.getCache());
+        Assert.assertNull(dynamic.getCache());
+    }
+
+    @Test
+    public void test_rejectChangedChecksum() throws Exception {
+        byte[] checksum = checksum("<mapper namespace=\"article\"/>");
+        Path file = folder.getRoot().toPath().resolve("mapper.bin");
+        snapshot(checksum).write(file);
+
+        byte[] changed = checksum("<mapper namespace=\"article\"> </mapper>");
+        Assert.assertFalse(Arrays.equals(checksum, changed));
+        Assert.assertNull("mapper.xml 内容变化后不使用快照", MapperSnapshot.read(file, changed));
+        Assert.assertNotNull(MapperSnapshot.read(file, checksum));
+    }
+
+    @Test
+    public void test_rejectVersionMismatch() throws Exception {
+        byte[] checksum = checksum("<mapper namespace=\"article\"/>");
+        Path file = folder.getRoot().toPath().resolve("mapper.bin");
+        snapshot(checksum).write(file);
+
+        //文件头依次为 MAGIC 与 VERSION，各占 4 字节
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            int version = raf.readInt();
+            raf.seek(4);
+            raf.writeInt(version - 1);
+        }
+        Assert.assertNull("旧版本格式的快照不使用", MapperSnapshot.read(file, checksum));
+
+        Assert.assertNull("文件不存在时返回 null", MapperSnapshot.read(folder.getRoot().toPath().resolve("missing.bin"), checksum));
+    }
+}
@@ -0,0 +1,165 @@
+package com.creator.mybatis.builder.xml;
+
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyMapperIndexTest {
+
+    /**
+     * 记录每个资源被打开的次数，建立索引时打开一次，完整解析时再打开一次
+     */
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private MapperResource mapper(String description, String namespace, String... ids) {
+        return mapper(description, namespace, false, ids);
+    }
+
+    private MapperResource mapper(String description, String namespace, boolean cache, String... ids) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<mapper namespace=\"" + namespace + "\">\n");
+        if (cache) {
+            xml.append("  <cache eviction=\"LRU\" size=\"16\"/>\n");
+        }
+        for (String id : ids) {
+            xml.append("  <select id=\"").append(id).append("\" resultType=\"com.creator.mybatis.Article\">SELECT * FROM article</select>\n");
+        }
+        xml.append("</mapper>\n");
+        byte[] content = xml.toString().getBytes(StandardCharsets.UTF_8);
+        return new MapperResource(description, () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        });
+    }
+
+    private Configuration configuration(MapperResource... resources) {
+        Configuration configuration = new Configuration();
+        configuration.setMapperElement(new ConcurrentHashMap<>());
+        configuration.setLazyMapperIndex(LazyMapperIndex.build(Arrays.asList(resources)));
+        return configuration;
+    }
+
+    @Test
+    public void test_loadOnFirstUse() {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", "one", "two"), mapper("b.xml", "ns.b", "one"));
+        LazyMapperIndex index = configuration.getLazyMapperIndex();
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(0, index.loadedCount());
+        Assert.assertTrue("建立索引时不注册语句", configuration.getMapperElement().isEmpty());
+
+        XNode one = configuration.getMappedStatement("ns.a.one");
+        Assert.assertNotNull(one);
+        Assert.assertEquals("ns.a", one.getNamespace());
+        Assert.assertNotNull("同一文件的语句一起注册", configuration.getMapperElement().get("ns.a.two"));
+        Assert.assertEquals(1, index.loadedCount());
+        Assert.assertEquals(2, configuration.getMapperElement().size());
+
+        Assert.assertNull("已加载的命名空间中不存在的语句", configuration.getMappedStatement("ns.a.missing"));
+        Assert.assertNull("未知的命名空间", configuration.getMappedStatement("ns.c.one"));
+        Assert.assertEquals("2 次建立索引 + 1 次解析", 3, opened.get());
+    }
+
+    @Test
+    public void test_loadOnceUnderConcurrency() throws Exception {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", "one", "two"));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<XNode>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String id = i % 2 == 0 ? "ns.a.one" : "ns.a.two";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return configuration.getMappedStatement(id);
+                }));
+            }
+            start.countDown();
+            for (Future<XNode> future : futures) {
+                Assert.assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals("1 次建立索引 + 1 次解析", 2, opened.get());
+        Assert.assertEquals(1, configuration.getLazyMapperIndex().loadedCount());
+        Assert.assertEquals(2, configuration.getMapperElement().size());
+    }
+
+    @Test
+    public void test_duplicateIdFailsWithoutPartialRegistration() {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", "one", "two"), mapper("a2.xml", "ns.a", "three", "one"));
+        BuilderException first = null;
+        for (String id : Arrays.asList("ns.a.one", "ns.a.two", "ns.a.three")) {
+            try {
+                configuration.getMappedStatement(id);
+                Assert.fail("重复的 id 不能注册");
+            } catch (BuilderException expected) {
+                Assert.assertEquals("Error loading mapper namespace ns.a", expected.getMessage());
+                Assert.assertTrue(expected.getCause().getMessage().contains("ns.a.one"));
+                if (null == first) {
+                    first = expected;
+                } else {
+                    Assert.assertSame("之后的请求以同一原因失败", first.getCause(), expected.getCause());
+                }
+            }
+        }
+        Assert.assertTrue("失败时不留下部分注册的语句", configuration.getMapperElement().isEmpty());
+        Assert.assertEquals(0, configuration.getLazyMapperIndex().loadedCount());
+        Assert.assertEquals("失败后不再重复解析", 4, opened.get());
+    }
+
+    @Test
+    public void test_conflictWithRegisteredStatementRollsBack() {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", "one", "two"));
+        XNode existing = new XNode();
+        existing.setNamespace("ns.a");
+        existing.setId("two");
+        configuration.getMapperElement().put("ns.a.two", existing);
+        try {
+            configuration.getMappedStatement("ns.a.one");
+            Assert.fail();
+        } catch (BuilderException expected) {
+            Assert.assertTrue(expected.getCause().getMessage().contains("ns.a.two"));
+        }
+        Assert.assertNull(configuration.getMapperElement().get("ns.a.one"));
+        Assert.assertSame(existing, configuration.getMapperElement().get("ns.a.two"));
+    }
+
+    @Test
+    public void test_oneCachePerNamespace() {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", true, "one"), mapper("a2.xml", "ns.a", "two"));
+        XNode one = configuration.getMappedStatement("ns.a.one");
+        XNode two = configuration.getMappedStatement("ns.a.two");
+        Assert.assertNotNull(one.getCache());
+        Assert.assertSame("同一命名空间的语句共享一个缓存，不论配置在哪个文件", one.getCache(), two.getCache());
+        Assert.assertSame(one.getCache(), configuration.getCache("ns.a"));
+    }
+
+    @Test
+    public void test_rejectSecondCacheInNamespace() {
+        Configuration configuration = configuration(mapper("a.xml", "ns.a", true, "one"), mapper("a2.xml", "ns.a", true, "two"));
+        try {
+            configuration.getMappedStatement("ns.a.one");
+            Assert.fail("同一命名空间只能配置一个 <cache>");
+        } catch (BuilderException expected) {
+            String message = expected.getCause().getMessage();
+            Assert.assertTrue(message, message.contains("a.xml") && message.contains("a2.xml"));
+        }
+        Assert.assertTrue(configuration.getMapperElement().isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package com.creator.mybatis.cache;
+
+import com.creator.mybatis.cache.decorators.StatisticsCache;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+public class CacheBuilderTest {
+
+    @Test
+    public void test_lruEviction() {
+        Cache cache = new CacheBuilder("ns").size(2).build();
+        cache.putObject("a", 1);
+        cache.putObject("b", 2);
+        //访问 a 后，b 成为最久未使用的条目
+        cache.getObject("a");
+        cache.putObject("c", 3);
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertEquals(1, cache.getObject("a"));
+        Assert.assertNull(cache.getObject("b"));
+        Assert.assertEquals(3, cache.getObject("c"));
+    }
+
+    @Test
+    public void test_fifoEviction() {
+        Cache cache = new CacheBuilder("ns").eviction("FIFO").size(2).build();
+        cache.putObject("a", 1);
+        cache.putObject("b", 2);
+        cache.getObject("a");
+        cache.putObject("c", 3);
+        Assert.assertNull(cache.getObject("a"));
+        Assert.assertEquals(2, cache.getObject("b"));
+    }
+
+    @Test
+    public void test_ttlExpiry() throws InterruptedException {
+        Cache cache = new CacheBuilder("ns").flushInterval(50L).build();
+        cache.putObject("a", 1);
+        Assert.assertEquals(1, cache.getObject("a"));
+        Thread.sleep(80);
+        Assert.assertNull(cache.getObject("a"));
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void test_stats() {
+        StatisticsCache cache = new CacheBuilder("ns").build();
+        cache.putObject("a", "value");
+        cache.getObject("a");
+        cache.getObject("b");
+        Assert.assertEquals(1, cache.getStats().getHits());
+        Assert.assertEquals(1, cache.getStats().getMisses());
+        Assert.assertEquals(0.5, cache.getStats().getHitRatio(), 0.0001);
+    }
+
+    /**
+     * 反复 GC 直到弱引用被清除，JVM 不保证 System.gc() 一定回收时跳过测试
+     */
+    private static void collect(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && null != reference.get(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assume.assumeTrue(null == reference.get());
+    }
+
+    @Test
+    public void test_fifoWithWeakReferences() throws InterruptedException {
+        Cache cache = new CacheBuilder("ns").eviction("FIFO").size(3).references("WEAK").build();
+        Object collected = new Object();
+        WeakReference<Object> sentinel = new WeakReference<>(collected);
+        cache.putObject("a", collected);
+        collected = null;
+        Object b = "b-" + System.nanoTime();
+        cache.putObject("b", b);
+        collect(sentinel);
+        //值被回收后重新写入同一个键，不能在 FIFO 的键列表中留下重复项
+        Object a = "a-" + System.nanoTime();
+        Object c = "c-" + System.nanoTime();
+        cache.putObject("a", a);
+        cache.putObject("c", c);
+        Assert.assertSame(a, cache.getObject("a"));
+        Assert.assertSame(b, cache.getObject("b"));
+        Assert.assertSame(c, cache.getObject("c"));
+        Object d = "d-" + System.nanoTime();
+        cache.putObject("d", d);
+        Assert.assertNull("按写入顺序淘汰最早的 a", cache.getObject("a"));
+        Assert.assertSame(b, cache.getObject("b"));
+    }
+
+    @Test
+    public void test_weakReferencesWithTtl() throws InterruptedException {
+        Cache cache = new CacheBuilder("ns").flushInterval(60000L).references("WEAK").build();
+        Object value = "v-" + System.nanoTime();
+        cache.putObject("a", value);
+        Object unreferenced = new Object();
+        WeakReference<Object> sentinel = new WeakReference<>(unreferenced);
+        cache.putObject("b", unreferenced);
+        unreferenced = null;
+        collect(sentinel);
+        Assert.assertSame("弱引用指向仍被使用的值，而不是过期时间的包装对象", value, cache.getObject("a"));
+        Assert.assertNull(cache.getObject("b"));
+    }
+
+    @Test(expected = CacheException.class)
+    public void test_unknownEviction() {
+        new CacheBuilder("ns").eviction("RANDOM").build();
+    }
+}
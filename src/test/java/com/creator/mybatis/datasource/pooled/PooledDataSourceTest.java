@@ -0,0 +1,105 @@
+package com.creator.mybatis.datasource.pooled;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PooledDataSourceTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void test_reuseReturnedConnection() throws SQLException {
+        PooledDataSource dataSource = newPool(2, 1000);
+        Connection first = dataSource.getConnection();
+        first.close();
+        Connection second = dataSource.getConnection();
+        Assert.assertEquals(1, created.get());
+        Assert.assertTrue("旧代理归还后应失效", first.isClosed());
+        Assert.assertFalse(second.isClosed());
+        Assert.assertEquals(1, dataSource.getPoolState().getActiveConnectionCount());
+        second.close();
+        Assert.assertEquals(0, dataSource.getPoolState().getActiveConnectionCount());
+        Assert.assertEquals(1, dataSource.getPoolState().getIdleConnectionCount());
+        Assert.assertEquals(2, dataSource.getPoolState().getRequestCount());
+    }
+
+    @Test
+    public void test_waitTimeoutWhenExhausted() throws SQLException {
+        PooledDataSource dataSource = newPool(1, 50);
+        Connection connection = dataSource.getConnection();
+        try {
+            dataSource.getConnection();
+            Assert.fail("连接池已满时应在等待超时后抛出异常");
+        } catch (SQLException expected) {
+            Assert.assertEquals(1, dataSource.getPoolState().getTimedOutCount());
+            Assert.assertEquals(1, dataSource.getPoolState().getHadToWaitCount());
+            Assert.assertTrue("超时的等待也计入平均等待时间", dataSource.getPoolState().getAverageWaitTime() >= 50);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void test_waiterGetsReturnedConnection() throws Exception {
+        PooledDataSource dataSource = newPool(1, 5000);
+        Connection connection = dataSource.getConnection();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                connection.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        releaser.start();
+        Connection next = dataSource.getConnection();
+        releaser.join();
+        Assert.assertEquals(1, created.get());
+        next.close();
+        dataSource.close();
+    }
+
+    private PooledDataSource newPool(int maxActive, long timeToWait) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("poolMaximumActiveConnections", String.valueOf(maxActive));
+        properties.put("poolTimeToWait", String.valueOf(timeToWait));
+        return new PooledDataSource(stubDataSource(), properties);
+    }
+
+    private DataSource stubDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            if ("getConnection".equals(method.getName())) {
+                created.incrementAndGet();
+                return stubConnection();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Connection stubConnection() {
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package com.creator.mybatis.datasource.rest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用本地 HTTP 服务按顺序回放录制的 _sql 响应
+ */
+public class EsRestTransportTest {
+
+    private static final String COLUMNS = "\"columns\":[{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"title\",\"type\":\"text\"},"
+            + "{\"name\":\"score\",\"type\":\"double\"},{\"name\":\"created\",\"type\":\"datetime\"}]";
+
+    private HttpServer server;
+    private final Deque<String[]> responses = new ArrayDeque<>();
+    private final List<String> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    body.write(buffer, 0, n);
+                }
+                requests.add(exchange.getRequestURI().getPath() + " " + body.toString("UTF-8"));
+            }
+            String[] response = responses.isEmpty() ? new String[]{"200", "{\"succeeded\":true}"} : responses.poll();
+            byte[] bytes = response[1].getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(Integer.parseInt(response[0]), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void reply(String json) {
+        responses.add(new String[]{"200", json});
+    }
+
+    private EsRestDataSource dataSource(String format) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("url", "jdbc:es://127.0.0.1:" + server.getAddress().getPort());
+        properties.put("format", format);
+        return new EsRestDataSource(properties);
+    }
+
+    @Test
+    public void test_followCursor() throws SQLException {
+        reply("{" + COLUMNS + ",\"rows\":[[1,\"first\",1.5,\"2024-01-02T03:04:05.000Z\"],[2,\"second\",null,null]],\"cursor\":\"c1\"}");
+        reply("{\"rows\":[[3,\"third \\\"q\\\"\",3.0,\"2024-01-02T03:04:05.000Z\"]]}");
+        try (Connection connection = dataSource("json").getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM article WHERE id > ? AND title = ?")) {
+            statement.setLong(1, 0L);
+            statement.setString(2, "x\"y");
+            statement.setFetchSize(2);
+            ResultSet resultSet = statement.executeQuery();
+            Assert.assertEquals(Types.BIGINT, resultSet.getMetaData().getColumnType(1));
+            Assert.assertEquals("created", resultSet.getMetaData().getColumnLabel(4));
+            List<Object> ids = new ArrayList<>();
+            while (resultSet.next()) {
+                ids.add(resultSet.getObject(1));
+                if (resultSet.getLong("id") == 1) {
+                    Assert.assertEquals(1.5D, resultSet.getDouble("score"), 0);
+                    Assert.assertEquals(Timestamp.from(java.time.Instant.parse("2024-01-02T03:04:05Z")), resultSet.getTimestamp(4));
+                }
+                if (resultSet.getLong("id") == 2) {
+                    Assert.assertEquals(0D, resultSet.getDouble(3), 0);
+                    Assert.assertTrue(resultSet.wasNull());
+                }
+                if (resultSet.getLong("id") == 3) {
+                    Assert.assertEquals("third \"q\"", resultSet.getString(2));
+                }
+            }
+            Assert.assertEquals(3, ids.size());
+            Assert.assertEquals(3L, ids.get(2));
+        }
+        Assert.assertEquals(2, requests.size());
+        Assert.assertTrue(requests.get(0), requests.get(0).startsWith("/_sql {\"query\":\"SELECT * FROM article WHERE id > ? AND title = ?\""));
+        Assert.assertTrue(requests.get(0), requests.get(0).contains("\"params\":[{\"type\":\"long\",\"value\":0},{\"type\":\"keyword\",\"value\":\"x\\\"y\"}]"));
+        Assert.assertTrue(requests.get(0), requests.get(0).contains("\"fetch_size\":2"));
+        Assert.assertEquals("/_sql {\"cursor\":\"c1\"}", requests.get(1));
+    }
+
+    @Test
+    public void test_columnar() throws SQLException {
+        reply("{" + COLUMNS + ",\"values\":[[1,2],[\"a\",\"b\"],[0.5,null],[null,null]]}");
+        try (Connection connection = dataSource("columnar").getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM article")) {
+            ResultSet resultSet = statement.executeQuery();
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals("a", resultSet.getString("title"));
+            Assert.assertEquals(0.5D, resultSet.getDouble("score"), 0);
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(2, resultSet.getInt(1));
+            Assert.assertNull(resultSet.getObject(3));
+            Assert.assertFalse(resultSet.next());
+        }
+        Assert.assertTrue(requests.get(0), requests.get(0).contains("\"columnar\":true"));
+    }
+
+    @Test
+    public void test_maxRowsClosesCursor() throws SQLException {
+        reply("{" + COLUMNS + ",\"rows\":[[1,\"a\",null,null],[2,\"b\",null,null],[3,\"c\",null,null]],\"cursor\":\"c2\"}");
+        try (Connection connection = dataSource("json").getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM article")) {
+            statement.setMaxRows(2);
+            ResultSet resultSet = statement.executeQuery();
+            Assert.assertTrue(resultSet.next());
+            Assert.assertTrue(resultSet.next());
+            Assert.assertFalse("超过 maxRows 后不再返回", resultSet.next());
+        }
+        Assert.assertEquals(2, requests.size());
+        Assert.assertTrue(requests.get(0), requests.get(0).contains("\"fetch_size\":2"));
+        Assert.assertEquals("/_sql/close {\"cursor\":\"c2\"}", requests.get(1));
+    }
+
+    @Test
+    public void test_errorResponse() throws SQLException {
+        responses.add(new String[]{"400", "{\"error\":{\"root_cause\":[],\"type\":\"verification_exception\","
+                + "\"reason\":\"Found 1 problem\\nline 1:8: Unknown column [nope]\"},\"status\":400}"});
+        try (Connection connection = dataSource("json").getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT nope FROM article")) {
+            statement.executeQuery();
+            Assert.fail("ES 返回错误时应抛出异常");
+        } catch (SQLException e) {
+            Assert.assertEquals("verification_exception", e.getSQLState());
+            Assert.assertEquals(400, e.getErrorCode());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Unknown column [nope]"));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.creator.mybatis.executor;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.cache.CacheBuilder;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.RowBounds;
+import com.creator.mybatis.session.SqlSession;
+import com.creator.mybatis.session.defaults.DefaultSqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CachingExecutorTest {
+
+    private final Configuration configuration = new Configuration();
+    private final XNode statement = StubDatabase.addStatement(configuration, "ns.byCategory", Article.class,
+            "SELECT id, title FROM article WHERE category_id = ?", "categoryId");
+    private final StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(
+            new String[]{"id", "title"}, new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"}));
+
+    public CachingExecutorTest() {
+        statement.setUseCache(true);
+        statement.setCache(new CacheBuilder("ns").build());
+    }
+
+    /**
+     * 每次查询使用新的会话，排除一级缓存的影响
+     */
+    private List<Article> select(Object parameter, RowBounds rowBounds) {
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            return session.selectList("ns.byCategory", parameter, rowBounds);
+        }
+    }
+
+    @Test
+    public void test_hitAcrossSessions() {
+        List<Article> first = select(7L, RowBounds.DEFAULT);
+        first.remove(0);
+        List<Article> second = select(7L, RowBounds.DEFAULT);
+        Assert.assertEquals("第二个会话命中二级缓存", 1, database.getExecutions().size());
+        Assert.assertEquals("调用方的修改不影响缓存", 3, second.size());
+        Assert.assertEquals(1, statement.getCache().getSize());
+    }
+
+    @Test
+    public void test_useCacheFalse() {
+        //useCache="false" 的语句不关联缓存
+        statement.setUseCache(false);
+        statement.setCache(null);
+        select(7L, RowBounds.DEFAULT);
+        select(7L, RowBounds.DEFAULT);
+        Assert.assertEquals(2, database.getExecutions().size());
+    }
+
+    @Test
+    public void test_ttlExpiry() throws InterruptedException {
+        statement.setCache(new CacheBuilder("ns").flushInterval(50L).build());
+        select(7L, RowBounds.DEFAULT);
+        select(7L, RowBounds.DEFAULT);
+        Assert.assertEquals(1, database.getExecutions().size());
+        Thread.sleep(80);
+        select(7L, RowBounds.DEFAULT);
+        Assert.assertEquals("过期后重新查询", 2, database.getExecutions().size());
+    }
+
+    @Test
+    public void test_keyIncludesParameterAndRowBounds() {
+        select(7L, RowBounds.DEFAULT);
+        select(8L, RowBounds.DEFAULT);
+        List<Article> page = select(7L, new RowBounds(1, 1));
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals("b", page.get(0).getTitle());
+        select(7L, new RowBounds(0, 1));
+        Assert.assertEquals(4, database.getExecutions().size());
+
+        Assert.assertEquals("b", select(7L, new RowBounds(1, 1)).get(0).getTitle());
+        Assert.assertEquals(3, select(8L, RowBounds.DEFAULT).size());
+        Assert.assertEquals("相同参数与分页命中缓存", 4, database.getExecutions().size());
+        Assert.assertEquals(4, statement.getCache().getSize());
+    }
+}
@@ -0,0 +1,247 @@
+package com.creator.mybatis.executor;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.cursor.Cursor;
+import com.creator.mybatis.exceptions.QueryTimeoutException;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.Deadline;
+import com.creator.mybatis.session.LocalCacheScope;
+import com.creator.mybatis.session.ResultHandler;
+import com.creator.mybatis.session.RowBounds;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SimpleExecutorTest {
+
+    private final Configuration configuration = new Configuration();
+    private final XNode statement = StubDatabase.addStatement(configuration, "ns.byCategory", Article.class,
+            "SELECT id, title FROM article WHERE category_id = ?", "categoryId");
+    private final StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(
+            new String[]{"id", "title"}, new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"}));
+
+    @Test
+    public void test_localCacheHitReturnsCopy() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        List<Article> first = executor.query(statement, 7L);
+        first.remove(0);
+        List<Article> second = executor.query(statement, 7L);
+        Assert.assertEquals("命中缓存", 1, database.getExecutions().size());
+        Assert.assertEquals("调用方的修改不影响缓存", 3, second.size());
+        Assert.assertNotSame(first, second);
+        second.clear();
+        Assert.assertEquals(3, executor.<Article>query(statement, 7L).size());
+        Assert.assertSame("结果对象本身共用", executor.<Article>query(statement, 7L).get(0), executor.<Article>query(statement, 7L).get(0));
+    }
+
+    @Test
+    public void test_differentParametersAndRowBoundsAreSeparateKeys() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        executor.query(statement, 7L);
+        executor.query(statement, 8L);
+        List<Article> page = executor.query(statement, 7L, new RowBounds(1, 1));
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals("b", page.get(0).getTitle());
+        executor.query(statement, 7L, new RowBounds(1, 1));
+        executor.query(statement, 7L, new RowBounds(0, 1));
+        Assert.assertEquals(4, database.getExecutions().size());
+    }
+
+    @Test
+    public void test_clearLocalCacheAndClose() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        executor.query(statement, 7L);
+        executor.clearLocalCache();
+        executor.query(statement, 7L);
+        Assert.assertEquals(2, database.getExecutions().size());
+        executor.close();
+        SimpleExecutor next = new SimpleExecutor(configuration, database.connection());
+        next.query(statement, 7L);
+        Assert.assertEquals("缓存只在会话内可见", 3, database.getExecutions().size());
+        executor.query(statement, 7L);
+        Assert.assertEquals("关闭时清空缓存", 4, database.getExecutions().size());
+    }
+
+    @Test
+    public void test_statementScopeSkipsCache() throws SQLException {
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        executor.query(statement, 7L);
+        executor.query(statement, 7L);
+        Assert.assertEquals(2, database.getExecutions().size());
+    }
+
+    /**
+     * 执行时先等待 sleepMillis；看门狗的 cancel 在桩连接上不报错，与读取结果时不检查取消的驱动一致
+     */
+    private static StubDatabase slowDatabase(long sleepMillis) {
+        return new StubDatabase((sql, parameters) -> {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return StubDatabase.resultSet(new String[]{"id", "title"}, new Object[]{1L, "a"});
+        });
+    }
+
+    @Test
+    public void test_watchdogCancelIsTimeout() throws SQLException {
+        StubDatabase slow = slowDatabase(300);
+        SimpleExecutor executor = new SimpleExecutor(configuration, slow.connection());
+        long misses = configuration.getStatementCacheStats().getMisses();
+        try (Deadline.Scope ignored = Deadline.after(100, TimeUnit.MILLISECONDS).enter()) {
+            executor.query(statement, 7L);
+            Assert.fail("看门狗取消后结果可能不完整，不能当作成功返回");
+        } catch (QueryTimeoutException expected) {
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("ns.byCategory"));
+        }
+        //被取消的语句已移出缓存，再次执行时重新预编译
+        executor.query(statement, 8L);
+        Assert.assertEquals(misses + 2, configuration.getStatementCacheStats().getMisses());
+        long hits = configuration.getStatementCacheStats().getHits();
+        executor.query(statement, 9L);
+        Assert.assertEquals("正常完成的语句照常复用", hits + 1, configuration.getStatementCacheStats().getHits());
+    }
+
+    @Test
+    public void test_driverTimeoutIsTimeout() throws SQLException {
+        StubDatabase timingOut = new StubDatabase((sql, parameters) -> {
+            throw new SQLTimeoutException("driver timeout");
+        });
+        statement.setTimeout(2);
+        SimpleExecutor executor = new SimpleExecutor(configuration, timingOut.connection());
+        try {
+            executor.query(statement, 7L);
+            Assert.fail();
+        } catch (QueryTimeoutException expected) {
+            Assert.assertTrue(expected.getCause() instanceof SQLTimeoutException);
+            Assert.assertTrue("没有截止时间时使用语句的 timeout", expected.getMessage().endsWith("after 2000ms"));
+        }
+        try (Deadline.Scope ignored = Deadline.after(10, TimeUnit.SECONDS).enter()) {
+            executor.query(statement, 7L);
+            Assert.fail();
+        } catch (QueryTimeoutException expected) {
+            Assert.assertTrue("截止时间更晚时仍使用语句的 timeout", expected.getMessage().endsWith("after 2000ms"));
+        }
+        try (Deadline.Scope ignored = Deadline.after(500, TimeUnit.MILLISECONDS).enter()) {
+            executor.query(statement, 7L);
+            Assert.fail();
+        } catch (QueryTimeoutException expected) {
+            long millis = Long.parseLong(expected.getMessage().replaceAll(".*after (\\d+)ms$", "$1"));
+            Assert.assertTrue("截止时间更早时使用剩余时间: " + millis, millis > 0 && millis <= 500);
+        }
+        Assert.assertEquals(3, timingOut.getExecutions().size());
+    }
+
+    @Test
+    public void test_expiredDeadlineSkipsExecution() throws Exception {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        Deadline deadline = Deadline.after(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+        try (Deadline.Scope ignored = deadline.enter()) {
+            executor.query(statement, 7L);
+            Assert.fail();
+        } catch (QueryTimeoutException expected) {
+            Assert.assertTrue(expected.getMessage().startsWith("Deadline expired"));
+        }
+        Assert.assertTrue(database.getExecutions().isEmpty());
+    }
+
+    @Test
+    public void test_cursor() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        Cursor<Article> cursor = executor.queryCursor(statement, 7L);
+        Assert.assertFalse("尚未开始读取", cursor.isOpen());
+        Assert.assertEquals(-1, cursor.getCurrentIndex());
+        Iterator<Article> iterator = cursor.iterator();
+        Assert.assertTrue(cursor.isOpen());
+        Assert.assertEquals("a", iterator.next().getTitle());
+        Assert.assertEquals(0, cursor.getCurrentIndex());
+        List<String> titles = new ArrayList<>();
+        iterator.forEachRemaining(article -> titles.add(article.getTitle()));
+        Assert.assertEquals(Arrays.asList("b", "c"), titles);
+        Assert.assertTrue(cursor.isConsumed());
+        Assert.assertFalse("读取完所有行后自动关闭", cursor.isOpen());
+        Assert.assertEquals(2, cursor.getCurrentIndex());
+        try {
+            cursor.iterator();
+            Assert.fail("一个游标只能打开一个迭代器");
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(Arrays.<Object>asList(7L), database.getExecutions().get(0).parameters);
+    }
+
+    @Test
+    public void test_closeExecutorClosesOpenCursors() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        Cursor<Article> cursor = executor.queryCursor(statement, 7L);
+        Iterator<Article> iterator = cursor.iterator();
+        iterator.next();
+        executor.close();
+        Assert.assertFalse(cursor.isOpen());
+        Assert.assertFalse(cursor.isConsumed());
+        Assert.assertFalse("关闭后不再读取", iterator.hasNext());
+    }
+
+    @Test
+    public void test_resultHandler() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        List<String> titles = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        executor.query(statement, 7L, (ResultHandler<Article>) context -> {
+            titles.add(context.getResultObject().getTitle());
+            counts.add(context.getResultCount());
+        });
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), titles);
+        Assert.assertEquals(Arrays.asList(1, 2, 3), counts);
+
+        titles.clear();
+        executor.query(statement, 7L, new RowBounds(1, 5), (ResultHandler<Article>) context -> titles.add(context.getResultObject().getTitle()));
+        Assert.assertEquals(Arrays.asList("b", "c"), titles);
+        Assert.assertEquals("ResultHandler 不经过一级缓存", 2, database.getExecutions().size());
+    }
+
+    @Test
+    public void test_resultHandlerStop() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        List<String> titles = new ArrayList<>();
+        executor.query(statement, 7L, (ResultHandler<Article>) context -> {
+            titles.add(context.getResultObject().getTitle());
+            if (context.getResultCount() == 2) {
+                context.stop();
+            }
+        });
+        Assert.assertEquals("stop 之后不再处理后续的行", Arrays.asList("a", "b"), titles);
+    }
+
+    @Test
+    public void test_fetchSize() throws SQLException {
+        SimpleExecutor executor = new SimpleExecutor(configuration, database.connection());
+        executor.query(statement, 1L);
+        configuration.setDefaultFetchSize(100);
+        executor.query(statement, 2L);
+        statement.setFetchSize(500);
+        executor.query(statement, 3L);
+        executor.query(statement, 4L, new RowBounds(0, 10));
+        executor.queryCursor(statement, 5L).close();
+        executor.query(statement, 6L, (ResultHandler<Article>) context -> {
+        });
+        List<StubDatabase.Execution> executions = database.getExecutions();
+        Assert.assertEquals("未配置时为驱动默认值", 0, executions.get(0).fetchSize);
+        Assert.assertEquals("全局默认值", 100, executions.get(1).fetchSize);
+        Assert.assertEquals("语句的 fetchSize 优先", 500, executions.get(2).fetchSize);
+        Assert.assertEquals("不超过 RowBounds 的行数", 10, executions.get(3).fetchSize);
+        Assert.assertEquals("游标", 500, executions.get(4).fetchSize);
+        Assert.assertEquals("ResultHandler", 500, executions.get(5).fetchSize);
+    }
+}
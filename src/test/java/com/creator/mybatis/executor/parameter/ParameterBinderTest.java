@@ -0,0 +1,162 @@
+package com.creator.mybatis.executor.parameter;
+
+import com.creator.mybatis.reflection.ReflectionException;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import com.creator.mybatis.type.TypeHandlerRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ParameterBinderTest {
+
+    public static class Query {
+        private Long id;
+        private String title;
+        private Double score;
+        private Boolean top;
+        private Date createTime;
+        private LocalDateTime updateTime;
+        private Object extra;
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public Double getScore() {
+            return score;
+        }
+
+        public Boolean getTop() {
+            return top;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+
+        public LocalDateTime getUpdateTime() {
+            return updateTime;
+        }
+
+        public Object getExtra() {
+            return extra;
+        }
+    }
+
+    private final ReflectorFactory reflectorFactory = new ReflectorFactory();
+    private final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
+    /**
+     * 记录 PreparedStatement 上调用的 set 方法、下标与值
+     */
+    private final List<String> calls = new ArrayList<>();
+    private final PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                calls.add(method.getName() + "(" + args[0] + ", " + args[1] + ")");
+                return null;
+            });
+
+    private static Map<Integer, String> parameters(String... names) {
+        Map<Integer, String> parameterMap = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            parameterMap.put(i + 1, names[i]);
+        }
+        return parameterMap;
+    }
+
+    private ParameterBinder compile(Map<Integer, String> parameterMap, Object parameter) {
+        return ParameterBinder.compile(parameterMap, null == parameter ? null : parameter.getClass(), reflectorFactory, typeHandlerRegistry);
+    }
+
+    @Test
+    public void test_singleValue() throws SQLException {
+        Map<Integer, String> parameterMap = parameters("id", "parentId");
+        compile(parameterMap, 7L).bind(statement, 7L);
+        Assert.assertEquals("单个参数用于所有占位符", Arrays.asList("setLong(1, 7)", "setLong(2, 7)"), calls);
+
+        calls.clear();
+        compile(parameterMap, "a").bind(statement, "a");
+        compile(parameters("id"), 3).bind(statement, 3);
+        Assert.assertEquals(Arrays.asList("setString(1, a)", "setString(2, a)", "setInt(1, 3)"), calls);
+
+        calls.clear();
+        compile(parameterMap, null).bind(statement, null);
+        Assert.assertEquals(Arrays.asList("setNull(1, " + Types.NULL + ")", "setNull(2, " + Types.NULL + ")"), calls);
+    }
+
+    @Test
+    public void test_beanProperties() throws SQLException {
+        Query query = new Query();
+        query.id = 1L;
+        query.title = "t";
+        query.score = 0.5;
+        query.top = true;
+        query.createTime = new Date(1000L);
+        query.updateTime = LocalDateTime.of(2020, 1, 2, 3, 4, 5);
+        query.extra = 9L;
+        ParameterBinder binder = compile(parameters("id", "title", "score", "top", "createTime", "updateTime", "extra", "id"), query);
+        binder.bind(statement, query);
+        Assert.assertEquals(Arrays.asList(
+                "setLong(1, 1)",
+                "setString(2, t)",
+                "setDouble(3, 0.5)",
+                "setBoolean(4, true)",
+                "setTimestamp(5, " + new Timestamp(1000L) + ")",
+                "setTimestamp(6, " + Timestamp.valueOf(query.updateTime) + ")",
+                "setLong(7, 9)",
+                "setLong(8, 1)"), calls);
+        Assert.assertArrayEquals(new Object[]{1L, "t", 0.5, true, query.createTime, query.updateTime, 9L, 1L}, binder.values(query));
+    }
+
+    @Test
+    public void test_nullProperties() throws SQLException {
+        Query query = new Query();
+        compile(parameters("id", "title", "createTime", "extra"), query).bind(statement, query);
+        Assert.assertEquals("null 按属性类型调用 setNull", Arrays.asList(
+                "setNull(1, " + Types.BIGINT + ")",
+                "setNull(2, " + Types.VARCHAR + ")",
+                "setNull(3, " + Types.TIMESTAMP + ")",
+                "setNull(4, " + Types.NULL + ")"), calls);
+    }
+
+    @Test
+    public void test_mapParameter() throws SQLException {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("id", 2L);
+        parameter.put("score", 1.5);
+        parameter.put("time", LocalDateTime.of(2020, 1, 2, 3, 4, 5));
+        ParameterBinder binder = compile(parameters("id", "score", "time", "missing"), parameter);
+        binder.bind(statement, parameter);
+        Assert.assertEquals("Map 的值按实际类型绑定，缺少的键为 null", Arrays.asList(
+                "setLong(1, 2)",
+                "setDouble(2, 1.5)",
+                "setTimestamp(3, " + Timestamp.valueOf((LocalDateTime) parameter.get("time")) + ")",
+                "setNull(4, " + Types.NULL + ")"), calls);
+    }
+
+    @Test
+    public void test_missingProperty() {
+        try {
+            compile(parameters("id", "nope"), new Query());
+            Assert.fail();
+        } catch (ReflectionException expected) {
+            Assert.assertTrue(expected.getMessage().contains("'nope'"));
+            Assert.assertTrue(expected.getMessage().contains(Query.class.getName()));
+        }
+    }
+}
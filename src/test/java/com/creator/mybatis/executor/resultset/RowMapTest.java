@@ -0,0 +1,69 @@
+package com.creator.mybatis.executor.resultset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RowMapTest {
+
+    private static final String[] COLUMNS = {"id", "title", "_rn", "score", "title"};
+
+    private static ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(RowMapTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return COLUMNS.length;
+                case "getColumnName":
+                    return COLUMNS[(Integer) args[0] - 1];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static ResultSet row(Object... values) {
+        return (ResultSet) Proxy.newProxyInstance(RowMapTest.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            if ("getObject".equals(method.getName())) {
+                return values[(Integer) args[0] - 1];
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    public void test_mapRows() throws SQLException {
+        RowMappingPlan plan = RowMappingPlan.buildMap(metaData());
+        Assert.assertEquals(Map.class, plan.getResultType());
+        Map<String, Object> first = plan.mapRow(row(1L, "a", 1, 0.5, "dup"));
+        Map<String, Object> second = plan.mapRow(row(2L, null, 2, 0.7, "dup"));
+        Assert.assertEquals("列名重复时保留第一列", 3, first.size());
+        Assert.assertEquals("a", first.get("title"));
+        Assert.assertEquals(0.5, first.get("score"));
+        Assert.assertFalse("与映射为对象时一样跳过 _ 开头的列", first.containsKey("_rn"));
+        Assert.assertNull(first.get("missing"));
+        Assert.assertTrue("NULL 值的列仍然存在", second.containsKey("title"));
+        Assert.assertNull(second.get("title"));
+        Assert.assertEquals("x", second.getOrDefault("missing", "x"));
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", 1L);
+        expected.put("title", "a");
+        expected.put("score", 0.5);
+        Assert.assertEquals(expected, first);
+        Assert.assertEquals(expected.hashCode(), first.hashCode());
+        Assert.assertEquals(new HashMap<>(first), first);
+        Assert.assertEquals("[id, title, score]", first.keySet().toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_readOnly() throws SQLException {
+        Map<String, Object> row = RowMappingPlan.buildMap(metaData()).mapRow(row(1L, "a", 1, 0.5, "dup"));
+        row.put("id", 2L);
+    }
+}
@@ -0,0 +1,49 @@
+package com.creator.mybatis.executor.statement;
+
+import com.creator.mybatis.parsing.XNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class KeysetRewriterTest {
+
+    private static XNode statement(String sql, String... names) {
+        XNode xNode = new XNode();
+        xNode.setNamespace("ns");
+        xNode.setId("q");
+        xNode.setSql(sql);
+        Map<Integer, String> parameter = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            parameter.put(i + 1, names[i]);
+        }
+        xNode.setParameter(parameter);
+        return xNode;
+    }
+
+    @Test
+    public void test_seekWrapsExistingWhere() {
+        XNode shape = KeysetRewriter.rewrite(statement(
+                "SELECT id FROM article WHERE category_id = ? OR title = 'a?' ORDER BY id LIMIT ?", "categoryId", "limit"),
+                "id", false, true);
+        Assert.assertEquals("SELECT id FROM article WHERE ( category_id = ? OR title = 'a?' ) AND id > ? ORDER BY id LIMIT ?", shape.getSql());
+        Assert.assertEquals("categoryId", shape.getParameter().get(1));
+        Assert.assertEquals(KeysetRewriter.KEYSET_PARAMETER, shape.getParameter().get(2));
+        Assert.assertEquals("limit", shape.getParameter().get(3));
+    }
+
+    @Test
+    public void test_seekAddsWhereAndOrderBy() {
+        XNode shape = KeysetRewriter.rewrite(statement("SELECT id FROM article"), "id", true, true);
+        Assert.assertEquals("SELECT id FROM article WHERE id < ? ORDER BY id DESC", shape.getSql());
+        Assert.assertEquals("SELECT id FROM article ORDER BY id", KeysetRewriter.rewrite(statement("SELECT id FROM article"), "id", false, false).getSql());
+    }
+
+    @Test
+    public void test_nestedWhereIgnored() {
+        XNode shape = KeysetRewriter.rewrite(statement(
+                "SELECT id FROM article WHERE id IN (SELECT id FROM top WHERE x = 1) ORDER BY id"), "id", false, true);
+        Assert.assertEquals("SELECT id FROM article WHERE ( id IN (SELECT id FROM top WHERE x = 1) ) AND id > ? ORDER BY id", shape.getSql());
+    }
+}
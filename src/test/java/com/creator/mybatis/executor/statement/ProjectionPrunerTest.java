@@ -0,0 +1,42 @@
+package com.creator.mybatis.executor.statement;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.reflection.Reflector;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+public class ProjectionPrunerTest {
+
+    private final Reflector reflector = new ReflectorFactory().findForClass(Article.class);
+
+    private static ResultSetMetaData columns(String... names) throws SQLException {
+        return StubDatabase.resultSet(names).getMetaData();
+    }
+
+    @Test
+    public void test_keepOnlyReturnedColumnsWithSetters() throws SQLException {
+        String sql = ProjectionPruner.prune("\n  SELECT *\n FROM article WHERE id = ?", reflector,
+                columns("_id", "id", "category_id", "not_a_property", "title"), true);
+        Assert.assertEquals("\n  SELECT \"id\", \"category_id\", \"title\"\n FROM article WHERE id = ?", sql);
+    }
+
+    @Test
+    public void test_columnsFollowMapUnderscoreToCamelCase() throws SQLException {
+        String sql = ProjectionPruner.prune("select * from article", reflector, columns("id", "categoryId", "category_id"), false);
+        Assert.assertEquals("select \"id\", \"categoryId\" from article", sql);
+    }
+
+    @Test
+    public void test_noRewrite() throws SQLException {
+        ResultSetMetaData metaData = columns("id", "title");
+        Assert.assertEquals("SELECT id, title FROM article", ProjectionPruner.prune("SELECT id, title FROM article", reflector, metaData, true));
+        Assert.assertEquals("SELECT *, id FROM article", ProjectionPruner.prune("SELECT *, id FROM article", reflector, metaData, true));
+        Assert.assertEquals("没有可映射的列时不改写", "SELECT * FROM article",
+                ProjectionPruner.prune("SELECT * FROM article", reflector, columns("_id", "other"), true));
+    }
+}
@@ -0,0 +1,82 @@
+package com.creator.mybatis.executor.statement;
+
+import com.creator.mybatis.StubDatabase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class StatementCacheTest {
+
+    private final StatementCacheStats stats = new StatementCacheStats();
+    private final Connection connection = new StubDatabase((sql, parameters) -> null).connection();
+
+    @Test
+    public void test_hitAndMiss() throws SQLException {
+        StatementCache cache = new StatementCache(2, stats);
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        cache.release(first);
+        Assert.assertFalse("缓存的语句使用后不关闭", first.isClosed());
+        Assert.assertSame(first, cache.prepare(connection, "SELECT 1"));
+        Assert.assertNotSame(first, cache.prepare(connection, "SELECT 2"));
+        Assert.assertEquals(1, stats.getHits());
+        Assert.assertEquals(2, stats.getMisses());
+        Assert.assertEquals(2, cache.size());
+
+        first.close();
+        Assert.assertNotSame("已关闭的语句重新创建", first, cache.prepare(connection, "SELECT 1"));
+        Assert.assertEquals(3, stats.getMisses());
+    }
+
+    @Test
+    public void test_lruEvictionClosesEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(2, stats);
+        PreparedStatement one = cache.prepare(connection, "SELECT 1");
+        PreparedStatement two = cache.prepare(connection, "SELECT 2");
+        //访问 SELECT 1 之后最久未使用的是 SELECT 2
+        cache.prepare(connection, "SELECT 1");
+        cache.prepare(connection, "SELECT 3");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, stats.getEvictions());
+        Assert.assertTrue(two.isClosed());
+        Assert.assertFalse(one.isClosed());
+        Assert.assertSame(one, cache.prepare(connection, "SELECT 1"));
+
+        cache.close();
+        Assert.assertTrue(one.isClosed());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void test_invalidate() throws SQLException {
+        StatementCache cache = new StatementCache(2, stats);
+        PreparedStatement statement = cache.prepare(connection, "SELECT 1");
+        cache.invalidate("SELECT 1", statement);
+        Assert.assertTrue(statement.isClosed());
+        Assert.assertEquals(0, cache.size());
+
+        PreparedStatement cached = cache.prepare(connection, "SELECT 1");
+        PreparedStatement other = connection.prepareStatement("SELECT 1");
+        cache.invalidate("SELECT 1", other);
+        Assert.assertTrue("本次使用的语句总是关闭", other.isClosed());
+        Assert.assertFalse("缓存中的不是同一个实例时保留", cached.isClosed());
+        Assert.assertSame(cached, cache.prepare(connection, "SELECT 1"));
+    }
+
+    @Test
+    public void test_disabled() throws SQLException {
+        StatementCache cache = new StatementCache(0, stats);
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        cache.release(first);
+        Assert.assertTrue("未缓存的语句使用后关闭", first.isClosed());
+        PreparedStatement failed = cache.prepare(connection, "SELECT 1");
+        Assert.assertNotSame(first, failed);
+        cache.invalidate("SELECT 1", failed);
+        Assert.assertTrue("出错的语句即使未缓存也要关闭", failed.isClosed());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, stats.getHits());
+        Assert.assertEquals(2, stats.getMisses());
+    }
+}
@@ -0,0 +1,46 @@
+package com.creator.mybatis.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class StatementMetricsRegistryTest {
+
+    private static ExecutionEvent event(String statementId, long executeMillis, int rows, Throwable error) {
+        return new ExecutionEvent(statementId, "SELECT 1", () -> new Object[0],
+                TimeUnit.MICROSECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(executeMillis), TimeUnit.MICROSECONDS.toNanos(200), rows, error);
+    }
+
+    @Test
+    public void test_countsPerStatement() {
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        registry.onExecution(event("ns.a", 1, 10, null));
+        registry.onExecution(event("ns.a", 3, 5, null));
+        registry.onExecution(event("ns.a", 2, 0, new RuntimeException("failed")));
+        registry.onExecution(event("ns.b", 1, 1, null));
+
+        StatementMetrics metrics = registry.get("ns.a");
+        Assert.assertEquals(3, metrics.getExecutions());
+        Assert.assertEquals(1, metrics.getErrors());
+        Assert.assertEquals(15, metrics.getRows());
+        Assert.assertEquals(3, metrics.getExecute().getCount());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(3), metrics.getExecute().getMaxNanos());
+        Assert.assertEquals(2, registry.getAll().size());
+        Assert.assertNull(registry.get("ns.c"));
+    }
+
+    @Test
+    public void test_percentileWithinBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+        long p50 = histogram.getPercentileNanos(0.5);
+        Assert.assertTrue(p50 >= TimeUnit.MICROSECONDS.toNanos(100) && p50 <= TimeUnit.MICROSECONDS.toNanos(200));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), histogram.getPercentileNanos(1.0));
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(0, new LatencyHistogram().getPercentileNanos(0.99));
+    }
+}
@@ -0,0 +1,32 @@
+package com.creator.mybatis.parsing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GenericTokenParserTest {
+
+    @Test
+    public void test_replacePlaceholders() {
+        List<String> names = new ArrayList<>();
+        GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+            names.add(content);
+            return "?";
+        });
+        Assert.assertEquals("SELECT * FROM article WHERE id = ? AND title = ?",
+                parser.parse("SELECT * FROM article WHERE id = #{id} AND title = #{ title }"));
+        Assert.assertEquals("id", names.get(0));
+        Assert.assertEquals("title", names.get(1));
+    }
+
+    @Test
+    public void test_escapedAndUnclosed() {
+        GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> "?");
+        Assert.assertEquals("a #{b} ?", parser.parse("a \\#{b} #{c}"));
+        Assert.assertEquals("a ? #{b", parser.parse("a #{c} #{b"));
+        Assert.assertEquals("no tokens", parser.parse("no tokens"));
+        Assert.assertEquals("", parser.parse(null));
+    }
+}
@@ -0,0 +1,143 @@
+package com.creator.mybatis.reflection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public class ReflectorTest {
+
+    public static class Bean {
+        private long id;
+        private int count;
+        private boolean top;
+        private String name;
+        private String note;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public boolean isTop() {
+            return top;
+        }
+
+        public void setTop(boolean top) {
+            this.top = top;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setName(Object name) {
+            this.name = "object:" + name;
+        }
+    }
+
+    /**
+     * 包内可见的类无法生成 lambda，只能走 MethodHandle
+     */
+    static class Hidden {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public void setBroken(String value) {
+            throw new IllegalStateException(value);
+        }
+    }
+
+    @Test
+    public void test_lambdaAccessors() throws Exception {
+        Method setter = Bean.class.getMethod("setName", String.class);
+        Method getter = Bean.class.getMethod("getName");
+        BiConsumer<Object, Object> set = AccessorGenerator.lambdaSetter(setter);
+        Function<Object, Object> get = AccessorGenerator.lambdaGetter(getter);
+        Assert.assertNotNull(set);
+        Assert.assertNotNull(get);
+        Bean bean = (Bean) AccessorGenerator.constructor(Bean.class).get();
+        set.accept(bean, "a");
+        Assert.assertEquals("a", get.apply(bean));
+    }
+
+    @Test
+    public void test_primitiveSetters() {
+        Reflector reflector = new ReflectorFactory().findForClass(Bean.class);
+        Bean bean = (Bean) reflector.newInstance();
+        reflector.getSetter("id").accept(bean, 42L);
+        reflector.getSetter("count").accept(bean, 7);
+        reflector.getSetter("top").accept(bean, true);
+        Assert.assertEquals(42L, bean.getId());
+        Assert.assertEquals(7, bean.getCount());
+        Assert.assertTrue(bean.isTop());
+        Assert.assertEquals(long.class, reflector.getSetterType("id"));
+        Assert.assertEquals(42L, reflector.getGetter("id").apply(bean));
+        Assert.assertEquals(Boolean.TRUE, reflector.getGetter("top").apply(bean));
+        //重载的 setter 选择与字段类型一致的那个
+        Assert.assertEquals(String.class, reflector.getSetterType("name"));
+        reflector.getSetter("name").accept(bean, "x");
+        Assert.assertEquals("x", bean.getName());
+    }
+
+    @Test
+    public void test_methodHandleFallback() throws Exception {
+        Method setter = Hidden.class.getMethod("setValue", String.class);
+        Method getter = Hidden.class.getMethod("getValue");
+        Assert.assertNull(AccessorGenerator.lambdaSetter(setter));
+        Assert.assertNull(AccessorGenerator.lambdaGetter(getter));
+        Reflector reflector = new ReflectorFactory().findForClass(Hidden.class);
+        Hidden hidden = (Hidden) reflector.newInstance();
+        reflector.getSetter("value").accept(hidden, "v");
+        Assert.assertEquals("v", hidden.getValue());
+        Assert.assertEquals("v", reflector.getGetter("value").apply(hidden));
+    }
+
+    @Test
+    public void test_reflectionFallback() throws Exception {
+        Hidden hidden = new Hidden();
+        AccessorGenerator.reflectiveSetter(Hidden.class.getMethod("setValue", String.class)).accept(hidden, "r");
+        Assert.assertEquals("r", AccessorGenerator.reflectiveGetter(Hidden.class.getMethod("getValue")).apply(hidden));
+        try {
+            AccessorGenerator.reflectiveSetter(Hidden.class.getMethod("setBroken", String.class)).accept(hidden, "b");
+            Assert.fail();
+        } catch (ReflectionException e) {
+            Assert.assertTrue(e.getMessage().contains("setBroken"));
+        }
+    }
+
+    @Test
+    public void test_fieldGetterWithoutMethod() {
+        Reflector reflector = new ReflectorFactory().findForClass(Bean.class);
+        Bean bean = new Bean();
+        bean.note = "n";
+        Assert.assertTrue(reflector.hasGetter("note"));
+        Assert.assertFalse(reflector.hasSetter("note"));
+        Assert.assertEquals(String.class, reflector.getGetterType("note"));
+        Assert.assertEquals("n", reflector.getGetter("note").apply(bean));
+    }
+}
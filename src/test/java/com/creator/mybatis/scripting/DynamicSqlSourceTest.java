@@ -0,0 +1,135 @@
+package com.creator.mybatis.scripting;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.parsing.XNode;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import org.dom4j.DocumentHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class DynamicSqlSourceTest {
+
+    private static final String SCRIPT = "<select id=\"find\">SELECT id FROM article"
+            + "<where><if test=\"id != null\">AND id = #{id}</if>"
+            + "<if test=\"tags != null and tags.size() > 0\">AND tag IN "
+            + "<foreach collection=\"tags\" item=\"t\" open=\"(\" close=\")\" separator=\",\">#{t}</foreach></if></where>"
+            + "<choose><when test=\"isTop == 'Y'\">ORDER BY id DESC</when><otherwise>ORDER BY id</otherwise></choose>"
+            + "</select>";
+
+    private final ReflectorFactory reflectorFactory = new ReflectorFactory();
+
+    private DynamicSqlSource parse() throws Exception {
+        return new XMLScriptBuilder(DocumentHelper.parseText(SCRIPT).getRootElement()).parseScriptNode();
+    }
+
+    private static XNode statement() {
+        XNode xNode = new XNode();
+        xNode.setNamespace("ns");
+        xNode.setId("find");
+        return xNode;
+    }
+
+    @Test
+    public void test_whereIfChoose() throws Exception {
+        Article article = new Article();
+        article.setId(1L);
+        article.setIsTop("Y");
+        BoundSql boundSql = parse().getBoundSql(statement(), article, reflectorFactory);
+        Assert.assertEquals("SELECT id FROM article WHERE id = ? ORDER BY id DESC", boundSql.getXNode().getSql().replaceAll("\\s+", " "));
+        Assert.assertEquals("id", boundSql.getXNode().getParameter().get(1));
+        Assert.assertSame(article, boundSql.getParameterObject());
+
+        boundSql = parse().getBoundSql(statement(), new Article(), reflectorFactory);
+        Assert.assertEquals("SELECT id FROM article ORDER BY id", boundSql.getXNode().getSql().replaceAll("\\s+", " "));
+    }
+
+    @Test
+    public void test_foreachBindsItems() throws Exception {
+        Article article = new Article();
+        article.setTags(Arrays.asList(3L, 4L));
+        BoundSql boundSql = parse().getBoundSql(statement(), article, reflectorFactory);
+        XNode shape = boundSql.getXNode();
+        Assert.assertEquals("SELECT id FROM article WHERE tag IN (?,?) ORDER BY id", shape.getSql().replaceAll("\\s+", " "));
+        Map<?, ?> parameter = (Map<?, ?>) boundSql.getParameterObject();
+        Assert.assertEquals(3L, parameter.get(shape.getParameter().get(1)));
+        Assert.assertEquals(4L, parameter.get(shape.getParameter().get(2)));
+    }
+
+    @Test
+    public void test_shapesAreReused() throws Exception {
+        DynamicSqlSource sqlSource = parse();
+        Article first = new Article();
+        first.setId(1L);
+        Article second = new Article();
+        second.setId(2L);
+        XNode shape = sqlSource.getBoundSql(statement(), first, reflectorFactory).getXNode();
+        Assert.assertSame(shape, sqlSource.getBoundSql(statement(), second, reflectorFactory).getXNode());
+        sqlSource.getBoundSql(statement(), new Article(), reflectorFactory);
+        Assert.assertEquals(2, sqlSource.getShapeCount());
+    }
+
+    @Test
+    public void test_inListPaddedToBucket() throws Exception {
+        DynamicSqlSource sqlSource = new XMLScriptBuilder(DocumentHelper.parseText(
+                "<select id=\"ids\">SELECT id FROM article WHERE id IN (#{ids})</select>").getRootElement()).parseScriptNode();
+        BoundSql boundSql = sqlSource.getBoundSql(statement(), Arrays.asList(1L, 2L, 3L), reflectorFactory, 8);
+        XNode shape = boundSql.getXNode();
+        Assert.assertEquals("SELECT id FROM article WHERE id IN (?,?,?,?)", shape.getSql());
+        Map<?, ?> parameter = (Map<?, ?>) boundSql.getParameterObject();
+        Assert.assertEquals(3L, parameter.get(shape.getParameter().get(3)));
+        Assert.assertEquals(3L, parameter.get(shape.getParameter().get(4)));
+        Assert.assertSame(shape, sqlSource.getBoundSql(statement(), Arrays.asList(5L, 6L, 7L, 8L), reflectorFactory, 8).getXNode());
+        Assert.assertNull(boundSql.getBatches());
+    }
+
+    @Test
+    public void test_inListSplitAboveCap() throws Exception {
+        DynamicSqlSource sqlSource = new XMLScriptBuilder(DocumentHelper.parseText(
+                "<select id=\"ids\">SELECT id FROM article WHERE id IN "
+                        + "<foreach collection=\"list\" item=\"id\" open=\"(\" close=\")\" separator=\",\">#{id}</foreach></select>").getRootElement()).parseScriptNode();
+        BoundSql boundSql = sqlSource.getBoundSql(statement(), Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), reflectorFactory, 4);
+        Assert.assertEquals(2, boundSql.getBatches().size());
+        XNode second = boundSql.getBatches().get(1).getXNode();
+        Assert.assertEquals("SELECT id FROM article WHERE id IN (?,?)", second.getSql().replaceAll("\\s+", " "));
+        Map<?, ?> parameter = (Map<?, ?>) boundSql.getBatches().get(1).getParameterObject();
+        Assert.assertEquals(5L, parameter.get(second.getParameter().get(1)));
+        Assert.assertEquals(6L, parameter.get(second.getParameter().get(2)));
+    }
+
+    @Test
+    public void test_notInListIsNeverSplit() throws Exception {
+        for (String script : Arrays.asList(
+                "<select id=\"ids\">SELECT id FROM article WHERE id NOT IN (#{list})</select>",
+                "<select id=\"ids\">SELECT id FROM article WHERE id not in "
+                        + "<foreach collection=\"list\" item=\"id\" open=\"(\" close=\")\" separator=\",\">#{id}</foreach></select>",
+                "<select id=\"ids\">SELECT id FROM article WHERE id "
+                        + "<foreach collection=\"list\" item=\"id\" open=\"NOT IN (\" close=\")\" separator=\",\">#{id}</foreach></select>")) {
+            DynamicSqlSource sqlSource = new XMLScriptBuilder(DocumentHelper.parseText(script).getRootElement()).parseScriptNode();
+            //一个片段排除的行会被其他片段返回，因此 NOT IN 在一条语句中展开全部值
+            BoundSql boundSql = sqlSource.getBoundSql(statement(), Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), reflectorFactory, 4);
+            Assert.assertNull(script, boundSql.getBatches());
+            XNode shape = boundSql.getXNode();
+            Assert.assertTrue(script, shape.getSql().replaceAll("\\s+", " ").endsWith("(?,?,?,?,?,?)"));
+            Map<?, ?> parameter = (Map<?, ?>) boundSql.getParameterObject();
+            Assert.assertEquals(6L, parameter.get(shape.getParameter().get(6)));
+
+            //不超过上限时与 IN 一样补齐
+            Assert.assertTrue(sqlSource.getBoundSql(statement(), Arrays.asList(1L, 2L, 3L), reflectorFactory, 4)
+                    .getXNode().getSql().endsWith("(?,?,?,?)"));
+            try {
+                sqlSource.getBoundSql(statement(), Collections.emptyList(), reflectorFactory, 4);
+                Assert.fail("NOT IN (NULL) 不返回任何行，空列表不能这样改写");
+            } catch (PersistenceException expected) {
+                Assert.assertTrue(expected.getMessage().contains("NOT IN"));
+            }
+        }
+        DynamicSqlSource in = new XMLScriptBuilder(DocumentHelper.parseText(
+                "<select id=\"ids\">SELECT id FROM article WHERE note = 'NOT' AND id IN (#{list})</select>").getRootElement()).parseScriptNode();
+        Assert.assertTrue(in.getBoundSql(statement(), Collections.emptyList(), reflectorFactory, 4).getXNode().getSql().endsWith("IN (NULL)"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.creator.mybatis.session;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class DeadlineTest {
+
+    @Test
+    public void test_nestedKeepsEarlier() {
+        Deadline outer = Deadline.after(100, TimeUnit.MILLISECONDS);
+        Deadline later = Deadline.after(10, TimeUnit.SECONDS);
+        Deadline earlier = Deadline.after(10, TimeUnit.MILLISECONDS);
+        try (Deadline.Scope ignored = outer.enter()) {
+            try (Deadline.Scope ignored2 = later.enter()) {
+                Assert.assertSame(outer, Deadline.current());
+            }
+            try (Deadline.Scope ignored2 = earlier.enter()) {
+                Assert.assertSame(earlier, Deadline.current());
+            }
+            try (Deadline.Scope ignored2 = Deadline.enter(null)) {
+                Assert.assertSame(outer, Deadline.current());
+            }
+            Assert.assertSame(outer, Deadline.current());
+        }
+        Assert.assertNull(Deadline.current());
+    }
+
+    @Test
+    public void test_expired() throws InterruptedException {
+        Deadline deadline = Deadline.after(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+        Assert.assertTrue(deadline.isExpired());
+        Assert.assertTrue(deadline.remaining(TimeUnit.MILLISECONDS) <= 0);
+        Assert.assertFalse(Deadline.after(1, TimeUnit.MINUTES).isExpired());
+    }
+}
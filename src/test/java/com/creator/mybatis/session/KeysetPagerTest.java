@@ -0,0 +1,116 @@
+package com.creator.mybatis.session;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.session.defaults.DefaultSqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class KeysetPagerTest {
+
+    private static final String STATEMENT = "article.listByCreator";
+
+    private final Configuration configuration = new Configuration();
+    private String keyColumn = "create_by";
+    /**
+     * 按 SQL 中的 seek 条件与排序方向过滤表中的行，行数上限由 setMaxRows 控制
+     */
+    private final StubDatabase database = new StubDatabase((sql, parameters) -> {
+        List<Object[]> rows = new ArrayList<>();
+        for (long createBy = 10; createBy <= 50; createBy += 10) {
+            rows.add(new Object[]{createBy / 10, "t" + createBy, createBy});
+        }
+        if (sql.contains("> ?")) {
+            rows.removeIf(row -> (Long) row[2] <= (Long) parameters.get(0));
+        } else if (sql.contains("< ?")) {
+            rows.removeIf(row -> (Long) row[2] >= (Long) parameters.get(0));
+        }
+        Comparator<Object[]> order = Comparator.comparing(row -> (Long) row[2]);
+        rows.sort(sql.contains("DESC") ? order.reversed() : order);
+        return StubDatabase.resultSet(new String[]{"id", "title", keyColumn}, rows);
+    });
+
+    public KeysetPagerTest() {
+        StubDatabase.addStatement(configuration, STATEMENT, Article.class, "SELECT * FROM article");
+    }
+
+    private static List<Long> keys(List<Article> page) {
+        List<Long> keys = new ArrayList<>();
+        for (Article article : page) {
+            keys.add(article.getCreateBy());
+        }
+        return keys;
+    }
+
+    @Test
+    public void test_firstAndSeekPages() {
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            KeysetPager<Article> pager = new KeysetPager<>(session, STATEMENT, null, "create_by", 2);
+            Assert.assertEquals(Arrays.asList(10L, 20L), keys(pager.nextPage()));
+            Assert.assertEquals("排序键属性由 create_by 推出为 createBy", 20L, pager.getLastKey());
+            Assert.assertTrue(pager.hasNext());
+            Assert.assertEquals(Arrays.asList(30L, 40L), keys(pager.nextPage()));
+
+            List<StubDatabase.Execution> executions = database.getExecutions();
+            Assert.assertTrue(executions.get(0).sql.endsWith("FROM article ORDER BY create_by"));
+            Assert.assertTrue(executions.get(0).parameters.isEmpty());
+            Assert.assertTrue(executions.get(1).sql.endsWith("FROM article WHERE create_by > ? ORDER BY create_by"));
+            Assert.assertEquals(Arrays.<Object>asList(20L), executions.get(1).parameters);
+        }
+    }
+
+    @Test
+    public void test_exhausted() {
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            KeysetPager<Article> pager = new KeysetPager<>(session, STATEMENT, null, "create_by", 2);
+            pager.nextPage();
+            pager.nextPage();
+            Assert.assertEquals("不足一页时结束", Arrays.asList(50L), keys(pager.nextPage()));
+            Assert.assertFalse(pager.hasNext());
+            Assert.assertEquals(50L, pager.getLastKey());
+            Assert.assertTrue(pager.nextPage().isEmpty());
+            Assert.assertEquals("结束后不再查询", 3, database.getExecutions().size());
+        }
+    }
+
+    @Test
+    public void test_descending() {
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            KeysetPager<Article> pager = new KeysetPager<Article>(session, STATEMENT, null, "create_by", 2).descending();
+            Assert.assertEquals(Arrays.asList(50L, 40L), keys(pager.nextPage()));
+            Assert.assertEquals(Arrays.asList(30L, 20L), keys(pager.nextPage()));
+            Assert.assertTrue(database.getExecutions().get(1).sql.endsWith("WHERE create_by < ? ORDER BY create_by DESC"));
+        }
+    }
+
+    @Test
+    public void test_startAfter() {
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            KeysetPager<Article> pager = new KeysetPager<Article>(session, STATEMENT, null, "create_by", 2).startAfter(30L);
+            Assert.assertEquals("第一次查询即带 seek 条件", Arrays.asList(40L, 50L), keys(pager.nextPage()));
+            Assert.assertEquals(Arrays.<Object>asList(30L), database.getExecutions().get(0).parameters);
+            Assert.assertTrue("恰好满页时下一页为空才结束", pager.hasNext());
+            Assert.assertTrue(pager.nextPage().isEmpty());
+            Assert.assertFalse(pager.hasNext());
+            Assert.assertEquals("空页不改变位置", 50L, pager.getLastKey());
+        }
+    }
+
+    @Test
+    public void test_keyPropertyFollowsRowMapping() {
+        configuration.setMapUnderscoreToCamelCase(false);
+        keyColumn = "CreateBy";
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            //关闭下划线转换时，排序键与行映射一样只把首字母转为小写
+            KeysetPager<Article> pager = new KeysetPager<>(session, STATEMENT, null, "CreateBy", 2);
+            Assert.assertEquals(Arrays.asList(10L, 20L), keys(pager.nextPage()));
+            Assert.assertEquals(20L, pager.getLastKey());
+            Assert.assertEquals(Arrays.asList(30L, 40L), keys(pager.nextPage()));
+        }
+    }
+}
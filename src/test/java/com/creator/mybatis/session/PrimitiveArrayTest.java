@@ -0,0 +1,72 @@
+package com.creator.mybatis.session;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class PrimitiveArrayTest {
+
+    @Test
+    public void test_growAndTrim() {
+        LongArray array = new LongArray(1);
+        for (long i = 0; i < 1000; i++) {
+            array.add(i * 3);
+        }
+        Assert.assertEquals(1000, array.size());
+        Assert.assertEquals(2997L, array.get(999));
+        long[] values = array.toArray();
+        Assert.assertEquals(1000, values.length);
+        Assert.assertEquals(300L, values[100]);
+        Assert.assertFalse("没有空值时不创建位图", array.hasNulls());
+        Assert.assertNull(array.getNulls());
+    }
+
+    @Test
+    public void test_readNullsFromResultSet() throws SQLException {
+        Object[] column = {7, null, 0, 2.5};
+        int[] row = {-1};
+        Object[] last = new Object[1];
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++row[0] < column.length;
+                case "wasNull":
+                    return null == last[0];
+                case "getDouble":
+                    last[0] = column[row[0]];
+                    return null == last[0] ? 0D : ((Number) last[0]).doubleValue();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        DoubleArray array = new DoubleArray();
+        while (resultSet.next()) {
+            array.readFrom(resultSet, 1);
+        }
+        Assert.assertEquals(4, array.size());
+        Assert.assertTrue(array.isNull(1));
+        Assert.assertFalse("0 不是空值", array.isNull(2));
+        Assert.assertEquals(0D, array.get(1), 0);
+        Assert.assertEquals(2.5D, array.get(3), 0);
+        Assert.assertEquals(1, array.getNulls().cardinality());
+        Assert.assertEquals("[7.0, null, 0.0, 2.5]", array.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_indexBeyondSize() {
+        IntArray array = new IntArray();
+        array.add(1);
+        array.get(1);
+    }
+
+    @Test
+    public void test_forType() {
+        Assert.assertTrue(PrimitiveArray.forType(long[].class) instanceof LongArray);
+        Assert.assertTrue(PrimitiveArray.forType(IntArray.class) instanceof IntArray);
+        Assert.assertTrue(PrimitiveArray.forType(double[].class) instanceof DoubleArray);
+        Assert.assertNull(PrimitiveArray.forType(Long[].class));
+    }
+}
@@ -0,0 +1,69 @@
+package com.creator.mybatis.session;
+
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.builder.BuilderException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class SqlSessionFactoryBuilderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(new String[]{"id"}));
+
+    private void mapper(String file, String namespace, String... ids) throws IOException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<mapper namespace=\"" + namespace + "\">\n");
+        for (String id : ids) {
+            xml.append("  <select id=\"").append(id).append("\" resultType=\"com.creator.mybatis.Article\">SELECT * FROM article</select>\n");
+        }
+        xml.append("</mapper>\n");
+        Files.write(new File(folder.getRoot(), file).toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String searchPath() {
+        return "file:" + folder.getRoot().getAbsolutePath() + "/*.xml";
+    }
+
+    @Test
+    public void test_parseMappers() throws Exception {
+        mapper("a.xml", "ns.a", "one", "two");
+        mapper("b.xml", "ns.b", "one");
+        Configuration configuration = new SqlSessionFactoryBuilder().build(database.connection(), searchPath()).getConfiguration();
+        Assert.assertEquals(3, configuration.getMapperElement().size());
+        Assert.assertNotNull(configuration.getMappedStatement("ns.b.one"));
+    }
+
+    @Test
+    public void test_failedMapperStopsStartup() throws Exception {
+        mapper("a.xml", "ns.a", "one");
+        Files.write(new File(folder.getRoot(), "b.xml").toPath(), "<mapper namespace=\"ns.b\"><select".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(folder.getRoot(), "c.xml").toPath(), "not xml".getBytes(StandardCharsets.UTF_8));
+        try {
+            new SqlSessionFactoryBuilder().build(database.connection(), searchPath());
+            Assert.fail("mapper 解析失败时不能带着缺失的语句启动");
+        } catch (BuilderException expected) {
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().startsWith("Error parsing mapper"));
+            Assert.assertEquals("其余失败的 mapper 附加为 suppressed", 1, expected.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void test_duplicateStatementId() throws Exception {
+        mapper("a.xml", "ns.a", "one");
+        mapper("b.xml", "ns.a", "one");
+        try {
+            new SqlSessionFactoryBuilder().build(database.connection(), searchPath());
+            Assert.fail();
+        } catch (BuilderException expected) {
+            Assert.assertTrue(expected.getMessage().contains("ns.a.one"));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.creator.mybatis.session.defaults;
+
+import com.creator.mybatis.Article;
+import com.creator.mybatis.StubDatabase;
+import com.creator.mybatis.builder.BuilderException;
+import com.creator.mybatis.builder.xml.LazyMapperIndex;
+import com.creator.mybatis.builder.xml.MapperResource;
+import com.creator.mybatis.exceptions.PersistenceException;
+import com.creator.mybatis.exceptions.TooManyResultsException;
+import com.creator.mybatis.session.Configuration;
+import com.creator.mybatis.session.QueryRequest;
+import com.creator.mybatis.session.QueryResult;
+import com.creator.mybatis.session.SqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultSqlSessionTest {
+
+    private static final String[] COLUMNS = {"id", "title", "category_id", "score"};
+
+    @Test
+    public void test_selectOne() {
+        Configuration configuration = new Configuration();
+        StubDatabase.addStatement(configuration, "ns.byCategory", Article.class, "SELECT * FROM article WHERE category_id = ?", "categoryId");
+        StubDatabase database = new StubDatabase((sql, parameters) -> {
+            long rows = (Long) parameters.get(0);
+            Object[][] values = new Object[(int) rows][];
+            for (int i = 0; i < rows; i++) {
+                values[i] = new Object[]{(long) i, "t" + i, rows, 0.5};
+            }
+            return StubDatabase.resultSet(COLUMNS, values);
+        });
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            Article article = session.selectOne("ns.byCategory", 1L);
+            Assert.assertEquals("t0", article.getTitle());
+            Assert.assertEquals(Long.valueOf(1), article.getCategoryId());
+            Assert.assertNull(session.selectOne("ns.byCategory", 0L));
+            try {
+                session.selectOne("ns.byCategory", 5L);
+                Assert.fail("多于一行时应抛出 TooManyResultsException");
+            } catch (TooManyResultsException expected) {
+                Assert.assertTrue(expected.getMessage().contains("ns.byCategory"));
+            }
+        }
+    }
+
+    @Test
+    public void test_pruneSelectStarAfterFirstExecution() {
+        Configuration configuration = new Configuration();
+        configuration.setPruneSelectStar(true);
+        StubDatabase.addStatement(configuration, "ns.list", Article.class, "SELECT * FROM article");
+        StubDatabase.addStatement(configuration, "ns.maps", Map.class, "SELECT * FROM article");
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(COLUMNS, new Object[]{1L, "a", 2L, 0.5}));
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            for (int i = 0; i < 2; i++) {
+                List<Article> articles = session.selectList("ns.list");
+                Assert.assertEquals(Long.valueOf(2), articles.get(0).getCategoryId());
+                Assert.assertEquals(1, session.<Map<String, Object>>selectList("ns.maps").size());
+                session.clearCache();
+            }
+        }
+        Assert.assertEquals(Arrays.asList(
+                "SELECT * FROM article",
+                "SELECT * FROM article",
+                "SELECT \"id\", \"title\", \"category_id\" FROM article",
+                "SELECT * FROM article"), database.getExecutedSql());
+    }
+
+    @Test
+    public void test_mapUnderscoreToCamelCaseDisabled() {
+        Configuration configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        configuration.setPruneSelectStar(true);
+        StubDatabase.addStatement(configuration, "ns.list", Article.class, "SELECT * FROM article");
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(
+                new String[]{"id", "categoryId", "create_by"}, new Object[]{1L, 2L, 3L}));
+        try (SqlSession session = new DefaultSqlSession(database.connection(), configuration)) {
+            for (int i = 0; i < 2; i++) {
+                Article article = session.<Article>selectList("ns.list").get(0);
+                Assert.assertEquals(Long.valueOf(2), article.getCategoryId());
+                Assert.assertNull("create_by 不转换为 createBy", article.getCreateBy());
+                session.clearCache();
+            }
+        }
+        Assert.assertEquals("SELECT \"id\", \"categoryId\" FROM article", database.getExecutedSql().get(1));
+    }
+
+    @Test
+    public void test_asyncTasksBorrowTheirOwnConnections() throws Exception {
+        int tasks = 3;
+        Configuration configuration = new Configuration();
+        configuration.setAsyncPoolSize(tasks);
+        StubDatabase.addStatement(configuration, "ns.byCategory", Article.class, "SELECT * FROM article WHERE category_id = ?", "categoryId");
+        //所有任务同时停在 executeQuery 中，证明它们在并发执行
+        CyclicBarrier barrier = new CyclicBarrier(tasks);
+        StubDatabase database = new StubDatabase((sql, parameters) -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return StubDatabase.resultSet(COLUMNS, new Object[]{1L, "t", parameters.get(0), 0.5});
+        });
+        configuration.setJdbcDataSource(database.dataSource());
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            List<CompletableFuture<List<Article>>> futures = new ArrayList<>();
+            for (long i = 0; i < tasks - 1; i++) {
+                futures.add(session.selectListAsync("ns.byCategory", i));
+            }
+            CompletableFuture<Article> one = session.selectOneAsync("ns.byCategory", 9L);
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(Long.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS).get(0).getCategoryId());
+            }
+            Assert.assertEquals(Long.valueOf(9), one.get(5, TimeUnit.SECONDS).getCategoryId());
+        } finally {
+            configuration.getAsyncTaskExecutor().shutdown();
+        }
+        Set<Connection> connections = new HashSet<>();
+        for (StubDatabase.Execution execution : database.getExecutions()) {
+            connections.add(execution.connection);
+        }
+        Assert.assertEquals("每个任务使用独立的连接", tasks, connections.size());
+        Assert.assertEquals("会话与每个任务各借出一个连接", tasks + 1, database.getOpenedCount());
+        Assert.assertEquals("全部归还", tasks + 1, database.getClosedCount());
+    }
+
+    @Test
+    public void test_asyncWithoutDataSourceFailsFast() {
+        Configuration configuration = new Configuration();
+        StubDatabase.addStatement(configuration, "ns.list", Article.class, "SELECT * FROM article");
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(COLUMNS));
+        configuration.setConnection(database.connection());
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            try {
+                session.selectListAsync("ns.list");
+                Assert.fail("只有共用连接时不能并发查询");
+            } catch (PersistenceException expected) {
+                Assert.assertTrue(expected.getMessage().contains("DataSource"));
+            }
+        }
+        Assert.assertTrue(database.getExecutions().isEmpty());
+    }
+
+    /**
+     * 延迟加载的配置：ns.good 可以加载，ns.bad 的两个文件中有重复的语句 id
+     */
+    private static Configuration lazyConfiguration(StubDatabase database) {
+        Configuration configuration = new Configuration();
+        configuration.setMapperElement(new ConcurrentHashMap<>());
+        configuration.setLazyMapperIndex(LazyMapperIndex.build(Arrays.asList(
+                mapper("good.xml", "ns.good", "list"), mapper("bad.xml", "ns.bad", "list"), mapper("bad2.xml", "ns.bad", "list"))));
+        configuration.setJdbcDataSource(database.dataSource());
+        return configuration;
+    }
+
+    private static MapperResource mapper(String description, String namespace, String id) {
+        String xml = "<mapper namespace=\"" + namespace + "\"><select id=\"" + id
+                + "\" resultType=\"com.creator.mybatis.Article\">SELECT * FROM article</select></mapper>";
+        return new MapperResource(description, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_asyncLazyLoadFailureCompletesFuture() throws Exception {
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(COLUMNS, new Object[]{1L, "t", 2L, 0.5}));
+        Configuration configuration = lazyConfiguration(database);
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            CompletableFuture<List<Article>> failed = session.selectListAsync("ns.bad.list");
+            try {
+                failed.get(5, TimeUnit.SECONDS);
+                Assert.fail("mapper 加载失败");
+            } catch (ExecutionException expected) {
+                Assert.assertTrue("加载失败由 future 报告，而不是在提交时抛出", expected.getCause() instanceof BuilderException);
+            }
+            Assert.assertEquals(1, session.<Article>selectListAsync("ns.good.list").get(5, TimeUnit.SECONDS).size());
+        } finally {
+            configuration.getAsyncTaskExecutor().shutdown();
+        }
+    }
+
+    @Test
+    public void test_selectAll() throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setAsyncPoolSize(4);
+        StubDatabase.addStatement(configuration, "ns.byCategory", Article.class, "SELECT * FROM article WHERE category_id = ?", "categoryId");
+        StubDatabase database = new StubDatabase((sql, parameters) -> {
+            long categoryId = (Long) parameters.get(0);
+            if (categoryId < 0) {
+                throw new SQLException("bad category " + categoryId);
+            }
+            //先提交的请求最后完成
+            try {
+                Thread.sleep(categoryId * 20);
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return StubDatabase.resultSet(COLUMNS, new Object[]{categoryId, "t", categoryId, 0.5});
+        });
+        configuration.setJdbcDataSource(database.dataSource());
+        List<QueryResult<Object>> results;
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            results = session.selectAll(Arrays.asList(
+                    new QueryRequest("ns.byCategory", 5L),
+                    new QueryRequest("ns.byCategory", -1L),
+                    new QueryRequest("ns.missing"),
+                    new QueryRequest("ns.byCategory", 1L)));
+        } finally {
+            configuration.getAsyncTaskExecutor().shutdown();
+        }
+        Assert.assertEquals(4, results.size());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertEquals(Long.valueOf(5), ((Article) results.get(0).getResults().get(0)).getId());
+        Assert.assertFalse("SQL 出错只影响本条请求", results.get(1).isSuccess());
+        Assert.assertTrue(results.get(1).getError() instanceof PersistenceException);
+        Assert.assertTrue(results.get(1).getError().getCause() instanceof SQLException);
+        Assert.assertFalse(results.get(2).isSuccess());
+        Assert.assertTrue(results.get(2).getError().getMessage().contains("ns.missing"));
+        Assert.assertTrue(results.get(3).isSuccess());
+        Assert.assertEquals(Long.valueOf(1), ((Article) results.get(3).getResults().get(0)).getId());
+        Assert.assertEquals(Long.valueOf(1L), results.get(3).getRequest().getParameter());
+
+        Set<Connection> connections = new HashSet<>();
+        for (StubDatabase.Execution execution : database.getExecutions()) {
+            connections.add(execution.connection);
+        }
+        Assert.assertEquals("每条执行过的请求使用独立的连接", 3, connections.size());
+        Assert.assertEquals(database.getOpenedCount(), database.getClosedCount());
+    }
+
+    @Test
+    public void test_selectAllWithBrokenLazyNamespace() {
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(COLUMNS, new Object[]{1L, "t", 2L, 0.5}));
+        Configuration configuration = lazyConfiguration(database);
+        List<QueryResult<Object>> results;
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            results = session.selectAll(Arrays.asList(
+                    new QueryRequest("ns.good.list"),
+                    new QueryRequest("ns.bad.list"),
+                    new QueryRequest("ns.good.list")));
+        } finally {
+            configuration.getAsyncTaskExecutor().shutdown();
+        }
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertFalse("mapper 加载失败只影响本条请求", results.get(1).isSuccess());
+        Assert.assertTrue(results.get(1).getError() instanceof BuilderException);
+        Assert.assertTrue(results.get(2).isSuccess());
+        Assert.assertEquals(2, database.getExecutions().size());
+        Assert.assertEquals(database.getOpenedCount(), database.getClosedCount());
+    }
+
+    @Test
+    public void test_selectAllWithoutDataSourceFailsFast() {
+        Configuration configuration = new Configuration();
+        StubDatabase database = new StubDatabase((sql, parameters) -> StubDatabase.resultSet(COLUMNS));
+        configuration.setConnection(database.connection());
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            Assert.assertTrue(session.selectAll(new ArrayList<>()).isEmpty());
+            session.selectAll(Arrays.asList(new QueryRequest("ns.list"), new QueryRequest("ns.list")));
+            Assert.fail("只有共用连接时不能并发查询");
+        } catch (PersistenceException expected) {
+            Assert.assertTrue(expected.getMessage().contains("DataSource"));
+        }
+    }
+}
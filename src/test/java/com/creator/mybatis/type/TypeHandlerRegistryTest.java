@@ -0,0 +1,140 @@
+package com.creator.mybatis.type;
+
+import com.creator.mybatis.executor.resultset.RowMappingPlan;
+import com.creator.mybatis.reflection.ReflectorFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class TypeHandlerRegistryTest {
+
+    public enum Status {
+        DRAFT, PUBLISHED
+    }
+
+    public static class Doc {
+        private long id;
+        private Integer views;
+        private Status status;
+        private List<String> tags;
+        private Date createTime;
+        private LocalDateTime updateTime;
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public void setViews(Integer views) {
+            this.views = views;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public void setCreateTime(Date createTime) {
+            this.createTime = createTime;
+        }
+
+        public void setUpdateTime(LocalDateTime updateTime) {
+            this.updateTime = updateTime;
+        }
+    }
+
+    private final TypeHandlerRegistry registry = new TypeHandlerRegistry();
+
+    @Test
+    public void test_resolveByJavaTypeAndJdbcType() {
+        TypeHandler<?> numeric = registry.getTypeHandler(Long.class, JDBCType.BIGINT);
+        Assert.assertSame(numeric, registry.getTypeHandler(Long.class));
+        Assert.assertSame(numeric, registry.getTypeHandler(long.class, JDBCType.OTHER));
+        Assert.assertNotSame("文本列上的数字字段按文本解析", numeric, registry.getTypeHandler(Long.class, JDBCType.VARCHAR));
+        Assert.assertSame("枚举处理器只创建一次", registry.getTypeHandler(Status.class), registry.getTypeHandler(Status.class));
+        Assert.assertSame("子类沿父类查找", registry.getTypeHandler(Date.class), registry.getTypeHandler(new Date() { }.getClass()));
+        Assert.assertNull(registry.getTypeHandler(Doc.class));
+        Assert.assertNull(TypeHandlerRegistry.jdbcType(-1000));
+    }
+
+    @Test
+    public void test_mapRowWithTypedGetters() throws SQLException {
+        String[] names = {"id", "views", "status", "tags", "create_time", "update_time"};
+        int[] types = {Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP};
+        Timestamp time = Timestamp.valueOf("2024-01-02 03:04:05");
+        Object[] values = {" 42 ", null, "PUBLISHED", "es", time, time};
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return names.length;
+                case "getColumnName":
+                    return names[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return types[(Integer) args[0] - 1];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        boolean[] wasNull = {false};
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            if ("wasNull".equals(method.getName())) {
+                return wasNull[0];
+            }
+            Object value = values[(Integer) args[0] - 1];
+            wasNull[0] = null == value;
+            switch (method.getName()) {
+                case "getString":
+                    return value;
+                case "getInt":
+                    return null == value ? 0 : value;
+                case "getTimestamp":
+                case "getObject":
+                    return value;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        RowMappingPlan plan = RowMappingPlan.build(new ReflectorFactory().findForClass(Doc.class), metaData, registry, true);
+        Doc doc = plan.mapRow(resultSet);
+        Assert.assertEquals(42L, doc.id);
+        Assert.assertNull(doc.views);
+        Assert.assertEquals(Status.PUBLISHED, doc.status);
+        Assert.assertEquals(Arrays.asList("es"), doc.tags);
+        Assert.assertSame(time, doc.createTime);
+        Assert.assertEquals(time.toLocalDateTime(), doc.updateTime);
+    }
+
+    @Test
+    public void test_userHandlerOverridesBuiltIn() throws SQLException {
+        registry.register(String.class, JDBCType.VARCHAR, new BaseTypeHandler<String>() {
+            @Override
+            protected void setNonNullParameter(PreparedStatement ps, int i, String parameter) throws SQLException {
+                ps.setString(i, parameter.trim());
+            }
+
+            @Override
+            protected String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+                String value = rs.getString(columnIndex);
+                return null == value ? null : value.trim();
+            }
+        });
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> " padded ");
+        Assert.assertEquals("padded", registry.getTypeHandler(String.class, JDBCType.VARCHAR).getResult(resultSet, 1));
+        Assert.assertEquals(" padded ", registry.getTypeHandler(String.class, JDBCType.CHAR).getResult(resultSet, 1));
+    }
+}